@@ -0,0 +1,103 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.mapper.BookMapper;
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the time taken to write the body of {@code GET /api/books/{id}} for a cached book by mapping it to its
+ * DTO and serializing it, as the controller does by default, with the time taken to copy its JSON from a
+ * {@link JsonResponseCache}. Both write to an output stream like the servlet response's; the book lookup itself is
+ * the same in both and is left out.
+ * The two are JMH benchmarks, run in a forked JVM by the test below, which logs their average times.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonResponseCacheBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonResponseCacheBenchmarkTest.class);
+    private static final int BOOKS = 10_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+    private BookSnapshot[] books;
+    private JsonResponseCache<BookSnapshot> responses;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        books = new BookSnapshot[BOOKS];
+        for (int i = 0; i < BOOKS; i++) {
+            books[i] = new BookSnapshot(i + 1, "Title " + i, "Author " + i % 200, 1900 + i % 120,
+                    String.format("978-%010d", i), i % 3 == 0);
+        }
+        responses = new JsonResponseCache<>("books", BookMapper::toBookDTOResponse, objectMapper,
+                DataSize.ofMegabytes(16));
+    }
+
+    @Benchmark
+    public int serialized() throws IOException {
+        out.reset();
+        objectMapper.writeValue(out, BookMapper.toBookDTOResponse(nextBook()));
+        return out.size();
+    }
+
+    @Benchmark
+    public int cached() throws IOException {
+        out.reset();
+        out.write(responses.get(nextBook()));
+        return out.size();
+    }
+
+    private BookSnapshot nextBook() {
+        next = next + 1 == BOOKS ? 0 : next + 1;
+        return books[next];
+    }
+
+    @Test
+    void compareSerializingEachResponseWithCachedJson() throws RunnerException {
+        Map<String, Double> nanos = new HashMap<>();
+        for (RunResult result : new Runner(new OptionsBuilder()
+                .include(JsonResponseCacheBenchmarkTest.class.getName() + "\\.")
+                .build()).run()) {
+            nanos.put(result.getParams().getBenchmark().replaceAll(".*\\.", ""), result.getPrimaryResult().getScore());
+        }
+
+        logger.info("{} books: {} ns per response serialized, {} ns per response from cached JSON", BOOKS,
+                String.format("%.0f", nanos.get("serialized")), String.format("%.0f", nanos.get("cached")));
+        assertTrue(nanos.get("cached") < nanos.get("serialized"));
+    }
+}
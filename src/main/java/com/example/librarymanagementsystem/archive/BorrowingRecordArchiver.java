@@ -0,0 +1,87 @@
+package com.example.librarymanagementsystem.archive;
+
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves borrowing records returned longer than {@code library.archive.max-age} ago into the history table, on the
+ * {@code library.archive.cron} schedule.
+ * Records are moved in chunks of {@code library.archive.chunk-size}, each in its own short transaction, walking the
+ * table by ID. Only rows of returned loans are locked, and never for longer than one chunk, so borrows and returns
+ * keep running while the archiver works.
+ */
+@Component
+public class BorrowingRecordArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(BorrowingRecordArchiver.class);
+
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${library.archive.max-age:P365D}")
+    private Duration maxAge = Duration.ofDays(365);
+
+    @Value("${library.archive.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Autowired
+    public BorrowingRecordArchiver(BorrowingRecordRepository borrowingRecordRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.borrowingRecordRepository = borrowingRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${library.archive.cron:0 30 2 * * *}")
+    void archiveOnSchedule() {
+        archive(LocalDateTime.now().minus(maxAge));
+    }
+
+    /**
+     * Archives every borrowing record returned before the given date, unless an archive run is already going on.
+     *
+     * @param returnedBefore Only records returned before this date are archived.
+     * @return The number of records archived.
+     */
+    public int archive(LocalDateTime returnedBefore) {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Skipping borrowing record archiving: the previous run has not finished");
+            return 0;
+        }
+        try {
+            long startTime = System.currentTimeMillis();
+            int archived = 0;
+            long afterId = 0;
+            while (true) {
+                long cursor = afterId;
+                List<Long> ids = transactionTemplate.execute(status -> {
+                    List<Long> chunk = borrowingRecordRepository.findArchivableIds(returnedBefore, cursor, chunkSize);
+                    borrowingRecordRepository.moveToHistory(chunk);
+                    return chunk;
+                });
+                archived += ids.size();
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+                afterId = ids.get(ids.size() - 1);
+            }
+            logger.info("Archived {} borrowing records returned before {} in {} ms", archived, returnedBefore,
+                    System.currentTimeMillis() - startTime);
+            return archived;
+        } finally {
+            running.set(false);
+        }
+    }
+}
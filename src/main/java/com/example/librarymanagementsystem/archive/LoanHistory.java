@@ -0,0 +1,122 @@
+package com.example.librarymanagementsystem.archive;
+
+import com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse;
+import com.example.librarymanagementsystem.repository.BorrowingRecordHistoryRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Reads the loan history of a patron or a book across the live borrowing_record table and the archive.
+ * The archive is scanned on a small dedicated pool while the live table is scanned on the calling thread, so a page
+ * costs one round trip to the slower of the two, and the two pages are merged by ID, newest first.
+ * The live scan stays on the calling thread so that it sees the caller's own transaction.
+ */
+@Component
+public class LoanHistory {
+
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final BorrowingRecordHistoryRepository historyRepository;
+    private final ExecutorService archiveScans;
+
+    @Autowired
+    public LoanHistory(BorrowingRecordRepository borrowingRecordRepository,
+                       BorrowingRecordHistoryRepository historyRepository,
+                       @Value("${library.archive.scan-threads:4}") int scanThreads) {
+        this.borrowingRecordRepository = borrowingRecordRepository;
+        this.historyRepository = historyRepository;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.archiveScans = Executors.newFixedThreadPool(scanThreads, task -> {
+            Thread thread = new Thread(task, "archive-scan-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        archiveScans.shutdownNow();
+    }
+
+    /**
+     * Retrieves one page of a patron's loans, live and archived, newest first.
+     *
+     * @param patronId     The ID of the patron.
+     * @param returnedOnly Whether to skip the live loans that are still open.
+     * @param beforeId     The ID of the last loan of the previous page.
+     * @param pageSize     The page size.
+     * @return A slice of the patron's loans preceding the cursor.
+     */
+    public Slice<BorrowingRecordDTOResponse> findPatronLoans(long patronId, boolean returnedOnly, long beforeId,
+                                                             int pageSize) {
+        Pageable pageable = PageRequest.of(0, pageSize);
+        return merge(() -> historyRepository.findPatronLoans(patronId, beforeId, pageable),
+                () -> returnedOnly
+                        ? borrowingRecordRepository.findReturnedPatronLoans(patronId, beforeId, pageable)
+                        : borrowingRecordRepository.findPatronLoans(patronId, beforeId, pageable),
+                pageable);
+    }
+
+    /**
+     * Retrieves one page of a book's loans, live and archived, newest first.
+     *
+     * @param bookId   The ID of the book.
+     * @param beforeId The ID of the last loan of the previous page.
+     * @param pageSize The page size.
+     * @return A slice of the book's loans preceding the cursor.
+     */
+    public Slice<BorrowingRecordDTOResponse> findBookLoans(long bookId, long beforeId, int pageSize) {
+        Pageable pageable = PageRequest.of(0, pageSize);
+        return merge(() -> historyRepository.findBookLoans(bookId, beforeId, pageable),
+                () -> borrowingRecordRepository.findBookLoans(bookId, beforeId, pageable),
+                pageable);
+    }
+
+    /**
+     * Merges the newest loans of both tables. The newest page of the union is always within the newest page of each
+     * table, so fetching one page from each is enough.
+     */
+    private Slice<BorrowingRecordDTOResponse> merge(Supplier<Slice<BorrowingRecordDTOResponse>> archiveScan,
+                                                    Supplier<Slice<BorrowingRecordDTOResponse>> liveScan,
+                                                    Pageable pageable) {
+        CompletableFuture<Slice<BorrowingRecordDTOResponse>> archived =
+                CompletableFuture.supplyAsync(archiveScan, archiveScans);
+        Slice<BorrowingRecordDTOResponse> live = liveScan.get();
+        Slice<BorrowingRecordDTOResponse> old;
+        try {
+            old = archived.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        List<BorrowingRecordDTOResponse> liveLoans = live.getContent();
+        List<BorrowingRecordDTOResponse> oldLoans = old.getContent();
+        List<BorrowingRecordDTOResponse> page = new ArrayList<>(pageable.getPageSize());
+        int i = 0;
+        int j = 0;
+        while (page.size() < pageable.getPageSize() && (i < liveLoans.size() || j < oldLoans.size())) {
+            if (j == oldLoans.size() || (i < liveLoans.size() && liveLoans.get(i).getId() > oldLoans.get(j).getId())) {
+                page.add(liveLoans.get(i++));
+            } else {
+                page.add(oldLoans.get(j++));
+            }
+        }
+        boolean hasNext = live.hasNext() || old.hasNext() || i < liveLoans.size() || j < oldLoans.size();
+        return new SliceImpl<>(page, pageable, hasNext);
+    }
+}
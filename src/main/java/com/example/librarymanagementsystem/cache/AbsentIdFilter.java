@@ -0,0 +1,122 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.util.LongBloomFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tells which IDs of one entity do not exist, so that looking up a missing ID, as clients probing sequential IDs do,
+ * does not cost a database round trip.
+ * Once every assigned ID has been loaded, an ID is known to be absent if it is above the highest assigned ID or if
+ * a Bloom filter of the assigned IDs has never seen it. Other IDs found missing in the database, such as the IDs of
+ * deleted rows, are remembered in a small negative cache whose entries expire after a short time.
+ * IDs come from the database and are never reused, so a missing ID only appears when it is added; adding an ID
+ * evicts it from the negative cache, and a lookup that missed while an add was being recorded is not cached.
+ * An add must be recorded once it has committed, before it is reported as done. The adds of the other instances
+ * are recorded as their invalidations arrive, so an ID added elsewhere may be taken for absent for as long as a
+ * cached entry may be stale; if invalidations were lost, {@link #forgetAssignedIds()} stops using the assigned IDs
+ * until they are loaded again.
+ */
+public class AbsentIdFilter {
+
+    private final LongBloomFilter assignedIds;
+    private final AtomicLong highestAssignedId = new AtomicLong();
+    private final AtomicLong adds = new AtomicLong();
+    private final Cache<Long, Boolean> missingIds;
+    private volatile boolean loaded;
+
+    /**
+     * @param expectedIds       the number of assigned IDs to size the Bloom filter for
+     * @param falsePositiveRate the rate of absent IDs the Bloom filter may take for assigned ones
+     * @param maximumSize       the bound on the number of IDs in the negative cache
+     * @param expireAfterWrite  how long an ID found missing is remembered
+     */
+    public AbsentIdFilter(long expectedIds, double falsePositiveRate, long maximumSize, Duration expireAfterWrite) {
+        this.assignedIds = new LongBloomFilter(expectedIds, falsePositiveRate);
+        this.missingIds = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    /**
+     * Returns whether an ID is known not to exist. False means the database has to be asked.
+     */
+    public boolean isAbsent(long id) {
+        if (loaded && (id > highestAssignedId.get() || !assignedIds.mightContain(id))) {
+            return true;
+        }
+        return missingIds.getIfPresent(id) != null;
+    }
+
+    /**
+     * Returns the stamp to pass to {@link #recordMissing(long, long)}, taken before asking the database.
+     */
+    public long beginLookup() {
+        return adds.get();
+    }
+
+    /**
+     * Remembers an ID the database did not find, unless an ID was added since the lookup began.
+     *
+     * @param stamp the stamp returned by {@link #beginLookup()} before the lookup
+     */
+    public void recordMissing(long id, long stamp) {
+        missingIds.put(id, Boolean.TRUE);
+        if (adds.get() != stamp) {
+            // The add may have committed after the lookup read, and its eviction may have run before this put.
+            missingIds.invalidate(id);
+        }
+    }
+
+    /**
+     * Records a committed add.
+     */
+    public void recordAdded(long id) {
+        assign(id);
+        adds.incrementAndGet();
+        missingIds.invalidate(id);
+    }
+
+    /**
+     * Records a committed delete. The ID will not be assigned again.
+     */
+    public void recordDeleted(long id) {
+        missingIds.put(id, Boolean.TRUE);
+    }
+
+    /**
+     * Records an existing ID read while loading. Adds may be recorded at the same time.
+     */
+    public void recordExisting(long id) {
+        assign(id);
+    }
+
+    /**
+     * Stops answering from the assigned IDs, since adds may have been missed, until they are loaded again.
+     */
+    public void forgetAssignedIds() {
+        loaded = false;
+        adds.incrementAndGet();
+        missingIds.invalidateAll();
+    }
+
+    /**
+     * Starts answering from the assigned IDs, once every existing ID has been recorded.
+     */
+    public void completeLoad() {
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    private void assign(long id) {
+        assignedIds.add(id);
+        highestAssignedId.accumulateAndGet(id, Math::max);
+    }
+}
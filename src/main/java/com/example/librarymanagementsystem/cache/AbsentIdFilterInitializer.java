@@ -0,0 +1,89 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.repository.PatronRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Loads the IDs of every book and patron into their {@link AbsentIdFilter}s once the application is ready.
+ * Until then the filters only answer from their negative caches. A filter that stopped answering from the assigned
+ * IDs, because invalidations from another instance were lost, is loaded again on the next check.
+ */
+@Component
+public class AbsentIdFilterInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbsentIdFilterInitializer.class);
+    private static final int BATCH_SIZE = 10_000;
+
+    private final BookRepository bookRepository;
+    private final PatronRepository patronRepository;
+    private final AbsentIdFilter absentBookIds;
+    private final AbsentIdFilter absentPatronIds;
+    private volatile boolean started;
+
+    @Autowired
+    public AbsentIdFilterInitializer(BookRepository bookRepository, PatronRepository patronRepository,
+                                     @Qualifier("absentBookIds") AbsentIdFilter absentBookIds,
+                                     @Qualifier("absentPatronIds") AbsentIdFilter absentPatronIds) {
+        this.bookRepository = bookRepository;
+        this.patronRepository = patronRepository;
+        this.absentBookIds = absentBookIds;
+        this.absentPatronIds = absentPatronIds;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        long startTime = System.currentTimeMillis();
+        long books = load(absentBookIds, bookRepository::findIdsAfter);
+        long patrons = load(absentPatronIds, patronRepository::findIdsAfter);
+        started = true;
+        logger.info("Loaded the IDs of {} books and {} patrons in {} ms", books, patrons,
+                System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Loads the filters that stopped answering from the assigned IDs again.
+     */
+    @Scheduled(fixedDelayString = "${library.absent-ids.reload-check-interval:PT30S}")
+    public synchronized void reloadForgotten() {
+        if (!started) {
+            return;
+        }
+        if (!absentBookIds.isLoaded()) {
+            logger.info("Reloaded the IDs of {} books", load(absentBookIds, bookRepository::findIdsAfter));
+        }
+        if (!absentPatronIds.isLoaded()) {
+            logger.info("Reloaded the IDs of {} patrons", load(absentPatronIds, patronRepository::findIdsAfter));
+        }
+    }
+
+    /**
+     * Reads every ID in keyset-paginated batches into a filter, then starts using it.
+     */
+    private static long load(AbsentIdFilter filter, BiFunction<Long, Limit, List<Long>> idsAfter) {
+        long count = 0;
+        long cursor = 0;
+        List<Long> batch;
+        do {
+            batch = idsAfter.apply(cursor, Limit.of(BATCH_SIZE));
+            for (Long id : batch) {
+                filter.recordExisting(id);
+                cursor = id;
+            }
+            count += batch.size();
+        } while (batch.size() == BATCH_SIZE);
+        filter.completeLoad();
+        return count;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes book snapshots as: the ID, the version, the publication year, the borrowed flag, then the title, author and
+ * ISBN as UTF-8 bytes each preceded by their length (-1 for null). A typical book takes about 70 bytes.
+ */
+public class BookSnapshotCodec implements RecordCodec<BookSnapshot> {
+
+    private static final int FIXED_BYTES = Long.BYTES + Long.BYTES + Integer.BYTES + 1;
+
+    @Override
+    public Class<BookSnapshot> type() {
+        return BookSnapshot.class;
+    }
+
+    @Override
+    public byte[] encode(BookSnapshot book) {
+        byte[] title = EncodedStrings.utf8(book.title());
+        byte[] author = EncodedStrings.utf8(book.author());
+        byte[] isbn = EncodedStrings.utf8(book.isbn());
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_BYTES + EncodedStrings.bytes(title) + EncodedStrings.bytes(author)
+                + EncodedStrings.bytes(isbn));
+        buffer.putLong(book.id());
+        buffer.putLong(book.version());
+        buffer.putInt(book.publicationYear());
+        buffer.put((byte) (book.borrowed() ? 1 : 0));
+        EncodedStrings.put(buffer, title);
+        EncodedStrings.put(buffer, author);
+        EncodedStrings.put(buffer, isbn);
+        return buffer.array();
+    }
+
+    @Override
+    public BookSnapshot decode(ByteBuffer buffer, int offset, int length) {
+        long id = buffer.getLong(offset);
+        long version = buffer.getLong(offset + Long.BYTES);
+        int publicationYear = buffer.getInt(offset + 2 * Long.BYTES);
+        boolean borrowed = buffer.get(offset + 2 * Long.BYTES + Integer.BYTES) != 0;
+        int[] position = {offset + FIXED_BYTES};
+        String title = EncodedStrings.get(buffer, position);
+        String author = EncodedStrings.get(buffer, position);
+        String isbn = EncodedStrings.get(buffer, position);
+        return BookSnapshot.of(id, title, author, publicationYear, isbn, borrowed, version);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.librarymanagementsystem.cache;
+
+/**
+ * Is told about the entries put into or evicted from one cache, which the application does whenever the entity
+ * behind an entry changes. Values loaded on a miss are not changes and are not reported.
+ * A bean implementing this interface makes its cache an {@link ObservedCache}.
+ */
+public interface CacheChangeListener {
+
+    /**
+     * Returns the name of the cache this listener is told about.
+     */
+    String cacheName();
+
+    /**
+     * Called after the entry of a key was put or evicted.
+     */
+    void changed(Object key);
+
+    /**
+     * Called after every entry of the cache was evicted.
+     */
+    void cleared();
+}
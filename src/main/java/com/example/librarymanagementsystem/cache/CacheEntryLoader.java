@@ -0,0 +1,72 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.snapshot.Snapshot;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reloads the value of one cache entry from its source, so that the cache can refresh entries in the background
+ * before they expire, be warmed up from the keys of a snapshot file, or check the values restored from one.
+ */
+public interface CacheEntryLoader {
+
+    /**
+     * Returns the name of the cache whose entries this loader reloads.
+     */
+    String cacheName();
+
+    /**
+     * Reads the current value of an entry.
+     *
+     * @param key the key of the entry
+     * @return the current value, or null if it no longer exists, in which case the entry is removed
+     */
+    Object load(Object key);
+
+    /**
+     * Reads the current values of several entries. Loaders reading from the database should do it in one query.
+     *
+     * @param keys the keys of the entries
+     * @return the values of the entries that still exist, by key
+     */
+    default Map<Object, Object> loadAll(Collection<?> keys) {
+        Map<Object, Object> values = new HashMap<>();
+        for (Object key : keys) {
+            Object value = load(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Reads the current version of an entry, which is cheaper than reading its value where the source can.
+     *
+     * @param key the key of the entry
+     * @return the version of the current value, or null if it no longer exists or has no version
+     */
+    default Long loadVersion(Object key) {
+        return load(key) instanceof Snapshot snapshot ? snapshot.version() : null;
+    }
+
+    /**
+     * Creates a loader for the given cache from a function.
+     */
+    static CacheEntryLoader of(String cacheName, Function<Object, Object> load) {
+        return new CacheEntryLoader() {
+            @Override
+            public String cacheName() {
+                return cacheName;
+            }
+
+            @Override
+            public Object load(Object key) {
+                return load.apply(key);
+            }
+        };
+    }
+}
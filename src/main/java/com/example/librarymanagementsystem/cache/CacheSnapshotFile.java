@@ -0,0 +1,116 @@
+package com.example.librarymanagementsystem.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes the file the hottest entries of the caches are saved to.
+ * The file starts with a magic number, the version of its format and the time it was written, then holds one
+ * section per cache: the name of the cache, the number of entries, whether the section has values, then for each
+ * entry its key and, if the section has values, the length of the encoded value (-1 for none) and its bytes.
+ * The format version must change whenever the layout or the encoding of a value changes; a file of another version
+ * is ignored.
+ */
+final class CacheSnapshotFile {
+
+    private static final int MAGIC = 0x4C434153;
+    static final int FORMAT_VERSION = 1;
+
+    private CacheSnapshotFile() {
+    }
+
+    /**
+     * The saved entries of one cache, hottest first.
+     *
+     * @param cacheName the name of the cache
+     * @param keys      the keys of the entries
+     * @param values    the encoded values of the entries, with null for the entries saved without one, or null if
+     *                  the section has no values
+     */
+    record Section(String cacheName, long[] keys, byte[][] values) {
+    }
+
+    /**
+     * The contents of a file.
+     *
+     * @param writtenAtMillis the time the file was written
+     * @param sections        the saved entries of each cache
+     */
+    record Contents(long writtenAtMillis, List<Section> sections) {
+    }
+
+    /**
+     * Writes a file, replacing the previous one only once the new one is complete.
+     */
+    static void write(Path path, long writtenAtMillis, List<Section> sections) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = parent.resolve(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(writtenAtMillis);
+            out.writeInt(sections.size());
+            for (Section section : sections) {
+                out.writeUTF(section.cacheName());
+                out.writeInt(section.keys().length);
+                out.writeBoolean(section.values() != null);
+                for (int i = 0; i < section.keys().length; i++) {
+                    out.writeLong(section.keys()[i]);
+                    if (section.values() != null) {
+                        byte[] value = section.values()[i];
+                        out.writeInt(value == null ? -1 : value.length);
+                        if (value != null) {
+                            out.write(value);
+                        }
+                    }
+                }
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a file.
+     *
+     * @return the contents, or null if the file was written in another format
+     * @throws IOException if the file cannot be read or is not a snapshot file
+     */
+    static Contents read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(path + " is not a cache snapshot");
+            }
+            if (in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            long writtenAtMillis = in.readLong();
+            int sectionCount = in.readInt();
+            List<Section> sections = new ArrayList<>(sectionCount);
+            for (int s = 0; s < sectionCount; s++) {
+                String cacheName = in.readUTF();
+                long[] keys = new long[in.readInt()];
+                byte[][] values = in.readBoolean() ? new byte[keys.length][] : null;
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = in.readLong();
+                    if (values != null) {
+                        int length = in.readInt();
+                        if (length >= 0) {
+                            values[i] = in.readNBytes(length);
+                        }
+                    }
+                }
+                sections.add(new Section(cacheName, keys, values));
+            }
+            return new Contents(writtenAtMillis, sections);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.snapshot.Snapshot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Saves the hottest keys of the caches to a file every few minutes and on shutdown, and warms the caches up from it
+ * when the application starts, so that a restarted instance does not send every read to the database at once.
+ * The keys are reloaded from the database in parallel batches once the application is ready and before it reports
+ * itself ready to take traffic; reloading gives up after a timeout rather than hold readiness back.
+ * With {@code library.cache.snapshot.include-values}, the values are saved too and put back without the database.
+ * Those caches are then {@link RevalidatingCache}s, which check each restored value against the version of its
+ * entity when it is first read.
+ */
+@Component
+@ConditionalOnProperty(name = "library.cache.snapshot.enabled", havingValue = "true")
+public class CacheSnapshotter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheSnapshotter.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final CacheManager cacheManager;
+    private final Map<String, CacheEntryLoader> loaders;
+    private final Path path;
+    private final int maxKeys;
+    private final boolean includeValues;
+    private final int restoreThreads;
+    private final Duration restoreTimeout;
+
+    @Autowired
+    public CacheSnapshotter(CacheManager cacheManager, ObjectProvider<CacheEntryLoader> loaders,
+                            @Value("${library.cache.snapshot.path:cache-snapshot.bin}") Path path,
+                            @Value("${library.cache.snapshot.max-keys:100000}") int maxKeys,
+                            @Value("${library.cache.snapshot.include-values:false}") boolean includeValues,
+                            @Value("${library.cache.snapshot.restore-threads:4}") int restoreThreads,
+                            @Value("${library.cache.snapshot.restore-timeout:PT1M}") Duration restoreTimeout) {
+        this.cacheManager = cacheManager;
+        this.loaders = loaders.orderedStream()
+                .collect(Collectors.toMap(CacheEntryLoader::cacheName, Function.identity()));
+        this.path = path;
+        this.maxKeys = maxKeys;
+        this.includeValues = includeValues;
+        this.restoreThreads = restoreThreads;
+        this.restoreTimeout = restoreTimeout;
+    }
+
+    @Scheduled(fixedDelayString = "${library.cache.snapshot.interval:PT5M}",
+            initialDelayString = "${library.cache.snapshot.interval:PT5M}")
+    public void saveOnSchedule() {
+        save();
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        save();
+    }
+
+    /**
+     * Writes the hottest entries of every cache to the file.
+     *
+     * @return the number of entries saved, or -1 if the file could not be written
+     */
+    public synchronized long save() {
+        long startTime = System.currentTimeMillis();
+        List<CacheSnapshotFile.Section> sections = new ArrayList<>();
+        long entries = 0;
+        for (String name : cacheManager.getCacheNames()) {
+            CacheSnapshotFile.Section section = hottestEntries(name);
+            if (section != null) {
+                sections.add(section);
+                entries += section.keys().length;
+            }
+        }
+        try {
+            CacheSnapshotFile.write(path, startTime, sections);
+        } catch (IOException e) {
+            logger.warn("Failed to save the caches to {}", path, e);
+            return -1;
+        }
+        logger.info("Saved {} cache entries to {} in {} ms", entries, path, System.currentTimeMillis() - startTime);
+        return entries;
+    }
+
+    /**
+     * Warms the caches up from the file, if there is one.
+     *
+     * @return the number of entries put back into the caches
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public long restore() {
+        if (!Files.exists(path)) {
+            logger.info("No cache snapshot at {}, the caches start empty", path);
+            return 0;
+        }
+        long startTime = System.currentTimeMillis();
+        CacheSnapshotFile.Contents contents;
+        try {
+            contents = CacheSnapshotFile.read(path);
+        } catch (IOException e) {
+            logger.warn("Failed to read the cache snapshot {}, the caches start empty", path, e);
+            return 0;
+        }
+        if (contents == null) {
+            logger.info("The cache snapshot {} was written in another format, the caches start empty", path);
+            return 0;
+        }
+        AtomicLong restored = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(restoreThreads);
+        try {
+            List<CompletableFuture<?>> loads = new ArrayList<>();
+            for (CacheSnapshotFile.Section section : contents.sections()) {
+                loads.addAll(restore(section, executor, restored));
+            }
+            CompletableFuture.allOf(loads.toArray(CompletableFuture[]::new))
+                    .get(restoreTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Stopped warming the caches up after {}", restoreTimeout);
+        } catch (ExecutionException e) {
+            logger.warn("Failed to warm the caches up", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("Restored {} cache entries saved {} s ago in {} ms", restored.get(),
+                (startTime - contents.writtenAtMillis()) / 1000, System.currentTimeMillis() - startTime);
+        return restored.get();
+    }
+
+    /**
+     * Puts the saved values of one cache back, and starts reloading the entries saved without one.
+     */
+    private List<CompletableFuture<?>> restore(CacheSnapshotFile.Section section, ExecutorService executor,
+                                               AtomicLong restored) {
+        Cache cache = cacheManager.getCache(section.cacheName());
+        if (cache == null) {
+            return List.of();
+        }
+        RecordCodec<?> codec = RecordCodecs.forCache(section.cacheName());
+        List<Long> keysToLoad = new ArrayList<>();
+        for (int i = 0; i < section.keys().length; i++) {
+            long key = section.keys()[i];
+            byte[] value = section.values() == null ? null : section.values()[i];
+            if (value != null && codec != null && cache instanceof RevalidatingCache revalidating
+                    && codec.decode(ByteBuffer.wrap(value), 0, value.length) instanceof Snapshot snapshot) {
+                revalidating.restore(key, snapshot);
+                restored.incrementAndGet();
+            } else {
+                keysToLoad.add(key);
+            }
+        }
+        CacheEntryLoader loader = loaders.get(section.cacheName());
+        if (loader == null) {
+            return List.of();
+        }
+        List<CompletableFuture<?>> loads = new ArrayList<>();
+        for (int from = 0; from < keysToLoad.size(); from += BATCH_SIZE) {
+            List<Long> batch = keysToLoad.subList(from, Math.min(from + BATCH_SIZE, keysToLoad.size()));
+            loads.add(CompletableFuture.runAsync(() -> loader.loadAll(batch).forEach((key, value) -> {
+                cache.putIfAbsent(key, value);
+                restored.incrementAndGet();
+            }), executor));
+        }
+        return loads;
+    }
+
+    /**
+     * Reads the hottest entries of one cache, or returns null if it is not a Caffeine cache.
+     */
+    @SuppressWarnings("unchecked")
+    private CacheSnapshotFile.Section hottestEntries(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> c)) {
+            return null;
+        }
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeine =
+                (com.github.benmanes.caffeine.cache.Cache<Object, Object>) c;
+        Map<Object, Object> hottest = caffeine.policy().eviction()
+                .map(eviction -> eviction.hottest(maxKeys))
+                .orElseGet(caffeine::asMap);
+        RecordCodec<?> codec = includeValues ? RecordCodecs.forCache(name) : null;
+        long[] keys = new long[Math.min(hottest.size(), maxKeys)];
+        byte[][] values = codec == null ? null : new byte[keys.length][];
+        int count = 0;
+        for (Map.Entry<Object, Object> entry : hottest.entrySet()) {
+            if (count == keys.length) {
+                break;
+            }
+            if (entry.getKey() instanceof Long id) {
+                keys[count] = id;
+                if (values != null) {
+                    values[count] = encode(codec, entry.getValue());
+                }
+                count++;
+            }
+        }
+        return new CacheSnapshotFile.Section(name, Arrays.copyOf(keys, count),
+                values == null ? null : Arrays.copyOf(values, count));
+    }
+
+    private static <V> byte[] encode(RecordCodec<V> codec, Object value) {
+        return codec.type().isInstance(value) ? codec.encode(codec.type().cast(value)) : null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.librarymanagementsystem.cache;
+
+import org.springframework.cache.Cache;
+
+/**
+ * A cache that adds a behaviour to another cache, which holds the values.
+ */
+public interface DelegatingCache extends Cache {
+
+    /**
+     * Returns the cache this one delegates to.
+     */
+    Cache getTargetCache();
+
+    /**
+     * Returns the innermost cache of a chain of delegating caches, which holds the values.
+     */
+    static Cache unwrap(Cache cache) {
+        while (cache instanceof DelegatingCache delegating) {
+            cache = delegating.getTargetCache();
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.librarymanagementsystem.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+/**
+ * Publishes the {@code cache.*} metrics of the cache holding the values of a {@link DelegatingCache}.
+ */
+public class DelegatingCacheMeterBinderProvider implements CacheMeterBinderProvider<DelegatingCache> {
+
+    private final TieredCacheMeterBinderProvider tieredCacheMeterBinderProvider = new TieredCacheMeterBinderProvider();
+
+    @Override
+    public MeterBinder getMeterBinder(DelegatingCache cache, Iterable<Tag> tags) {
+        Cache target = DelegatingCache.unwrap(cache);
+        if (target instanceof TieredCache tiered) {
+            return tieredCacheMeterBinderProvider.getMeterBinder(tiered, tags);
+        }
+        if (target instanceof CaffeineCache caffeine) {
+            return new CaffeineCacheMetrics<>(caffeine.getNativeCache(), caffeine.getName(), tags);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.snapshot.Snapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.util.unit.DataSize;
+
+import java.util.function.Function;
+
+/**
+ * Holds the JSON of the responses of one kind of entity already encoded, so that a hot entity is sent without
+ * mapping it to its DTO and serializing it again on every request.
+ * Each entry is the encoding of one version of an entity, and is only served for a snapshot of that version; a
+ * snapshot of another version is encoded again and replaces it. The entries are also dropped along with those of
+ * the entity cache, as its {@link CacheChangeListener}, so that entities that changed do not hold memory.
+ *
+ * @param <S> the type of the snapshots of the entity
+ */
+public class JsonResponseCache<S extends Snapshot> implements CacheChangeListener, MeterBinder {
+
+    /**
+     * Rough heap taken by an entry besides its JSON: the node, its boxed key, the holder and the array header.
+     */
+    static final int ENTRY_OVERHEAD_BYTES = 120;
+
+    private final String cacheName;
+    private final Function<S, ?> toResponse;
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, Encoded> cache;
+
+    /**
+     * @param cacheName    the name of the entity cache this cache follows
+     * @param toResponse   maps a snapshot to the response body it is sent as
+     * @param objectMapper the mapper the response bodies are written with, as they would be otherwise
+     * @param maximumSize  the bound on the estimated heap taken by the entries
+     */
+    public JsonResponseCache(String cacheName, Function<S, ?> toResponse, ObjectMapper objectMapper,
+                             DataSize maximumSize) {
+        this.cacheName = cacheName;
+        this.toResponse = toResponse;
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((Long id, Encoded encoded) -> ENTRY_OVERHEAD_BYTES + encoded.json().length)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the JSON of the response for a snapshot, encoding it if this version of the entity has none yet.
+     * The returned array must not be modified.
+     */
+    public byte[] get(S snapshot) {
+        Encoded encoded = cache.getIfPresent(snapshot.id());
+        if (encoded != null && encoded.version() == snapshot.version()) {
+            return encoded.json();
+        }
+        byte[] json = encode(snapshot);
+        cache.put(snapshot.id(), new Encoded(snapshot.version(), json));
+        return json;
+    }
+
+    private byte[] encode(S snapshot) {
+        try {
+            return objectMapper.writeValueAsBytes(toResponse.apply(snapshot));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode " + cacheName + " " + snapshot.id(), e);
+        }
+    }
+
+    @Override
+    public String cacheName() {
+        return cacheName;
+    }
+
+    @Override
+    public void changed(Object key) {
+        if (key instanceof Long id) {
+            cache.invalidate(id);
+        } else {
+            cache.invalidateAll();
+        }
+    }
+
+    @Override
+    public void cleared() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Publishes the {@code cache.*} metrics of the entries, as the cache {@code <name>.json}.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics<>(cache, cacheName + ".json", Tags.empty()).bindTo(registry);
+    }
+
+    /**
+     * The JSON of one version of an entity.
+     */
+    private record Encoded(long version, byte[] json) {
+    }
+}
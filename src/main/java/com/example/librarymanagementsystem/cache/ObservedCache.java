@@ -0,0 +1,105 @@
+package com.example.librarymanagementsystem.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * A cache that tells its {@link CacheChangeListener}s about the entries put into or evicted from it. Values added on a
+ * miss or restored with {@link #putIfAbsent} are the current state of the database and are not reported.
+ */
+public class ObservedCache implements DelegatingCache {
+
+    private final Cache target;
+    private final List<CacheChangeListener> listeners;
+
+    /**
+     * @param target    the cache holding the values
+     * @param listeners the listeners told about the changes
+     */
+    public ObservedCache(Cache target, List<CacheChangeListener> listeners) {
+        this.target = target;
+        this.listeners = List.copyOf(listeners);
+    }
+
+    @Override
+    public Cache getTargetCache() {
+        return target;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return target.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return target.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return target.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        target.put(key, value);
+        changed(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return target.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+        changed(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = target.evictIfPresent(key);
+        // The entity may have changed even if its entry was not cached.
+        changed(key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+        cleared();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = target.invalidate();
+        cleared();
+        return notEmpty;
+    }
+
+    private void changed(Object key) {
+        for (CacheChangeListener listener : listeners) {
+            listener.changed(key);
+        }
+    }
+
+    private void cleared() {
+        for (CacheChangeListener listener : listeners) {
+            listener.cleared();
+        }
+    }
+}
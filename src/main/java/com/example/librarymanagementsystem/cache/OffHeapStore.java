@@ -0,0 +1,323 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.util.LongIntHashMap;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A store of values keyed by long IDs, kept outside the Java heap in direct buffers, so that it can hold many more
+ * entries than the heap could without adding to garbage collection.
+ * Values are encoded by a {@link RecordCodec} and appended to a ring of fixed-size slabs, allocated as they are first
+ * needed. When the ring wraps around, the oldest slab is reused and the entries still in it are evicted, so the
+ * store evicts in the order entries were written. Replaced and removed records are left in place until their slab
+ * is reused. Only the index, a primitive map from key to record address, lives on the heap.
+ * Each record starts with a header holding its length, its key and the time it was written; records older than the
+ * expiry are treated as absent.
+ * Thread-safe: reads share a lock, writes take it exclusively.
+ *
+ * @param <V> the type of the values
+ */
+public class OffHeapStore<V> {
+
+    /**
+     * The header of a record: the length of the encoded value, the key and the time it was written.
+     */
+    static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Long.BYTES;
+    private static final int ALIGNMENT = 8;
+    private static final int END_OF_SLAB = -1;
+    private static final int NO_ADDRESS = -1;
+    private static final int MIN_SLABS = 8;
+    private static final long MAX_SLAB_BYTES = 16L * 1024 * 1024;
+
+    private final RecordCodec<V> codec;
+    private final ByteBuffer[] slabs;
+    private final int slabBytes;
+    private final long expireAfterWriteMillis;
+    private final Clock clock;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntHashMap index = new LongIntHashMap(1024, NO_ADDRESS);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private int writeSlab;
+    private int writeOffset;
+    private long liveBytes;
+    private int refusingPuts;
+
+    /**
+     * @param codec            encodes and decodes the values
+     * @param maximumBytes     the bound on the off-heap memory taken by the store, at most 16 GB
+     * @param expireAfterWrite how long an entry is kept after it was written
+     */
+    public OffHeapStore(RecordCodec<V> codec, long maximumBytes, Duration expireAfterWrite) {
+        this(codec, slabCount(maximumBytes), slabBytes(maximumBytes), expireAfterWrite, Clock.systemUTC());
+    }
+
+    OffHeapStore(RecordCodec<V> codec, int slabCount, int slabBytes, Duration expireAfterWrite, Clock clock) {
+        if (slabCount < 2 || slabBytes < HEADER_BYTES + ALIGNMENT || slabBytes % ALIGNMENT != 0) {
+            throw new IllegalArgumentException("Invalid slabs: " + slabCount + " of " + slabBytes + " bytes");
+        }
+        if ((long) slabCount * slabBytes / ALIGNMENT > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("An off-heap store can hold at most 16 GB");
+        }
+        this.codec = codec;
+        this.slabs = new ByteBuffer[slabCount];
+        this.slabBytes = slabBytes;
+        this.expireAfterWriteMillis = expireAfterWrite.toMillis();
+        this.clock = clock;
+    }
+
+    private static int slabCount(long maximumBytes) {
+        return (int) Math.max(MIN_SLABS, (maximumBytes + MAX_SLAB_BYTES - 1) / MAX_SLAB_BYTES);
+    }
+
+    private static int slabBytes(long maximumBytes) {
+        return (int) (maximumBytes / slabCount(maximumBytes)) & -ALIGNMENT;
+    }
+
+    public Class<V> valueType() {
+        return codec.type();
+    }
+
+    /**
+     * Returns the value stored for a key, or null if there is none or it has expired.
+     */
+    public V get(long key) {
+        lock.readLock().lock();
+        try {
+            V value = read(key);
+            (value != null ? hits : misses).increment();
+            return value;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the value stored for a key and returns it, or returns null if there is none or it has expired.
+     */
+    public V take(long key) {
+        lock.writeLock().lock();
+        try {
+            V value = read(key);
+            (value != null ? hits : misses).increment();
+            removeEntry(key);
+            return value;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stores a value, replacing the one stored for its key. A value whose record does not fit in a slab, or that is
+     * put between {@link #clearAndRefusePuts()} and {@link #acceptPuts()}, is not stored, and the previous value is
+     * removed.
+     */
+    public void put(long key, V value) {
+        byte[] bytes = codec.encode(value);
+        int recordBytes = align(HEADER_BYTES + bytes.length);
+        lock.writeLock().lock();
+        try {
+            removeEntry(key);
+            if (recordBytes > slabBytes || refusingPuts > 0) {
+                return;
+            }
+            if (writeOffset + recordBytes > slabBytes || slabs[writeSlab] == null) {
+                advance();
+            }
+            ByteBuffer slab = slabs[writeSlab];
+            slab.putInt(writeOffset, bytes.length);
+            slab.putLong(writeOffset + Integer.BYTES, key);
+            slab.putLong(writeOffset + Integer.BYTES + Long.BYTES, clock.millis());
+            slab.put(writeOffset + HEADER_BYTES, bytes);
+            index.put(key, address(writeSlab, writeOffset));
+            writeOffset += recordBytes;
+            liveBytes += recordBytes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the value stored for a key, and returns whether there was one.
+     */
+    public boolean remove(long key) {
+        lock.writeLock().lock();
+        try {
+            return removeEntry(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every value. The slabs are kept, and their records are skipped when they are reused.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            liveBytes = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every value and drops the values put from now on, until {@link #acceptPuts()} is called, so that a
+     * cache in front of the store can be cleared without its values moving back into the store meanwhile.
+     */
+    public void clearAndRefusePuts() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            liveBytes = 0;
+            refusingPuts++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stores the values put from now on again, after {@link #clearAndRefusePuts()}.
+     */
+    public void acceptPuts() {
+        lock.writeLock().lock();
+        try {
+            refusingPuts--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the bytes taken by the records of the stored values, including their headers.
+     */
+    public long liveBytes() {
+        lock.readLock().lock();
+        try {
+            return liveBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the off-heap memory allocated so far.
+     */
+    public long allocatedBytes() {
+        lock.readLock().lock();
+        try {
+            long allocated = 0;
+            for (ByteBuffer slab : slabs) {
+                allocated += slab == null ? 0 : slabBytes;
+            }
+            return allocated;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long maximumBytes() {
+        return (long) slabs.length * slabBytes;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted to make room for new ones.
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private V read(long key) {
+        int address = index.get(key);
+        if (address == NO_ADDRESS) {
+            return null;
+        }
+        long position = (long) address * ALIGNMENT;
+        ByteBuffer slab = slabs[(int) (position / slabBytes)];
+        int offset = (int) (position % slabBytes);
+        long writtenAt = slab.getLong(offset + Integer.BYTES + Long.BYTES);
+        if (clock.millis() - writtenAt >= expireAfterWriteMillis) {
+            return null;
+        }
+        return codec.decode(slab, offset + HEADER_BYTES, slab.getInt(offset));
+    }
+
+    private boolean removeEntry(long key) {
+        int address = index.remove(key);
+        if (address == NO_ADDRESS) {
+            return false;
+        }
+        long position = (long) address * ALIGNMENT;
+        int length = slabs[(int) (position / slabBytes)].getInt((int) (position % slabBytes));
+        liveBytes -= align(HEADER_BYTES + length);
+        return true;
+    }
+
+    /**
+     * Moves the write position to the start of the next slab, allocating it or evicting the entries left in it.
+     */
+    private void advance() {
+        if (slabs[writeSlab] != null && writeOffset < slabBytes) {
+            slabs[writeSlab].putInt(writeOffset, END_OF_SLAB);
+        }
+        writeSlab = slabs[writeSlab] == null ? writeSlab : (writeSlab + 1) % slabs.length;
+        writeOffset = 0;
+        if (slabs[writeSlab] == null) {
+            slabs[writeSlab] = ByteBuffer.allocateDirect(slabBytes);
+        } else {
+            evictSlab(writeSlab);
+        }
+    }
+
+    private void evictSlab(int slabIndex) {
+        ByteBuffer slab = slabs[slabIndex];
+        int offset = 0;
+        while (offset + HEADER_BYTES <= slabBytes) {
+            int length = slab.getInt(offset);
+            if (length == END_OF_SLAB) {
+                break;
+            }
+            int recordBytes = align(HEADER_BYTES + length);
+            long key = slab.getLong(offset + Integer.BYTES);
+            // Only the latest record of a key is in the index; older ones were replaced or removed.
+            if (index.get(key) == address(slabIndex, offset)) {
+                index.remove(key);
+                liveBytes -= recordBytes;
+                evictions.increment();
+            }
+            offset += recordBytes;
+        }
+    }
+
+    private int address(int slabIndex, int offset) {
+        return (int) (((long) slabIndex * slabBytes + offset) / ALIGNMENT);
+    }
+
+    private static int align(int bytes) {
+        return (bytes + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+}
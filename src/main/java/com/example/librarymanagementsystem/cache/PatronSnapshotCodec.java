@@ -0,0 +1,51 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.entity.PatronTier;
+import com.example.librarymanagementsystem.snapshot.PatronSnapshot;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes patron snapshots as: the ID, the version, then the name, phone number, email address and name of the tier
+ * as UTF-8 bytes each preceded by their length (-1 for null). The tier is stored by name so that records written
+ * before tiers are reordered still decode.
+ */
+public class PatronSnapshotCodec implements RecordCodec<PatronSnapshot> {
+
+    private static final int FIXED_BYTES = Long.BYTES + Long.BYTES;
+
+    @Override
+    public Class<PatronSnapshot> type() {
+        return PatronSnapshot.class;
+    }
+
+    @Override
+    public byte[] encode(PatronSnapshot patron) {
+        byte[] name = EncodedStrings.utf8(patron.name());
+        byte[] phoneNumber = EncodedStrings.utf8(patron.phoneNumber());
+        byte[] emailAddress = EncodedStrings.utf8(patron.emailAddress());
+        byte[] tier = EncodedStrings.utf8(patron.tier() == null ? null : patron.tier().name());
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_BYTES + EncodedStrings.bytes(name)
+                + EncodedStrings.bytes(phoneNumber) + EncodedStrings.bytes(emailAddress) + EncodedStrings.bytes(tier));
+        buffer.putLong(patron.id());
+        buffer.putLong(patron.version());
+        EncodedStrings.put(buffer, name);
+        EncodedStrings.put(buffer, phoneNumber);
+        EncodedStrings.put(buffer, emailAddress);
+        EncodedStrings.put(buffer, tier);
+        return buffer.array();
+    }
+
+    @Override
+    public PatronSnapshot decode(ByteBuffer buffer, int offset, int length) {
+        long id = buffer.getLong(offset);
+        long version = buffer.getLong(offset + Long.BYTES);
+        int[] position = {offset + FIXED_BYTES};
+        String name = EncodedStrings.get(buffer, position);
+        String phoneNumber = EncodedStrings.get(buffer, position);
+        String emailAddress = EncodedStrings.get(buffer, position);
+        String tier = EncodedStrings.get(buffer, position);
+        return new PatronSnapshot(id, name, phoneNumber, emailAddress, tier == null ? null : PatronTier.valueOf(tier),
+                version);
+    }
+}
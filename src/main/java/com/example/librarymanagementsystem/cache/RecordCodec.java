@@ -0,0 +1,31 @@
+package com.example.librarymanagementsystem.cache;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns the values of a cache into compact byte records, so that they can be kept outside the Java heap by an
+ * {@link OffHeapStore}.
+ *
+ * @param <V> the type of the values
+ */
+public interface RecordCodec<V> {
+
+    /**
+     * Returns the type of the values this codec encodes; other values are not stored.
+     */
+    Class<V> type();
+
+    /**
+     * Encodes a value into a new array.
+     */
+    byte[] encode(V value);
+
+    /**
+     * Decodes a value from a buffer, without changing the position of the buffer.
+     *
+     * @param buffer the buffer holding the record
+     * @param offset the index of the first byte of the record
+     * @param length the length of the record, as returned by {@link #encode(Object)}
+     */
+    V decode(ByteBuffer buffer, int offset, int length);
+}
@@ -0,0 +1,24 @@
+package com.example.librarymanagementsystem.cache;
+
+import java.util.Map;
+
+/**
+ * The codecs of the values of the caches, for the caches whose values can be kept outside the heap or written to a
+ * snapshot file.
+ */
+public final class RecordCodecs {
+
+    private static final Map<String, RecordCodec<?>> BY_CACHE = Map.of(
+            "books", new BookSnapshotCodec(),
+            "patrons", new PatronSnapshotCodec());
+
+    private RecordCodecs() {
+    }
+
+    /**
+     * Returns the codec of the values of a cache, or null if they cannot be encoded.
+     */
+    public static RecordCodec<?> forCache(String cacheName) {
+        return BY_CACHE.get(cacheName);
+    }
+}
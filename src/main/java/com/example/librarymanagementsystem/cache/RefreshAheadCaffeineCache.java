@@ -0,0 +1,115 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A Caffeine cache whose entries are reloaded in the background when they are read after a refresh period, so that
+ * keys that are still being read are replaced before they expire and their readers never wait for the database.
+ * Entries that are no longer read are left to expire.
+ * A reload only replaces the value it was started for: if the entry was updated or evicted in the meantime, the
+ * result is dropped, so a refresh never brings back a deleted or outdated value. At most one reload per key runs at a
+ * time.
+ */
+public class RefreshAheadCaffeineCache extends CaffeineCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshAheadCaffeineCache.class);
+
+    private final CacheEntryLoader loader;
+    private final Policy.Expiration<Object, Object> expiration;
+    private final long refreshAfterNanos;
+    private final Executor executor;
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    /**
+     * @param cache        the Caffeine cache, which must expire its entries after write
+     * @param loader       reads the current value of an entry
+     * @param refreshAfter how long after it was written an entry that is read is reloaded
+     * @param executor     runs the reloads
+     */
+    public RefreshAheadCaffeineCache(String name, Cache<Object, Object> cache, CacheEntryLoader loader,
+                                     Duration refreshAfter, Executor executor) {
+        super(name, cache);
+        this.loader = loader;
+        this.expiration = cache.policy().expireAfterWrite().orElseThrow(() ->
+                new IllegalArgumentException("The " + name + " cache does not expire its entries"));
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the number of entries reloaded in the background.
+     */
+    public long refreshCount() {
+        return refreshes.sum();
+    }
+
+    /**
+     * Returns the number of background reloads that failed; the entry is then kept until it expires.
+     */
+    public long refreshFailureCount() {
+        return refreshFailures.sum();
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        if (value != null) {
+            refreshIfStale(key);
+        }
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        T value = super.get(key, valueLoader);
+        refreshIfStale(key);
+        return value;
+    }
+
+    private void refreshIfStale(Object key) {
+        OptionalLong age = expiration.ageOf(key, TimeUnit.NANOSECONDS);
+        if (age.isEmpty() || age.getAsLong() < refreshAfterNanos || !refreshing.add(key)) {
+            return;
+        }
+        Object stale = getNativeCache().asMap().get(key);
+        if (stale == null) {
+            refreshing.remove(key);
+            return;
+        }
+        try {
+            executor.execute(() -> refresh(key, stale));
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    private void refresh(Object key, Object stale) {
+        try {
+            Object fresh = loader.load(key);
+            // A null result removes the entry, since what it was loaded from no longer exists.
+            getNativeCache().asMap().computeIfPresent(key, (k, current) -> current == stale ? fresh : current);
+            refreshes.increment();
+        } catch (RuntimeException e) {
+            refreshFailures.increment();
+            logger.warn("Failed to refresh entry {} of the {} cache", key, getName(), e);
+        } finally {
+            refreshing.remove(key);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.snapshot.Snapshot;
+import org.springframework.cache.Cache;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache holding values restored from a snapshot file, which may have changed while the application was down.
+ * A restored value is checked against the version of its entity the first time it is read: if the version still
+ * matches, the value is kept and served from then on, otherwise it is evicted and the read is a miss. Values put by
+ * the application are current and are never checked.
+ */
+public class RevalidatingCache implements DelegatingCache {
+
+    private final Cache target;
+    private final CacheEntryLoader loader;
+    private final Set<Object> unchecked = ConcurrentHashMap.newKeySet();
+    private final LongAdder current = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+
+    /**
+     * @param target the cache holding the values
+     * @param loader reads the current versions of the entries
+     */
+    public RevalidatingCache(Cache target, CacheEntryLoader loader) {
+        this.target = target;
+        this.loader = loader;
+    }
+
+    /**
+     * Adds a restored value, unless the key already has one, and checks it when it is first read.
+     */
+    public void restore(Object key, Snapshot value) {
+        unchecked.add(key);
+        if (target.putIfAbsent(key, value) != null) {
+            unchecked.remove(key);
+        }
+    }
+
+    /**
+     * Returns the number of restored values that were still current when checked.
+     */
+    public long currentCount() {
+        return current.sum();
+    }
+
+    /**
+     * Returns the number of restored values that had changed when checked, and were evicted.
+     */
+    public long staleCount() {
+        return stale.sum();
+    }
+
+    @Override
+    public Cache getTargetCache() {
+        return target;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = target.get(key);
+        if (wrapper == null || !unchecked.contains(key)) {
+            return wrapper;
+        }
+        return check(key, wrapper.get()) ? wrapper : null;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        if (unchecked.contains(key)) {
+            get(key);
+        }
+        return target.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (unchecked.contains(key)) {
+            get(key);
+        }
+        return target.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        target.put(key, value);
+        unchecked.remove(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        return existing != null ? existing : target.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+        unchecked.remove(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = target.evictIfPresent(key);
+        unchecked.remove(key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+        unchecked.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = target.invalidate();
+        unchecked.clear();
+        return notEmpty;
+    }
+
+    /**
+     * Checks a restored value against the current version of its entity, evicting it if it has changed.
+     */
+    private boolean check(Object key, Object value) {
+        boolean isCurrent = value instanceof Snapshot snapshot
+                && Objects.equals(loader.loadVersion(key), snapshot.version());
+        if (isCurrent) {
+            current.increment();
+            unchecked.remove(key);
+        } else {
+            stale.increment();
+            evict(key);
+        }
+        return isCurrent;
+    }
+}
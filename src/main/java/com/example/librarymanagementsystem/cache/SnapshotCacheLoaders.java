@@ -0,0 +1,65 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.repository.PatronRepository;
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import com.example.librarymanagementsystem.snapshot.PatronSnapshot;
+import com.example.librarymanagementsystem.snapshot.Snapshot;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Loaders used to refresh, warm up and check the entries of the "books" and "patrons" caches, reading the same
+ * snapshots as the services do on a cache miss.
+ */
+@Configuration
+public class SnapshotCacheLoaders {
+
+    @Bean
+    public CacheEntryLoader bookSnapshotLoader(BookRepository bookRepository) {
+        return new RepositoryLoader<>("books", bookRepository, BookSnapshot::of, bookRepository::findVersionById);
+    }
+
+    @Bean
+    public CacheEntryLoader patronSnapshotLoader(PatronRepository patronRepository) {
+        return new RepositoryLoader<>("patrons", patronRepository, PatronSnapshot::of,
+                patronRepository::findVersionById);
+    }
+
+    /**
+     * Loads the snapshots of the entities of one repository, keyed by ID.
+     */
+    private record RepositoryLoader<E>(String cacheName, JpaRepository<E, Long> repository,
+                                       Function<E, Snapshot> toSnapshot,
+                                       Function<Long, Optional<Long>> findVersion) implements CacheEntryLoader {
+
+        @Override
+        public Object load(Object key) {
+            return repository.findById((Long) key).map(toSnapshot).orElse(null);
+        }
+
+        @Override
+        public Map<Object, Object> loadAll(Collection<?> keys) {
+            List<Long> ids = keys.stream().map(Long.class::cast).toList();
+            Map<Object, Object> snapshots = new HashMap<>();
+            for (E entity : repository.findAllById(ids)) {
+                Snapshot snapshot = toSnapshot.apply(entity);
+                snapshots.put(snapshot.id(), snapshot);
+            }
+            return snapshots;
+        }
+
+        @Override
+        public Long loadVersion(Object key) {
+            return findVersion.apply((Long) key).orElse(null);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache in two tiers: a Caffeine cache on the heap in front of a larger {@link OffHeapStore}.
+ * Entries evicted from the Caffeine cache because it is full are demoted to the off-heap store, and moved back to
+ * the Caffeine cache when they are read again, so each entry is in one tier at a time and the database is only asked
+ * for entries found in neither. Entries that expire in the Caffeine cache are dropped, not demoted.
+ * Only entries with long keys and values of the type of the store go to the off-heap tier.
+ * Demotion runs inside Caffeine's atomic eviction of the entry, and promotion, puts and evictions go through the
+ * Caffeine entry of the key too, so a demoted value can never outlive a put or an eviction of its key. A clear
+ * empties the off-heap tier first and refuses demotions until the heap tier is empty too, and a value taken
+ * off-heap before a clear but promoted after it is evicted again, so no value can move between the tiers and
+ * outlive a clear.
+ * An entry keeps its off-heap expiry from the time it was demoted; the Caffeine expiry starts again when it is
+ * promoted.
+ */
+public class TieredCache implements Cache {
+
+    private final CaffeineCache onHeap;
+    private final OffHeapStore<?> offHeap;
+    /**
+     * Counted when a clear starts and when it ends.
+     */
+    private final AtomicLong clears = new AtomicLong();
+
+    /**
+     * @param onHeap  the Caffeine cache, which must have been built with the {@link #demoter(OffHeapStore)} of the
+     *                off-heap store as its eviction listener
+     * @param offHeap the off-heap store
+     */
+    public TieredCache(CaffeineCache onHeap, OffHeapStore<?> offHeap) {
+        this.onHeap = onHeap;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Returns the eviction listener that demotes the entries a Caffeine cache evicts for size to an off-heap store.
+     */
+    public static <V> RemovalListener<Object, Object> demoter(OffHeapStore<V> offHeap) {
+        return (key, value, cause) -> {
+            if (cause == RemovalCause.SIZE && key instanceof Long id && offHeap.valueType().isInstance(value)) {
+                offHeap.put(id, offHeap.valueType().cast(value));
+            }
+        };
+    }
+
+    public CaffeineCache getOnHeap() {
+        return onHeap;
+    }
+
+    public OffHeapStore<?> getOffHeap() {
+        return offHeap;
+    }
+
+    @Override
+    public String getName() {
+        return onHeap.getName();
+    }
+
+    /**
+     * Returns the Caffeine cache of the heap tier.
+     */
+    @Override
+    public com.github.benmanes.caffeine.cache.Cache<Object, Object> getNativeCache() {
+        return onHeap.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper onHeapValue = onHeap.get(key);
+        if (onHeapValue != null || !(key instanceof Long id)) {
+            return onHeapValue;
+        }
+        long clearsBefore = clears.get();
+        Object promoted = map().computeIfAbsent(key, k -> offHeap.take(id));
+        if (promoted == null) {
+            return null;
+        }
+        evictIfClearedSince(clearsBefore, key);
+        return new SimpleValueWrapper(promoted == NullValue.INSTANCE ? null : promoted);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: "
+                    + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // The loader runs while Caffeine holds the entry, so the value is taken off-heap or loaded only once.
+        long clearsBefore = clears.get();
+        T value = onHeap.get(key, () -> {
+            Object demoted = key instanceof Long id ? offHeap.take(id) : null;
+            return demoted != null ? (T) demoted : valueLoader.call();
+        });
+        evictIfClearedSince(clearsBefore, key);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        onHeap.put(key, value);
+        removeOffHeap(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        return existing != null ? existing : onHeap.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictIfPresent(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean[] present = {false};
+        map().compute(key, (k, current) -> {
+            boolean offHeapPresent = key instanceof Long id && offHeap.remove(id);
+            present[0] = current != null || offHeapPresent;
+            return null;
+        });
+        return present[0];
+    }
+
+    @Override
+    public void clear() {
+        clears.incrementAndGet();
+        offHeap.clearAndRefusePuts();
+        try {
+            onHeap.clear();
+        } finally {
+            clears.incrementAndGet();
+            offHeap.acceptPuts();
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = offHeap.size() > 0;
+        clears.incrementAndGet();
+        offHeap.clearAndRefusePuts();
+        try {
+            return onHeap.invalidate() | notEmpty;
+        } finally {
+            clears.incrementAndGet();
+            offHeap.acceptPuts();
+        }
+    }
+
+    /**
+     * Evicts a value just promoted or loaded if the cache was cleared meanwhile, since the value may have been taken
+     * off-heap before the clear and put on the heap after the heap tier was emptied. The count of clears is odd
+     * while a clear runs, so a value promoted during a clear is evicted even if the count is read again before the
+     * clear ends.
+     */
+    private void evictIfClearedSince(long clearsBefore, Object key) {
+        if ((clearsBefore & 1) != 0 || clears.get() != clearsBefore) {
+            evictIfPresent(key);
+        }
+    }
+
+    private ConcurrentMap<Object, Object> map() {
+        return onHeap.getNativeCache().asMap();
+    }
+
+    private void removeOffHeap(Object key) {
+        if (key instanceof Long id) {
+            offHeap.remove(id);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.librarymanagementsystem.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+
+/**
+ * Publishes the metrics of a {@link TieredCache}: the usual {@code cache.*} metrics of its Caffeine cache, and the
+ * {@code cache.off-heap.*} metrics of its off-heap store.
+ */
+public class TieredCacheMeterBinderProvider implements CacheMeterBinderProvider<TieredCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(TieredCache cache, Iterable<Tag> tags) {
+        return registry -> {
+            new CaffeineCacheMetrics<>(cache.getNativeCache(), cache.getName(), tags).bindTo(registry);
+            OffHeapStore<?> offHeap = cache.getOffHeap();
+            Tags offHeapTags = Tags.of(tags).and("cache", cache.getName());
+            FunctionCounter.builder("cache.off-heap.gets", offHeap, OffHeapStore::hitCount)
+                    .tags(offHeapTags.and("result", "hit"))
+                    .description("The number of reads of the off-heap tier that found an entry")
+                    .register(registry);
+            FunctionCounter.builder("cache.off-heap.gets", offHeap, OffHeapStore::missCount)
+                    .tags(offHeapTags.and("result", "miss"))
+                    .description("The number of reads of the off-heap tier that found no entry")
+                    .register(registry);
+            FunctionCounter.builder("cache.off-heap.evictions", offHeap, OffHeapStore::evictionCount)
+                    .tags(offHeapTags)
+                    .description("The number of entries evicted from the off-heap tier")
+                    .register(registry);
+            Gauge.builder("cache.off-heap.size", offHeap, OffHeapStore::size)
+                    .tags(offHeapTags)
+                    .description("The number of entries in the off-heap tier")
+                    .register(registry);
+            Gauge.builder("cache.off-heap.used", offHeap, OffHeapStore::liveBytes)
+                    .tags(offHeapTags)
+                    .baseUnit("bytes")
+                    .description("The memory taken by the entries of the off-heap tier")
+                    .register(registry);
+            Gauge.builder("cache.off-heap.allocated", offHeap, OffHeapStore::allocatedBytes)
+                    .tags(offHeapTags)
+                    .baseUnit("bytes")
+                    .description("The memory allocated by the off-heap tier")
+                    .register(registry);
+        };
+    }
+}
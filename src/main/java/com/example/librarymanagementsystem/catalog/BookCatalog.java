@@ -0,0 +1,226 @@
+package com.example.librarymanagementsystem.catalog;
+
+import com.example.librarymanagementsystem.cache.CacheChangeListener;
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves the book list and counts from a {@link CatalogSnapshot} of every book held in memory, so that those reads
+ * neither query the database nor take a lock.
+ * The catalog hears of every change of a book through the "books" cache, which the application puts or evicts
+ * whenever a book changes, on this instance or, with the invalidation bus, on another one. Changed books are
+ * collected and applied together: the first read after the oldest pending change is older than
+ * {@code library.catalog.max-staleness} reads the changed books in one query and builds the next snapshot, copying
+ * the unchanged books; the other readers meanwhile keep reading the previous snapshot. A cleared cache or a bulk
+ * import reloads every book instead, and the new snapshot replaces the previous one at once. Every book is also
+ * reloaded every {@code library.catalog.reload-interval}, in case a change was not heard of.
+ */
+@Component
+public class BookCatalog implements CacheChangeListener, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookCatalog.class);
+    private static final int BATCH_SIZE = 1000;
+    private static final long NONE_PENDING = Long.MIN_VALUE;
+
+    private final BookRepository bookRepository;
+    private final long maxStalenessNanos;
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final Set<Long> changedIds = ConcurrentHashMap.newKeySet();
+    private final AtomicLong pendingSince = new AtomicLong(NONE_PENDING);
+    private volatile boolean reloadRequested;
+    private volatile CatalogSnapshot current;
+
+    /**
+     * @param bookRepository the repository the books are read from
+     * @param maxStaleness   how long a change may go unseen by the readers
+     */
+    @Autowired
+    public BookCatalog(BookRepository bookRepository,
+                       @Value("${library.catalog.max-staleness:PT1S}") Duration maxStaleness) {
+        this.bookRepository = bookRepository;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+    }
+
+    /**
+     * Returns the current snapshot, first applying the pending changes if they are due and no other thread is.
+     * The first read waits for every book to be loaded.
+     */
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot snapshot = current;
+        if (snapshot == null) {
+            return loadFirst();
+        }
+        if (isDue() && updateLock.tryLock()) {
+            try {
+                snapshot = applyPending();
+            } finally {
+                updateLock.unlock();
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public String cacheName() {
+        return "books";
+    }
+
+    @Override
+    public void changed(Object key) {
+        if (key instanceof Long id) {
+            changedIds.add(id);
+        } else {
+            reloadRequested = true;
+        }
+        pendingSince.compareAndSet(NONE_PENDING, System.nanoTime());
+    }
+
+    @Override
+    public void cleared() {
+        reloadRequested = true;
+        pendingSince.compareAndSet(NONE_PENDING, System.nanoTime());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to load the book catalog, it is loaded on the first read", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.catalog.reload-interval:PT1H}",
+            initialDelayString = "${library.catalog.reload-interval:PT1H}")
+    public void reloadOnSchedule() {
+        load();
+    }
+
+    /**
+     * Reads every book and replaces the snapshot with them, after a bulk change.
+     */
+    public void reload() {
+        updateLock.lock();
+        try {
+            reloadLocked();
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private CatalogSnapshot loadFirst() {
+        updateLock.lock();
+        try {
+            return current != null ? current : reloadLocked();
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private boolean isDue() {
+        long since = pendingSince.get();
+        return since != NONE_PENDING && System.nanoTime() - since >= maxStalenessNanos;
+    }
+
+    /**
+     * Builds the next snapshot from the pending changes. If the books cannot be read, the changes are kept pending
+     * and the previous snapshot is served until the next attempt, one staleness bound later.
+     */
+    private CatalogSnapshot applyPending() {
+        // Cleared first, so that a change heard of from now on is applied next time.
+        pendingSince.set(NONE_PENDING);
+        if (reloadRequested) {
+            try {
+                return reloadLocked();
+            } catch (RuntimeException e) {
+                reloadRequested = true;
+                pendingSince.compareAndSet(NONE_PENDING, System.nanoTime());
+                logger.warn("Failed to reload the book catalog, serving version {}", current.version(), e);
+                return current;
+            }
+        }
+        List<Long> ids = new ArrayList<>(changedIds);
+        if (ids.isEmpty()) {
+            return current;
+        }
+        // Changes heard of from now on were committed before these books are read, or are applied next time.
+        changedIds.removeAll(ids);
+        try {
+            Map<Long, BookSnapshot> books = new HashMap<>();
+            for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                for (Book book : bookRepository.findAllById(ids.subList(from, Math.min(from + BATCH_SIZE,
+                        ids.size())))) {
+                    books.put(book.getId(), BookSnapshot.of(book));
+                }
+            }
+            current = current.withChanges(ids.stream().mapToLong(Long::longValue).sorted().toArray(), books);
+            return current;
+        } catch (RuntimeException e) {
+            changedIds.addAll(ids);
+            pendingSince.compareAndSet(NONE_PENDING, System.nanoTime());
+            logger.warn("Failed to apply {} book changes to the catalog, serving version {}", ids.size(),
+                    current.version(), e);
+            return current;
+        }
+    }
+
+    private CatalogSnapshot reloadLocked() {
+        long startTime = System.currentTimeMillis();
+        // Every change heard of so far is read below; those heard of from now on are applied next time.
+        reloadRequested = false;
+        changedIds.clear();
+        List<BookSnapshot> books = new ArrayList<>();
+        PageRequest pageRequest = PageRequest.of(0, BATCH_SIZE, Sort.by(Sort.Direction.ASC, "id"));
+        long afterId = 0;
+        Slice<Book> page;
+        do {
+            page = bookRepository.findByIdGreaterThan(afterId, pageRequest);
+            for (Book book : page) {
+                books.add(BookSnapshot.of(book));
+                afterId = book.getId();
+            }
+        } while (page.hasNext());
+        CatalogSnapshot previous = current;
+        current = new CatalogSnapshot(epoch, previous == null ? 1 : previous.version() + 1, books);
+        logger.info("Book catalog loaded with {} books in {} ms", books.size(),
+                System.currentTimeMillis() - startTime);
+        return current;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("catalog.books", this, catalog -> catalog.current == null ? 0 : catalog.current.size())
+                .description("The number of books in the catalog snapshot")
+                .register(registry);
+        Gauge.builder("catalog.version", this, catalog -> catalog.current == null ? 0 : catalog.current.version())
+                .description("The version of the catalog snapshot")
+                .register(registry);
+    }
+}
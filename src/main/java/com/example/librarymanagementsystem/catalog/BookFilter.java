@@ -0,0 +1,27 @@
+package com.example.librarymanagementsystem.catalog;
+
+/**
+ * The conditions a book must meet to be listed or counted. A null condition is not checked.
+ *
+ * @param author   the author of the books, matched ignoring case
+ * @param borrowed whether the books are borrowed
+ */
+public record BookFilter(String author, Boolean borrowed) {
+
+    /**
+     * The filter every book meets.
+     */
+    public static final BookFilter NONE = new BookFilter(null, null);
+
+    public boolean isEmpty() {
+        return author == null && borrowed == null;
+    }
+
+    public boolean matchesAuthor(String bookAuthor) {
+        return author == null || author.equalsIgnoreCase(bookAuthor);
+    }
+
+    public boolean matchesBorrowed(boolean bookBorrowed) {
+        return borrowed == null || borrowed == bookBorrowed;
+    }
+}
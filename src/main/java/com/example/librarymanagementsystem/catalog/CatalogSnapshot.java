@@ -0,0 +1,398 @@
+package com.example.librarymanagementsystem.catalog;
+
+import com.example.librarymanagementsystem.cache.EncodedStrings;
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * An immutable copy of every book, ordered by ID, kept in columns of primitives rather than one object per book:
+ * a sorted array of the IDs and, at the same index, the index of the author in a table of distinct authors, the
+ * borrowed flag in a bit set, and the address of a record holding the other details. The records are encoded in
+ * large byte chunks, so a book takes about 80 bytes of heap and no object of its own; books are decoded only when a
+ * page of them is read, and filters are checked against the columns without decoding anything.
+ * It is never modified once built, so it can be read by any number of threads without locking; a change of the books
+ * builds a new copy with the next version. The new copy shares the chunks and the author table of the previous one,
+ * appending the records of the changed books to them, until the records no longer used take as much room as the
+ * ones in use and the next copy moves its records to new chunks.
+ */
+public final class CatalogSnapshot {
+
+    private static final int CHUNK_BYTES = 1024 * 1024;
+    /**
+     * A record starts with the version and the publication year, followed by the title and the ISBN.
+     */
+    private static final int FIXED_RECORD_BYTES = Long.BYTES + Integer.BYTES;
+
+    private final String epoch;
+    private final long version;
+    private final long[] ids;
+    private final int[] authorIndexes;
+    private final long[] borrowed;
+    private final long[] addresses;
+    private final long liveBytes;
+    private final RecordLog log;
+    private final byte[][] chunks;
+    private final String[] authors;
+
+    /**
+     * @param epoch   identifies the process that built the snapshot, whose versions are counted from 1
+     * @param version the version of the snapshot
+     * @param books   the books, ordered by ID; they are copied
+     */
+    public CatalogSnapshot(String epoch, long version, List<BookSnapshot> books) {
+        this(epoch, version, build(books));
+    }
+
+    private CatalogSnapshot(String epoch, long version, Builder builder) {
+        this.epoch = epoch;
+        this.version = version;
+        this.ids = Arrays.copyOf(builder.ids, builder.size);
+        this.authorIndexes = Arrays.copyOf(builder.authorIndexes, builder.size);
+        this.borrowed = Arrays.copyOf(builder.borrowed, words(builder.size));
+        this.addresses = Arrays.copyOf(builder.addresses, builder.size);
+        this.liveBytes = builder.liveBytes;
+        this.log = builder.log;
+        this.chunks = log.chunks();
+        this.authors = log.authors();
+    }
+
+    private static Builder build(List<BookSnapshot> books) {
+        Builder builder = new Builder(new RecordLog(), books.size());
+        for (BookSnapshot book : books) {
+            if (builder.size > 0 && book.id() <= builder.ids[builder.size - 1]) {
+                throw new IllegalArgumentException("The books are not ordered by ID");
+            }
+            builder.add(book);
+        }
+        return builder;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Returns a tag identifying this snapshot across the instances of the application and their restarts, which
+     * changes whenever the books do.
+     */
+    public String tag() {
+        return epoch + "-" + version;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Returns every book, ordered by ID. The books are decoded as they are read from the list.
+     */
+    public List<BookSnapshot> books() {
+        return new Books();
+    }
+
+    /**
+     * Returns the book with the given ID, or null if this snapshot has none.
+     */
+    public BookSnapshot book(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? decode(index) : null;
+    }
+
+    /**
+     * Returns the books meeting a filter whose ID follows a cursor, in ascending order of ID.
+     *
+     * @param afterId the ID of the last book of the previous page, or null for the first page
+     * @param limit   the maximum number of books
+     */
+    public Slice<BookSnapshot> page(Long afterId, int limit, BookFilter filter) {
+        int from = afterId == null ? 0 : indexAfter(afterId);
+        boolean[] authorMatches = authorMatches(filter);
+        List<BookSnapshot> content = new ArrayList<>(Math.min(limit, ids.length - from));
+        boolean hasNext = false;
+        for (int i = from; i < ids.length; i++) {
+            if (matches(i, filter, authorMatches)) {
+                if (content.size() == limit) {
+                    hasNext = true;
+                    break;
+                }
+                content.add(decode(i));
+            }
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, limit, Sort.by(Sort.Direction.ASC, "id")), hasNext);
+    }
+
+    /**
+     * Returns the number of books meeting a filter.
+     */
+    public long count(BookFilter filter) {
+        if (filter.isEmpty()) {
+            return ids.length;
+        }
+        boolean[] authorMatches = authorMatches(filter);
+        long count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (matches(i, filter, authorMatches)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Builds the next version of this snapshot, in which some books have changed.
+     *
+     * @param changedIds the IDs of the changed books, in ascending order
+     * @param current    the current snapshots of the changed books that still exist, by ID
+     */
+    public CatalogSnapshot withChanges(long[] changedIds, Map<Long, BookSnapshot> current) {
+        boolean compact = log.size() > 2 * liveBytes + CHUNK_BYTES;
+        Builder builder = new Builder(compact ? new RecordLog() : log, ids.length + changedIds.length);
+        builder.liveBytes = compact ? 0 : liveBytes;
+        int i = 0;
+        int c = 0;
+        while (i < ids.length || c < changedIds.length) {
+            if (c == changedIds.length || (i < ids.length && ids[i] < changedIds[c])) {
+                if (compact) {
+                    builder.copy(this, i++);
+                } else {
+                    builder.keep(this, i++);
+                }
+                continue;
+            }
+            long changedId = changedIds[c++];
+            if (i < ids.length && ids[i] == changedId) {
+                if (!compact) {
+                    builder.liveBytes -= recordBytes(i);
+                }
+                i++;
+            }
+            BookSnapshot book = current.get(changedId);
+            if (book != null) {
+                builder.add(book);
+            }
+        }
+        return new CatalogSnapshot(epoch, version + 1, builder);
+    }
+
+    private boolean matches(int index, BookFilter filter, boolean[] authorMatches) {
+        return (authorMatches == null || authorMatches[authorIndexes[index]])
+                && filter.matchesBorrowed(isBorrowed(index));
+    }
+
+    /**
+     * Checks the author condition of a filter against every distinct author once, or returns null if it has none.
+     */
+    private boolean[] authorMatches(BookFilter filter) {
+        if (filter.author() == null) {
+            return null;
+        }
+        boolean[] matches = new boolean[authors.length];
+        for (int i = 0; i < authors.length; i++) {
+            matches[i] = filter.matchesAuthor(authors[i]);
+        }
+        return matches;
+    }
+
+    private boolean isBorrowed(int index) {
+        return (borrowed[index >>> 6] & 1L << index) != 0;
+    }
+
+    private BookSnapshot decode(int index) {
+        long address = addresses[index];
+        ByteBuffer chunk = ByteBuffer.wrap(chunks[(int) (address >>> 32)]);
+        int offset = (int) address;
+        long bookVersion = chunk.getLong(offset);
+        int publicationYear = chunk.getInt(offset + Long.BYTES);
+        int[] position = {offset + FIXED_RECORD_BYTES};
+        String title = EncodedStrings.get(chunk, position);
+        String isbn = EncodedStrings.get(chunk, position);
+        return new BookSnapshot(ids[index], title, authors[authorIndexes[index]], publicationYear, isbn,
+                isBorrowed(index), bookVersion);
+    }
+
+    private int recordBytes(int index) {
+        long address = addresses[index];
+        ByteBuffer chunk = ByteBuffer.wrap(chunks[(int) (address >>> 32)]);
+        int titleOffset = (int) address + FIXED_RECORD_BYTES;
+        int isbnOffset = titleOffset + Integer.BYTES + Math.max(0, chunk.getInt(titleOffset));
+        return isbnOffset + Integer.BYTES + Math.max(0, chunk.getInt(isbnOffset)) - (int) address;
+    }
+
+    /**
+     * Returns the index of the first ID greater than the given one.
+     */
+    private int indexAfter(long afterId) {
+        int index = Arrays.binarySearch(ids, afterId);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private static byte[] encode(BookSnapshot book) {
+        byte[] title = EncodedStrings.utf8(book.title());
+        byte[] isbn = EncodedStrings.utf8(book.isbn());
+        ByteBuffer record = ByteBuffer.allocate(FIXED_RECORD_BYTES + EncodedStrings.bytes(title)
+                + EncodedStrings.bytes(isbn));
+        record.putLong(book.version());
+        record.putInt(book.publicationYear());
+        EncodedStrings.put(record, title);
+        EncodedStrings.put(record, isbn);
+        return record.array();
+    }
+
+    /**
+     * Fills the columns of the next snapshot. Not thread-safe.
+     */
+    private static final class Builder {
+
+        private final RecordLog log;
+        private final long[] ids;
+        private final int[] authorIndexes;
+        private final long[] borrowed;
+        private final long[] addresses;
+        private int size;
+        private long liveBytes;
+
+        Builder(RecordLog log, int capacity) {
+            this.log = log;
+            this.ids = new long[capacity];
+            this.authorIndexes = new int[capacity];
+            this.borrowed = new long[words(capacity)];
+            this.addresses = new long[capacity];
+        }
+
+        /**
+         * Appends a book, encoding its record.
+         */
+        void add(BookSnapshot book) {
+            byte[] record = encode(book);
+            append(book.id(), log.author(book.author()), book.borrowed(), log.append(record));
+            liveBytes += record.length;
+        }
+
+        /**
+         * Appends a book of a snapshot sharing the log of this one, reusing its record.
+         */
+        void keep(CatalogSnapshot snapshot, int index) {
+            append(snapshot.ids[index], snapshot.authorIndexes[index], snapshot.isBorrowed(index),
+                    snapshot.addresses[index]);
+        }
+
+        /**
+         * Appends a book of a snapshot with another log, copying its record.
+         */
+        void copy(CatalogSnapshot snapshot, int index) {
+            long address = snapshot.addresses[index];
+            int offset = (int) address;
+            int length = snapshot.recordBytes(index);
+            byte[] record = Arrays.copyOfRange(snapshot.chunks[(int) (address >>> 32)], offset, offset + length);
+            append(snapshot.ids[index], log.author(snapshot.authors[snapshot.authorIndexes[index]]),
+                    snapshot.isBorrowed(index), log.append(record));
+            liveBytes += length;
+        }
+
+        private void append(long id, int authorIndex, boolean isBorrowed, long address) {
+            ids[size] = id;
+            authorIndexes[size] = authorIndex;
+            if (isBorrowed) {
+                borrowed[size >>> 6] |= 1L << size;
+            }
+            addresses[size] = address;
+            size++;
+        }
+    }
+
+    /**
+     * The chunks of records and the table of authors shared by successive snapshots. Both are only ever appended
+     * to, and a snapshot only reads the records and authors that were appended before it was built, so appending
+     * never disturbs the snapshots already built.
+     */
+    private static final class RecordLog {
+
+        private final Map<String, Integer> authorIndexes = new HashMap<>();
+        private byte[][] chunks = new byte[0][];
+        private int writeOffset = CHUNK_BYTES;
+        private long size;
+        private String[] authors = new String[16];
+        private int authorCount;
+
+        /**
+         * Appends a record, in a chunk of its own if it is larger than a chunk, and returns its address: the index
+         * of its chunk in the high 32 bits and its offset in the low ones.
+         */
+        synchronized long append(byte[] record) {
+            if (writeOffset + record.length > CHUNK_BYTES) {
+                chunks = Arrays.copyOf(chunks, chunks.length + 1);
+                chunks[chunks.length - 1] = new byte[Math.max(CHUNK_BYTES, record.length)];
+                writeOffset = 0;
+            }
+            int chunk = chunks.length - 1;
+            System.arraycopy(record, 0, chunks[chunk], writeOffset, record.length);
+            long address = (long) chunk << 32 | writeOffset;
+            writeOffset += record.length;
+            size += record.length;
+            return address;
+        }
+
+        /**
+         * Returns the index of an author in the table, adding it if it is not there yet.
+         */
+        synchronized int author(String author) {
+            Integer index = authorIndexes.get(author);
+            if (index != null) {
+                return index;
+            }
+            if (authorCount == authors.length) {
+                authors = Arrays.copyOf(authors, authorCount * 2);
+            }
+            authors[authorCount] = author;
+            authorIndexes.put(author, authorCount);
+            return authorCount++;
+        }
+
+        synchronized long size() {
+            return size;
+        }
+
+        synchronized byte[][] chunks() {
+            return chunks;
+        }
+
+        synchronized String[] authors() {
+            return authors;
+        }
+    }
+
+    /**
+     * The books of this snapshot as a list, decoding each book when it is read.
+     */
+    private final class Books extends AbstractList<BookSnapshot> implements RandomAccess {
+
+        @Override
+        public BookSnapshot get(int index) {
+            if (index < 0 || index >= ids.length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return decode(index);
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+}
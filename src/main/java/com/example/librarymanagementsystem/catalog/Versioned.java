@@ -0,0 +1,11 @@
+package com.example.librarymanagementsystem.catalog;
+
+/**
+ * A value read from a {@link CatalogSnapshot}, with the tag of that snapshot, which callers can hand out as an
+ * entity tag: a value read again with the same tag is the same.
+ *
+ * @param value   the value read
+ * @param version the tag of the snapshot it was read from, see {@link CatalogSnapshot#tag()}
+ */
+public record Versioned<T>(T value, String version) {
+}
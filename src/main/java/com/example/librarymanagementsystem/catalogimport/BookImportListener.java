@@ -0,0 +1,30 @@
+package com.example.librarymanagementsystem.catalogimport;
+
+import com.example.librarymanagementsystem.dto.BookImportErrorDTOResponse;
+import com.example.librarymanagementsystem.dto.BookImportReportDTOResponse;
+
+/**
+ * Receives the progress of a running import. Calls are never concurrent, even though the stages of the
+ * import run on different threads.
+ */
+public interface BookImportListener {
+
+    BookImportListener NONE = new BookImportListener() {
+    };
+
+    /**
+     * Called for each row that was not imported.
+     *
+     * @param error the line of the row and why it was rejected
+     */
+    default void onRejected(BookImportErrorDTOResponse error) {
+    }
+
+    /**
+     * Called each time a chunk of books has been committed.
+     *
+     * @param progress the counters of the import so far
+     */
+    default void onProgress(BookImportReportDTOResponse progress) {
+    }
+}
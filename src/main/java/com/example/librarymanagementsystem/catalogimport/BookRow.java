@@ -0,0 +1,25 @@
+package com.example.librarymanagementsystem.catalogimport;
+
+import com.example.librarymanagementsystem.dto.BookDTORequest;
+
+/**
+ * One parsed row of an import file.
+ *
+ * @param line  the 1-based line number of the row in the file
+ * @param book  the parsed book, or null if the row could not be parsed
+ * @param error why the row could not be parsed, or null if it was parsed
+ */
+public record BookRow(long line, BookDTORequest book, String error) {
+
+    public static BookRow parsed(long line, BookDTORequest book) {
+        return new BookRow(line, book, null);
+    }
+
+    public static BookRow malformed(long line, String error) {
+        return new BookRow(line, null, error);
+    }
+
+    public boolean isMalformed() {
+        return error != null;
+    }
+}
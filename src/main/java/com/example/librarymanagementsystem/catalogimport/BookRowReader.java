@@ -0,0 +1,45 @@
+package com.example.librarymanagementsystem.catalogimport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams the rows of an import file one at a time, so memory use does not depend on the file size.
+ * A row that cannot be parsed is returned as a malformed row instead of aborting the import.
+ */
+public interface BookRowReader extends Closeable {
+
+    int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Reads the next non-blank row.
+     *
+     * @return the next row, or null at the end of the file
+     * @throws IOException if reading the underlying stream fails
+     */
+    BookRow next() throws IOException;
+
+    /**
+     * Opens a reader for the given format.
+     *
+     * @param format       the format of the file
+     * @param input        the file contents
+     * @param objectMapper the mapper used to parse JSON rows
+     * @return a reader positioned before the first row
+     * @throws IOException              if reading the underlying stream fails
+     * @throws IllegalArgumentException if the file cannot be imported at all, e.g. a CSV header is missing a column
+     */
+    static BookRowReader open(ImportFormat format, InputStream input, ObjectMapper objectMapper) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), BUFFER_SIZE);
+        return switch (format) {
+            case CSV -> new CsvBookRowReader(reader);
+            case NDJSON -> new NdjsonBookRowReader(reader, objectMapper);
+        };
+    }
+}
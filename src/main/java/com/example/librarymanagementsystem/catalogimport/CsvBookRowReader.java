@@ -0,0 +1,131 @@
+package com.example.librarymanagementsystem.catalogimport;
+
+import com.example.librarymanagementsystem.dto.BookDTORequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads books from CSV with a header row naming the columns title, author, publicationYear and isbn, in any order.
+ * Fields may be quoted with double quotes; a doubled quote inside a quoted field stands for one quote.
+ */
+class CsvBookRowReader implements BookRowReader {
+
+    private final BufferedReader reader;
+    private final int columns;
+    private final int titleIndex;
+    private final int authorIndex;
+    private final int publicationYearIndex;
+    private final int isbnIndex;
+    private long line;
+
+    CsvBookRowReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        String header = reader.readLine();
+        line = 1;
+        if (header == null) {
+            throw new IllegalArgumentException("The CSV file is empty");
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        List<String> names = new ArrayList<>();
+        for (String name : split(header)) {
+            names.add(name.trim().toLowerCase(Locale.ROOT));
+        }
+        columns = names.size();
+        titleIndex = requireColumn(names, "title");
+        authorIndex = requireColumn(names, "author");
+        publicationYearIndex = requireColumn(names, "publicationyear");
+        isbnIndex = requireColumn(names, "isbn");
+    }
+
+    @Override
+    public BookRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        try {
+            List<String> fields = split(text);
+            if (fields.size() != columns) {
+                return BookRow.malformed(line, "Expected " + columns + " columns but found " + fields.size());
+            }
+            return BookRow.parsed(line, new BookDTORequest(
+                    fields.get(titleIndex),
+                    fields.get(authorIndex),
+                    parseYear(fields.get(publicationYearIndex)),
+                    fields.get(isbnIndex),
+                    false));
+        } catch (IllegalArgumentException e) {
+            return BookRow.malformed(line, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static int requireColumn(List<String> names, String name) {
+        int index = names.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("The CSV header has no '" + name + "' column");
+        }
+        return index;
+    }
+
+    private static int parseYear(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Publication year must be a number");
+        }
+    }
+
+    /**
+     * Splits one CSV line into its fields.
+     *
+     * @param text the line
+     * @return the unquoted fields
+     * @throws IllegalArgumentException if a quoted field is not terminated
+     */
+    static List<String> split(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.librarymanagementsystem.catalogimport;
+
+import org.springframework.http.MediaType;
+
+/**
+ * File formats accepted by the bulk catalog import.
+ */
+public enum ImportFormat {
+    CSV(MediaType.valueOf("text/csv")),
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    ImportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Resolves the format of an upload from its Content-Type.
+     *
+     * @param contentType the Content-Type of the request
+     * @return the matching format
+     * @throws IllegalArgumentException if the content type is not supported
+     */
+    public static ImportFormat fromContentType(MediaType contentType) {
+        for (ImportFormat format : values()) {
+            if (format.mediaType.includes(contentType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import content type: " + contentType);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.librarymanagementsystem.catalogimport;
+
+import com.example.librarymanagementsystem.dto.BookDTORequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads books from newline-delimited JSON, one object with title, author, publicationYear and isbn per line.
+ * Lines are parsed independently, so a malformed line only rejects that row.
+ */
+class NdjsonBookRowReader implements BookRowReader {
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private long line;
+
+    NdjsonBookRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public BookRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            return BookRow.malformed(line, "Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            return BookRow.malformed(line, "Expected a JSON object");
+        }
+        JsonNode publicationYear = node.path("publicationYear");
+        if (!publicationYear.isMissingNode() && !publicationYear.canConvertToInt()) {
+            return BookRow.malformed(line, "Publication year must be a number");
+        }
+        return BookRow.parsed(line, new BookDTORequest(
+                text(node, "title"),
+                text(node, "author"),
+                publicationYear.asInt(),
+                text(node, "isbn"),
+                false));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
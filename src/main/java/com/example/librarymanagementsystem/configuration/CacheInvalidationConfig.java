@@ -0,0 +1,60 @@
+package com.example.librarymanagementsystem.configuration;
+
+import com.example.librarymanagementsystem.invalidation.CacheInvalidationBus;
+import com.example.librarymanagementsystem.invalidation.InvalidationTransport;
+import com.example.librarymanagementsystem.invalidation.JdbcInvalidationTransport;
+import com.example.librarymanagementsystem.invalidation.LoopbackInvalidationTransport;
+import com.example.librarymanagementsystem.repository.CacheInvalidationRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Configuration class for the invalidation of the caches across the instances of the application, enabled with
+ * {@code library.cache.invalidation.enabled=true}. The batches travel through the shared database by default
+ * ({@code library.cache.invalidation.transport=jdbc}), or only within the process with {@code loopback}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.cache.invalidation.enabled", havingValue = "true")
+public class CacheInvalidationConfig {
+
+    /**
+     * Creates the transport named by {@code library.cache.invalidation.transport}.
+     *
+     * @throws IllegalStateException if the transport is unknown
+     */
+    @Bean
+    public InvalidationTransport invalidationTransport(Environment environment,
+                                                       ObjectProvider<CacheInvalidationRepository> repository) {
+        Binder binder = Binder.get(environment);
+        String transport = binder.bind("library.cache.invalidation.transport", String.class).orElse("jdbc");
+        return switch (transport) {
+            case "jdbc" -> new JdbcInvalidationTransport(repository.getObject(),
+                    binder.bind("library.cache.invalidation.jdbc.poll-batch-size", Integer.class).orElse(1000),
+                    binder.bind("library.cache.invalidation.jdbc.retention", Duration.class)
+                            .orElse(Duration.ofHours(1)));
+            case "loopback" -> new LoopbackInvalidationTransport();
+            default -> throw new IllegalStateException("Unknown library.cache.invalidation.transport " + transport);
+        };
+    }
+
+    /**
+     * Creates the bus the caches publish their changes on.
+     *
+     * @param transport    the transport carrying the batches
+     * @param maxBatchSize the number of pending invalidations at which a batch is sent without waiting
+     * @return the bus
+     */
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(InvalidationTransport transport,
+                                                     @Value("${library.cache.invalidation.max-batch-size:500}")
+                                                     int maxBatchSize) {
+        return new CacheInvalidationBus(transport, maxBatchSize);
+    }
+}
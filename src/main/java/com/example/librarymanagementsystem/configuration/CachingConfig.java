@@ -1,45 +1,342 @@
 package com.example.librarymanagementsystem.configuration;
 
+import com.example.librarymanagementsystem.cache.AbsentIdFilter;
+import com.example.librarymanagementsystem.cache.CacheChangeListener;
+import com.example.librarymanagementsystem.cache.CacheEntryLoader;
+import com.example.librarymanagementsystem.cache.DelegatingCache;
+import com.example.librarymanagementsystem.cache.DelegatingCacheMeterBinderProvider;
+import com.example.librarymanagementsystem.cache.ObservedCache;
+import com.example.librarymanagementsystem.cache.OffHeapStore;
+import com.example.librarymanagementsystem.cache.RecordCodec;
+import com.example.librarymanagementsystem.cache.RecordCodecs;
+import com.example.librarymanagementsystem.cache.RefreshAheadCaffeineCache;
+import com.example.librarymanagementsystem.cache.RevalidatingCache;
+import com.example.librarymanagementsystem.cache.TieredCache;
+import com.example.librarymanagementsystem.cache.TieredCacheMeterBinderProvider;
+import com.example.librarymanagementsystem.invalidation.CacheInvalidationBus;
+import com.example.librarymanagementsystem.invalidation.ClusterInvalidatingCache;
+import com.example.librarymanagementsystem.snapshot.Snapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Configuration class for caching using Caffeine.
  * This class enables caching and configures the cache manager with Caffeine.
+ * The caching advice runs outside the transactional advice, so cache puts and evictions happen after the commit.
+ * Each cache has its own policy, read from the {@code library.cache.<name>.*} properties: a bound on the estimated
+ * size of its entries in bytes, an expiry, and optionally a refresh period after which an entry still being read is
+ * reloaded in the background by the {@link CacheEntryLoader} of the cache (see {@link RefreshAheadCaffeineCache}).
+ * A cache whose {@code library.cache.<name>.off-heap.maximum-size} is set also keeps the entries it evicts for size
+ * in an {@link OffHeapStore} behind it (see {@link TieredCache}); its values must have a {@link RecordCodec}.
+ * When values are restored from a cache snapshot ({@code library.cache.snapshot.include-values}), every cache is a
+ * {@link RevalidatingCache}, which checks the restored values against the database with the loader of the cache.
+ * When the caches of several instances are kept coherent ({@code library.cache.invalidation.enabled}), every cache
+ * is also a {@link ClusterInvalidatingCache}, which publishes its changes on the {@link CacheInvalidationBus}.
+ * A cache with {@link CacheChangeListener}s is an {@link ObservedCache}, innermost so that the listener also hears
+ * of the invalidations received from the other instances.
+ * Statistics are recorded for every cache and published by Actuator as the {@code cache.*} metrics.
+ * Books and patrons also have an {@link AbsentIdFilter} each, configured with {@code library.absent-ids.<name>.*},
+ * which answers lookups of IDs that do not exist.
  */
 @Configuration
-@EnableCaching
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
 public class CachingConfig extends CachingConfigurerSupport {
 
+    static final List<String> CACHE_NAMES = List.of("patrons", "books");
+
     /**
-     * Creates and configures the CacheManager bean using Caffeine.
+     * Rough heap taken by a Caffeine entry besides its value: the node, its boxed key and the hash table slot.
+     */
+    static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final int DEFAULT_VALUE_BYTES = 256;
+    private static final DataSize DEFAULT_MAXIMUM_WEIGHT = DataSize.ofMegabytes(32);
+    private static final Duration DEFAULT_EXPIRE_AFTER_WRITE = Duration.ofMinutes(10);
+    private static final long DEFAULT_EXPECTED_IDS = 1_000_000;
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+    private static final long DEFAULT_MISSING_IDS = 100_000;
+    private static final Duration DEFAULT_MISSING_ID_EXPIRY = Duration.ofMinutes(1);
+
+    /**
+     * Creates and configures the CacheManager bean using Caffeine, with one policy per cache.
      *
+     * @param environment the environment the cache policies are read from
+     * @param loaders     the loaders of the caches that are refreshed
+     * @param listeners   the listeners told about the changes of the caches
+     * @param bus         the bus the caches publish their changes on, if they are kept coherent across instances
      * @return the configured CacheManager
      */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        cacheManager.setCaffeine(caffeineCacheBuilder());
-        cacheManager.setCacheNames(List.of("patrons", "books")); // Define cache names
+    public CacheManager cacheManager(Environment environment, ObjectProvider<CacheEntryLoader> loaders,
+                                     ObjectProvider<CacheChangeListener> listeners,
+                                     ObjectProvider<CacheInvalidationBus> bus) {
+        Map<String, CacheEntryLoader> loadersByCache = loaders.orderedStream()
+                .collect(Collectors.toMap(CacheEntryLoader::cacheName, Function.identity()));
+        Map<String, List<CacheChangeListener>> listenersByCache = listeners.orderedStream()
+                .collect(Collectors.groupingBy(CacheChangeListener::cacheName));
+        Binder binder = Binder.get(environment);
+        boolean restoresValues = binder.bind("library.cache.snapshot.enabled", Boolean.class).orElse(false)
+                && binder.bind("library.cache.snapshot.include-values", Boolean.class).orElse(false);
+        CacheInvalidationBus invalidationBus = bus.getIfAvailable();
+        Map<String, AbsentIdFilter> absentIdFilters = Map.of("books", absentBookIds(environment),
+                "patrons", absentPatronIds(environment));
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(CACHE_NAMES.stream()
+                .map(name -> {
+                    CacheEntryLoader loader = loadersByCache.get(name);
+                    org.springframework.cache.Cache cache = createCache(name, CacheSpec.of(binder, name), loader);
+                    if (listenersByCache.containsKey(name)) {
+                        cache = new ObservedCache(cache, listenersByCache.get(name));
+                    }
+                    if (invalidationBus != null) {
+                        cache = clusterInvalidating(cache, invalidationBus, absentIdFilters.get(name));
+                    }
+                    return restoresValues ? revalidating(cache, loader) : cache;
+                })
+                .toList());
         return cacheManager;
     }
 
     /**
-     * Builds and configures the Caffeine cache builder.
+     * Lets Actuator publish the {@code cache.*} metrics of the caches with an off-heap tier.
+     */
+    @Bean
+    public TieredCacheMeterBinderProvider tieredCacheMeterBinderProvider() {
+        return new TieredCacheMeterBinderProvider();
+    }
+
+    /**
+     * Lets Actuator publish the {@code cache.*} metrics of the caches wrapped in another, such as the caches that
+     * check restored values or are kept coherent across instances.
+     */
+    @Bean
+    public DelegatingCacheMeterBinderProvider delegatingCacheMeterBinderProvider() {
+        return new DelegatingCacheMeterBinderProvider();
+    }
+
+    @Bean
+    public AbsentIdFilter absentBookIds(Environment environment) {
+        return absentIdFilter(Binder.get(environment), "books");
+    }
+
+    @Bean
+    public AbsentIdFilter absentPatronIds(Environment environment) {
+        return absentIdFilter(Binder.get(environment), "patrons");
+    }
+
+    /**
+     * Publishes the load count and load time of the caches, which Actuator leaves out for caches that are not
+     * loading caches even though Caffeine records them for values loaded by {@code @Cacheable(sync = true)}, the
+     * number of background refreshes of the caches that are refreshed, and the number of restored values checked.
+     *
+     * @param cacheManager the cache manager of the caches
+     * @return the binder of the load metrics
+     */
+    @Bean
+    public MeterBinder cacheLoadMetrics(CacheManager cacheManager) {
+        return registry -> {
+            for (String name : cacheManager.getCacheNames()) {
+                org.springframework.cache.Cache managed = cacheManager.getCache(name);
+                Tags tags = Tags.of("cache", name, "cache.manager", "cacheManager");
+                if (managed instanceof RevalidatingCache revalidating) {
+                    FunctionCounter.builder("cache.revalidations", revalidating, RevalidatingCache::currentCount)
+                            .tags(tags.and("result", "current"))
+                            .description("The number of restored values found current when first read")
+                            .register(registry);
+                    FunctionCounter.builder("cache.revalidations", revalidating, RevalidatingCache::staleCount)
+                            .tags(tags.and("result", "stale"))
+                            .description("The number of restored values found changed when first read")
+                            .register(registry);
+                }
+                managed = DelegatingCache.unwrap(managed);
+                if (managed instanceof TieredCache tiered) {
+                    managed = tiered.getOnHeap();
+                }
+                if (!(managed instanceof CaffeineCache caffeineCache)) {
+                    continue;
+                }
+                Cache<Object, Object> cache = caffeineCache.getNativeCache();
+                FunctionTimer.builder("cache.load.duration", cache, c -> c.stats().loadCount(),
+                                c -> c.stats().totalLoadTime(), TimeUnit.NANOSECONDS)
+                        .tags(tags)
+                        .description("The time the cache has spent loading new values")
+                        .register(registry);
+                FunctionCounter.builder("cache.load", cache, c -> c.stats().loadSuccessCount())
+                        .tags(tags.and("result", "success"))
+                        .description("The number of times cache lookup methods have loaded a new value")
+                        .register(registry);
+                FunctionCounter.builder("cache.load", cache, c -> c.stats().loadFailureCount())
+                        .tags(tags.and("result", "failure"))
+                        .description("The number of times cache lookup methods failed to load a new value")
+                        .register(registry);
+                if (caffeineCache instanceof RefreshAheadCaffeineCache refreshed) {
+                    FunctionCounter.builder("cache.refreshes", refreshed, RefreshAheadCaffeineCache::refreshCount)
+                            .tags(tags.and("result", "success"))
+                            .description("The number of entries reloaded in the background before they expired")
+                            .register(registry);
+                    FunctionCounter.builder("cache.refreshes", refreshed,
+                                    RefreshAheadCaffeineCache::refreshFailureCount)
+                            .tags(tags.and("result", "failure"))
+                            .description("The number of background reloads that failed")
+                            .register(registry);
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates one cache from its policy, with an off-heap tier if the policy has one.
+     *
+     * @throws IllegalStateException if the cache is to keep entries off the heap but its values have no codec
+     */
+    static org.springframework.cache.Cache createCache(String name, CacheSpec spec, CacheEntryLoader loader) {
+        if (spec.offHeap() == null) {
+            return buildCache(name, spec, loader);
+        }
+        RecordCodec<?> codec = RecordCodecs.forCache(name);
+        if (codec == null) {
+            throw new IllegalStateException("library.cache." + name + ".off-heap.maximum-size is set, but the "
+                    + name + " cache has no codec");
+        }
+        OffHeapStore<?> offHeap = new OffHeapStore<>(codec, spec.offHeap().maximumSize().toBytes(),
+                spec.offHeap().expireAfterWrite());
+        return new TieredCache(buildCache(name, spec, loader, TieredCache.demoter(offHeap)), offHeap);
+    }
+
+    /**
+     * Wraps a cache so that its changes are published on the bus, and registers it to apply those of the other
+     * instances, including to its filter of absent IDs.
+     */
+    static ClusterInvalidatingCache clusterInvalidating(org.springframework.cache.Cache cache,
+                                                        CacheInvalidationBus bus, AbsentIdFilter absentIds) {
+        ClusterInvalidatingCache clusterInvalidating = new ClusterInvalidatingCache(cache, bus, absentIds);
+        bus.register(clusterInvalidating);
+        return clusterInvalidating;
+    }
+
+    /**
+     * Wraps a cache so that the values restored into it from a snapshot are checked when first read.
+     *
+     * @throws IllegalStateException if the cache has no loader to read the current versions with
+     */
+    static RevalidatingCache revalidating(org.springframework.cache.Cache cache, CacheEntryLoader loader) {
+        if (loader == null) {
+            throw new IllegalStateException("library.cache.snapshot.include-values is set, but the "
+                    + cache.getName() + " cache has no loader");
+        }
+        return new RevalidatingCache(cache, loader);
+    }
+
+    /**
+     * Builds the Caffeine cache of one cache from its policy, leaving out its off-heap tier.
      *
-     * @return the configured Caffeine cache builder
+     * @throws IllegalStateException if the cache is to be refreshed but has no loader
      */
-    Caffeine<Object, Object> caffeineCacheBuilder() {
-        return Caffeine.newBuilder()
-                .expireAfterWrite(10, TimeUnit.MINUTES) // Set expiration time
-                .maximumSize(100) // Set maximum cache size
+    static CaffeineCache buildCache(String name, CacheSpec spec, CacheEntryLoader loader) {
+        return buildCache(name, spec, loader, null);
+    }
+
+    private static CaffeineCache buildCache(String name, CacheSpec spec, CacheEntryLoader loader,
+                                            RemovalListener<Object, Object> evictionListener) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumWeight(spec.maximumWeight().toBytes())
+                .weigher(CachingConfig::weigh)
+                .expireAfterWrite(spec.expireAfterWrite())
                 .recordStats(); // Enable statistics recording
+        if (evictionListener != null) {
+            builder.evictionListener(evictionListener);
+        }
+        Cache<Object, Object> cache = builder.build();
+        if (spec.refreshAfterWrite() == null) {
+            return new CaffeineCache(name, cache);
+        }
+        if (loader == null) {
+            throw new IllegalStateException("library.cache." + name + ".refresh-after-write is set, but the "
+                    + name + " cache has no loader");
+        }
+        // Caffeine's own refreshAfterWrite puts a reloaded value back even if the entry was evicted meanwhile.
+        return new RefreshAheadCaffeineCache(name, cache, loader, spec.refreshAfterWrite(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds the filter of absent IDs of one entity from its {@code library.absent-ids.<name>.*} properties.
+     */
+    static AbsentIdFilter absentIdFilter(Binder binder, String name) {
+        String prefix = "library.absent-ids." + name + ".";
+        return new AbsentIdFilter(
+                binder.bind(prefix + "expected-ids", Long.class).orElse(DEFAULT_EXPECTED_IDS),
+                binder.bind(prefix + "false-positive-rate", Double.class).orElse(DEFAULT_FALSE_POSITIVE_RATE),
+                binder.bind(prefix + "maximum-size", Long.class).orElse(DEFAULT_MISSING_IDS),
+                binder.bind(prefix + "expire-after-write", Duration.class).orElse(DEFAULT_MISSING_ID_EXPIRY));
+    }
+
+    /**
+     * Estimates the heap taken by a cache entry, in bytes.
+     */
+    static int weigh(Object key, Object value) {
+        return ENTRY_OVERHEAD_BYTES + (value instanceof Snapshot snapshot
+                ? snapshot.estimatedBytes() : DEFAULT_VALUE_BYTES);
+    }
+
+    /**
+     * The policy of one cache.
+     *
+     * @param maximumWeight     the bound on the estimated size of the entries of the cache
+     * @param expireAfterWrite  how long an entry is kept after it was written
+     * @param refreshAfterWrite how long after it was written an entry that is read is reloaded, or null
+     * @param offHeap           the policy of the off-heap tier, or null
+     */
+    record CacheSpec(DataSize maximumWeight, Duration expireAfterWrite, Duration refreshAfterWrite,
+                     OffHeapSpec offHeap) {
+
+        static CacheSpec of(Binder binder, String name) {
+            String prefix = "library.cache." + name + ".";
+            Duration expireAfterWrite = binder.bind(prefix + "expire-after-write", Duration.class)
+                    .orElse(DEFAULT_EXPIRE_AFTER_WRITE);
+            OffHeapSpec offHeap = binder.bind(prefix + "off-heap.maximum-size", DataSize.class)
+                    .map(maximumSize -> new OffHeapSpec(maximumSize,
+                            binder.bind(prefix + "off-heap.expire-after-write", Duration.class)
+                                    .orElse(expireAfterWrite)))
+                    .orElse(null);
+            return new CacheSpec(
+                    binder.bind(prefix + "maximum-weight", DataSize.class).orElse(DEFAULT_MAXIMUM_WEIGHT),
+                    expireAfterWrite,
+                    binder.bind(prefix + "refresh-after-write", Duration.class).orElse(null),
+                    offHeap);
+        }
+    }
+
+    /**
+     * The policy of the off-heap tier of a cache.
+     *
+     * @param maximumSize      the bound on the memory taken by the tier outside the heap
+     * @param expireAfterWrite how long an entry is kept after it was demoted to the tier; defaults to the expiry of
+     *                         the cache
+     */
+    record OffHeapSpec(DataSize maximumSize, Duration expireAfterWrite) {
     }
 }
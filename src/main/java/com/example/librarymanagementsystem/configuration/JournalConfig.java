@@ -0,0 +1,34 @@
+package com.example.librarymanagementsystem.configuration;
+
+import com.example.librarymanagementsystem.journal.CirculationJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Configuration class for the optional write-behind circulation journal, enabled with
+ * {@code library.journal.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.journal.enabled", havingValue = "true")
+public class JournalConfig {
+
+    /**
+     * Opens the circulation journal, recovering the events already in it.
+     *
+     * @param directory   the directory of the journal segment files
+     * @param segmentSize the size of each preallocated segment file
+     * @return the opened journal
+     */
+    @Bean(destroyMethod = "close")
+    public CirculationJournal circulationJournal(@Value("${library.journal.directory:journal}") Path directory,
+                                                 @Value("${library.journal.segment-size:64MB}") DataSize segmentSize)
+            throws IOException {
+        return new CirculationJournal(directory, segmentSize.toBytes());
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.librarymanagementsystem.configuration;
+
+import com.example.librarymanagementsystem.cache.JsonResponseCache;
+import com.example.librarymanagementsystem.mapper.BookMapper;
+import com.example.librarymanagementsystem.mapper.PatronMapper;
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import com.example.librarymanagementsystem.snapshot.PatronSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration class for the caches of encoded responses of {@code GET /api/books/{id}} and
+ * {@code GET /api/patrons/{id}}, enabled with {@code library.response-cache.enabled=true}. Each is bounded by
+ * {@code library.response-cache.<name>.maximum-size}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.response-cache.enabled", havingValue = "true")
+public class ResponseCacheConfig {
+
+    private static final DataSize DEFAULT_MAXIMUM_SIZE = DataSize.ofMegabytes(16);
+
+    @Bean
+    public JsonResponseCache<BookSnapshot> bookResponseCache(Environment environment, ObjectMapper objectMapper) {
+        return new JsonResponseCache<>("books", BookMapper::toBookDTOResponse, objectMapper,
+                maximumSize(Binder.get(environment), "books"));
+    }
+
+    @Bean
+    public JsonResponseCache<PatronSnapshot> patronResponseCache(Environment environment,
+                                                                ObjectMapper objectMapper) {
+        return new JsonResponseCache<>("patrons", PatronMapper::toPatronDTOResponse, objectMapper,
+                maximumSize(Binder.get(environment), "patrons"));
+    }
+
+    private static DataSize maximumSize(Binder binder, String name) {
+        return binder.bind("library.response-cache." + name + ".maximum-size", DataSize.class)
+                .orElse(DEFAULT_MAXIMUM_SIZE);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.librarymanagementsystem.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class enabling scheduled jobs, such as the nightly borrowing record archiver.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
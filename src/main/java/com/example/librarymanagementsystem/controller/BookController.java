@@ -1,14 +1,27 @@
 package com.example.librarymanagementsystem.controller;
 
+import com.example.librarymanagementsystem.cache.JsonResponseCache;
+import com.example.librarymanagementsystem.catalog.BookFilter;
+import com.example.librarymanagementsystem.catalog.Versioned;
+import com.example.librarymanagementsystem.dto.BookCountDTOResponse;
 import com.example.librarymanagementsystem.dto.BookDTORequest;
 import com.example.librarymanagementsystem.dto.BookDTOResponse;
+import com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse;
+import com.example.librarymanagementsystem.dto.CursorPageDTOResponse;
+import com.example.librarymanagementsystem.dto.SearchPageDTOResponse;
 import com.example.librarymanagementsystem.mapper.BookMapper;
 import com.example.librarymanagementsystem.service.BookService;
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,36 +35,125 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 @RestController
 public class BookController {
     private final BookService bookService;
+    private final JsonResponseCache<BookSnapshot> responseCache;
 
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, ObjectProvider<JsonResponseCache<BookSnapshot>> responseCache) {
         this.bookService = bookService;
+        this.responseCache = responseCache.getIfAvailable();
     }
 
     /**
-     * Handles GET request to fetch all books.
+     * Handles GET request to fetch books one keyset-paginated page at a time, ordered by ID, optionally only those
+     * of an author or those borrowed or not.
+     * The response carries the version of the catalog as its ETag; a request whose If-None-Match matches it is
+     * answered with 304 Not Modified and no body.
      *
-     * @return ResponseEntity containing a list of BookDTOs representing all books in the system
+     * @param after    the ID of the last book of the previous page (the previous page's nextCursor), if any
+     * @param limit    the requested page size, capped server-side
+     * @param author   the author of the books, ignoring case, if any
+     * @param borrowed whether the books are borrowed, if either
+     * @param request  the request, whose If-None-Match header is checked
+     * @return ResponseEntity containing the page of BookDTOs and the cursor of the next page
      */
     @GetMapping
-    public ResponseEntity<List<BookDTOResponse>> getAllBooks() {
-        return ResponseEntity.ok().body(bookService.getAllBooks().stream()
+    public ResponseEntity<CursorPageDTOResponse<BookDTOResponse>> getAllBooks(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestParam(value = "author", required = false) String author,
+            @RequestParam(value = "borrowed", required = false) Boolean borrowed,
+            WebRequest request) {
+        Versioned<Slice<BookSnapshot>> versioned = bookService.getBooksPage(after, limit,
+                new BookFilter(author, borrowed));
+        if (request.checkNotModified(versioned.version())) {
+            return null;
+        }
+        Slice<BookSnapshot> page = versioned.value();
+        List<BookDTOResponse> books = page.getContent().stream()
                 .map(BookMapper::toBookDTOResponse)
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList());
+        Long nextCursor = page.hasNext() ? books.get(books.size() - 1).getId() : null;
+        return ResponseEntity.ok().eTag(versioned.version())
+                .body(new CursorPageDTOResponse<>(books, nextCursor, page.getSize()));
+    }
+
+    /**
+     * Handles GET request to count the books, optionally only those of an author or those borrowed or not.
+     * Like the book list, the response carries the version of the catalog as its ETag.
+     *
+     * @param author   the author of the books, ignoring case, if any
+     * @param borrowed whether the books are borrowed, if either
+     * @param request  the request, whose If-None-Match header is checked
+     * @return ResponseEntity containing the number of books
+     */
+    @GetMapping("/count")
+    public ResponseEntity<BookCountDTOResponse> countBooks(
+            @RequestParam(value = "author", required = false) String author,
+            @RequestParam(value = "borrowed", required = false) Boolean borrowed,
+            WebRequest request) {
+        Versioned<Long> count = bookService.countBooks(new BookFilter(author, borrowed));
+        if (request.checkNotModified(count.version())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(count.version()).body(new BookCountDTOResponse(count.value()));
+    }
+
+    /**
+     * Handles GET request to search books by title and author.
+     *
+     * @param query the free-text query; every term must appear in the title or the author
+     * @param page  the zero-based page number
+     * @param size  the requested page size, capped server-side
+     * @return ResponseEntity containing the requested page of matching BookDTOs, best matches first
+     */
+    @GetMapping("/search")
+    public ResponseEntity<SearchPageDTOResponse<BookDTOResponse>> searchBooks(
+            @RequestParam(value = "q") String query,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        Page<BookSnapshot> results = bookService.searchBooks(query, page, size);
+        return ResponseEntity.ok().body(new SearchPageDTOResponse<>(
+                results.getContent().stream()
+                        .map(BookMapper::toBookDTOResponse)
+                        .collect(Collectors.toList()),
+                results.getTotalElements(), results.getNumber(), results.getSize()));
     }
 
     /**
      * Handles GET request to fetch a book by its ID.
+     * With {@code library.response-cache.enabled}, the JSON of the book is written as it was encoded for an earlier
+     * request, as long as the book has not changed since.
      *
      * @param bookId the ID of the book to fetch
-     * @return ResponseEntity containing the BookDTORequest representing the requested book
+     * @return ResponseEntity containing the BookDTOResponse representing the requested book, or its JSON
      */
     @GetMapping("/{id}")
-    public ResponseEntity<BookDTOResponse> getBookById(@PathVariable(value = "id") Long bookId) {
-        return ResponseEntity.ok().body(
-                BookMapper.toBookDTOResponse(
-                        bookService.getBookById(bookId)
-                ));
+    public ResponseEntity<?> getBookById(@PathVariable(value = "id") Long bookId) {
+        BookSnapshot book = bookService.getBookById(bookId);
+        if (responseCache != null) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(responseCache.get(book));
+        }
+        return ResponseEntity.ok().body(BookMapper.toBookDTOResponse(book));
+    }
+
+    /**
+     * Handles GET request to fetch a book's loans, including archived ones, one keyset-paginated page at a time,
+     * newest first.
+     *
+     * @param bookId the ID of the book
+     * @param after  the ID of the last loan of the previous page (the previous page's nextCursor), if any
+     * @param limit  the requested page size, capped server-side
+     * @return ResponseEntity containing the page of loans and the cursor of the next page
+     */
+    @GetMapping("/{id}/loans")
+    public ResponseEntity<CursorPageDTOResponse<BorrowingRecordDTOResponse>> getBookLoans(
+            @PathVariable(value = "id") Long bookId,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        Slice<BorrowingRecordDTOResponse> page = bookService.getBookLoans(bookId, after, limit);
+        List<BorrowingRecordDTOResponse> loans = page.getContent();
+        Long nextCursor = page.hasNext() ? loans.get(loans.size() - 1).getId() : null;
+        return ResponseEntity.ok().body(new CursorPageDTOResponse<>(loans, nextCursor, page.getSize()));
     }
 
     /**
@@ -0,0 +1,90 @@
+package com.example.librarymanagementsystem.controller;
+
+import com.example.librarymanagementsystem.catalogimport.BookImportListener;
+import com.example.librarymanagementsystem.catalogimport.ImportFormat;
+import com.example.librarymanagementsystem.dto.BookImportErrorDTOResponse;
+import com.example.librarymanagementsystem.dto.BookImportReportDTOResponse;
+import com.example.librarymanagementsystem.service.BookImportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
+/**
+ * Controller class for the bulk catalog import endpoint.
+ * The upload is imported while it is being received, and the progress is streamed back as newline-delimited JSON.
+ */
+@RestController
+@RequestMapping(path = "/api/books/import", produces = APPLICATION_NDJSON_VALUE)
+public class BookImportController {
+
+    private final BookImportService bookImportService;
+    private final ObjectWriter lineWriter;
+
+    @Autowired
+    public BookImportController(BookImportService bookImportService, ObjectMapper objectMapper) {
+        this.bookImportService = bookImportService;
+        this.lineWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Handles POST request to import books from a CSV or NDJSON file.
+     * The response streams one JSON object per line: {"error": ...} for each rejected row, {"progress": ...}
+     * after each committed chunk, and a final {"summary": ...}.
+     *
+     * @param contentType the Content-Type of the upload, text/csv or application/x-ndjson
+     * @param request     the request whose body is the file to import
+     * @return ResponseEntity streaming the import events
+     * @throws IOException if the request body cannot be opened
+     */
+    @PostMapping(consumes = {"text/csv", APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                             HttpServletRequest request) throws IOException {
+        ImportFormat format = ImportFormat.fromContentType(contentType);
+        InputStream input = request.getInputStream();
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(out -> {
+            BookImportReportDTOResponse summary = bookImportService.importBooks(input, format,
+                    new BookImportListener() {
+                        @Override
+                        public void onRejected(BookImportErrorDTOResponse error) {
+                            writeLine(out, "error", error, false);
+                        }
+
+                        @Override
+                        public void onProgress(BookImportReportDTOResponse progress) {
+                            writeLine(out, "progress", progress, true);
+                        }
+                    });
+            writeLine(out, "summary", summary, true);
+        });
+    }
+
+    private void writeLine(OutputStream out, String event, Object value, boolean flush) {
+        try {
+            lineWriter.writeValue(out, Map.of(event, value));
+            out.write('\n');
+            if (flush) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.example.librarymanagementsystem.controller;
 
+import com.example.librarymanagementsystem.dto.BatchBorrowingDTORequest;
+import com.example.librarymanagementsystem.dto.BorrowingResultDTOResponse;
 import com.example.librarymanagementsystem.service.BorrowingService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * Controller class for managing borrowing-related endpoints.
  * This class handles HTTP requests related to borrowing books and returning books.
@@ -49,4 +54,30 @@ public class BorrowingController {
         borrowingService.returnBook(bookId, patronId);
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * Handles POST request to borrow several books for a patron in one transaction.
+     *
+     * @param patronId the ID of the patron borrowing the books
+     * @param request  the IDs of the books to borrow
+     * @return ResponseEntity containing the outcome for each book
+     */
+    @PostMapping("/batch/patron/{patronId}")
+    public ResponseEntity<List<BorrowingResultDTOResponse>> borrowBooks(@PathVariable Long patronId,
+                                                                        @Valid @RequestBody BatchBorrowingDTORequest request) {
+        return ResponseEntity.ok(borrowingService.borrowBooks(patronId, request.getBookIds()));
+    }
+
+    /**
+     * Handles PUT request to return several books borrowed by a patron in one transaction.
+     *
+     * @param patronId the ID of the patron returning the books
+     * @param request  the IDs of the books to return
+     * @return ResponseEntity containing the outcome for each book
+     */
+    @PutMapping("/batch/patron/{patronId}")
+    public ResponseEntity<List<BorrowingResultDTOResponse>> returnBooks(@PathVariable Long patronId,
+                                                                        @Valid @RequestBody BatchBorrowingDTORequest request) {
+        return ResponseEntity.ok(borrowingService.returnBooks(patronId, request.getBookIds()));
+    }
 }
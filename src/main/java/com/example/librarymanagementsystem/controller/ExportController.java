@@ -0,0 +1,91 @@
+package com.example.librarymanagementsystem.controller;
+
+import com.example.librarymanagementsystem.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
+/**
+ * Controller class for bulk export endpoints.
+ * This class streams whole tables as newline-delimited JSON (NDJSON), gzip-compressed when the client accepts it.
+ */
+@RestController
+@RequestMapping(path = "/api/export", produces = APPLICATION_NDJSON_VALUE)
+public class ExportController {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final ExportService exportService;
+
+    @Autowired
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * Handles GET request to export all books.
+     *
+     * @param acceptEncoding the Accept-Encoding request header, used to decide whether to gzip the response
+     * @return ResponseEntity streaming one BookDTOResponse per line
+     */
+    @GetMapping("/books")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return ndjson(acceptEncoding, exportService::exportBooks);
+    }
+
+    /**
+     * Handles GET request to export all patrons.
+     *
+     * @param acceptEncoding the Accept-Encoding request header, used to decide whether to gzip the response
+     * @return ResponseEntity streaming one PatronDTOResponse per line
+     */
+    @GetMapping("/patrons")
+    public ResponseEntity<StreamingResponseBody> exportPatrons(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return ndjson(acceptEncoding, exportService::exportPatrons);
+    }
+
+    /**
+     * Handles GET request to export all borrowing records.
+     *
+     * @param acceptEncoding the Accept-Encoding request header, used to decide whether to gzip the response
+     * @return ResponseEntity streaming one BorrowingRecordDTOResponse per line
+     */
+    @GetMapping("/borrowing-records")
+    public ResponseEntity<StreamingResponseBody> exportBorrowingRecords(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return ndjson(acceptEncoding, exportService::exportBorrowingRecords);
+    }
+
+    /**
+     * Wraps an export into an NDJSON streaming response, compressing it with gzip if the client accepts it.
+     *
+     * @param acceptEncoding the Accept-Encoding request header
+     * @param body           the export writing the response body
+     * @return ResponseEntity streaming the export
+     */
+    private ResponseEntity<StreamingResponseBody> ndjson(String acceptEncoding, StreamingResponseBody body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null || !acceptEncoding.contains("gzip")) {
+            return response.body(body);
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+            body.writeTo(gzip);
+            gzip.finish();
+        });
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.librarymanagementsystem.controller;
+
+import com.example.librarymanagementsystem.dto.HoldDTOResponse;
+import com.example.librarymanagementsystem.service.HoldService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller class for managing hold-related endpoints.
+ * This class handles HTTP requests to place, cancel and look up holds on borrowed books.
+ */
+@RestController
+@RequestMapping("/api/holds")
+public class HoldController {
+
+    private final HoldService holdService;
+
+    @Autowired
+    public HoldController(HoldService holdService) {
+        this.holdService = holdService;
+    }
+
+    /**
+     * Handles POST request to place a hold on a borrowed book for a patron.
+     *
+     * @param bookId   the ID of the book to hold
+     * @param patronId the ID of the patron placing the hold
+     * @return ResponseEntity containing the hold and its position in the queue
+     */
+    @PostMapping("/{bookId}/patron/{patronId}")
+    public ResponseEntity<HoldDTOResponse> placeHold(@PathVariable Long bookId,
+                                                     @PathVariable Long patronId) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(holdService.placeHold(bookId, patronId));
+    }
+
+    /**
+     * Handles GET request to fetch a patron's position in the hold queue of a book.
+     *
+     * @param bookId   the ID of the held book
+     * @param patronId the ID of the patron
+     * @return ResponseEntity containing the hold and its position in the queue
+     */
+    @GetMapping("/{bookId}/patron/{patronId}")
+    public ResponseEntity<HoldDTOResponse> getHold(@PathVariable Long bookId,
+                                                   @PathVariable Long patronId) {
+        return ResponseEntity.ok().body(holdService.getHold(bookId, patronId));
+    }
+
+    /**
+     * Handles DELETE request to cancel a patron's hold on a book.
+     *
+     * @param bookId   the ID of the held book
+     * @param patronId the ID of the patron
+     * @return ResponseEntity indicating the success of the cancellation
+     */
+    @DeleteMapping("/{bookId}/patron/{patronId}")
+    public ResponseEntity<Void> cancelHold(@PathVariable Long bookId,
+                                           @PathVariable Long patronId) {
+        holdService.cancelHold(bookId, patronId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Handles GET request to fetch the hold queue of a book, first in line first.
+     *
+     * @param bookId the ID of the held book
+     * @return ResponseEntity containing the holds on the book
+     */
+    @GetMapping("/{bookId}")
+    public ResponseEntity<List<HoldDTOResponse>> getHoldQueue(@PathVariable Long bookId) {
+        return ResponseEntity.ok().body(holdService.getHoldQueue(bookId));
+    }
+}
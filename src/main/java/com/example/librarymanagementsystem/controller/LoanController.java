@@ -0,0 +1,48 @@
+package com.example.librarymanagementsystem.controller;
+
+import com.example.librarymanagementsystem.dto.CursorPageDTOResponse;
+import com.example.librarymanagementsystem.dto.OverdueLoanDTOResponse;
+import com.example.librarymanagementsystem.service.BorrowingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Controller class for loan-wide queries that are not tied to one book or patron.
+ */
+@RestController
+@RequestMapping(path = "/api/loans", produces = APPLICATION_JSON_VALUE)
+public class LoanController {
+
+    private final BorrowingService borrowingService;
+
+    @Autowired
+    public LoanController(BorrowingService borrowingService) {
+        this.borrowingService = borrowingService;
+    }
+
+    /**
+     * Handles GET request to fetch the overdue loans one keyset-paginated page at a time, oldest loans first.
+     *
+     * @param after the borrowing record ID of the last loan of the previous page (the previous page's nextCursor)
+     * @param limit the requested page size, capped server-side
+     * @return ResponseEntity containing the page of overdue loans and the cursor of the next page
+     */
+    @GetMapping("/overdue")
+    public ResponseEntity<CursorPageDTOResponse<OverdueLoanDTOResponse>> getOverdueLoans(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        Slice<OverdueLoanDTOResponse> page = borrowingService.getOverdueLoans(after, limit);
+        List<OverdueLoanDTOResponse> loans = page.getContent();
+        Long nextCursor = page.hasNext() ? loans.get(loans.size() - 1).getBorrowingRecordId() : null;
+        return ResponseEntity.ok().body(new CursorPageDTOResponse<>(loans, nextCursor, page.getSize()));
+    }
+}
@@ -1,11 +1,19 @@
 package com.example.librarymanagementsystem.controller;
 
+import com.example.librarymanagementsystem.cache.JsonResponseCache;
+import com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse;
+import com.example.librarymanagementsystem.dto.CursorPageDTOResponse;
+import com.example.librarymanagementsystem.dto.LoanStatus;
 import com.example.librarymanagementsystem.dto.PatronDTORequest;
 import com.example.librarymanagementsystem.dto.PatronDTOResponse;
 import com.example.librarymanagementsystem.mapper.PatronMapper;
 import com.example.librarymanagementsystem.service.PatronService;
+import com.example.librarymanagementsystem.snapshot.PatronSnapshot;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
@@ -22,10 +30,13 @@ import jakarta.validation.Valid;
 public class PatronController {
 
     private final PatronService patronService;
+    private final JsonResponseCache<PatronSnapshot> responseCache;
 
     @Autowired
-    public PatronController(PatronService patronService) {
+    public PatronController(PatronService patronService,
+                            ObjectProvider<JsonResponseCache<PatronSnapshot>> responseCache) {
         this.patronService = patronService;
+        this.responseCache = responseCache.getIfAvailable();
     }
 
     /**
@@ -43,15 +54,40 @@ public class PatronController {
     /**
      * Handles GET request to retrieve a patron by ID.
      *
+     * With {@code library.response-cache.enabled}, the JSON of the patron is written as it was encoded for an
+     * earlier request, as long as the patron has not changed since.
+     *
      * @param patronId the ID of the patron to retrieve
-     * @return ResponseEntity containing the patron details
+     * @return ResponseEntity containing the patron details, or their JSON
      */
     @GetMapping("/{id}")
-    public ResponseEntity<PatronDTOResponse> getPatronById(@PathVariable(value = "id") Long patronId) {
-        return ResponseEntity.ok().body(
-                PatronMapper.toPatronDTOResponse(
-                        patronService.getPatronById(patronId)
-                ));
+    public ResponseEntity<?> getPatronById(@PathVariable(value = "id") Long patronId) {
+        PatronSnapshot patron = patronService.getPatronById(patronId);
+        if (responseCache != null) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(responseCache.get(patron));
+        }
+        return ResponseEntity.ok().body(PatronMapper.toPatronDTOResponse(patron));
+    }
+
+    /**
+     * Handles GET request to fetch a patron's loans one keyset-paginated page at a time, newest first.
+     *
+     * @param patronId the ID of the patron
+     * @param status   which loans to list: ALL, OPEN or RETURNED
+     * @param after    the ID of the last loan of the previous page (the previous page's nextCursor), if any
+     * @param limit    the requested page size, capped server-side
+     * @return ResponseEntity containing the page of loans and the cursor of the next page
+     */
+    @GetMapping("/{id}/loans")
+    public ResponseEntity<CursorPageDTOResponse<BorrowingRecordDTOResponse>> getPatronLoans(
+            @PathVariable(value = "id") Long patronId,
+            @RequestParam(value = "status", defaultValue = "ALL") LoanStatus status,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        Slice<BorrowingRecordDTOResponse> page = patronService.getPatronLoans(patronId, status, after, limit);
+        List<BorrowingRecordDTOResponse> loans = page.getContent();
+        Long nextCursor = page.hasNext() ? loans.get(loans.size() - 1).getId() : null;
+        return ResponseEntity.ok().body(new CursorPageDTOResponse<>(loans, nextCursor, page.getSize()));
     }
 
     /**
@@ -0,0 +1,95 @@
+package com.example.librarymanagementsystem.controller;
+
+import com.example.librarymanagementsystem.dto.StatsAccuracyDTOResponse;
+import com.example.librarymanagementsystem.dto.StatsWindow;
+import com.example.librarymanagementsystem.dto.TopAuthorDTOResponse;
+import com.example.librarymanagementsystem.dto.TopBookDTOResponse;
+import com.example.librarymanagementsystem.service.StatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Controller class for the live borrowing statistics.
+ */
+@RestController
+@RequestMapping(path = "/api/stats", produces = APPLICATION_JSON_VALUE)
+public class StatisticsController {
+
+    private final StatisticsService statisticsService;
+
+    @Autowired
+    public StatisticsController(StatisticsService statisticsService) {
+        this.statisticsService = statisticsService;
+    }
+
+    /**
+     * Handles GET request to fetch the most borrowed books of a window.
+     *
+     * @param window the window to rank: DAY, WEEK or MONTH
+     * @param limit  the requested number of books, capped server-side
+     * @return ResponseEntity containing the most borrowed books, most borrowed first
+     */
+    @GetMapping("/top-books")
+    public ResponseEntity<List<TopBookDTOResponse>> getTopBooks(
+            @RequestParam(value = "window", defaultValue = "WEEK") StatsWindow window,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return ResponseEntity.ok().body(statisticsService.getTopBooks(window, limit));
+    }
+
+    /**
+     * Handles GET request to fetch the most borrowed authors of a window.
+     *
+     * @param window the window to rank: DAY, WEEK or MONTH
+     * @param limit  the requested number of authors, capped server-side
+     * @return ResponseEntity containing the most borrowed authors, most borrowed first
+     */
+    @GetMapping("/top-authors")
+    public ResponseEntity<List<TopAuthorDTOResponse>> getTopAuthors(
+            @RequestParam(value = "window", defaultValue = "WEEK") StatsWindow window,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return ResponseEntity.ok().body(statisticsService.getTopAuthors(window, limit));
+    }
+
+    /**
+     * Handles GET request to fetch the number of borrows of the books of one author over a window.
+     *
+     * @param author the name of the author
+     * @param window the window to count over: DAY, WEEK or MONTH
+     * @return ResponseEntity containing the author's estimated borrow count
+     */
+    @GetMapping("/authors")
+    public ResponseEntity<TopAuthorDTOResponse> getAuthorBorrows(
+            @RequestParam(value = "name") String author,
+            @RequestParam(value = "window", defaultValue = "WEEK") StatsWindow window) {
+        return ResponseEntity.ok().body(statisticsService.getAuthorBorrows(author, window));
+    }
+
+    /**
+     * Handles GET request to fetch the last comparison of the estimates with the exact counts.
+     *
+     * @return ResponseEntity containing one accuracy report per window and subject
+     */
+    @GetMapping("/accuracy")
+    public ResponseEntity<List<StatsAccuracyDTOResponse>> getAccuracy() {
+        return ResponseEntity.ok().body(statisticsService.getAccuracy());
+    }
+
+    /**
+     * Handles POST request to compare the estimates with the exact counts now.
+     *
+     * @return ResponseEntity containing one accuracy report per window and subject
+     */
+    @PostMapping("/accuracy")
+    public ResponseEntity<List<StatsAccuracyDTOResponse>> verifyAccuracy() {
+        return ResponseEntity.ok().body(statisticsService.verifyAccuracy());
+    }
+}
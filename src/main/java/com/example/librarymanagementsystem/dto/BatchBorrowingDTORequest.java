@@ -0,0 +1,30 @@
+package com.example.librarymanagementsystem.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing the books handed over at a circulation desk in one batch.
+ * This class is used for borrowing or returning several books for the same patron in a single request.
+ */
+@Data
+public class BatchBorrowingDTORequest {
+
+    public static final int MAX_BATCH_SIZE = 100;
+
+    @NotNull(message = "Book IDs mustn't be null")
+    @NotEmpty(message = "Book IDs mustn't be empty")
+    @Size(max = MAX_BATCH_SIZE, message = "At most " + MAX_BATCH_SIZE + " books can be handled in one batch")
+    private List<@NotNull(message = "Book ID mustn't be null") Long> bookIds;
+
+    public BatchBorrowingDTORequest() {
+    }
+
+    public BatchBorrowingDTORequest(List<Long> bookIds) {
+        this.bookIds = bookIds;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.librarymanagementsystem.dto;
+
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) representing the number of books meeting the filter of a request.
+ */
+@Data
+public class BookCountDTOResponse {
+
+    private long count;
+
+    public BookCountDTOResponse(long count) {
+        this.count = count;
+    }
+}
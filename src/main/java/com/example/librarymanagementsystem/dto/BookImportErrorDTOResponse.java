@@ -0,0 +1,22 @@
+package com.example.librarymanagementsystem.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing a row of a bulk import that was not imported.
+ */
+@Data
+public class BookImportErrorDTOResponse {
+
+    private long line;
+    private String isbn;
+    private List<String> errors;
+
+    public BookImportErrorDTOResponse(long line, String isbn, List<String> errors) {
+        this.line = line;
+        this.isbn = isbn;
+        this.errors = errors;
+    }
+}
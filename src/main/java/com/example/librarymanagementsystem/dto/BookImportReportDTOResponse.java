@@ -0,0 +1,29 @@
+package com.example.librarymanagementsystem.dto;
+
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) representing the counters of a bulk import, either in progress or finished.
+ */
+@Data
+public class BookImportReportDTOResponse {
+
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+    private boolean completed;
+    private String failure;
+
+    public BookImportReportDTOResponse(long rowsRead, long imported, long rejected, long elapsedMillis,
+                                       boolean completed, String failure) {
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = elapsedMillis == 0 ? rowsRead * 1000 : rowsRead * 1000 / elapsedMillis;
+        this.completed = completed;
+        this.failure = failure;
+    }
+}
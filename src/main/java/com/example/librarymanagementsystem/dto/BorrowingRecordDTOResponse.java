@@ -0,0 +1,24 @@
+package com.example.librarymanagementsystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class BorrowingRecordDTOResponse {
+
+    private long id;
+    private long bookId;
+    private long patronId;
+    private LocalDateTime borrowDateTime;
+    private LocalDateTime returnDateTime;
+
+    public BorrowingRecordDTOResponse(long id, long bookId, long patronId,
+                                      LocalDateTime borrowDateTime, LocalDateTime returnDateTime) {
+        this.id = id;
+        this.bookId = bookId;
+        this.patronId = patronId;
+        this.borrowDateTime = borrowDateTime;
+        this.returnDateTime = returnDateTime;
+    }
+}
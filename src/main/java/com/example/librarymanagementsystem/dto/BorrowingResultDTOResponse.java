@@ -0,0 +1,40 @@
+package com.example.librarymanagementsystem.dto;
+
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) representing the outcome for one book of a batch borrow or return.
+ */
+@Data
+public class BorrowingResultDTOResponse {
+
+    /**
+     * Outcome of a single item of a batch.
+     */
+    public enum Status {
+        BORROWED,
+        RETURNED,
+        BOOK_NOT_FOUND,
+        ALREADY_BORROWED,
+        NOT_BORROWED_BY_PATRON,
+        DUPLICATE,
+        LOAN_LIMIT_REACHED
+    }
+
+    private long bookId;
+    private Status status;
+    private String message;
+
+    public BorrowingResultDTOResponse(long bookId, Status status, String message) {
+        this.bookId = bookId;
+        this.status = status;
+        this.message = message;
+    }
+
+    /**
+     * @return true if the book was borrowed or returned by this batch.
+     */
+    public boolean isSuccess() {
+        return status == Status.BORROWED || status == Status.RETURNED;
+    }
+}
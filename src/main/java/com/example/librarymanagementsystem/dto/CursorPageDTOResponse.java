@@ -0,0 +1,26 @@
+package com.example.librarymanagementsystem.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing one page of a keyset (cursor) paginated listing.
+ * The next page is requested by passing {@code nextCursor} back as the {@code after} parameter;
+ * a null {@code nextCursor} means there are no more items.
+ *
+ * @param <T> the type of the items in the page
+ */
+@Data
+public class CursorPageDTOResponse<T> {
+
+    private List<T> items;
+    private Long nextCursor;
+    private int limit;
+
+    public CursorPageDTOResponse(List<T> items, Long nextCursor, int limit) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.limit = limit;
+    }
+}
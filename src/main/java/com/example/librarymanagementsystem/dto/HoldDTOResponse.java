@@ -0,0 +1,20 @@
+package com.example.librarymanagementsystem.dto;
+
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) representing a patron's place in the hold queue of a book.
+ */
+@Data
+public class HoldDTOResponse {
+
+    private long bookId;
+    private long patronId;
+    private int position;
+
+    public HoldDTOResponse(long bookId, long patronId, int position) {
+        this.bookId = bookId;
+        this.patronId = patronId;
+        this.position = position;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.librarymanagementsystem.dto;
+
+/**
+ * Filter on the state of the loans listed by the patron loan history endpoint.
+ */
+public enum LoanStatus {
+    /** Every loan, open or returned. */
+    ALL,
+    /** Only the books that have not been returned yet. */
+    OPEN,
+    /** Only the books that have been returned. */
+    RETURNED
+}
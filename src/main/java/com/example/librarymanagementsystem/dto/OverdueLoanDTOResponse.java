@@ -0,0 +1,24 @@
+package com.example.librarymanagementsystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object (DTO) representing an open loan and its due date.
+ */
+@Data
+public class OverdueLoanDTOResponse {
+
+    private long borrowingRecordId;
+    private long bookId;
+    private long patronId;
+    private LocalDateTime dueDateTime;
+
+    public OverdueLoanDTOResponse(long borrowingRecordId, long bookId, long patronId, LocalDateTime dueDateTime) {
+        this.borrowingRecordId = borrowingRecordId;
+        this.bookId = bookId;
+        this.patronId = patronId;
+        this.dueDateTime = dueDateTime;
+    }
+}
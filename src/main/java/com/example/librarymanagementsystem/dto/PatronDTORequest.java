@@ -1,5 +1,6 @@
 package com.example.librarymanagementsystem.dto;
 
+import com.example.librarymanagementsystem.entity.PatronTier;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
 import lombok.Data;
@@ -30,9 +31,19 @@ public class PatronDTORequest {
     @Email(message = "Invalid email address")
     private String emailAddress;
 
+    /**
+     * The membership tier of the patron: standard if omitted for a new patron, unchanged if omitted in an update.
+     */
+    private PatronTier tier;
+
     public PatronDTORequest(String name, String phoneNumber, String emailAddress) {
         this.name = name;
         this.phoneNumber = phoneNumber;
         this.emailAddress = emailAddress;
     }
+
+    public PatronDTORequest(String name, String phoneNumber, String emailAddress, PatronTier tier) {
+        this(name, phoneNumber, emailAddress);
+        this.tier = tier;
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.librarymanagementsystem.dto;
 
+import com.example.librarymanagementsystem.entity.PatronTier;
 import lombok.Data;
 
 @Data
@@ -9,11 +10,13 @@ public class PatronDTOResponse{
     private String name;
     private String phoneNumber;
     private String emailAddress;
+    private PatronTier tier;
 
-    public PatronDTOResponse(long id, String name, String phoneNumber, String emailAddress) {
+    public PatronDTOResponse(long id, String name, String phoneNumber, String emailAddress, PatronTier tier) {
         this.id = id;
         this.name = name;
         this.phoneNumber = phoneNumber;
         this.emailAddress = emailAddress;
+        this.tier = tier;
     }
 }
@@ -0,0 +1,26 @@
+package com.example.librarymanagementsystem.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing one page of ranked search results.
+ *
+ * @param <T> the type of the items in the page
+ */
+@Data
+public class SearchPageDTOResponse<T> {
+
+    private List<T> items;
+    private long total;
+    private int page;
+    private int size;
+
+    public SearchPageDTOResponse(List<T> items, long total, int page, int size) {
+        this.items = items;
+        this.total = total;
+        this.page = page;
+        this.size = size;
+    }
+}
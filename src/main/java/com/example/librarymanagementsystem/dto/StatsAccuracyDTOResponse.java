@@ -0,0 +1,40 @@
+package com.example.librarymanagementsystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object (DTO) comparing the estimated top borrowed books or authors of a window with the exact
+ * counts recomputed from the database.
+ */
+@Data
+public class StatsAccuracyDTOResponse {
+
+    /** BOOKS or AUTHORS. */
+    private String subject;
+    private StatsWindow window;
+    private int topK;
+    /** Share of the exact top K that the estimated top K also lists. */
+    private double recall;
+    /** Mean of |estimated - exact| / exact over the exact top K. */
+    private double meanRelativeError;
+    /** Largest |estimated - exact| / exact over the exact top K. */
+    private double maxRelativeError;
+    /** Whether every exact count of the top K lies within the error bound reported with its estimate. */
+    private boolean withinBounds;
+    private LocalDateTime checkedDateTime;
+
+    public StatsAccuracyDTOResponse(String subject, StatsWindow window, int topK, double recall,
+                                    double meanRelativeError, double maxRelativeError, boolean withinBounds,
+                                    LocalDateTime checkedDateTime) {
+        this.subject = subject;
+        this.window = window;
+        this.topK = topK;
+        this.recall = recall;
+        this.meanRelativeError = meanRelativeError;
+        this.maxRelativeError = maxRelativeError;
+        this.withinBounds = withinBounds;
+        this.checkedDateTime = checkedDateTime;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.librarymanagementsystem.dto;
+
+/**
+ * Sliding windows over which borrowing statistics are kept. A window covers today and the days before it.
+ */
+public enum StatsWindow {
+    /** Today only. */
+    DAY(1),
+    /** Today and the 6 days before. */
+    WEEK(7),
+    /** Today and the 29 days before. */
+    MONTH(30);
+
+    private final int days;
+
+    StatsWindow(int days) {
+        this.days = days;
+    }
+
+    public int days() {
+        return days;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.librarymanagementsystem.dto;
+
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) representing one of the most borrowed authors of a window, with the estimated number
+ * of borrows of their books. The true number lies between {@code borrowCount - maxError} and {@code borrowCount}.
+ */
+@Data
+public class TopAuthorDTOResponse {
+
+    private String author;
+    private long borrowCount;
+    private long maxError;
+
+    public TopAuthorDTOResponse(String author, long borrowCount, long maxError) {
+        this.author = author;
+        this.borrowCount = borrowCount;
+        this.maxError = maxError;
+    }
+}
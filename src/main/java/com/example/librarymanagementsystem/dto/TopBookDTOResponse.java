@@ -0,0 +1,25 @@
+package com.example.librarymanagementsystem.dto;
+
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) representing one of the most borrowed books of a window, with its estimated number of
+ * borrows. The true number lies between {@code borrowCount - maxError} and {@code borrowCount}.
+ */
+@Data
+public class TopBookDTOResponse {
+
+    private long bookId;
+    private String title;
+    private String author;
+    private long borrowCount;
+    private long maxError;
+
+    public TopBookDTOResponse(long bookId, String title, String author, long borrowCount, long maxError) {
+        this.bookId = bookId;
+        this.title = title;
+        this.author = author;
+        this.borrowCount = borrowCount;
+        this.maxError = maxError;
+    }
+}
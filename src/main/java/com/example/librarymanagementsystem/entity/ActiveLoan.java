@@ -0,0 +1,61 @@
+package com.example.librarymanagementsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Entity class representing a loan that is still open, keyed by the borrowed book.
+ * Borrowing a book inserts its row and returning it deletes the row, in the same transaction that writes the
+ * borrowing record, so the open loan of a book is found by primary key however long the loan history grows.
+ * The primary key also guarantees that a book has at most one open loan, and the patron index serves a patron's
+ * open loans without scanning their returned ones.
+ */
+@Entity
+@Table(name = "active_loans",
+        indexes = @Index(name = "idx_active_loans_patron", columnList = "patron_id, borrowing_record_id"))
+@Data
+public class ActiveLoan implements Persistable<Long> {
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "patron_id", nullable = false)
+    private Long patronId;
+
+    @Column(name = "borrowing_record_id", nullable = false)
+    private Long borrowingRecordId;
+
+    @Transient
+    private boolean isNew;
+
+    public ActiveLoan() {}
+
+    public ActiveLoan(Long bookId, Long patronId, Long borrowingRecordId) {
+        this.bookId = bookId;
+        this.patronId = patronId;
+        this.borrowingRecordId = borrowingRecordId;
+        this.isNew = true;
+    }
+
+    @Override
+    public Long getId() {
+        return bookId;
+    }
+
+    /**
+     * An active loan is always created with its book ID assigned, so Spring Data cannot infer from the ID
+     * whether it is new; without this, saving it would first select it to merge.
+     */
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+}
@@ -20,7 +20,8 @@ import java.util.Set;
 @Data
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 500)
     private Long id;
 
     @NotBlank(message = "Title mustn't be blank")
@@ -55,6 +56,14 @@ public class Book {
     @Column(name = "is_borrowed", columnDefinition = "boolean default false")
     private boolean isBorrowed;
 
+    /**
+     * Incremented by every update, including the bulk updates of the borrowed flag, so that a cached copy can be
+     * checked against the row.
+     */
+    @JsonIgnore
+    @Version
+    private Long version;
+
     public Book () {}
 
     public Book(Long id, String title, String author, int publicationYear, String isbn) {
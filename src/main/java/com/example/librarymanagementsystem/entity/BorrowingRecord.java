@@ -2,6 +2,7 @@ package com.example.librarymanagementsystem.entity;
 
 import lombok.Data;
 import jakarta.persistence.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 /**
@@ -21,6 +22,7 @@ public class BorrowingRecord {
     private Patron patron;
 
     private LocalDateTime borrowDateTime;
+    private LocalDateTime dueDateTime;
     private LocalDateTime returnDateTime;
 
     public BorrowingRecord() {}
@@ -30,4 +32,9 @@ public class BorrowingRecord {
         this.patron = patron;
         this.borrowDateTime = LocalDateTime.now();
     }
+
+    public BorrowingRecord(Book book, Patron patron, Duration loanPeriod) {
+        this(book, patron);
+        this.dueDateTime = borrowDateTime.plus(loanPeriod);
+    }
 }
@@ -0,0 +1,34 @@
+package com.example.librarymanagementsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity class representing a returned loan moved out of the borrowing_record table by the archiver.
+ * It keeps the ID of the original borrowing record, so cursors stay valid across both tables, and plain book and
+ * patron IDs instead of foreign keys. Its indexes serve the history of a book and of a patron, newest first.
+ */
+@Entity
+@Table(name = "borrowing_record_history", indexes = {
+        @Index(name = "idx_history_book", columnList = "book_id, id"),
+        @Index(name = "idx_history_patron", columnList = "patron_id, id")})
+@Data
+public class BorrowingRecordHistory {
+
+    @Id
+    private Long id;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(name = "patron_id", nullable = false)
+    private Long patronId;
+
+    private LocalDateTime borrowDateTime;
+    private LocalDateTime dueDateTime;
+
+    @Column(nullable = false)
+    private LocalDateTime returnDateTime;
+}
@@ -0,0 +1,39 @@
+package com.example.librarymanagementsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity class representing a batch of cache invalidations sent by one instance of the application through the
+ * database, read by the other instances in the order of its ID.
+ */
+@Entity
+@Table(name = "cache_invalidations",
+        indexes = @Index(name = "idx_cache_invalidations_created_at", columnList = "created_at"))
+@Data
+public class CacheInvalidationRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+
+    @Column(name = "sequence_number", nullable = false)
+    private long sequenceNumber;
+
+    /**
+     * The invalidations of the batch, encoded as {@code books:1,2,3;patrons:*}.
+     */
+    @Lob
+    @Column(name = "invalidations", nullable = false, length = 1024 * 1024)
+    private String invalidations;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public CacheInvalidationRecord() {}
+}
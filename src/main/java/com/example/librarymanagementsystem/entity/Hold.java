@@ -0,0 +1,40 @@
+package com.example.librarymanagementsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity class representing a patron's place in the hold queue of a borrowed book.
+ * Holds of a book are served first come, first served, in ID order; the (book_id, id) index returns the queue of a
+ * book in that order, and a patron can hold a book only once.
+ */
+@Entity
+@Table(name = "holds",
+        uniqueConstraints = @UniqueConstraint(name = "uk_holds_book_patron", columnNames = {"book_id", "patron_id"}),
+        indexes = @Index(name = "idx_holds_book", columnList = "book_id, id"))
+@Data
+public class Hold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(name = "patron_id", nullable = false)
+    private Long patronId;
+
+    @Column(name = "placed_date_time", nullable = false)
+    private LocalDateTime placedDateTime;
+
+    public Hold() {}
+
+    public Hold(Long bookId, Long patronId) {
+        this.bookId = bookId;
+        this.patronId = patronId;
+        this.placedDateTime = LocalDateTime.now();
+    }
+}
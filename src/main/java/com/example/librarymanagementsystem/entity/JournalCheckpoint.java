@@ -0,0 +1,30 @@
+package com.example.librarymanagementsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Entity class holding the sequence number of the last circulation journal event applied to the database.
+ * There is a single row, updated in the same transaction as the events it covers, so every event is applied
+ * exactly once even if the application stops between applying a batch and deleting its journal segment.
+ */
+@Entity
+@Table(name = "journal_checkpoint")
+@Data
+public class JournalCheckpoint {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "applied_sequence", nullable = false)
+    private long appliedSequence;
+
+    public JournalCheckpoint() {}
+
+    public JournalCheckpoint(long appliedSequence) {
+        this.id = ID;
+        this.appliedSequence = appliedSequence;
+    }
+}
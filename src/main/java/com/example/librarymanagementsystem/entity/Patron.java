@@ -1,5 +1,6 @@
 package com.example.librarymanagementsystem.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
@@ -9,6 +10,8 @@ import java.util.Set;
 
 /**
  * Entity class representing a patron in the library management system.
+ * The borrowing records are mapped for cascading deletes only; they are left out of toString, equals and hashCode
+ * so that logging or hashing a patron never loads its whole loan history. Use the paginated loan queries instead.
  */
 @Entity
 @Data
@@ -36,7 +39,23 @@ public class Patron {
     @Email
     private String emailAddress;
 
-    @OneToMany(mappedBy = "patron", cascade = CascadeType.ALL)
+    /**
+     * The membership tier, which sets the patron's loan limit; rows written before tiers existed are standard.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private PatronTier tier = PatronTier.STANDARD;
+
+    /**
+     * Incremented by every update, so that a cached copy can be checked against the row.
+     */
+    @JsonIgnore
+    @Version
+    private Long version;
+
+    @OneToMany(mappedBy = "patron", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Set<BorrowingRecord> borrowingRecords;
 
     public Patron() {}
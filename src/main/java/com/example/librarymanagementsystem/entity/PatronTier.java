@@ -0,0 +1,10 @@
+package com.example.librarymanagementsystem.entity;
+
+/**
+ * Membership tier of a patron, which decides how many books the patron may have on loan at once.
+ */
+public enum PatronTier {
+    STANDARD,
+    PREMIUM,
+    STAFF
+}
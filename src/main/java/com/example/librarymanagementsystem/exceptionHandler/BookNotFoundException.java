@@ -5,6 +5,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
  * Exception indicating that a book with the specified criteria could not be found.
+ * It is thrown for every lookup of a missing ID and only ever turned into a 404 response, so it carries no stack
+ * trace, which would cost more to fill in than answering the lookup.
  */
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class BookNotFoundException extends RuntimeException {
@@ -14,6 +16,6 @@ public class BookNotFoundException extends RuntimeException {
      * @param message the detail message
      */
     public BookNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
\ No newline at end of file
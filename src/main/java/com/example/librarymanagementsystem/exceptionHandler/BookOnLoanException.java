@@ -0,0 +1,19 @@
+package com.example.librarymanagementsystem.exceptionHandler;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception indicating that a book cannot be deleted because a patron holds it.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BookOnLoanException extends RuntimeException {
+    /**
+     * Constructs a new BookOnLoanException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public BookOnLoanException(String message) {
+        super(message);
+    }
+}
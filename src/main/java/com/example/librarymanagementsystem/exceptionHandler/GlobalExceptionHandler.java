@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.validation.FieldError;
 
 import java.util.Collections;
@@ -26,6 +27,12 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(getErrorsMap(errors), new HttpHeaders(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<Map<String, List<String>>> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        List<String> errors = Collections.singletonList("Invalid value '" + ex.getValue() + "' for parameter " + ex.getName());
+        return new ResponseEntity<>(getErrorsMap(errors), new HttpHeaders(), HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(BookNotFoundException.class)
     public ResponseEntity<Map<String, List<String>>> handleBookNotFoundException(BookNotFoundException ex) {
         List<String> errors = Collections.singletonList(ex.getMessage());
@@ -50,6 +57,36 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(getErrorsMap(errors), new HttpHeaders(), HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(BookOnLoanException.class)
+    public ResponseEntity<Map<String, List<String>>> handleBookOnLoanException(BookOnLoanException ex) {
+        List<String> errors = Collections.singletonList(ex.getMessage());
+        return new ResponseEntity<>(getErrorsMap(errors), new HttpHeaders(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PatronHasLoansException.class)
+    public ResponseEntity<Map<String, List<String>>> handlePatronHasLoansException(PatronHasLoansException ex) {
+        List<String> errors = Collections.singletonList(ex.getMessage());
+        return new ResponseEntity<>(getErrorsMap(errors), new HttpHeaders(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(HoldNotFoundException.class)
+    public ResponseEntity<Map<String, List<String>>> handleHoldNotFoundException(HoldNotFoundException ex) {
+        List<String> errors = Collections.singletonList(ex.getMessage());
+        return new ResponseEntity<>(getErrorsMap(errors), new HttpHeaders(), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(HoldRejectedException.class)
+    public ResponseEntity<Map<String, List<String>>> handleHoldRejectedException(HoldRejectedException ex) {
+        List<String> errors = Collections.singletonList(ex.getMessage());
+        return new ResponseEntity<>(getErrorsMap(errors), new HttpHeaders(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(LoanLimitExceededException.class)
+    public ResponseEntity<Map<String, List<String>>> handleLoanLimitExceededException(LoanLimitExceededException ex) {
+        List<String> errors = Collections.singletonList(ex.getMessage());
+        return new ResponseEntity<>(getErrorsMap(errors), new HttpHeaders(), HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(BookISBNAlreadyExistsException.class)
     public ResponseEntity<Map<String, List<String>>> handleBookISBNAlreadyExistsException(BookISBNAlreadyExistsException ex) {
         List<String> errors = Collections.singletonList(ex.getMessage());
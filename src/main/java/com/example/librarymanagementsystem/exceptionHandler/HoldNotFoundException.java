@@ -0,0 +1,19 @@
+package com.example.librarymanagementsystem.exceptionHandler;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception indicating that a patron has no hold on a book.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class HoldNotFoundException extends RuntimeException {
+    /**
+     * Constructs a new HoldNotFoundException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public HoldNotFoundException(String message) {
+        super(message);
+    }
+}
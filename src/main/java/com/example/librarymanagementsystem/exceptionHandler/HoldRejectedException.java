@@ -0,0 +1,20 @@
+package com.example.librarymanagementsystem.exceptionHandler;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception indicating that a hold cannot be placed: the book is available, the patron already borrowed it, or the
+ * patron already holds it.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class HoldRejectedException extends RuntimeException {
+    /**
+     * Constructs a new HoldRejectedException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public HoldRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.librarymanagementsystem.exceptionHandler;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception indicating that a patron already has as many books on loan as their tier allows.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class LoanLimitExceededException extends RuntimeException {
+    /**
+     * Constructs a new LoanLimitExceededException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public LoanLimitExceededException(String message) {
+        super(message);
+    }
+}
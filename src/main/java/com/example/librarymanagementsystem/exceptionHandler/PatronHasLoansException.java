@@ -0,0 +1,19 @@
+package com.example.librarymanagementsystem.exceptionHandler;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception indicating that a patron cannot be deleted while holding borrowed books.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class PatronHasLoansException extends RuntimeException {
+    /**
+     * Constructs a new PatronHasLoansException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public PatronHasLoansException(String message) {
+        super(message);
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
  * Exception to be thrown when a patron is not found.
+ * Created without a stack trace, since it only ever becomes a 404 response.
  */
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class PatronNotFoundException extends RuntimeException {
@@ -15,6 +16,6 @@ public class PatronNotFoundException extends RuntimeException {
      * @param message the detail message
      */
     public PatronNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
\ No newline at end of file
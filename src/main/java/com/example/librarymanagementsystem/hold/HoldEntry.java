@@ -0,0 +1,11 @@
+package com.example.librarymanagementsystem.hold;
+
+/**
+ * Projection of the hold columns needed to build the in-memory hold queues.
+ *
+ * @param id       the ID of the hold, which orders the queue of its book
+ * @param bookId   the ID of the held book
+ * @param patronId the ID of the patron waiting for it
+ */
+public record HoldEntry(long id, long bookId, long patronId) {
+}
@@ -0,0 +1,119 @@
+package com.example.librarymanagementsystem.hold;
+
+import com.example.librarymanagementsystem.util.LongIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * The FIFO hold queue of one book: patron IDs and their hold IDs in flat arrays between a head and a tail index, in
+ * the order of the hold IDs, and a map from each patron to its array index, so a patron's position is one map lookup
+ * and a subtraction.
+ * Serving the head only moves the head index; cancelling a hold in the middle, or adding one behind a hold with a
+ * higher ID, shifts the holds behind it, which is proportional to the length of one book's queue.
+ * Not thread-safe.
+ */
+final class HoldQueue {
+
+    private static final int ABSENT = -1;
+
+    private final LongIntHashMap indexByPatron = new LongIntHashMap(4, ABSENT);
+    private long[] patrons = new long[4];
+    private long[] holdIds = new long[4];
+    private int head;
+    private int tail;
+
+    /**
+     * Places a patron behind the holds with lower IDs, which is the end of the queue unless holds were added out of
+     * order; a patron already waiting keeps their place.
+     *
+     * @return true if the patron was added
+     */
+    boolean add(long holdId, long patronId) {
+        if (indexByPatron.containsKey(patronId)) {
+            return false;
+        }
+        if (tail == patrons.length) {
+            makeRoom();
+        }
+        int index = tail++;
+        for (; index > head && holdIds[index - 1] > holdId; index--) {
+            patrons[index] = patrons[index - 1];
+            holdIds[index] = holdIds[index - 1];
+            indexByPatron.put(patrons[index], index);
+        }
+        patrons[index] = patronId;
+        holdIds[index] = holdId;
+        indexByPatron.put(patronId, index);
+        return true;
+    }
+
+    /**
+     * Removes a patron from the queue, wherever they are in it.
+     *
+     * @return true if the patron was waiting
+     */
+    boolean remove(long patronId) {
+        int index = indexByPatron.remove(patronId);
+        if (index == ABSENT) {
+            return false;
+        }
+        if (index == head) {
+            head++;
+        } else {
+            for (int i = index + 1; i < tail; i++) {
+                patrons[i - 1] = patrons[i];
+                holdIds[i - 1] = holdIds[i];
+                indexByPatron.put(patrons[i], i - 1);
+            }
+            tail--;
+        }
+        if (head == tail) {
+            head = 0;
+            tail = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the 1-based position of a patron in the queue, or 0 if they are not waiting.
+     */
+    int position(long patronId) {
+        int index = indexByPatron.get(patronId);
+        return index == ABSENT ? 0 : index - head + 1;
+    }
+
+    /**
+     * Returns the waiting patrons, first in line first.
+     */
+    long[] patrons() {
+        return Arrays.copyOfRange(patrons, head, tail);
+    }
+
+    int size() {
+        return tail - head;
+    }
+
+    boolean isEmpty() {
+        return head == tail;
+    }
+
+    /**
+     * Reclaims the space of served holds at the front of the array, growing it only if the queue is more than half
+     * full.
+     */
+    private void makeRoom() {
+        int size = tail - head;
+        boolean grow = size > patrons.length >> 1;
+        long[] targetPatrons = grow ? new long[patrons.length << 1] : patrons;
+        long[] targetHoldIds = grow ? new long[holdIds.length << 1] : holdIds;
+        System.arraycopy(patrons, head, targetPatrons, 0, size);
+        System.arraycopy(holdIds, head, targetHoldIds, 0, size);
+        patrons = targetPatrons;
+        holdIds = targetHoldIds;
+        head = 0;
+        tail = size;
+        for (int i = 0; i < size; i++) {
+            indexByPatron.put(patrons[i], i);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.librarymanagementsystem.hold;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Mirrors the hold queue of every book in memory, so a patron's position in a queue is answered without a query.
+ * The holds table stays the source of truth and decides who a returned book is handed to; this mirror is updated
+ * once the transaction that changed a queue has committed, and loaded once at startup.
+ * Queues are guarded by striped locks keyed by book ID, so changes to the queues of different books rarely contend.
+ */
+@Component
+public class HoldQueues {
+
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private volatile Map<Long, HoldQueue> queues = new ConcurrentHashMap<>();
+    private List<Consumer<Map<Long, HoldQueue>>> changesDuringReload;
+
+    public HoldQueues() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Places a patron in the hold queue of a book, behind the holds with lower IDs, unless they are already in it.
+     *
+     * @param bookId   the ID of the held book
+     * @param holdId   the ID of the hold
+     * @param patronId the ID of the patron waiting for it
+     */
+    public void add(long bookId, long holdId, long patronId) {
+        change(bookId, queues -> queues.computeIfAbsent(bookId, id -> new HoldQueue()).add(holdId, patronId));
+    }
+
+    /**
+     * Removes a patron from the hold queue of a book, because their hold was cancelled or served.
+     *
+     * @param bookId   the ID of the held book
+     * @param patronId the ID of the patron
+     */
+    public void remove(long bookId, long patronId) {
+        change(bookId, queues -> {
+            HoldQueue queue = queues.get(bookId);
+            if (queue != null && queue.remove(patronId) && queue.isEmpty()) {
+                queues.remove(bookId);
+            }
+        });
+    }
+
+    /**
+     * Returns the 1-based position of a patron in the hold queue of a book, or 0 if they hold no place in it.
+     *
+     * @param bookId   the ID of the held book
+     * @param patronId the ID of the patron
+     * @return the position of the patron
+     */
+    public int position(long bookId, long patronId) {
+        ReentrantLock lock = lockFor(bookId);
+        lock.lock();
+        try {
+            HoldQueue queue = queues.get(bookId);
+            return queue == null ? 0 : queue.position(patronId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the patrons waiting for a book, first in line first.
+     *
+     * @param bookId the ID of the held book
+     * @return the IDs of the waiting patrons, empty if nobody is waiting
+     */
+    public long[] patrons(long bookId) {
+        ReentrantLock lock = lockFor(bookId);
+        lock.lock();
+        try {
+            HoldQueue queue = queues.get(bookId);
+            return queue == null ? new long[0] : queue.patrons();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the start of a full reload. Changes made from now on are applied to the live queues as usual, and
+     * replayed on top of the loaded queues so none of them is lost when they replace the live ones.
+     */
+    public void beginReload() {
+        lockAll();
+        try {
+            changesDuringReload = new ArrayList<>();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Replaces the live queues with the loaded ones, then replays the changes made since {@link #beginReload()}.
+     *
+     * @param loader the holds read from the database
+     */
+    public void completeReload(Loader loader) {
+        lockAll();
+        try {
+            if (changesDuringReload != null) {
+                changesDuringReload.forEach(change -> change.accept(loader.queues));
+                changesDuringReload = null;
+            }
+            queues = loader.queues;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Abandons a reload started with {@link #beginReload()}, keeping the live queues.
+     */
+    public void abortReload() {
+        lockAll();
+        try {
+            changesDuringReload = null;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Creates a loader for a full reload.
+     */
+    public Loader newLoader() {
+        return new Loader();
+    }
+
+    private void change(long bookId, Consumer<Map<Long, HoldQueue>> change) {
+        ReentrantLock lock = lockFor(bookId);
+        lock.lock();
+        try {
+            change.accept(queues);
+            // Changes to different stripes may be recorded concurrently; the order between them does not matter
+            // since they touch different books.
+            List<Consumer<Map<Long, HoldQueue>>> changes = changesDuringReload;
+            if (changes != null) {
+                synchronized (changes) {
+                    changes.add(change);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(long bookId) {
+        return locks[(Long.hashCode(bookId) * 0x9E3779B9 >>> 26) & (STRIPES - 1)];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Collects the holds read from the database during a reload, which are cheapest to add in the order of their IDs.
+     * Not thread-safe.
+     */
+    public static final class Loader {
+
+        private final Map<Long, HoldQueue> queues = new ConcurrentHashMap<>();
+
+        private Loader() {
+        }
+
+        /**
+         * Places a hold in its book's queue.
+         */
+        public void add(HoldEntry hold) {
+            queues.computeIfAbsent(hold.bookId(), id -> new HoldQueue()).add(hold.id(), hold.patronId());
+        }
+    }
+}
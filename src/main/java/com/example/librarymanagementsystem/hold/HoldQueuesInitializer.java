@@ -0,0 +1,53 @@
+package com.example.librarymanagementsystem.hold;
+
+import com.example.librarymanagementsystem.repository.HoldRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Loads every hold into the {@link HoldQueues} once the application is ready, in one streamed query.
+ */
+@Component
+public class HoldQueuesInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldQueuesInitializer.class);
+
+    private final HoldRepository holdRepository;
+    private final HoldQueues holdQueues;
+
+    @Autowired
+    public HoldQueuesInitializer(HoldRepository holdRepository, HoldQueues holdQueues) {
+        this.holdRepository = holdRepository;
+        this.holdQueues = holdQueues;
+    }
+
+    /**
+     * Reloads the hold queues from the holds in the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reload() {
+        long startTime = System.currentTimeMillis();
+        holdQueues.beginReload();
+        HoldQueues.Loader loader = holdQueues.newLoader();
+        long count = 0;
+        try (Stream<HoldEntry> holds = holdRepository.streamAllEntries()) {
+            for (HoldEntry hold : (Iterable<HoldEntry>) holds::iterator) {
+                loader.add(hold);
+                count++;
+            }
+        } catch (RuntimeException e) {
+            holdQueues.abortReload();
+            throw e;
+        }
+        holdQueues.completeReload(loader);
+        logger.info("Hold queues loaded with {} holds in {} ms", count, System.currentTimeMillis() - startTime);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.librarymanagementsystem.idempotency;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory tier of the idempotency store: the requests made with an Idempotency-Key, keyed by that key.
+ * An entry is created when a request starts and completed with its response, so a duplicate arriving meanwhile
+ * waits for the first request instead of running again.
+ * Keys are spread over 64 stripes, each an insertion-ordered map behind its own lock, so unrelated keys never
+ * contend. Every entry lives for the same time, so the oldest entry of a stripe is always the first to expire;
+ * expired entries are dropped from the head of their stripe as it is used, and the oldest entries are evicted once
+ * a stripe holds its share of {@code library.idempotency.max-entries}.
+ */
+@Component
+public class IdempotencyCache {
+
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    @SuppressWarnings("unchecked")
+    private final LinkedHashMap<String, Entry>[] stripes = new LinkedHashMap[STRIPES];
+    private final int maxEntriesPerStripe;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    @Autowired
+    public IdempotencyCache(@Value("${library.idempotency.max-entries:100000}") int maxEntries,
+                            @Value("${library.idempotency.ttl:PT24H}") Duration ttl) {
+        this(maxEntries, ttl, Clock.systemUTC());
+    }
+
+    IdempotencyCache(int maxEntries, Duration ttl, Clock clock) {
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / STRIPES);
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+            stripes[i] = new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * Looks up the entry of a key, creating an incomplete one if there is none.
+     *
+     * @param key         the Idempotency-Key, scoped to the client that sent it
+     * @param fingerprint the fingerprint of the request
+     * @return the entry, and whether it was just created, in which case the caller must run the request and then
+     *         {@link #complete complete} or {@link #abandon abandon} it
+     */
+    Acquisition acquire(String key, String fingerprint) {
+        int stripe = stripe(key);
+        long now = clock.millis();
+        locks[stripe].lock();
+        try {
+            LinkedHashMap<String, Entry> entries = stripes[stripe];
+            expire(entries, now);
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                return new Acquisition(entry, false);
+            }
+            entry = new Entry(fingerprint, now + ttlMillis);
+            put(entries, key, entry);
+            return new Acquisition(entry, true);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Stores the response of a request, waking up the duplicates waiting for it.
+     */
+    void complete(Entry entry, StoredResponse response) {
+        entry.result.complete(response);
+    }
+
+    /**
+     * Forgets a request that produced no response worth replaying, so that its next retry runs again. The
+     * duplicates waiting for it are woken up with no response.
+     */
+    void abandon(String key, Entry entry) {
+        int stripe = stripe(key);
+        locks[stripe].lock();
+        try {
+            stripes[stripe].remove(key, entry);
+        } finally {
+            locks[stripe].unlock();
+        }
+        entry.result.complete(null);
+    }
+
+    /**
+     * Stores a response read from the database tier.
+     */
+    void put(String key, String fingerprint, StoredResponse response) {
+        Entry entry = new Entry(fingerprint, clock.millis() + ttlMillis);
+        entry.result.complete(response);
+        int stripe = stripe(key);
+        locks[stripe].lock();
+        try {
+            put(stripes[stripe], key, entry);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries, expired ones included until their stripe is next used.
+     */
+    int size() {
+        int size = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i].lock();
+            try {
+                size += stripes[i].size();
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return size;
+    }
+
+    private void put(LinkedHashMap<String, Entry> entries, String key, Entry entry) {
+        entries.remove(key);
+        entries.put(key, entry);
+        Iterator<Map.Entry<String, Entry>> oldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntriesPerStripe) {
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    private static void expire(LinkedHashMap<String, Entry> entries, long now) {
+        Iterator<Entry> oldest = entries.values().iterator();
+        while (oldest.hasNext() && oldest.next().expiresAt <= now) {
+            oldest.remove();
+        }
+    }
+
+    private static int stripe(String key) {
+        return (key.hashCode() * 0x9E3779B9) >>> 26;
+    }
+
+    /**
+     * A request made with an Idempotency-Key: the fingerprint of the request, and its response once it is known.
+     * The response is null if the request was abandoned.
+     */
+    static final class Entry {
+
+        final String fingerprint;
+        final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+        final long expiresAt;
+
+        Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    record Acquisition(Entry entry, boolean created) {
+    }
+}
@@ -0,0 +1,346 @@
+package com.example.librarymanagementsystem.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes POST, PUT, PATCH and DELETE requests carrying an {@code Idempotency-Key} header safe to retry.
+ * The first request with a key runs as usual and its response is stored; a retry with the same key and the same
+ * method, URL and body gets the stored response back, marked with {@code Idempotent-Replayed: true}, without
+ * reaching the controllers. A retry arriving while the first request still runs waits for its response.
+ * Responses with a 5xx status, or that failed with an exception, are not stored, so the request can be retried.
+ * Keys are scoped to the authenticated principal, so two clients choosing the same key never see each other's
+ * responses. Runs after Spring Security, so unauthenticated requests never reach the store.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final IdempotencyCache idempotencyCache;
+    private final IdempotencyRecordStore idempotencyRecordStore;
+    private final ObjectMapper objectMapper;
+    private final int maxBodySize;
+    private final long waitTimeoutMillis;
+    private final List<String> excludedPaths;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    public IdempotencyFilter(IdempotencyCache idempotencyCache,
+                             ObjectProvider<IdempotencyRecordStore> idempotencyRecordStore,
+                             ObjectMapper objectMapper,
+                             @Value("${library.idempotency.max-body-size:65536}") int maxBodySize,
+                             @Value("${library.idempotency.wait-timeout:PT30S}") Duration waitTimeout,
+                             @Value("${library.idempotency.excluded-paths:/api/books/import}") List<String> excludedPaths) {
+        this(idempotencyCache, idempotencyRecordStore.getIfAvailable(), objectMapper, maxBodySize, waitTimeout,
+                excludedPaths);
+    }
+
+    IdempotencyFilter(IdempotencyCache idempotencyCache, IdempotencyRecordStore idempotencyRecordStore,
+                      ObjectMapper objectMapper, int maxBodySize, Duration waitTimeout, List<String> excludedPaths) {
+        this.idempotencyCache = idempotencyCache;
+        this.idempotencyRecordStore = idempotencyRecordStore;
+        this.objectMapper = objectMapper;
+        this.maxBodySize = maxBodySize;
+        this.waitTimeoutMillis = waitTimeout.toMillis();
+        this.excludedPaths = excludedPaths;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !IDEMPOTENT_METHODS.contains(request.getMethod())
+                || excludedPaths.stream().anyMatch(path -> pathMatcher.match(path, request.getRequestURI()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST,
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        byte[] body = readBody(request);
+        if (body == null) {
+            sendError(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                    "Requests with an Idempotency-Key are limited to " + maxBodySize + " bytes");
+            return;
+        }
+        key = scopedKey(request.getUserPrincipal() == null ? null : request.getUserPrincipal().getName(), key);
+        String fingerprint = fingerprint(request, body);
+        HttpServletRequest cachedRequest = new CachedBodyRequest(request, body);
+
+        while (true) {
+            IdempotencyCache.Acquisition acquisition = idempotencyCache.acquire(key, fingerprint);
+            IdempotencyCache.Entry entry = acquisition.entry();
+            if (!entry.fingerprint.equals(fingerprint)) {
+                sendMismatch(response);
+                return;
+            }
+            if (!acquisition.created()) {
+                StoredResponse stored;
+                try {
+                    stored = entry.result.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    sendInProgress(response);
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    sendInProgress(response);
+                    return;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e);
+                }
+                if (stored == null) {
+                    // The first request failed and was abandoned; try to run this one instead.
+                    continue;
+                }
+                replay(response, stored);
+                return;
+            }
+            if (idempotencyRecordStore != null && !claimInDatabase(key, fingerprint, entry, response)) {
+                return;
+            }
+            proceed(key, entry, cachedRequest, response, filterChain);
+            return;
+        }
+    }
+
+    /**
+     * Claims the key in the database tier, or answers the request from it.
+     *
+     * @return whether the request must run
+     */
+    private boolean claimInDatabase(String key, String fingerprint, IdempotencyCache.Entry entry,
+                                    HttpServletResponse response) throws IOException {
+        IdempotencyRecordStore.Claim claim;
+        try {
+            claim = idempotencyRecordStore.claim(key, fingerprint);
+        } catch (RuntimeException e) {
+            idempotencyCache.abandon(key, entry);
+            throw e;
+        }
+        if (claim.claimed()) {
+            return true;
+        }
+        if (!claim.fingerprint().equals(fingerprint)) {
+            idempotencyCache.abandon(key, entry);
+            sendMismatch(response);
+        } else if (claim.response() == null) {
+            idempotencyCache.abandon(key, entry);
+            sendInProgress(response);
+        } else {
+            idempotencyCache.complete(entry, claim.response());
+            replay(response, claim.response());
+        }
+        return false;
+    }
+
+    private void proceed(String key, IdempotencyCache.Entry entry, HttpServletRequest request,
+                         HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        StoredResponse stored = null;
+        try {
+            filterChain.doFilter(request, wrapper);
+            if (!request.isAsyncStarted() && wrapper.getStatus() < 500 && wrapper.getContentSize() <= maxBodySize) {
+                stored = new StoredResponse(wrapper.getStatus(), wrapper.getContentType(),
+                        wrapper.getContentAsByteArray());
+            }
+        } finally {
+            if (stored != null) {
+                if (idempotencyRecordStore != null) {
+                    idempotencyRecordStore.complete(key, stored);
+                }
+                idempotencyCache.complete(entry, stored);
+            } else {
+                if (idempotencyRecordStore != null) {
+                    idempotencyRecordStore.release(key);
+                }
+                idempotencyCache.abandon(key, entry);
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void sendMismatch(HttpServletResponse response) throws IOException {
+        sendError(response, 422, "Idempotency-Key was already used for a different request");
+    }
+
+    private void sendInProgress(HttpServletResponse response) throws IOException {
+        sendError(response, HttpServletResponse.SC_CONFLICT,
+                "A request with this Idempotency-Key is still in progress");
+    }
+
+    private void sendError(HttpServletResponse response, int status, String error) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        objectMapper.writeValue(response.getOutputStream(), Map.of("errors", List.of(error)));
+    }
+
+    /**
+     * Reads the request body, or returns null if it is larger than the limit.
+     */
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > maxBodySize) {
+            return null;
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = request.getInputStream()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+                if (body.size() > maxBodySize) {
+                    return null;
+                }
+            }
+        }
+        return body.toByteArray();
+    }
+
+    /**
+     * Scopes a client's key to its principal. The principal name is the API key, so the two are hashed together
+     * rather than stored, which also keeps the scoped key as short as a fingerprint.
+     */
+    static String scopedKey(String principalName, String key) {
+        MessageDigest digest = sha256();
+        digest.update((principalName == null ? "" : principalName).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        digest.update(key.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        MessageDigest digest = sha256();
+        digest.update((request.getMethod() + ' ' + request.getRequestURI() + '?'
+                + (request.getQueryString() == null ? "" : request.getQueryString()) + '\n')
+                .getBytes(StandardCharsets.UTF_8));
+        digest.update(body);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A request whose body has already been read, served from memory to the rest of the chain.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * The whole body is already in memory, so the listener is told at once that it can be read.
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws UnsupportedEncodingException {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : "UTF-8";
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), encoding));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.librarymanagementsystem.idempotency;
+
+import com.example.librarymanagementsystem.entity.IdempotencyRecord;
+import com.example.librarymanagementsystem.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Database tier of the idempotency store, enabled with {@code library.idempotency.db.enabled=true} so that a retry
+ * landing on another instance of the application is still recognized. A request is claimed by inserting its key,
+ * so it runs on one instance only; an instance that stops while running it leaves the claim behind, and another
+ * instance takes it over after {@code library.idempotency.lock-timeout}. Expired keys are purged on a schedule.
+ */
+@Component
+@ConditionalOnProperty(name = "library.idempotency.db.enabled", havingValue = "true")
+public class IdempotencyRecordStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyRecordStore.class);
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final Duration ttl;
+    private final Duration lockTimeout;
+    private final Clock clock;
+
+    @Autowired
+    public IdempotencyRecordStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  @Value("${library.idempotency.ttl:PT24H}") Duration ttl,
+                                  @Value("${library.idempotency.lock-timeout:PT1M}") Duration lockTimeout) {
+        this(idempotencyRecordRepository, ttl, lockTimeout, Clock.systemDefaultZone());
+    }
+
+    IdempotencyRecordStore(IdempotencyRecordRepository idempotencyRecordRepository, Duration ttl,
+                           Duration lockTimeout, Clock clock) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.ttl = ttl;
+        this.lockTimeout = lockTimeout;
+        this.clock = clock;
+    }
+
+    /**
+     * Claims a request, unless another request with the same key was made before.
+     *
+     * @param key         the Idempotency-Key, scoped to the client that sent it
+     * @param fingerprint the fingerprint of the request
+     * @return a claim if the caller must run the request and then {@link #complete complete} or
+     *         {@link #release release} it; otherwise the earlier request, with its response if it has one
+     */
+    public Claim claim(String key, String fingerprint) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            LocalDateTime now = LocalDateTime.now(clock);
+            try {
+                idempotencyRecordRepository.insertInProgress(key, fingerprint, now, now.plus(ttl));
+                return Claim.CLAIMED;
+            } catch (DataIntegrityViolationException e) {
+                Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(key);
+                if (existing.isEmpty() || idempotencyRecordRepository.deleteIfExpired(key, now) > 0) {
+                    continue;
+                }
+                IdempotencyRecord record = existing.get();
+                if (record.getResponseStatus() != null) {
+                    return new Claim(false, record.getFingerprint(), new StoredResponse(record.getResponseStatus(),
+                            record.getContentType(), record.getResponseBody()));
+                }
+                if (record.getFingerprint().equals(fingerprint)
+                        && idempotencyRecordRepository.takeOverStale(key, now, now.minus(lockTimeout)) > 0) {
+                    logger.warn("Took over stale idempotent request {}", key);
+                    return Claim.CLAIMED;
+                }
+                return new Claim(false, record.getFingerprint(), null);
+            }
+        }
+        // The key keeps being taken and released by other instances; let the client retry.
+        return new Claim(false, fingerprint, null);
+    }
+
+    /**
+     * Stores the response of a claimed request.
+     */
+    public void complete(String key, StoredResponse response) {
+        idempotencyRecordRepository.complete(key, response.status(), response.contentType(), response.body());
+    }
+
+    /**
+     * Releases a claimed request that produced no response worth replaying.
+     */
+    public void release(String key) {
+        idempotencyRecordRepository.deleteInProgress(key);
+    }
+
+    /**
+     * Deletes the expired keys.
+     */
+    @Scheduled(cron = "${library.idempotency.db.purge-cron:0 */15 * * * *}")
+    public void purgeExpired() {
+        int purged = idempotencyRecordRepository.deleteExpired(LocalDateTime.now(clock));
+        if (purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * The outcome of {@link #claim}.
+     *
+     * @param claimed     whether the caller must run the request
+     * @param fingerprint the fingerprint of the earlier request, if not claimed
+     * @param response    the response of the earlier request, or null if it is still in progress
+     */
+    public record Claim(boolean claimed, String fingerprint, StoredResponse response) {
+
+        static final Claim CLAIMED = new Claim(true, null, null);
+    }
+}
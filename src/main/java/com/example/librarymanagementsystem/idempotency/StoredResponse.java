@@ -0,0 +1,11 @@
+package com.example.librarymanagementsystem.idempotency;
+
+/**
+ * The response of a request made with an Idempotency-Key, replayed to every retry of the request.
+ *
+ * @param status      the HTTP status
+ * @param contentType the content type, or null if the response had no body
+ * @param body        the response body, possibly empty
+ */
+public record StoredResponse(int status, String contentType, byte[] body) {
+}
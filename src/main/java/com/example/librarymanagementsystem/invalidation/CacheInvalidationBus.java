@@ -0,0 +1,227 @@
+package com.example.librarymanagementsystem.invalidation;
+
+import com.example.librarymanagementsystem.invalidation.InvalidationBatch.Invalidation;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the caches of the instances of the application coherent: the entries an instance puts or evicts are
+ * dropped by every other instance, which reads them again from the database on their next miss.
+ * The changes are collected for a short interval and sent as one batch, in which each entry appears once and an
+ * entry of a cache being cleared does not appear at all. Each instance numbers its batches; a receiver that sees a
+ * number skipped has lost invalidations it cannot recover, and clears all of its caches instead.
+ * Changes are published once they have committed, so another instance can no longer read the previous state when
+ * it drops its copy.
+ */
+public class CacheInvalidationBus implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final InvalidationTransport transport;
+    private final int maxBatchSize;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, ClusterInvalidatingCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastSequences = new ConcurrentHashMap<>();
+    private final Object sendLock = new Object();
+    private Set<Invalidation> pending = new LinkedHashSet<>();
+    private long lastSequence;
+    private final LongAdder sentBatches = new LongAdder();
+    private final LongAdder sentInvalidations = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder receivedBatches = new LongAdder();
+    private final LongAdder receivedInvalidations = new LongAdder();
+    private final LongAdder gaps = new LongAdder();
+
+    /**
+     * @param transport    the transport carrying the batches between the instances
+     * @param maxBatchSize the number of pending invalidations at which a batch is sent without waiting
+     */
+    public CacheInvalidationBus(InvalidationTransport transport, int maxBatchSize) {
+        this.transport = transport;
+        this.maxBatchSize = maxBatchSize;
+        transport.subscribe(this::receive);
+    }
+
+    /**
+     * Returns the ID of this instance in the batches it sends.
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Applies the invalidations received for a cache to it.
+     */
+    public void register(ClusterInvalidatingCache cache) {
+        caches.put(cache.getName(), cache);
+    }
+
+    /**
+     * Publishes a change of one entry. Keys that are not IDs are published as a change of the whole cache.
+     */
+    public void publish(String cacheName, Object key) {
+        add(key instanceof Long id ? new Invalidation(cacheName, id) : Invalidation.ofCache(cacheName));
+    }
+
+    /**
+     * Publishes that every entry of a cache was dropped.
+     */
+    public void publishClear(String cacheName) {
+        add(Invalidation.ofCache(cacheName));
+    }
+
+    private void add(Invalidation invalidation) {
+        boolean full;
+        synchronized (this) {
+            pending.add(invalidation);
+            full = pending.size() >= maxBatchSize;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends the pending invalidations as one batch. A batch that cannot be sent is dropped; the receivers notice
+     * the skipped number at the next batch and clear their caches.
+     */
+    @Scheduled(fixedDelayString = "${library.cache.invalidation.batch-delay:PT0.1S}")
+    public void flush() {
+        synchronized (sendLock) {
+            Set<Invalidation> invalidations;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                invalidations = pending;
+                pending = new LinkedHashSet<>();
+            }
+            InvalidationBatch batch = new InvalidationBatch(nodeId, ++lastSequence, withoutClearedKeys(invalidations));
+            try {
+                transport.send(batch);
+                sentBatches.increment();
+                sentInvalidations.add(batch.invalidations().size());
+            } catch (RuntimeException e) {
+                failedBatches.increment();
+                logger.warn("Failed to send cache invalidation batch {}", batch.sequence(), e);
+            }
+        }
+    }
+
+    /**
+     * Applies a batch sent by another instance, or clears every cache if batches of that instance were lost.
+     */
+    void receive(InvalidationBatch batch) {
+        if (nodeId.equals(batch.nodeId())) {
+            return;
+        }
+        long sequence = batch.sequence();
+        long[] previous = new long[1];
+        lastSequences.compute(batch.nodeId(), (node, last) -> {
+            previous[0] = last == null ? 0 : last;
+            return last == null ? sequence : Math.max(last, sequence);
+        });
+        if (previous[0] != 0 && sequence <= previous[0]) {
+            return;
+        }
+        receivedBatches.increment();
+        receivedInvalidations.add(batch.invalidations().size());
+        // The first batch seen from an instance only sets where its numbering is; this one started after it.
+        if (previous[0] != 0 && sequence != previous[0] + 1) {
+            gaps.increment();
+            logger.warn("Lost cache invalidation batches {} to {} from {}, clearing the caches", previous[0] + 1,
+                    sequence - 1, batch.nodeId());
+            caches.values().forEach(ClusterInvalidatingCache::clearLocally);
+            return;
+        }
+        for (Invalidation invalidation : batch.invalidations()) {
+            ClusterInvalidatingCache cache = caches.get(invalidation.cacheName());
+            if (cache == null) {
+                continue;
+            }
+            if (invalidation.isWholeCache()) {
+                cache.clearLocally();
+            } else {
+                cache.evictLocally(invalidation.key());
+            }
+        }
+    }
+
+    /**
+     * Leaves out the invalidations of single entries of the caches that are cleared anyway.
+     */
+    private static List<Invalidation> withoutClearedKeys(Set<Invalidation> invalidations) {
+        Set<String> cleared = new LinkedHashSet<>();
+        for (Invalidation invalidation : invalidations) {
+            if (invalidation.isWholeCache()) {
+                cleared.add(invalidation.cacheName());
+            }
+        }
+        List<Invalidation> batch = new ArrayList<>(invalidations.size());
+        for (Invalidation invalidation : invalidations) {
+            if (invalidation.isWholeCache() || !cleared.contains(invalidation.cacheName())) {
+                batch.add(invalidation);
+            }
+        }
+        return batch;
+    }
+
+    public long sentBatchCount() {
+        return sentBatches.sum();
+    }
+
+    public long failedBatchCount() {
+        return failedBatches.sum();
+    }
+
+    public long receivedBatchCount() {
+        return receivedBatches.sum();
+    }
+
+    /**
+     * Returns the number of times batches of another instance were lost and the caches cleared.
+     */
+    public long gapCount() {
+        return gaps.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.invalidation.batches", sentBatches, LongAdder::sum)
+                .tag("result", "sent")
+                .description("The number of invalidation batches sent to the other instances")
+                .register(registry);
+        FunctionCounter.builder("cache.invalidation.batches", failedBatches, LongAdder::sum)
+                .tag("result", "failed")
+                .description("The number of invalidation batches that could not be sent")
+                .register(registry);
+        FunctionCounter.builder("cache.invalidation.batches", receivedBatches, LongAdder::sum)
+                .tag("result", "received")
+                .description("The number of invalidation batches received from the other instances")
+                .register(registry);
+        FunctionCounter.builder("cache.invalidation.entries", sentInvalidations, LongAdder::sum)
+                .tag("result", "sent")
+                .description("The number of cache entries whose invalidation was sent")
+                .register(registry);
+        FunctionCounter.builder("cache.invalidation.entries", receivedInvalidations, LongAdder::sum)
+                .tag("result", "received")
+                .description("The number of cache entries whose invalidation was received")
+                .register(registry);
+        FunctionCounter.builder("cache.invalidation.gaps", gaps, LongAdder::sum)
+                .description("The number of times invalidations were lost and the caches cleared")
+                .register(registry);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.librarymanagementsystem.invalidation;
+
+import com.example.librarymanagementsystem.cache.AbsentIdFilter;
+import com.example.librarymanagementsystem.cache.DelegatingCache;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A cache whose changes are published on a {@link CacheInvalidationBus}, so that the other instances of the
+ * application drop their copies of the entries it puts or evicts. Values loaded on a miss are not published: they
+ * are the current state of the database, which the other instances read too.
+ * Invalidations received from the other instances are applied with {@link #evictLocally} and {@link #clearLocally},
+ * which are not published back. An entry changed elsewhere may also have just been added there, so its ID is
+ * recorded as added in the {@link AbsentIdFilter} of the cache, if it has one.
+ */
+public class ClusterInvalidatingCache implements DelegatingCache {
+
+    private final Cache target;
+    private final CacheInvalidationBus bus;
+    private final AbsentIdFilter absentIds;
+
+    /**
+     * @param target the cache holding the values
+     * @param bus    the bus the changes are published on
+     */
+    public ClusterInvalidatingCache(Cache target, CacheInvalidationBus bus) {
+        this(target, bus, null);
+    }
+
+    /**
+     * @param target    the cache holding the values
+     * @param bus       the bus the changes are published on
+     * @param absentIds the filter of the IDs missing from the entity of the cache, or null
+     */
+    public ClusterInvalidatingCache(Cache target, CacheInvalidationBus bus, AbsentIdFilter absentIds) {
+        this.target = target;
+        this.bus = bus;
+        this.absentIds = absentIds;
+    }
+
+    @Override
+    public Cache getTargetCache() {
+        return target;
+    }
+
+    /**
+     * Evicts an entry changed by another instance.
+     */
+    public void evictLocally(Object key) {
+        if (absentIds != null && key instanceof Long id) {
+            absentIds.recordAdded(id);
+        }
+        target.evict(key);
+    }
+
+    /**
+     * Evicts every entry, after another instance cleared the cache or its invalidations were lost. The IDs added
+     * elsewhere meanwhile are unknown, so the filter of absent IDs stops answering from the assigned IDs.
+     */
+    public void clearLocally() {
+        if (absentIds != null) {
+            absentIds.forgetAssignedIds();
+        }
+        target.clear();
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return target.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return target.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return target.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        target.put(key, value);
+        bus.publish(getName(), key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return target.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+        bus.publish(getName(), key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = target.evictIfPresent(key);
+        // The other instances may hold the entry even if this one does not.
+        bus.publish(getName(), key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+        bus.publishClear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = target.invalidate();
+        bus.publishClear(getName());
+        return notEmpty;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.librarymanagementsystem.invalidation;
+
+import java.util.List;
+
+/**
+ * The cache entries one instance of the application changed during a short interval, sent to the other instances
+ * so that they drop their copies.
+ *
+ * @param nodeId        the ID of the instance that sent the batch, which changes every time it starts
+ * @param sequence      the number of the batch among those sent by the instance, starting at 1 with no gaps
+ * @param invalidations the entries to drop, each once
+ */
+public record InvalidationBatch(String nodeId, long sequence, List<Invalidation> invalidations) {
+
+    /**
+     * An entry, or every entry, of one cache to drop.
+     *
+     * @param cacheName the name of the cache
+     * @param key       the ID the entry is cached under, or null for every entry of the cache
+     */
+    public record Invalidation(String cacheName, Long key) {
+
+        /**
+         * Creates an invalidation of every entry of a cache.
+         */
+        public static Invalidation ofCache(String cacheName) {
+            return new Invalidation(cacheName, null);
+        }
+
+        /**
+         * Returns whether this invalidation drops every entry of its cache.
+         */
+        public boolean isWholeCache() {
+            return key == null;
+        }
+    }
+}
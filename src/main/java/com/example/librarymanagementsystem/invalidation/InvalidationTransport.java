@@ -0,0 +1,23 @@
+package com.example.librarymanagementsystem.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidation batches between the instances of the application.
+ * A transport may lose, repeat or reorder batches; the {@link CacheInvalidationBus} detects it from their sequence
+ * numbers. It may also hand an instance back its own batches, which the bus ignores.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Sends a batch to the other instances.
+     *
+     * @throws RuntimeException if the batch could not be sent; the bus does not retry it
+     */
+    void send(InvalidationBatch batch);
+
+    /**
+     * Registers the receiver of the batches sent by every instance.
+     */
+    void subscribe(Consumer<InvalidationBatch> receiver);
+}
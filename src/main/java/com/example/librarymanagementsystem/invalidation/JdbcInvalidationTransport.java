@@ -0,0 +1,141 @@
+package com.example.librarymanagementsystem.invalidation;
+
+import com.example.librarymanagementsystem.entity.CacheInvalidationRecord;
+import com.example.librarymanagementsystem.invalidation.InvalidationBatch.Invalidation;
+import com.example.librarymanagementsystem.repository.CacheInvalidationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Exchanges invalidation batches through a table of the shared database, so that no other infrastructure is
+ * needed. Each batch is one row; every instance polls for the rows inserted since its last poll and deletes the
+ * rows older than the retention period.
+ * A row inserted by a transaction that commits after a row with a higher ID was polled is never read; the sequence
+ * numbers of the batches reveal it, and the receiver clears its caches.
+ */
+public class JdbcInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcInvalidationTransport.class);
+
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+    private final int pollBatchSize;
+    private final Duration retention;
+    private final Clock clock;
+    private final List<Consumer<InvalidationBatch>> receivers = new CopyOnWriteArrayList<>();
+    private Long lastId;
+
+    /**
+     * @param cacheInvalidationRepository the repository of the batches
+     * @param pollBatchSize               the maximum number of batches read by one query
+     * @param retention                   how long a batch is kept for the instances to read it
+     */
+    public JdbcInvalidationTransport(CacheInvalidationRepository cacheInvalidationRepository, int pollBatchSize,
+                                     Duration retention) {
+        this(cacheInvalidationRepository, pollBatchSize, retention, Clock.systemDefaultZone());
+    }
+
+    JdbcInvalidationTransport(CacheInvalidationRepository cacheInvalidationRepository, int pollBatchSize,
+                              Duration retention, Clock clock) {
+        this.cacheInvalidationRepository = cacheInvalidationRepository;
+        this.pollBatchSize = pollBatchSize;
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    @Override
+    public void send(InvalidationBatch batch) {
+        cacheInvalidationRepository.insert(batch.nodeId(), batch.sequence(), encode(batch.invalidations()),
+                LocalDateTime.now(clock));
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationBatch> receiver) {
+        receivers.add(receiver);
+    }
+
+    /**
+     * Hands the batches inserted since the last poll to the receivers. The first poll only skips the batches
+     * inserted before this instance started.
+     *
+     * @return the number of batches read
+     */
+    @Scheduled(fixedDelayString = "${library.cache.invalidation.jdbc.poll-interval:PT1S}")
+    public synchronized int poll() {
+        if (lastId == null) {
+            Long maxId = cacheInvalidationRepository.findMaxId();
+            lastId = maxId == null ? 0L : maxId;
+            return 0;
+        }
+        int read = 0;
+        List<CacheInvalidationRecord> records;
+        do {
+            records = cacheInvalidationRepository.findAfter(lastId, Limit.of(pollBatchSize));
+            for (CacheInvalidationRecord record : records) {
+                InvalidationBatch batch = new InvalidationBatch(record.getNodeId(), record.getSequenceNumber(),
+                        decode(record.getInvalidations()));
+                receivers.forEach(receiver -> receiver.accept(batch));
+                lastId = record.getId();
+                read++;
+            }
+        } while (records.size() == pollBatchSize);
+        return read;
+    }
+
+    /**
+     * Deletes the batches older than the retention period.
+     */
+    @Scheduled(cron = "${library.cache.invalidation.jdbc.purge-cron:0 */5 * * * *}")
+    public void purge() {
+        int purged = cacheInvalidationRepository.deleteCreatedBefore(LocalDateTime.now(clock).minus(retention));
+        if (purged > 0) {
+            logger.debug("Purged {} cache invalidation batches", purged);
+        }
+    }
+
+    /**
+     * Encodes invalidations as {@code books:1,2,3;patrons:*}, grouping the keys of each cache.
+     */
+    static String encode(List<Invalidation> invalidations) {
+        StringBuilder encoded = new StringBuilder();
+        String cacheName = null;
+        for (Invalidation invalidation : invalidations) {
+            if (!invalidation.cacheName().equals(cacheName)) {
+                if (cacheName != null) {
+                    encoded.append(';');
+                }
+                cacheName = invalidation.cacheName();
+                encoded.append(cacheName).append(':');
+            } else {
+                encoded.append(',');
+            }
+            encoded.append(invalidation.isWholeCache() ? "*" : invalidation.key().toString());
+        }
+        return encoded.toString();
+    }
+
+    static List<Invalidation> decode(String encoded) {
+        List<Invalidation> invalidations = new ArrayList<>();
+        if (encoded.isEmpty()) {
+            return invalidations;
+        }
+        for (String group : encoded.split(";")) {
+            int colon = group.indexOf(':');
+            String cacheName = group.substring(0, colon);
+            for (String key : group.substring(colon + 1).split(",")) {
+                invalidations.add(key.equals("*") ? Invalidation.ofCache(cacheName)
+                        : new Invalidation(cacheName, Long.parseLong(key)));
+            }
+        }
+        return invalidations;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.librarymanagementsystem.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers every batch right away to every bus subscribed to the same transport, within one process.
+ * Buses sharing a transport act as separate instances of the application, which is how the invalidation protocol
+ * is tested; an application using it on its own only talks to itself.
+ */
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+    private final List<Consumer<InvalidationBatch>> receivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(InvalidationBatch batch) {
+        receivers.forEach(receiver -> receiver.accept(batch));
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationBatch> receiver) {
+        receivers.add(receiver);
+    }
+}
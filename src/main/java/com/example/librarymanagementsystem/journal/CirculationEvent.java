@@ -0,0 +1,21 @@
+package com.example.librarymanagementsystem.journal;
+
+/**
+ * A borrow or a return, as recorded in the {@link CirculationJournal}.
+ *
+ * @param sequence  the position of the event in the journal, starting at 1
+ * @param type      whether the book was borrowed or returned
+ * @param fromHold  for a borrow, whether the book was handed to the patron first in its hold queue
+ * @param bookId    the ID of the book
+ * @param patronId  the ID of the patron borrowing or returning it
+ * @param eventTime when the book was borrowed or returned, in epoch milliseconds
+ * @param dueTime   for a borrow, when the loan is due, in epoch milliseconds; 0 for a return
+ */
+public record CirculationEvent(long sequence, Type type, boolean fromHold, long bookId, long patronId,
+                               long eventTime, long dueTime) {
+
+    public enum Type {
+        BORROW,
+        RETURN
+    }
+}
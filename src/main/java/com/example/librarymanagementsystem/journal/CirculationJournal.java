@@ -0,0 +1,317 @@
+package com.example.librarymanagementsystem.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of borrows and returns, kept in memory-mapped segment files.
+ * Appending only copies the record into the mapped file; a single flusher thread forces everything written so far
+ * to the storage device and then releases every appender waiting on it, so concurrent appenders share one fsync
+ * (group commit). Events become available to the applier only once they are durable, in sequence order.
+ * Segments are deleted once all their events have been applied; the newest segment is always kept so that sequence
+ * numbers keep increasing across restarts.
+ */
+public class CirculationJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CirculationJournal.class);
+
+    private final Path directory;
+    private final int segmentCapacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+    private final Deque<JournalSegment> segments = new ArrayDeque<>();
+    private final Deque<CirculationEvent> unapplied = new ArrayDeque<>();
+    private final Thread flusher;
+    private long durableSequence;
+    private int flushedRecords;
+    private long flushCount;
+    private IOException failure;
+    private volatile boolean running = true;
+
+    /**
+     * Opens the journal in the given directory, recovering the events of the existing segments, and starts the
+     * flusher thread.
+     *
+     * @param directory   the directory of the segment files, created if needed
+     * @param segmentSize the size of each segment file, in bytes
+     */
+    public CirculationJournal(Path directory, long segmentSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentCapacity = (int) Math.min(Integer.MAX_VALUE / JournalSegment.RECORD_SIZE,
+                Math.max(1, segmentSize / JournalSegment.RECORD_SIZE));
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(JournalSegment::isSegment)
+                    .sorted(Comparator.comparingLong(JournalSegment::firstSequence))
+                    .toList();
+        }
+        List<CirculationEvent> recovered = new ArrayList<>();
+        for (Path path : paths) {
+            segments.addLast(JournalSegment.open(path, recovered));
+        }
+        if (segments.isEmpty()) {
+            segments.addLast(JournalSegment.create(directory, 1, segmentCapacity));
+        }
+        unapplied.addAll(recovered);
+        durableSequence = current().nextSequence() - 1;
+        flushedRecords = current().size();
+        logger.info("Circulation journal opened in {} with {} recovered events", directory, recovered.size());
+        flusher = new Thread(this::flushWhenWritten, "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Drops the recovered events that were already applied, and makes sure new events are numbered after them.
+     *
+     * @param appliedSequence the sequence number of the last applied event
+     */
+    public void recover(long appliedSequence) {
+        lock.lock();
+        try {
+            while (!unapplied.isEmpty() && unapplied.peekFirst().sequence() <= appliedSequence) {
+                unapplied.pollFirst();
+            }
+            if (current().nextSequence() <= appliedSequence) {
+                roll(appliedSequence + 1);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(fail(e));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends an event; it is not durable until {@link #awaitDurable(long)} returns.
+     *
+     * @return the sequence number of the event
+     * @throws UncheckedIOException if the journal failed earlier
+     */
+    public long append(CirculationEvent.Type type, boolean fromHold, long bookId, long patronId, long eventTime,
+                       long dueTime) {
+        lock.lock();
+        try {
+            checkNotFailed();
+            if (current().isFull()) {
+                roll(current().nextSequence());
+            }
+            CirculationEvent event = new CirculationEvent(current().nextSequence(), type, fromHold, bookId, patronId,
+                    eventTime, dueTime);
+            current().append(event);
+            unapplied.addLast(event);
+            written.signal();
+            return event.sequence();
+        } catch (IOException e) {
+            throw new UncheckedIOException(fail(e));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the event with the given sequence number, and every event before it, is on the storage device.
+     *
+     * @throws UncheckedIOException if the journal could not be forced
+     */
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                checkNotFailed();
+                durable.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the oldest durable events that were not handed out yet, waiting for one if there is none.
+     *
+     * @param max     the maximum number of events to take
+     * @param timeout how long to wait, in milliseconds; 0 to return right away
+     * @return the events, in sequence order; empty if none became durable in time
+     */
+    public List<CirculationEvent> takeDurable(int max, long timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+            while (!hasDurableEvent() && nanos > 0) {
+                nanos = durable.awaitNanos(nanos);
+            }
+            List<CirculationEvent> events = new ArrayList<>();
+            while (events.size() < max && hasDurableEvent()) {
+                events.add(unapplied.pollFirst());
+            }
+            return events;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments whose events have all been applied, except the newest one.
+     *
+     * @param appliedSequence the sequence number of the last applied event
+     */
+    public void markApplied(long appliedSequence) {
+        lock.lock();
+        try {
+            while (segments.size() > 1) {
+                JournalSegment oldest = segments.peekFirst();
+                if (oldest.nextSequence() - 1 > appliedSequence) {
+                    break;
+                }
+                segments.pollFirst().delete();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not delete an applied journal segment", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last event appended.
+     */
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return current().nextSequence() - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of times the flusher forced the journal, which is lower than the number of appends when
+     * they were committed in groups.
+     */
+    long flushCount() {
+        lock.lock();
+        try {
+            return flushCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the flusher, forces what was written and closes the segment files.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            current().force(flushedRecords, current().size());
+            for (JournalSegment segment : segments) {
+                segment.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushWhenWritten() {
+        while (running) {
+            JournalSegment segment;
+            int from;
+            int to;
+            long sequence;
+            lock.lock();
+            try {
+                while (current().size() == flushedRecords) {
+                    written.await();
+                }
+                segment = current();
+                from = flushedRecords;
+                to = segment.size();
+                sequence = segment.nextSequence() - 1;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            RuntimeException forceFailure = null;
+            try {
+                segment.force(from, to);
+            } catch (RuntimeException e) {
+                forceFailure = e;
+            }
+            lock.lock();
+            try {
+                if (forceFailure != null) {
+                    fail(new IOException("Could not force the circulation journal", forceFailure));
+                    return;
+                }
+                if (segment == current()) {
+                    flushedRecords = Math.max(flushedRecords, to);
+                }
+                durableSequence = Math.max(durableSequence, sequence);
+                flushCount++;
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Forces the current segment and starts a new one; called with the lock held.
+     */
+    private void roll(long firstSequence) throws IOException {
+        JournalSegment full = current();
+        full.force(flushedRecords, full.size());
+        durableSequence = Math.max(durableSequence, full.nextSequence() - 1);
+        segments.addLast(JournalSegment.create(directory, firstSequence, segmentCapacity));
+        flushedRecords = 0;
+        durable.signalAll();
+    }
+
+    private boolean hasDurableEvent() {
+        return !unapplied.isEmpty() && unapplied.peekFirst().sequence() <= durableSequence;
+    }
+
+    private JournalSegment current() {
+        return segments.peekLast();
+    }
+
+    private IOException fail(IOException e) {
+        if (failure == null) {
+            failure = e;
+            logger.error("The circulation journal failed; no more events will be accepted", e);
+        }
+        durable.signalAll();
+        return e;
+    }
+
+    private void checkNotFailed() {
+        if (failure != null) {
+            throw new UncheckedIOException("The circulation journal failed", failure);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.librarymanagementsystem.journal;
+
+import com.example.librarymanagementsystem.dto.OverdueLoanDTOResponse;
+import com.example.librarymanagementsystem.entity.JournalCheckpoint;
+import com.example.librarymanagementsystem.limits.LoanLimits;
+import com.example.librarymanagementsystem.overdue.OverdueLoanTracker;
+import com.example.librarymanagementsystem.repository.ActiveLoanRepository;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
+import com.example.librarymanagementsystem.repository.HoldRepository;
+import com.example.librarymanagementsystem.stats.BorrowEvent;
+import com.example.librarymanagementsystem.stats.BorrowingStatistics;
+import com.example.librarymanagementsystem.repository.JournalCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Applies the events of the {@link CirculationJournal} to the borrowing records, active loans and books in the
+ * background, many events per transaction, and records the last applied sequence number in the same transaction.
+ * At startup, before the application serves any request, it replays the events the journal holds beyond that
+ * checkpoint and then loads the {@link OpenLoans} from the database, and the loan counts of the {@link LoanLimits}
+ * from them.
+ * An event that can never be applied, such as a borrow of a book deleted before the borrow reached the database, is
+ * logged and skipped rather than blocking every event after it.
+ */
+@Component
+@ConditionalOnProperty(name = "library.journal.enabled", havingValue = "true")
+public class JournalApplier {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalApplier.class);
+    private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final CirculationJournal journal;
+    private final OpenLoans openLoans;
+    private final JournalCheckpointRepository checkpointRepository;
+    private final BookRepository bookRepository;
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final ActiveLoanRepository activeLoanRepository;
+    private final HoldRepository holdRepository;
+    private final OverdueLoanTracker overdueLoanTracker;
+    private final BorrowingStatistics borrowingStatistics;
+    private final LoanLimits loanLimits;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private Thread applierThread;
+    private volatile boolean running;
+    private long appliedSequence;
+
+    @Value("${library.journal.batch-size:500}")
+    private int batchSize = 500;
+
+    @Autowired
+    public JournalApplier(CirculationJournal journal, OpenLoans openLoans,
+                          JournalCheckpointRepository checkpointRepository, BookRepository bookRepository,
+                          BorrowingRecordRepository borrowingRecordRepository,
+                          ActiveLoanRepository activeLoanRepository, HoldRepository holdRepository,
+                          OverdueLoanTracker overdueLoanTracker, BorrowingStatistics borrowingStatistics,
+                          LoanLimits loanLimits, CacheManager cacheManager, PlatformTransactionManager transactionManager) {
+        this.journal = journal;
+        this.openLoans = openLoans;
+        this.checkpointRepository = checkpointRepository;
+        this.bookRepository = bookRepository;
+        this.borrowingRecordRepository = borrowingRecordRepository;
+        this.activeLoanRepository = activeLoanRepository;
+        this.holdRepository = holdRepository;
+        this.overdueLoanTracker = overdueLoanTracker;
+        this.borrowingStatistics = borrowingStatistics;
+        this.loanLimits = loanLimits;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Replays the unapplied events, loads the open loans and starts applying new events in the background.
+     * Without a checkpoint row the schema was recreated, so the events in the journal refer to rows that no longer
+     * exist; they are all marked as applied instead of being replayed.
+     */
+    @PostConstruct
+    void start() throws InterruptedException {
+        long appliedSequence = transactionTemplate.execute(status -> checkpointRepository
+                .findById(JournalCheckpoint.ID)
+                .orElseGet(() -> {
+                    logger.warn("No journal checkpoint found; skipping events up to {}", journal.lastSequence());
+                    return checkpointRepository.save(new JournalCheckpoint(journal.lastSequence()));
+                })
+                .getAppliedSequence());
+        journal.recover(appliedSequence);
+        journal.markApplied(appliedSequence);
+        this.appliedSequence = appliedSequence;
+
+        int replayed = 0;
+        List<CirculationEvent> batch;
+        while (!(batch = journal.takeDurable(batchSize, 0)).isEmpty()) {
+            applyOrSkip(batch);
+            replayed += batch.size();
+        }
+        loadOpenLoans();
+        loanLimits.preload(openLoans.countByPatron());
+        logger.info("Circulation journal replayed {} events; {} books are on loan", replayed, openLoans.size());
+
+        running = true;
+        applierThread = new Thread(this::applyWhenDurable, "journal-applier");
+        applierThread.setDaemon(true);
+        applierThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (applierThread != null) {
+            applierThread.interrupt();
+            applierThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void applyWhenDurable() {
+        while (running) {
+            try {
+                List<CirculationEvent> batch = journal.takeDurable(batchSize, TimeUnit.SECONDS.toMillis(1));
+                if (!batch.isEmpty()) {
+                    applyWithRetry(batch);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Applies a batch until it succeeds: later events may depend on it, so it can be neither dropped nor reordered.
+     * Only the events that can never be applied are skipped.
+     */
+    private void applyWithRetry(List<CirculationEvent> batch) throws InterruptedException {
+        long delay = 100;
+        while (true) {
+            try {
+                applyOrSkip(batch);
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Could not apply journal events {} to {}; retrying in {} ms", batch.get(0).sequence(),
+                        batch.get(batch.size() - 1).sequence(), delay, e);
+                TimeUnit.MILLISECONDS.sleep(delay);
+                delay = Math.min(delay * 2, MAX_RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Applies the events of a batch not applied yet. If one of them can never be applied, the batch is applied again
+     * one event at a time and the failing events are skipped. Any other failure is thrown, and the events applied so
+     * far are not applied again by the next attempt.
+     */
+    private void applyOrSkip(List<CirculationEvent> batch) {
+        List<CirculationEvent> unapplied = batch.stream().filter(event -> event.sequence() > appliedSequence).toList();
+        if (unapplied.isEmpty()) {
+            return;
+        }
+        try {
+            apply(unapplied);
+        } catch (NonTransientDataAccessException e) {
+            logger.warn("Could not apply journal events {} to {}; applying them one by one",
+                    unapplied.get(0).sequence(), unapplied.get(unapplied.size() - 1).sequence(), e);
+            for (CirculationEvent event : unapplied) {
+                try {
+                    apply(List.of(event));
+                } catch (NonTransientDataAccessException eventFailure) {
+                    skip(event, eventFailure);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records an event that can never be applied as applied, so that the events after it are applied and the journal
+     * can delete its segment. A skipped borrow also gives the book and the loan back in memory.
+     */
+    private void skip(CirculationEvent event, RuntimeException failure) {
+        logger.error("Skipping journal event {}: {} of book {} by patron {} at {} can never be applied",
+                event.sequence(), event.type(), event.bookId(), event.patronId(),
+                Instant.ofEpochMilli(event.eventTime()), failure);
+        transactionTemplate.executeWithoutResult(status -> checkpointRepository.advance(event.sequence()));
+        appliedSequence = event.sequence();
+        if (event.type() == CirculationEvent.Type.BORROW && openLoans.release(event.bookId(), event.patronId())) {
+            loanLimits.released(event.patronId(), 1);
+        }
+        journal.markApplied(event.sequence());
+    }
+
+    /**
+     * Applies a batch of events in one transaction, then updates the overdue tracker and the book cache and lets the
+     * journal delete the segments it no longer needs.
+     */
+    void apply(List<CirculationEvent> batch) {
+        long lastSequence = batch.get(batch.size() - 1).sequence();
+        List<Runnable> afterCommit = transactionTemplate.execute(status -> {
+            List<Runnable> actions = new ArrayList<>();
+            for (CirculationEvent event : batch) {
+                if (event.type() == CirculationEvent.Type.BORROW) {
+                    applyBorrow(event, actions);
+                } else {
+                    applyReturn(event, actions);
+                }
+            }
+            checkpointRepository.advance(lastSequence);
+            return actions;
+        });
+        appliedSequence = lastSequence;
+        Cache books = cacheManager.getCache("books");
+        for (CirculationEvent event : batch) {
+            if (books != null) {
+                books.evict(event.bookId());
+            }
+        }
+        afterCommit.forEach(Runnable::run);
+        journal.markApplied(lastSequence);
+    }
+
+    private void applyBorrow(CirculationEvent event, List<Runnable> actions) {
+        if (bookRepository.markBorrowed(event.bookId()) == 0) {
+            logger.warn("Journal event {} borrows book {}, which was already borrowed", event.sequence(),
+                    event.bookId());
+        }
+        LocalDateTime borrowDateTime = toLocalDateTime(event.eventTime());
+        LocalDateTime dueDateTime = toLocalDateTime(event.dueTime());
+        Long borrowingRecordId = borrowingRecordRepository.insertAll(event.patronId(), List.of(event.bookId()),
+                borrowDateTime, dueDateTime).get(0);
+        activeLoanRepository.insertAll(event.patronId(), List.of(event.bookId()), List.of(borrowingRecordId));
+        if (event.fromHold()) {
+            holdRepository.deleteHold(event.bookId(), event.patronId());
+        }
+        actions.add(() -> {
+            overdueLoanTracker.register(event.bookId(), event.patronId(), borrowingRecordId, dueDateTime);
+            borrowingStatistics.recordBorrow(new BorrowEvent(event.bookId(), borrowingRecordId, borrowDateTime,
+                    null));
+        });
+    }
+
+    private void applyReturn(CirculationEvent event, List<Runnable> actions) {
+        Optional<Long> borrowingRecordId = activeLoanRepository.findBorrowingRecordId(event.bookId());
+        if (borrowingRecordId.isEmpty()) {
+            logger.warn("Journal event {} returns book {}, which was not borrowed", event.sequence(), event.bookId());
+            return;
+        }
+        activeLoanRepository.deleteOpenLoan(event.bookId(), borrowingRecordId.get());
+        borrowingRecordRepository.closeRecord(borrowingRecordId.get(), toLocalDateTime(event.eventTime()));
+        bookRepository.markReturned(event.bookId());
+        actions.add(() -> overdueLoanTracker.cancel(event.bookId(), borrowingRecordId.get()));
+    }
+
+    private void loadOpenLoans() {
+        transactionTemplate.execute(status -> {
+            try (Stream<OverdueLoanDTOResponse> loans = borrowingRecordRepository.streamOpenLoanDueDates()) {
+                loans.forEach(loan -> openLoans.load(loan.getBookId(), loan.getPatronId()));
+            }
+            return null;
+        });
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+    }
+}
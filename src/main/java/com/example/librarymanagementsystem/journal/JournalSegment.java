@@ -0,0 +1,171 @@
+package com.example.librarymanagementsystem.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * One preallocated, memory-mapped file of the circulation journal, holding fixed-size records with consecutive
+ * sequence numbers starting at the one in its name.
+ * A record is 48 bytes: the sequence number, the event type and hold flag, the book and patron IDs, the event and
+ * due times, and a CRC-32C of the 44 bytes before it. When a segment is reopened, its valid records are the longest
+ * prefix with the expected sequence numbers and matching checksums; whatever follows, such as a record torn by a
+ * crash, is zeroed so it cannot be mistaken for a record later.
+ * Not thread-safe, except that {@link #force} may run while later records are being written.
+ */
+final class JournalSegment implements Closeable {
+
+    static final int RECORD_SIZE = 48;
+
+    private static final int CHECKSUMMED_BYTES = 44;
+    private static final String PREFIX = "circulation-";
+    private static final String SUFFIX = ".journal";
+
+    private final Path path;
+    private final long firstSequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private int size;
+
+    private JournalSegment(Path path, long firstSequence, FileChannel channel, long length) throws IOException {
+        this.path = path;
+        this.firstSequence = firstSequence;
+        this.channel = channel;
+        this.capacity = (int) (length / RECORD_SIZE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+    }
+
+    /**
+     * Creates and preallocates a new, empty segment.
+     */
+    static JournalSegment create(Path directory, long firstSequence, int capacity) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long length = (long) capacity * RECORD_SIZE;
+        channel.write(ByteBuffer.allocate(1), length - 1);
+        channel.force(true);
+        return new JournalSegment(path, firstSequence, channel, length);
+    }
+
+    /**
+     * Reopens an existing segment, adding its valid records to the given list and zeroing the rest.
+     */
+    static JournalSegment open(Path path, List<CirculationEvent> recovered) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        JournalSegment segment = new JournalSegment(path, firstSequence(path), channel, channel.size());
+        segment.recover(recovered);
+        return segment;
+    }
+
+    /**
+     * Tells whether a file name is the name of a segment.
+     */
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    static long firstSequence(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Writes a record after the last one, which must have the next sequence number of this segment.
+     */
+    void append(CirculationEvent event) {
+        int offset = size * RECORD_SIZE;
+        buffer.putLong(offset, event.sequence());
+        buffer.put(offset + 8, (byte) (event.type().ordinal() + 1));
+        buffer.put(offset + 9, (byte) (event.fromHold() ? 1 : 0));
+        buffer.putShort(offset + 10, (short) 0);
+        buffer.putLong(offset + 12, event.bookId());
+        buffer.putLong(offset + 20, event.patronId());
+        buffer.putLong(offset + 28, event.eventTime());
+        buffer.putLong(offset + 36, event.dueTime());
+        buffer.putInt(offset + CHECKSUMMED_BYTES, checksum(offset));
+        size++;
+    }
+
+    /**
+     * Writes the given range of records to the storage device.
+     *
+     * @param from the index of the first record to force
+     * @param to   the index after the last record to force
+     */
+    void force(int from, int to) {
+        if (to > from) {
+            buffer.force(from * RECORD_SIZE, (to - from) * RECORD_SIZE);
+        }
+    }
+
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long firstSequence() {
+        return firstSequence;
+    }
+
+    /**
+     * Returns the sequence number the next record of this segment would have.
+     */
+    long nextSequence() {
+        return firstSequence + size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Closes and deletes the segment; its records must all have been applied.
+     */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    private void recover(List<CirculationEvent> recovered) {
+        while (size < capacity) {
+            int offset = size * RECORD_SIZE;
+            int type = buffer.get(offset + 8);
+            if (buffer.getLong(offset) != nextSequence() || type < 1 || type > CirculationEvent.Type.values().length
+                    || buffer.getInt(offset + CHECKSUMMED_BYTES) != checksum(offset)) {
+                break;
+            }
+            recovered.add(new CirculationEvent(buffer.getLong(offset), CirculationEvent.Type.values()[type - 1],
+                    buffer.get(offset + 9) == 1, buffer.getLong(offset + 12), buffer.getLong(offset + 20),
+                    buffer.getLong(offset + 28), buffer.getLong(offset + 36)));
+            size++;
+        }
+        int end = size;
+        while (end < capacity && buffer.getLong(end * RECORD_SIZE) != 0) {
+            for (int i = 0; i < RECORD_SIZE; i++) {
+                buffer.put(end * RECORD_SIZE + i, (byte) 0);
+            }
+            end++;
+        }
+        force(0, end);
+    }
+
+    private int checksum(int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CHECKSUMMED_BYTES));
+        return (int) crc.getValue();
+    }
+}
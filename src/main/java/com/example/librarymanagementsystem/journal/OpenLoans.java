@@ -0,0 +1,83 @@
+package com.example.librarymanagementsystem.journal;
+
+import com.example.librarymanagementsystem.util.LongIntHashMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Who holds each borrowed book, as of the last journaled event rather than the last applied one.
+ * While the journal is enabled, borrows and returns are admitted against this map instead of the borrowed flags in
+ * the database, which lag behind the journal; each change is a single atomic map operation, so two patrons can never
+ * both be admitted to borrow the same book.
+ */
+@Component
+@ConditionalOnProperty(name = "library.journal.enabled", havingValue = "true")
+public class OpenLoans {
+
+    private final Map<Long, Long> patronByBook = new ConcurrentHashMap<>();
+
+    /**
+     * Lends a book to a patron if nobody holds it.
+     *
+     * @return true if the book was free
+     */
+    public boolean borrow(long bookId, long patronId) {
+        return patronByBook.putIfAbsent(bookId, patronId) == null;
+    }
+
+    /**
+     * Frees a book if the given patron holds it.
+     *
+     * @return true if the patron held the book
+     */
+    public boolean release(long bookId, long patronId) {
+        return patronByBook.remove(bookId, patronId);
+    }
+
+    /**
+     * Passes a book from the patron returning it to the next one, if the first patron holds it.
+     *
+     * @return true if the patron returning it held the book
+     */
+    public boolean transfer(long bookId, long fromPatronId, long toPatronId) {
+        return patronByBook.replace(bookId, fromPatronId, toPatronId);
+    }
+
+    /**
+     * Tells whether someone holds a book.
+     */
+    public boolean isOnLoan(long bookId) {
+        return patronByBook.containsKey(bookId);
+    }
+
+    /**
+     * Tells whether a patron holds any book. This scans every open loan, which is fine for the rare callers such as
+     * deleting a patron.
+     */
+    public boolean hasLoans(long patronId) {
+        return patronByBook.containsValue(patronId);
+    }
+
+    /**
+     * Records an open loan read from the database at startup.
+     */
+    void load(long bookId, long patronId) {
+        patronByBook.put(bookId, patronId);
+    }
+
+    /**
+     * Counts the books held by each patron.
+     */
+    public LongIntHashMap countByPatron() {
+        LongIntHashMap counts = new LongIntHashMap(patronByBook.size(), 0);
+        patronByBook.values().forEach(patronId -> counts.addTo(patronId, 1));
+        return counts;
+    }
+
+    public int size() {
+        return patronByBook.size();
+    }
+}
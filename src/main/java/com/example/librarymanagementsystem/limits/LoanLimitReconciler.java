@@ -0,0 +1,73 @@
+package com.example.librarymanagementsystem.limits;
+
+import com.example.librarymanagementsystem.journal.OpenLoans;
+import com.example.librarymanagementsystem.repository.ActiveLoanRepository;
+import com.example.librarymanagementsystem.util.LongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Verifies the open loan counts of the {@link LoanLimits} against the actual open loans on the
+ * {@code library.loans.reconcile-cron} schedule, nightly by default, and corrects the ones that drifted.
+ * The actual counts come from one GROUP BY query over the active loans, or from the {@link OpenLoans} while the
+ * circulation journal is enabled, since the database then lags behind.
+ */
+@Component
+public class LoanLimitReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanLimitReconciler.class);
+
+    private final ActiveLoanRepository activeLoanRepository;
+    private final ObjectProvider<OpenLoans> openLoans;
+    private final LoanLimits loanLimits;
+
+    @Autowired
+    public LoanLimitReconciler(ActiveLoanRepository activeLoanRepository, ObjectProvider<OpenLoans> openLoans,
+                               LoanLimits loanLimits) {
+        this.activeLoanRepository = activeLoanRepository;
+        this.openLoans = openLoans;
+        this.loanLimits = loanLimits;
+    }
+
+    @Scheduled(cron = "${library.loans.reconcile-cron:0 0 4 * * *}")
+    void reconcileOnSchedule() {
+        reconcile();
+    }
+
+    /**
+     * Corrects the open loan counts that differ from the actual open loans.
+     *
+     * @return the number of counts corrected
+     */
+    @Transactional(readOnly = true)
+    public int reconcile() {
+        long startTime = System.currentTimeMillis();
+        LongIntHashMap[] actual = new LongIntHashMap[1];
+        int corrected = loanLimits.reconcile(() -> actual[0] = countOpenLoans());
+        if (corrected > 0) {
+            logger.warn("Corrected the open loan counts of {} patrons", corrected);
+        }
+        logger.info("Reconciled loan limits against {} patrons with open loans in {} ms", actual[0].size(),
+                System.currentTimeMillis() - startTime);
+        return corrected;
+    }
+
+    private LongIntHashMap countOpenLoans() {
+        OpenLoans journaledLoans = openLoans.getIfAvailable();
+        if (journaledLoans != null) {
+            return journaledLoans.countByPatron();
+        }
+        LongIntHashMap actual = new LongIntHashMap(1024, 0);
+        try (Stream<PatronLoanCount> counts = activeLoanRepository.streamOpenLoanCounts()) {
+            counts.forEach(count -> actual.put(count.patronId(), (int) count.openLoans()));
+        }
+        return actual;
+    }
+}
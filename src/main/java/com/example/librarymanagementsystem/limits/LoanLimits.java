@@ -0,0 +1,367 @@
+package com.example.librarymanagementsystem.limits;
+
+import com.example.librarymanagementsystem.entity.PatronTier;
+import com.example.librarymanagementsystem.repository.ActiveLoanRepository;
+import com.example.librarymanagementsystem.util.LongArrayList;
+import com.example.librarymanagementsystem.util.LongIntHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Enforces the maximum number of open loans per patron, set per {@link PatronTier}, without counting the patron's
+ * loans on every borrow. The number of open loans of each patron is kept in memory, loaded from the active loans
+ * the first time the patron borrows, and then changed as loans are made and returned.
+ * A borrow first reserves its loans; the reservation counts against the limit straight away, so concurrent borrows
+ * by one patron can never exceed it together, and it is given back if the borrow does not commit.
+ * Patrons are spread over 64 stripes, each a primitive map behind its own lock, so unrelated patrons never contend.
+ * A count can drift when a patron is loaded while one of their returns is committing, or when several instances of
+ * the application share the database; the nightly {@link LoanLimitReconciler} corrects it. The counts of the
+ * patrons whose loans change while the actual counts are being read are left alone by that correction.
+ */
+@Component
+public class LoanLimits {
+
+    private static final int STRIPES = 64;
+    private static final int NOT_LOADED = -1;
+
+    private final ActiveLoanRepository activeLoanRepository;
+    private final int[] limitByTier = new int[PatronTier.values().length];
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final LongIntHashMap[] openLoans = new LongIntHashMap[STRIPES];
+    private final LongIntHashMap[] reserved = new LongIntHashMap[STRIPES];
+    private final LongIntHashMap[] changedWhileReconciling = new LongIntHashMap[STRIPES];
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+    private volatile boolean preloaded;
+    private volatile boolean reconciling;
+
+    @Autowired
+    public LoanLimits(ActiveLoanRepository activeLoanRepository,
+                      @Value("${library.loans.limits.standard:5}") int standardLimit,
+                      @Value("${library.loans.limits.premium:10}") int premiumLimit,
+                      @Value("${library.loans.limits.staff:20}") int staffLimit) {
+        this(activeLoanRepository, new EnumMap<>(Map.of(PatronTier.STANDARD, standardLimit,
+                PatronTier.PREMIUM, premiumLimit, PatronTier.STAFF, staffLimit)));
+    }
+
+    LoanLimits(ActiveLoanRepository activeLoanRepository, Map<PatronTier, Integer> limits) {
+        this.activeLoanRepository = activeLoanRepository;
+        for (PatronTier tier : PatronTier.values()) {
+            limitByTier[tier.ordinal()] = limits.get(tier);
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+            openLoans[i] = new LongIntHashMap(64, NOT_LOADED);
+            reserved[i] = new LongIntHashMap(16, 0);
+            changedWhileReconciling[i] = new LongIntHashMap(16, 0);
+        }
+    }
+
+    /**
+     * Returns the maximum number of open loans of a tier; patrons without a tier are standard.
+     */
+    public int limitOf(PatronTier tier) {
+        return limitByTier[(tier == null ? PatronTier.STANDARD : tier).ordinal()];
+    }
+
+    /**
+     * Reserves up to the requested number of loans for a patron, as many as the limit of their tier still allows.
+     * The reservation must be {@link Reservation#confirm() confirmed} once the loans are committed, or
+     * {@link Reservation#cancel() cancelled} if they are not.
+     *
+     * @param patronId  the ID of the patron
+     * @param tier      the tier of the patron
+     * @param requested the number of loans wanted
+     * @return the reservation, for between 0 and the requested number of loans
+     */
+    public Reservation reserve(long patronId, PatronTier tier, int requested) {
+        int stripe = stripe(patronId);
+        ensureLoaded(patronId, stripe);
+        locks[stripe].lock();
+        try {
+            int current = Math.max(0, openLoans[stripe].get(patronId));
+            int granted = Math.max(0, Math.min(requested, limitOf(tier) - current));
+            if (granted > 0) {
+                openLoans[stripe].put(patronId, current + granted);
+                reserved[stripe].addTo(patronId, granted);
+                changed(stripe, patronId);
+            }
+            return new Reservation(patronId, granted);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Records that a patron returned loans. Patrons not loaded yet are left alone, since they are counted from the
+     * database when they are.
+     */
+    public void released(long patronId, int count) {
+        int stripe = stripe(patronId);
+        locks[stripe].lock();
+        try {
+            int current = openLoans[stripe].get(patronId);
+            if (current != NOT_LOADED) {
+                openLoans[stripe].put(patronId, Math.max(0, current - count));
+            } else if (preloaded) {
+                openLoans[stripe].put(patronId, 0);
+            }
+            changed(stripe, patronId);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Returns the number of open loans of a patron, reservations included, loading it if necessary.
+     */
+    public int openLoans(long patronId) {
+        int stripe = stripe(patronId);
+        ensureLoaded(patronId, stripe);
+        locks[stripe].lock();
+        try {
+            return Math.max(0, openLoans[stripe].get(patronId));
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Loads the open loans of every patron at once, so that patrons never have to be loaded one by one.
+     * Used while the circulation journal is enabled, since the database then lags behind the loans admitted.
+     *
+     * @param countsByPatron the number of open loans of every patron who has any
+     */
+    public void preload(LongIntHashMap countsByPatron) {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i].lock();
+        }
+        try {
+            for (int i = 0; i < STRIPES; i++) {
+                openLoans[i].clear();
+            }
+            countsByPatron.forEach((patronId, count) -> openLoans[stripe(patronId)].put(patronId, count));
+            preloaded = true;
+        } finally {
+            for (int i = STRIPES - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Compares the counts in memory with the actual number of open loans of each patron, and corrects the ones that
+     * differ. Patrons with a reservation in progress are skipped, since their loans are not committed yet, and so are
+     * the patrons whose loans changed in memory while the actual counts were read, since the actual count may predate
+     * the change. Patrons without open loans are dropped, to be loaded again on their next borrow.
+     *
+     * @param actualCounts reads the actual number of open loans of every patron who has any; loans are committed
+     *                     before they are counted in memory, so the counts it reads include every change made in
+     *                     memory before it was called
+     * @return the number of counts corrected
+     */
+    public int reconcile(Supplier<LongIntHashMap> actualCounts) {
+        reconcileLock.lock();
+        try {
+            reconciling = true;
+            // Waits for the changes that may have missed the flag; they were committed before the counts are read.
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                locks[stripe].lock();
+                changedWhileReconciling[stripe].clear();
+                locks[stripe].unlock();
+            }
+            return correct(actualCounts.get());
+        } finally {
+            reconciling = false;
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                locks[stripe].lock();
+                changedWhileReconciling[stripe].clear();
+                locks[stripe].unlock();
+            }
+            reconcileLock.unlock();
+        }
+    }
+
+    private int correct(LongIntHashMap actual) {
+        int corrected = 0;
+        LongArrayList patronIds = new LongArrayList();
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            locks[stripe].lock();
+            try {
+                LongIntHashMap counts = openLoans[stripe];
+                patronIds.clear();
+                counts.forEach((patronId, count) -> patronIds.add(patronId));
+                for (int i = 0; i < patronIds.size(); i++) {
+                    long patronId = patronIds.get(i);
+                    if (reserved[stripe].get(patronId) != 0 || changedWhileReconciling[stripe].containsKey(patronId)) {
+                        continue;
+                    }
+                    int expected = Math.max(0, actual.get(patronId));
+                    if (counts.get(patronId) != expected) {
+                        corrected++;
+                    }
+                    if (expected == 0) {
+                        counts.remove(patronId);
+                    } else {
+                        counts.put(patronId, expected);
+                    }
+                }
+            } finally {
+                locks[stripe].unlock();
+            }
+        }
+        if (preloaded) {
+            // Every patron is supposed to be loaded, so add the ones that were missing.
+            int[] missing = new int[1];
+            actual.forEach((patronId, count) -> {
+                int stripe = stripe(patronId);
+                locks[stripe].lock();
+                try {
+                    if (count > 0 && !openLoans[stripe].containsKey(patronId)
+                            && reserved[stripe].get(patronId) == 0
+                            && !changedWhileReconciling[stripe].containsKey(patronId)) {
+                        openLoans[stripe].put(patronId, count);
+                        missing[0]++;
+                    }
+                } finally {
+                    locks[stripe].unlock();
+                }
+            });
+            corrected += missing[0];
+        }
+        return corrected;
+    }
+
+    /**
+     * Whether patrons are all loaded at once by {@link #preload}, rather than one by one from the database.
+     */
+    public boolean isPreloaded() {
+        return preloaded;
+    }
+
+    private void ensureLoaded(long patronId, int stripe) {
+        locks[stripe].lock();
+        try {
+            if (openLoans[stripe].containsKey(patronId)) {
+                return;
+            }
+            if (preloaded) {
+                openLoans[stripe].put(patronId, 0);
+                return;
+            }
+        } finally {
+            locks[stripe].unlock();
+        }
+        // Counted outside the lock, so a slow query never blocks the other patrons of the stripe.
+        int count = (int) activeLoanRepository.countByPatronId(patronId);
+        locks[stripe].lock();
+        try {
+            if (!openLoans[stripe].containsKey(patronId)) {
+                openLoans[stripe].put(patronId, count);
+                changed(stripe, patronId);
+            }
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    private void settle(long patronId, int count, boolean committed) {
+        if (count == 0) {
+            return;
+        }
+        int stripe = stripe(patronId);
+        locks[stripe].lock();
+        try {
+            if (reserved[stripe].addTo(patronId, -count) == 0) {
+                reserved[stripe].remove(patronId);
+            }
+            changed(stripe, patronId);
+            if (!committed) {
+                int current = openLoans[stripe].get(patronId);
+                if (current != NOT_LOADED) {
+                    openLoans[stripe].put(patronId, Math.max(0, current - count));
+                }
+            }
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Records, under the lock of its stripe, that the count of a patron changed while a reconciliation is running.
+     */
+    private void changed(int stripe, long patronId) {
+        if (reconciling) {
+            changedWhileReconciling[stripe].put(patronId, 1);
+        }
+    }
+
+    private static int stripe(long patronId) {
+        return (Long.hashCode(patronId) * 0x9E3779B9) >>> 26;
+    }
+
+    /**
+     * Loans reserved for a patron by {@link #reserve}, which count against the limit until they are settled.
+     * Not thread-safe.
+     */
+    public final class Reservation {
+
+        private final long patronId;
+        private int count;
+        private boolean settled;
+
+        private Reservation(long patronId, int count) {
+            this.patronId = patronId;
+            this.count = count;
+        }
+
+        /**
+         * Returns the ID of the patron the loans are reserved for.
+         */
+        public long patronId() {
+            return patronId;
+        }
+
+        /**
+         * Returns the number of loans reserved.
+         */
+        public int count() {
+            return count;
+        }
+
+        /**
+         * Gives back the reserved loans that were not used, keeping the given number.
+         */
+        public void shrinkTo(int used) {
+            if (!settled && used < count) {
+                settle(patronId, count - used, false);
+                count = used;
+            }
+        }
+
+        /**
+         * Keeps the reserved loans, once they are committed.
+         */
+        public void confirm() {
+            if (!settled) {
+                settled = true;
+                settle(patronId, count, true);
+            }
+        }
+
+        /**
+         * Gives back all the reserved loans.
+         */
+        public void cancel() {
+            if (!settled) {
+                settled = true;
+                settle(patronId, count, false);
+            }
+        }
+    }
+}
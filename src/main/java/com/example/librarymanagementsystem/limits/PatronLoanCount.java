@@ -0,0 +1,7 @@
+package com.example.librarymanagementsystem.limits;
+
+/**
+ * Exact number of open loans of one patron, as counted by the database.
+ */
+public record PatronLoanCount(long patronId, long openLoans) {
+}
@@ -5,6 +5,7 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.*;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.Cacheable;
@@ -25,6 +26,9 @@ public class LoggingAspect {
      */
     @Before("execution(* com.example.librarymanagementsystem.service.*.*(..))")
     public void logMethodCall(JoinPoint joinPoint) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
         // Extract method name, class name, and arguments
         Signature signature = joinPoint.getSignature();
         String methodName = signature.getName();
@@ -37,7 +41,7 @@ public class LoggingAspect {
         if (args.length > 0) {
             messageBuilder.append("Arguments: [");
             for (Object arg : args) {
-                messageBuilder.append(arg.toString()).append(", ");
+                messageBuilder.append(describe(arg)).append(", ");
             }
             messageBuilder.delete(messageBuilder.length() - 2, messageBuilder.length());
             messageBuilder.append("]");
@@ -46,6 +50,17 @@ public class LoggingAspect {
         logger.info(messageBuilder.toString());
     }
 
+    /**
+     * Describes an argument for the log without triggering any database access: a lazy proxy or collection that
+     * has not been loaded yet is logged by its type only, and null arguments are logged as "null".
+     */
+    private static String describe(Object arg) {
+        if (arg != null && !Hibernate.isInitialized(arg)) {
+            return "<uninitialized " + Hibernate.getClassLazy(arg).getSimpleName() + ">";
+        }
+        return String.valueOf(arg);
+    }
+
     /**
      * Logs cache status after method execution.
      */
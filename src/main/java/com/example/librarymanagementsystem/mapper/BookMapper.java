@@ -3,6 +3,7 @@ package com.example.librarymanagementsystem.mapper;
 import com.example.librarymanagementsystem.dto.BookDTORequest;
 import com.example.librarymanagementsystem.dto.BookDTOResponse;
 import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
 
 /**
  * Mapper class to convert between Book and BookDTORequest objects.
@@ -26,6 +27,23 @@ public class BookMapper {
         );
     }
 
+    /**
+     * Converts a BookSnapshot to a BookDTOResponse object.
+     *
+     * @param book The BookSnapshot to be converted.
+     * @return A BookDTOResponse object.
+     */
+    public static BookDTOResponse toBookDTOResponse(BookSnapshot book) {
+        return new BookDTOResponse(
+            book.id(),
+            book.title(),
+            book.author(),
+            book.publicationYear(),
+            book.isbn(),
+            book.borrowed()
+        );
+    }
+
     /**
      * Converts a BookDTORequest object to a Book entity.
      *
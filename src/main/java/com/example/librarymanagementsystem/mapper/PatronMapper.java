@@ -3,6 +3,7 @@ package com.example.librarymanagementsystem.mapper;
 import com.example.librarymanagementsystem.dto.PatronDTORequest;
 import com.example.librarymanagementsystem.dto.PatronDTOResponse;
 import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.snapshot.PatronSnapshot;
 
 /**
  * Mapper class to convert between Patron and PatronDTORequest objects.
@@ -20,7 +21,24 @@ public class PatronMapper {
             patron.getId(),
             patron.getName(),
             patron.getPhoneNumber(),
-            patron.getEmailAddress()
+            patron.getEmailAddress(),
+            patron.getTier()
+        );
+    }
+
+    /**
+     * Converts a PatronSnapshot to a PatronDTOResponse object.
+     *
+     * @param patron The PatronSnapshot to be converted.
+     * @return A PatronDTOResponse object.
+     */
+    public static PatronDTOResponse toPatronDTOResponse(PatronSnapshot patron) {
+        return new PatronDTOResponse(
+            patron.id(),
+            patron.name(),
+            patron.phoneNumber(),
+            patron.emailAddress(),
+            patron.tier()
         );
     }
 
@@ -35,6 +53,8 @@ public class PatronMapper {
         patron.setName(patronDTORequest.getName());
         patron.setPhoneNumber(patronDTORequest.getPhoneNumber());
         patron.setEmailAddress(patronDTORequest.getEmailAddress());
+        // Left null when omitted, so that an update keeps the patron's tier; a new patron is then standard.
+        patron.setTier(patronDTORequest.getTier());
         return patron;
     }
 }
\ No newline at end of file
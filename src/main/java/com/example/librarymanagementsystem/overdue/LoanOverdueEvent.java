@@ -0,0 +1,16 @@
+package com.example.librarymanagementsystem.overdue;
+
+import java.time.LocalDateTime;
+
+/**
+ * Application event published once when an open loan passes its due date.
+ * Loans that became overdue while the application was stopped are announced when it starts, so listeners
+ * should tolerate hearing about a loan again after a restart.
+ *
+ * @param borrowingRecordId the ID of the borrowing record of the loan
+ * @param bookId            the ID of the borrowed book
+ * @param patronId          the ID of the patron who borrowed it
+ * @param dueDateTime       the due date that passed
+ */
+public record LoanOverdueEvent(long borrowingRecordId, long bookId, long patronId, LocalDateTime dueDateTime) {
+}
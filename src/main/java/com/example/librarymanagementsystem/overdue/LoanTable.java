@@ -0,0 +1,340 @@
+package com.example.librarymanagementsystem.overdue;
+
+import com.example.librarymanagementsystem.util.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.IntConsumer;
+
+/**
+ * Open loans held in flat primitive arrays, one slot per loan, keyed by book since a book has at most one open loan.
+ * Loans that are not due yet sit in a binary min-heap of slots ordered by due time; every slot remembers its heap
+ * position, so a returned loan is removed in O(log n) instead of being left behind as a tombstone. Loans that have
+ * passed their due time move to an overdue list kept in ascending record ID order, so a page of it costs a binary
+ * search plus the loans read. A returned overdue loan leaves a tombstone in the list, which is compacted once a quarter
+ * of it is tombstones.
+ * A loan costs about 60 bytes, against several hundred for a queue of entry objects.
+ * Not thread-safe.
+ */
+final class LoanTable {
+
+    private static final int NO_SLOT = -1;
+
+    private final LongIntHashMap slotByBook;
+    private long[] bookIds;
+    private long[] patronIds;
+    private long[] recordIds;
+    private long[] dueTimes;
+    /** Index of the slot in the pending heap if positive or zero, or -(index in the overdue list) - 1. */
+    private int[] positions;
+    private int[] pending;
+    private int pendingSize;
+    /** The record IDs of the overdue list, ascending; a tombstone keeps its record ID so the list stays sorted. */
+    private long[] overdueRecordIds;
+    /** The slots of the overdue list, or {@link #NO_SLOT} for a tombstone. */
+    private int[] overdue;
+    /** The length of the overdue list, tombstones included. */
+    private int overdueLength;
+    private int overdueSize;
+    private int[] freeSlots;
+    private int freeCount;
+    private int usedSlots;
+
+    LoanTable(int expectedLoans) {
+        int capacity = Math.max(16, expectedLoans);
+        slotByBook = new LongIntHashMap(capacity, NO_SLOT);
+        bookIds = new long[capacity];
+        patronIds = new long[capacity];
+        recordIds = new long[capacity];
+        dueTimes = new long[capacity];
+        positions = new int[capacity];
+        pending = new int[capacity];
+        overdueRecordIds = new long[16];
+        overdue = new int[16];
+        freeSlots = new int[16];
+    }
+
+    /**
+     * Adds an open loan, replacing any other open loan of the same book, and keeps the heap ordered.
+     *
+     * @return true if the loan is now the next one to fall due
+     */
+    boolean add(long bookId, long patronId, long recordId, long dueTime) {
+        removeBook(bookId);
+        int slot = newSlot(bookId, patronId, recordId, dueTime);
+        pending = grow(pending, pendingSize + 1);
+        pending[pendingSize] = slot;
+        positions[slot] = pendingSize;
+        siftUp(pendingSize++);
+        return positions[slot] == 0;
+    }
+
+    /**
+     * Appends an open loan without ordering the heap, for bulk loading; {@link #heapify()} must be called before the
+     * table is used. A second loan of the same book is ignored.
+     */
+    void append(long bookId, long patronId, long recordId, long dueTime) {
+        if (slotByBook.containsKey(bookId)) {
+            return;
+        }
+        int slot = newSlot(bookId, patronId, recordId, dueTime);
+        pending = grow(pending, pendingSize + 1);
+        pending[pendingSize] = slot;
+        positions[slot] = pendingSize++;
+    }
+
+    /**
+     * Orders the heap after bulk loading, in O(n).
+     */
+    void heapify() {
+        for (int i = (pendingSize >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Removes the open loan of a book, only if it is still the given loan.
+     *
+     * @return true if the loan was removed
+     */
+    boolean remove(long bookId, long recordId) {
+        int slot = slotByBook.get(bookId);
+        if (slot == NO_SLOT || recordIds[slot] != recordId) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * Returns the due time of the next loan to fall due, or {@link Long#MAX_VALUE} if every loan is overdue.
+     */
+    long nextDueTime() {
+        return pendingSize == 0 ? Long.MAX_VALUE : dueTimes[pending[0]];
+    }
+
+    /**
+     * Moves the loans due at or before the given time to the overdue list, earliest first.
+     *
+     * @param now       the current time, in epoch milliseconds
+     * @param max       the maximum number of loans to move
+     * @param fired     receives the slot of each moved loan
+     * @return the number of loans moved
+     */
+    int fireDue(long now, int max, IntConsumer fired) {
+        int count = 0;
+        int[] batch = new int[Math.min(max, pendingSize)];
+        while (count < max && pendingSize > 0 && dueTimes[pending[0]] <= now) {
+            int slot = pending[0];
+            removeFromHeap(0);
+            batch[count++] = slot;
+            fired.accept(slot);
+        }
+        addOverdue(batch, count);
+        return count;
+    }
+
+    /**
+     * Visits the slots of the overdue loans whose record ID follows the given one, in ascending record ID order.
+     *
+     * @param afterRecordId the record ID to start after
+     * @param limit         the maximum number of loans to visit
+     */
+    void forEachOverdueAfter(long afterRecordId, int limit, IntConsumer action) {
+        int index = Arrays.binarySearch(overdueRecordIds, 0, overdueLength, afterRecordId);
+        index = index >= 0 ? index + 1 : -index - 1;
+        for (int visited = 0; index < overdueLength && visited < limit; index++) {
+            if (overdue[index] != NO_SLOT) {
+                action.accept(overdue[index]);
+                visited++;
+            }
+        }
+    }
+
+    long bookId(int slot) {
+        return bookIds[slot];
+    }
+
+    long patronId(int slot) {
+        return patronIds[slot];
+    }
+
+    long recordId(int slot) {
+        return recordIds[slot];
+    }
+
+    long dueTime(int slot) {
+        return dueTimes[slot];
+    }
+
+    int pendingCount() {
+        return pendingSize;
+    }
+
+    int overdueCount() {
+        return overdueSize;
+    }
+
+    private void removeBook(long bookId) {
+        int slot = slotByBook.get(bookId);
+        if (slot != NO_SLOT) {
+            removeSlot(slot);
+        }
+    }
+
+    private void removeSlot(int slot) {
+        int position = positions[slot];
+        if (position >= 0) {
+            removeFromHeap(position);
+        } else {
+            overdue[-position - 1] = NO_SLOT;
+            overdueSize--;
+            if (overdueLength - overdueSize > 16 + (overdueLength >> 2)) {
+                compactOverdue();
+            }
+        }
+        slotByBook.remove(bookIds[slot]);
+        freeSlots = grow(freeSlots, freeCount + 1);
+        freeSlots[freeCount++] = slot;
+    }
+
+    private int newSlot(long bookId, long patronId, long recordId, long dueTime) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = usedSlots++;
+            if (slot == bookIds.length) {
+                int capacity = bookIds.length + (bookIds.length >> 1);
+                bookIds = Arrays.copyOf(bookIds, capacity);
+                patronIds = Arrays.copyOf(patronIds, capacity);
+                recordIds = Arrays.copyOf(recordIds, capacity);
+                dueTimes = Arrays.copyOf(dueTimes, capacity);
+                positions = Arrays.copyOf(positions, capacity);
+            }
+        }
+        bookIds[slot] = bookId;
+        patronIds[slot] = patronId;
+        recordIds[slot] = recordId;
+        dueTimes[slot] = dueTime;
+        slotByBook.put(bookId, slot);
+        return slot;
+    }
+
+    /**
+     * Merges newly overdue loans into the overdue list. They usually carry higher record IDs than the loans already
+     * overdue, so only the end of the list moves.
+     */
+    private void addOverdue(int[] slots, int count) {
+        boolean sorted = true;
+        for (int i = 1; i < count && sorted; i++) {
+            sorted = recordIds[slots[i - 1]] < recordIds[slots[i]];
+        }
+        if (!sorted) {
+            Integer[] boxed = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                boxed[i] = slots[i];
+            }
+            Arrays.sort(boxed, Comparator.comparingLong(slot -> recordIds[slot]));
+            for (int i = 0; i < count; i++) {
+                slots[i] = boxed[i];
+            }
+        }
+        overdueRecordIds = grow(overdueRecordIds, overdueLength + count);
+        overdue = grow(overdue, overdueLength + count);
+        int existing = overdueLength - 1;
+        int added = count - 1;
+        for (int index = overdueLength + count - 1; added >= 0; index--) {
+            if (existing >= 0 && overdueRecordIds[existing] > recordIds[slots[added]]) {
+                moveOverdue(existing--, index);
+            } else {
+                int slot = slots[added--];
+                overdueRecordIds[index] = recordIds[slot];
+                overdue[index] = slot;
+                positions[slot] = -index - 1;
+            }
+        }
+        overdueLength += count;
+        overdueSize += count;
+    }
+
+    private void compactOverdue() {
+        int length = 0;
+        for (int index = 0; index < overdueLength; index++) {
+            if (overdue[index] != NO_SLOT) {
+                moveOverdue(index, length++);
+            }
+        }
+        overdueLength = length;
+    }
+
+    private void moveOverdue(int from, int to) {
+        int slot = overdue[from];
+        overdueRecordIds[to] = overdueRecordIds[from];
+        overdue[to] = slot;
+        if (slot != NO_SLOT) {
+            positions[slot] = -to - 1;
+        }
+    }
+
+    private void removeFromHeap(int index) {
+        int last = pending[--pendingSize];
+        if (index == pendingSize) {
+            return;
+        }
+        pending[index] = last;
+        positions[last] = index;
+        siftDown(index);
+        if (pending[index] == last) {
+            siftUp(index);
+        }
+    }
+
+    private void siftUp(int index) {
+        int slot = pending[index];
+        long due = dueTimes[slot];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            int parentSlot = pending[parent];
+            if (dueTimes[parentSlot] <= due) {
+                break;
+            }
+            pending[index] = parentSlot;
+            positions[parentSlot] = index;
+            index = parent;
+        }
+        pending[index] = slot;
+        positions[slot] = index;
+    }
+
+    private void siftDown(int index) {
+        int slot = pending[index];
+        long due = dueTimes[slot];
+        int half = pendingSize >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < pendingSize && dueTimes[pending[right]] < dueTimes[pending[child]]) {
+                child = right;
+            }
+            int childSlot = pending[child];
+            if (due <= dueTimes[childSlot]) {
+                break;
+            }
+            pending[index] = childSlot;
+            positions[childSlot] = index;
+            index = child;
+        }
+        pending[index] = slot;
+        positions[slot] = index;
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        return capacity <= array.length ? array : Arrays.copyOf(array, Math.max(capacity, array.length + (array.length >> 1)));
+    }
+
+    private static long[] grow(long[] array, int capacity) {
+        return capacity <= array.length ? array
+                : Arrays.copyOf(array, Math.max(capacity, array.length + (array.length >> 1)));
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.librarymanagementsystem.overdue;
+
+import com.example.librarymanagementsystem.dto.OverdueLoanDTOResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Tracks every open loan in memory by due date and publishes a {@link LoanOverdueEvent} when one falls due.
+ * Loans are registered and cancelled as they are borrowed and returned; the database is only read once, when the
+ * tracker is loaded at startup. A single thread sleeps until the earliest due date and is woken early only when a
+ * loan with an earlier due date is registered, so nothing polls while no loan is falling due.
+ */
+@Component
+public class OverdueLoanTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueLoanTracker.class);
+    private static final int FIRE_BATCH_SIZE = 10_000;
+    private static final long MAX_SLEEP_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition nextDueChanged = lock.newCondition();
+    private LoanTable table = new LoanTable(16);
+    private List<Consumer<LoanTable>> changesDuringReload;
+    private Thread firingThread;
+    private volatile boolean running;
+
+    @Autowired
+    public OverdueLoanTracker(ApplicationEventPublisher eventPublisher) {
+        this(eventPublisher, Clock.systemDefaultZone());
+    }
+
+    OverdueLoanTracker(ApplicationEventPublisher eventPublisher, Clock clock) {
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        firingThread = new Thread(this::fireWhenDue, "overdue-loans");
+        firingThread.setDaemon(true);
+        firingThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (firingThread != null) {
+            firingThread.interrupt();
+        }
+    }
+
+    /**
+     * Starts tracking an open loan, replacing any other loan tracked for the same book.
+     *
+     * @param bookId            the ID of the borrowed book
+     * @param patronId          the ID of the patron who borrowed it
+     * @param borrowingRecordId the ID of the borrowing record of the loan
+     * @param dueDateTime       the due date of the loan
+     */
+    public void register(long bookId, long patronId, long borrowingRecordId, LocalDateTime dueDateTime) {
+        long dueTime = toEpochMilli(dueDateTime);
+        change(loans -> {
+            if (loans.add(bookId, patronId, borrowingRecordId, dueTime) && loans == table) {
+                nextDueChanged.signal();
+            }
+        });
+    }
+
+    /**
+     * Stops tracking a loan, whether or not it is overdue.
+     *
+     * @param bookId            the ID of the returned book
+     * @param borrowingRecordId the ID of the borrowing record of the loan; a newer loan of the book is left alone
+     */
+    public void cancel(long bookId, long borrowingRecordId) {
+        change(loans -> loans.remove(bookId, borrowingRecordId));
+    }
+
+    /**
+     * Lists overdue loans in ascending borrowing record ID order (keyset pagination). The overdue loans are kept in
+     * that order, so a page costs a binary search plus the loans on it, however many loans are overdue.
+     *
+     * @param afterRecordId the borrowing record ID of the last loan of the previous page, or 0
+     * @param limit         the maximum number of loans to return
+     * @return the overdue loans following the cursor
+     */
+    public List<OverdueLoanDTOResponse> getOverdueLoans(long afterRecordId, int limit) {
+        lock.lock();
+        try {
+            LoanTable loans = table;
+            List<OverdueLoanDTOResponse> result = new ArrayList<>(Math.min(limit, loans.overdueCount()));
+            loans.forEachOverdueAfter(afterRecordId, limit, slot -> result.add(new OverdueLoanDTOResponse(
+                    loans.recordId(slot), loans.bookId(slot), loans.patronId(slot),
+                    toLocalDateTime(loans.dueTime(slot)))));
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of tracked loans that are not due yet.
+     */
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return table.pendingCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of tracked loans that are overdue.
+     */
+    public int overdueCount() {
+        lock.lock();
+        try {
+            return table.overdueCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the start of a full reload. Changes made from now on are applied to the live table as usual, and
+     * replayed on top of the loaded table so none of them is lost when it replaces the live one. No loan is
+     * announced as overdue until the reload completes.
+     */
+    public void beginReload() {
+        lock.lock();
+        try {
+            changesDuringReload = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the live table with the loaded one, then replays the changes made since {@link #beginReload()}.
+     *
+     * @param loader the loans read from the database
+     */
+    public void completeReload(Loader loader) {
+        loader.table.heapify();
+        lock.lock();
+        try {
+            if (changesDuringReload != null) {
+                changesDuringReload.forEach(change -> change.accept(loader.table));
+                changesDuringReload = null;
+            }
+            table = loader.table;
+            nextDueChanged.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Abandons a reload started with {@link #beginReload()}, keeping the live table.
+     */
+    public void abortReload() {
+        lock.lock();
+        try {
+            changesDuringReload = null;
+            nextDueChanged.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates a loader sized for the given number of loans.
+     */
+    public Loader newLoader(int expectedLoans) {
+        return new Loader(expectedLoans);
+    }
+
+    /**
+     * Moves the loans due at the given time to the overdue list and returns their events.
+     */
+    List<LoanOverdueEvent> fireDue(long now) {
+        lock.lock();
+        try {
+            LoanTable loans = table;
+            List<LoanOverdueEvent> events = new ArrayList<>();
+            loans.fireDue(now, FIRE_BATCH_SIZE, slot -> events.add(new LoanOverdueEvent(loans.recordId(slot),
+                    loans.bookId(slot), loans.patronId(slot), toLocalDateTime(loans.dueTime(slot)))));
+            return events;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fireWhenDue() {
+        while (running) {
+            List<LoanOverdueEvent> events;
+            lock.lock();
+            try {
+                long wait = changesDuringReload != null ? MAX_SLEEP_MILLIS : table.nextDueTime() - clock.millis();
+                if (wait > 0) {
+                    nextDueChanged.await(Math.min(wait, MAX_SLEEP_MILLIS), TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                events = fireDue(clock.millis());
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            publish(events);
+        }
+    }
+
+    private void publish(List<LoanOverdueEvent> events) {
+        logger.info("{} loans became overdue", events.size());
+        for (LoanOverdueEvent event : events) {
+            try {
+                eventPublisher.publishEvent(event);
+            } catch (RuntimeException e) {
+                logger.error("Overdue listener failed for borrowing record {}", event.borrowingRecordId(), e);
+            }
+        }
+    }
+
+    private void change(Consumer<LoanTable> change) {
+        lock.lock();
+        try {
+            change.accept(table);
+            if (changesDuringReload != null) {
+                changesDuringReload.add(change);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), clock.getZone());
+    }
+
+    /**
+     * Collects the loans read from the database during a reload, without ordering them until the reload completes.
+     * Not thread-safe.
+     */
+    public final class Loader {
+
+        private final LoanTable table;
+
+        private Loader(int expectedLoans) {
+            this.table = new LoanTable(expectedLoans);
+        }
+
+        /**
+         * Adds an open loan; loans without a due date are skipped.
+         */
+        public void add(OverdueLoanDTOResponse loan) {
+            if (loan.getDueDateTime() != null) {
+                table.append(loan.getBookId(), loan.getPatronId(), loan.getBorrowingRecordId(),
+                        toEpochMilli(loan.getDueDateTime()));
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.librarymanagementsystem.overdue;
+
+import com.example.librarymanagementsystem.dto.OverdueLoanDTOResponse;
+import com.example.librarymanagementsystem.repository.ActiveLoanRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Loads every open loan into the {@link OverdueLoanTracker} once the application is ready, in one streamed query.
+ */
+@Component
+public class OverdueLoanTrackerInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueLoanTrackerInitializer.class);
+
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final ActiveLoanRepository activeLoanRepository;
+    private final OverdueLoanTracker overdueLoanTracker;
+
+    @Autowired
+    public OverdueLoanTrackerInitializer(BorrowingRecordRepository borrowingRecordRepository,
+                                         ActiveLoanRepository activeLoanRepository,
+                                         OverdueLoanTracker overdueLoanTracker) {
+        this.borrowingRecordRepository = borrowingRecordRepository;
+        this.activeLoanRepository = activeLoanRepository;
+        this.overdueLoanTracker = overdueLoanTracker;
+    }
+
+    /**
+     * Reloads the tracker from the open loans in the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reload() {
+        long startTime = System.currentTimeMillis();
+        overdueLoanTracker.beginReload();
+        OverdueLoanTracker.Loader loader = overdueLoanTracker.newLoader(
+                (int) Math.min(Integer.MAX_VALUE, activeLoanRepository.count()));
+        try (Stream<OverdueLoanDTOResponse> loans = borrowingRecordRepository.streamOpenLoanDueDates()) {
+            loans.forEach(loader::add);
+        } catch (RuntimeException e) {
+            overdueLoanTracker.abortReload();
+            throw e;
+        }
+        overdueLoanTracker.completeReload(loader);
+        logger.info("Overdue loan tracker loaded with {} pending and {} overdue loans in {} ms",
+                overdueLoanTracker.pendingCount(), overdueLoanTracker.overdueCount(),
+                System.currentTimeMillis() - startTime);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.librarymanagementsystem.repository;
+
+import com.example.librarymanagementsystem.entity.ActiveLoan;
+import com.example.librarymanagementsystem.limits.PatronLoanCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Repository interface for performing CRUD operations on ActiveLoan entities.
+ */
+@Repository
+public interface ActiveLoanRepository extends JpaRepository<ActiveLoan, Long>, ActiveLoanRepositoryCustom {
+
+    /**
+     * Retrieves the open loans of a patron among the given books, by primary key.
+     *
+     * @param patronId The ID of the patron.
+     * @param bookIds  The IDs of the books.
+     * @return The open loans of the patron for those books.
+     */
+    List<ActiveLoan> findByPatronIdAndBookIdIn(Long patronId, Collection<Long> bookIds);
+
+    /**
+     * Deletes the open loan of a book, only if it is still the given loan.
+     * This is a single conditional delete, so a loan cannot be closed twice by concurrent returns.
+     *
+     * @param bookId            The ID of the book.
+     * @param borrowingRecordId The ID of the borrowing record of the loan.
+     * @return The number of loans deleted: 1, or 0 if the loan was already closed.
+     */
+    @Modifying
+    @Query("delete from ActiveLoan a where a.bookId = :bookId and a.borrowingRecordId = :borrowingRecordId")
+    int deleteOpenLoan(@Param("bookId") Long bookId, @Param("borrowingRecordId") Long borrowingRecordId);
+
+    /**
+     * Retrieves the borrowing record ID of the open loan of a book, without loading the loan into the persistence
+     * context.
+     *
+     * @param bookId The ID of the book.
+     * @return The borrowing record ID, if the book is borrowed.
+     */
+    @Query("select a.borrowingRecordId from ActiveLoan a where a.bookId = :bookId")
+    Optional<Long> findBorrowingRecordId(@Param("bookId") Long bookId);
+
+    /**
+     * Counts the open loans of a patron, from the patron index alone.
+     *
+     * @param patronId The ID of the patron.
+     * @return The number of books the patron has on loan.
+     */
+    long countByPatronId(Long patronId);
+
+    /**
+     * Checks whether a patron has any open loan, from the patron index alone.
+     *
+     * @param patronId The ID of the patron.
+     * @return Whether the patron has books on loan.
+     */
+    boolean existsByPatronId(Long patronId);
+
+    /**
+     * Streams the number of open loans of every patron who has any. Must be called inside a transaction.
+     *
+     * @return One count per patron with open loans.
+     */
+    @Query("select new com.example.librarymanagementsystem.limits.PatronLoanCount(a.patronId, count(a)) "
+            + "from ActiveLoan a group by a.patronId")
+    Stream<PatronLoanCount> streamOpenLoanCounts();
+}
@@ -0,0 +1,28 @@
+package com.example.librarymanagementsystem.repository;
+
+import com.example.librarymanagementsystem.entity.ActiveLoan;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for ActiveLoan bulk operations executed as JDBC batches.
+ */
+public interface ActiveLoanRepositoryCustom {
+
+    /**
+     * Inserts one open loan per book for the same patron, in one JDBC batch.
+     *
+     * @param patronId           The ID of the patron.
+     * @param bookIds            The IDs of the borrowed books.
+     * @param borrowingRecordIds The IDs of the borrowing records, in the same order as the books.
+     */
+    void insertAll(Long patronId, List<Long> bookIds, List<Long> borrowingRecordIds);
+
+    /**
+     * Deletes each open loan, only if it is still open, in one JDBC batch.
+     *
+     * @param loans The loans to close.
+     * @return For each loan, in order, 1 if it was deleted, 0 if it was already closed.
+     */
+    int[] removeAll(List<ActiveLoan> loans);
+}
@@ -0,0 +1,60 @@
+package com.example.librarymanagementsystem.repository;
+
+import com.example.librarymanagementsystem.entity.ActiveLoan;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link ActiveLoanRepositoryCustom}.
+ * It runs on the connection of the current JPA transaction, so it commits or rolls back together with it.
+ */
+public class ActiveLoanRepositoryCustomImpl implements ActiveLoanRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO active_loans (book_id, patron_id, borrowing_record_id) VALUES (?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM active_loans WHERE book_id = ? AND borrowing_record_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ActiveLoanRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(Long patronId, List<Long> bookIds, List<Long> borrowingRecordIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, bookIds.get(i));
+                ps.setLong(2, patronId);
+                ps.setLong(3, borrowingRecordIds.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return bookIds.size();
+            }
+        });
+    }
+
+    @Override
+    public int[] removeAll(List<ActiveLoan> loans) {
+        if (loans.isEmpty()) {
+            return new int[0];
+        }
+        int[] counts = jdbcTemplate.batchUpdate(DELETE_SQL, loans, loans.size(), (ps, loan) -> {
+            ps.setLong(1, loan.getBookId());
+            ps.setLong(2, loan.getBorrowingRecordId());
+        })[0];
+        return BatchCounts.requireKnown(counts);
+    }
+}
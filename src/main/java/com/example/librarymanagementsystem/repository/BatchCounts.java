@@ -0,0 +1,29 @@
+package com.example.librarymanagementsystem.repository;
+
+import java.sql.Statement;
+
+/**
+ * Helper for the update counts returned by JDBC batches.
+ */
+final class BatchCounts {
+
+    private BatchCounts() {
+    }
+
+    /**
+     * Ensures that the driver reported the number of rows affected by each statement of a batch.
+     * Callers use these counts to tell which conditional updates matched, so an unknown count must not be guessed.
+     *
+     * @param counts the update counts of a batch
+     * @return the same update counts
+     * @throws IllegalStateException if a count is {@link Statement#SUCCESS_NO_INFO}
+     */
+    static int[] requireKnown(int[] counts) {
+        for (int count : counts) {
+            if (count == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("The JDBC driver did not report per-statement update counts");
+            }
+        }
+        return counts;
+    }
+}
@@ -1,12 +1,141 @@
 package com.example.librarymanagementsystem.repository;
 
 import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.search.BookSearchView;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.AvailableHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.AvailableHints.HINT_READ_ONLY;
+
 /**
  * Repository interface for performing CRUD operations on Book entities.
  */
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
-}
\ No newline at end of file
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
+
+    /**
+     * Retrieves a slice of books whose ID is strictly greater than the given cursor (keyset pagination).
+     * The cost of the query does not depend on how deep the cursor is, since it is an index range scan on the primary key.
+     *
+     * @param id       The ID of the last book of the previous page.
+     * @param pageable The page size and sort order (expected to sort by ID ascending).
+     * @return A slice of books following the cursor.
+     */
+    Slice<Book> findByIdGreaterThan(Long id, Pageable pageable);
+
+    /**
+     * Streams all books ordered by ID with a forward-only cursor, fetching rows from the database in batches.
+     * Must be consumed inside a transaction, and the returned stream must be closed.
+     *
+     * @return A stream over all books.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select b from Book b order by b.id")
+    Stream<Book> streamAll();
+
+    /**
+     * Retrieves a book and locks its row until the end of the transaction, so that placing a hold on it is
+     * serialized with returning it.
+     *
+     * @param id The ID of the book.
+     * @return The locked book, if it exists.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Book b where b.id = :id")
+    Optional<Book> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Retrieves which of the given IDs belong to existing books, in one query.
+     *
+     * @param ids The IDs to look up.
+     * @return The IDs of the existing books.
+     */
+    @Query("select b.id from Book b where b.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves the highest book ID.
+     *
+     * @return The highest book ID, or null if there are no books.
+     */
+    @Query("select max(b.id) from Book b")
+    Long findMaxId();
+
+    /**
+     * Retrieves the IDs following an ID, in ascending order.
+     *
+     * @param afterId The exclusive lower bound of the IDs.
+     * @param limit   The maximum number of IDs to return.
+     * @return The IDs of the books following the given ID.
+     */
+    @Query("select b.id from Book b where b.id > :afterId order by b.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Reads the version of a book without loading it, to check a cached copy.
+     *
+     * @param id The ID of the book.
+     * @return The version of the book, or empty if it does not exist.
+     */
+    @Query("select b.version from Book b where b.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Retrieves the ID, title and author of the books in an ID range, ordered by ID, to build the search index.
+     *
+     * @param afterId The exclusive lower bound of the ID range.
+     * @param upToId  The inclusive upper bound of the ID range.
+     * @param limit   The maximum number of books to return.
+     * @return The search projections of the books in the range.
+     */
+    @Query("select b.id as id, b.title as title, b.author as author from Book b "
+            + "where b.id > :afterId and b.id <= :upToId order by b.id")
+    List<BookSearchView> findSearchViews(@Param("afterId") Long afterId, @Param("upToId") Long upToId, Limit limit);
+
+    /**
+     * Retrieves the ID, title and author of the given books, in one query.
+     *
+     * @param ids The IDs of the books.
+     * @return The projections of the books that exist, in no particular order.
+     */
+    @Query("select b.id as id, b.title as title, b.author as author from Book b where b.id in :ids")
+    List<BookSearchView> findViewsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Marks a book as borrowed, only if it is not borrowed already.
+     * This is a single conditional update, so two concurrent borrows of the same book cannot both succeed.
+     * Like every update of a book, it increments its version.
+     *
+     * @param id The ID of the book.
+     * @return 1 if the book was marked as borrowed, 0 if it does not exist or is already borrowed.
+     */
+    @Modifying
+    @Query("update Book b set b.isBorrowed = true, b.version = b.version + 1 where b.id = :id and b.isBorrowed = false")
+    int markBorrowed(@Param("id") Long id);
+
+    /**
+     * Marks a book as not borrowed, only if it is currently borrowed, and increments its version.
+     *
+     * @param id The ID of the book.
+     * @return 1 if the book was marked as returned, 0 if it does not exist or is not borrowed.
+     */
+    @Modifying
+    @Query("update Book b set b.isBorrowed = false, b.version = b.version + 1 where b.id = :id and b.isBorrowed = true")
+    int markReturned(@Param("id") Long id);
+}
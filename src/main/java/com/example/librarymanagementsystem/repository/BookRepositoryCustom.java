@@ -0,0 +1,25 @@
+package com.example.librarymanagementsystem.repository;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for Book bulk operations executed as JDBC batches.
+ */
+public interface BookRepositoryCustom {
+
+    /**
+     * Marks each book as borrowed, only if it is not borrowed already, in one JDBC batch.
+     *
+     * @param ids The IDs of the books.
+     * @return For each ID, in order, 1 if the book was marked as borrowed, 0 otherwise.
+     */
+    int[] markAllBorrowed(List<Long> ids);
+
+    /**
+     * Marks each book as not borrowed, only if it is currently borrowed, in one JDBC batch.
+     *
+     * @param ids The IDs of the books.
+     * @return For each ID, in order, 1 if the book was marked as returned, 0 otherwise.
+     */
+    int[] markAllReturned(List<Long> ids);
+}
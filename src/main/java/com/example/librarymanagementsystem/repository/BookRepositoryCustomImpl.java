@@ -0,0 +1,43 @@
+package com.example.librarymanagementsystem.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link BookRepositoryCustom}.
+ * It runs on the connection of the current JPA transaction, so it commits or rolls back together with it.
+ */
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private static final String MARK_BORROWED_SQL =
+            "UPDATE book SET is_borrowed = true, version = version + 1 WHERE id = ? AND is_borrowed = false";
+    private static final String MARK_RETURNED_SQL =
+            "UPDATE book SET is_borrowed = false, version = version + 1 WHERE id = ? AND is_borrowed = true";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public BookRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] markAllBorrowed(List<Long> ids) {
+        return batchUpdateById(MARK_BORROWED_SQL, ids);
+    }
+
+    @Override
+    public int[] markAllReturned(List<Long> ids) {
+        return batchUpdateById(MARK_RETURNED_SQL, ids);
+    }
+
+    private int[] batchUpdateById(String sql, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new int[0];
+        }
+        int[] counts = jdbcTemplate.batchUpdate(sql, ids, ids.size(), (ps, id) -> ps.setLong(1, id))[0];
+        return BatchCounts.requireKnown(counts);
+    }
+}
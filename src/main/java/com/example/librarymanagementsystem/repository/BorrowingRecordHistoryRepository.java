@@ -0,0 +1,96 @@
+package com.example.librarymanagementsystem.repository;
+
+import com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse;
+import com.example.librarymanagementsystem.entity.BorrowingRecordHistory;
+import com.example.librarymanagementsystem.stats.AuthorBorrowCount;
+import com.example.librarymanagementsystem.stats.BookBorrowCount;
+import com.example.librarymanagementsystem.stats.BorrowEvent;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.AvailableHints.HINT_FETCH_SIZE;
+
+/**
+ * Repository interface for reading archived borrowing records.
+ */
+@Repository
+public interface BorrowingRecordHistoryRepository extends JpaRepository<BorrowingRecordHistory, Long> {
+
+    /**
+     * Retrieves a slice of a patron's archived borrowing records with an ID strictly lower than the given cursor,
+     * newest first, as flat DTO projections (keyset pagination).
+     *
+     * @param patronId The ID of the patron.
+     * @param beforeId The ID of the last record of the previous page.
+     * @param pageable The page size; the sort order is fixed by the query.
+     * @return A slice of the patron's archived records preceding the cursor.
+     */
+    @Query("select new com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse("
+            + "h.id, h.bookId, h.patronId, h.borrowDateTime, h.returnDateTime) "
+            + "from BorrowingRecordHistory h where h.patronId = :patronId and h.id < :beforeId order by h.id desc")
+    Slice<BorrowingRecordDTOResponse> findPatronLoans(@Param("patronId") Long patronId,
+                                                      @Param("beforeId") Long beforeId, Pageable pageable);
+
+    /**
+     * Retrieves a slice of a book's archived borrowing records with an ID strictly lower than the given cursor,
+     * newest first, as flat DTO projections (keyset pagination).
+     *
+     * @param bookId   The ID of the book.
+     * @param beforeId The ID of the last record of the previous page.
+     * @param pageable The page size; the sort order is fixed by the query.
+     * @return A slice of the book's archived records preceding the cursor.
+     */
+    @Query("select new com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse("
+            + "h.id, h.bookId, h.patronId, h.borrowDateTime, h.returnDateTime) "
+            + "from BorrowingRecordHistory h where h.bookId = :bookId and h.id < :beforeId order by h.id desc")
+    Slice<BorrowingRecordDTOResponse> findBookLoans(@Param("bookId") Long bookId,
+                                                    @Param("beforeId") Long beforeId, Pageable pageable);
+
+    /**
+     * Streams every archived borrowing record as flat projections, in ID order.
+     * Must be consumed inside a transaction, and the returned stream must be closed.
+     *
+     * @return A stream over all archived borrowing records.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse("
+            + "h.id, h.bookId, h.patronId, h.borrowDateTime, h.returnDateTime) "
+            + "from BorrowingRecordHistory h order by h.id")
+    Stream<BorrowingRecordDTOResponse> streamAllAsDTO();
+
+    /**
+     * Same as {@link BorrowingRecordRepository#streamBorrowEventsSince}, over the archived records. The author is
+     * null for books that no longer exist.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.librarymanagementsystem.stats.BorrowEvent("
+            + "h.bookId, h.id, h.borrowDateTime, b.author) "
+            + "from BorrowingRecordHistory h left join Book b on b.id = h.bookId where h.borrowDateTime >= :since")
+    Stream<BorrowEvent> streamBorrowEventsSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Same as {@link BorrowingRecordRepository#countBorrowsByBookSince}, over the archived records.
+     */
+    @Query("select new com.example.librarymanagementsystem.stats.BookBorrowCount(h.bookId, count(h)) "
+            + "from BorrowingRecordHistory h where h.borrowDateTime >= :since group by h.bookId")
+    List<BookBorrowCount> countBorrowsByBookSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Same as {@link BorrowingRecordRepository#countBorrowsByAuthorSince}, over the archived records of the books
+     * that still exist.
+     */
+    @Query("select new com.example.librarymanagementsystem.stats.AuthorBorrowCount(b.author, count(h)) "
+            + "from BorrowingRecordHistory h join Book b on b.id = h.bookId where h.borrowDateTime >= :since "
+            + "group by b.author")
+    List<AuthorBorrowCount> countBorrowsByAuthorSince(@Param("since") LocalDateTime since);
+}
@@ -1,16 +1,33 @@
 package com.example.librarymanagementsystem.repository;
 
+import com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse;
+import com.example.librarymanagementsystem.dto.OverdueLoanDTOResponse;
 import com.example.librarymanagementsystem.entity.BorrowingRecord;
+import com.example.librarymanagementsystem.stats.AuthorBorrowCount;
+import com.example.librarymanagementsystem.stats.BookBorrowCount;
+import com.example.librarymanagementsystem.stats.BorrowEvent;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.AvailableHints.HINT_FETCH_SIZE;
 
 /**
  * Repository interface for performing CRUD operations on BorrowingRecord entities.
  */
 @Repository
-public interface BorrowingRecordRepository extends JpaRepository<BorrowingRecord, Long> {
+public interface BorrowingRecordRepository extends JpaRepository<BorrowingRecord, Long>, BorrowingRecordRepositoryCustom {
 
     /**
      * Retrieves an optional BorrowingRecord entity by bookId, patronId, and with a null returnDate.
@@ -20,4 +37,132 @@ public interface BorrowingRecordRepository extends JpaRepository<BorrowingRecord
      * @return An optional BorrowingRecord entity.
      */
     Optional<BorrowingRecord> findByBookIdAndPatronIdAndReturnDateTimeIsNull(Long bookId, Long patronId);
-}
\ No newline at end of file
+
+    /**
+     * Sets the return date of a borrowing record.
+     *
+     * @param id             The ID of the borrowing record.
+     * @param returnDateTime The return date to set.
+     * @return The number of borrowing records updated.
+     */
+    @Modifying
+    @Query("update BorrowingRecord r set r.returnDateTime = :returnDateTime where r.id = :id")
+    int closeRecord(@Param("id") Long id, @Param("returnDateTime") LocalDateTime returnDateTime);
+
+    /**
+     * Retrieves a slice of a patron's borrowing records with an ID strictly lower than the given cursor, newest first,
+     * as flat DTO projections (keyset pagination). Served by the patron foreign key index, so the cost of a page
+     * does not depend on how deep the cursor is, and no book or patron is loaded.
+     *
+     * @param patronId The ID of the patron.
+     * @param beforeId The ID of the last record of the previous page.
+     * @param pageable The page size; the sort order is fixed by the query.
+     * @return A slice of the patron's borrowing records preceding the cursor.
+     */
+    @Query("select new com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse("
+            + "r.id, r.book.id, r.patron.id, r.borrowDateTime, r.returnDateTime) "
+            + "from BorrowingRecord r where r.patron.id = :patronId and r.id < :beforeId order by r.id desc")
+    Slice<BorrowingRecordDTOResponse> findPatronLoans(@Param("patronId") Long patronId,
+                                                      @Param("beforeId") Long beforeId, Pageable pageable);
+
+    /**
+     * Same as {@link #findPatronLoans}, restricted to the records that have been returned.
+     */
+    @Query("select new com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse("
+            + "r.id, r.book.id, r.patron.id, r.borrowDateTime, r.returnDateTime) "
+            + "from BorrowingRecord r where r.patron.id = :patronId and r.id < :beforeId "
+            + "and r.returnDateTime is not null order by r.id desc")
+    Slice<BorrowingRecordDTOResponse> findReturnedPatronLoans(@Param("patronId") Long patronId,
+                                                              @Param("beforeId") Long beforeId, Pageable pageable);
+
+    /**
+     * Retrieves a slice of a book's borrowing records with an ID strictly lower than the given cursor, newest first,
+     * as flat DTO projections (keyset pagination), served by the book foreign key index.
+     *
+     * @param bookId   The ID of the book.
+     * @param beforeId The ID of the last record of the previous page.
+     * @param pageable The page size; the sort order is fixed by the query.
+     * @return A slice of the book's borrowing records preceding the cursor.
+     */
+    @Query("select new com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse("
+            + "r.id, r.book.id, r.patron.id, r.borrowDateTime, r.returnDateTime) "
+            + "from BorrowingRecord r where r.book.id = :bookId and r.id < :beforeId order by r.id desc")
+    Slice<BorrowingRecordDTOResponse> findBookLoans(@Param("bookId") Long bookId,
+                                                    @Param("beforeId") Long beforeId, Pageable pageable);
+
+    /**
+     * Same as {@link #findPatronLoans}, restricted to the loans that are still open. The open loans are found
+     * through the patron index of the active loans table, so a long history of returned loans is never scanned.
+     */
+    @Query("select new com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse("
+            + "r.id, r.book.id, r.patron.id, r.borrowDateTime, r.returnDateTime) "
+            + "from ActiveLoan a join BorrowingRecord r on r.id = a.borrowingRecordId "
+            + "where a.patronId = :patronId and a.borrowingRecordId < :beforeId order by a.borrowingRecordId desc")
+    Slice<BorrowingRecordDTOResponse> findOpenPatronLoans(@Param("patronId") Long patronId,
+                                                          @Param("beforeId") Long beforeId, Pageable pageable);
+
+    /**
+     * Streams every open loan with its due date, reading the active loans and looking up each borrowing record by
+     * primary key. Must be consumed inside a transaction, and the returned stream must be closed.
+     *
+     * @return A stream over all open loans.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.librarymanagementsystem.dto.OverdueLoanDTOResponse("
+            + "a.borrowingRecordId, a.bookId, a.patronId, r.dueDateTime) "
+            + "from ActiveLoan a join BorrowingRecord r on r.id = a.borrowingRecordId")
+    Stream<OverdueLoanDTOResponse> streamOpenLoanDueDates();
+
+    /**
+     * Streams all borrowing records ordered by ID as flat DTO projections, so no book or patron is loaded.
+     * Must be consumed inside a transaction, and the returned stream must be closed.
+     *
+     * @return A stream over all borrowing records.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse("
+            + "r.id, r.book.id, r.patron.id, r.borrowDateTime, r.returnDateTime) "
+            + "from BorrowingRecord r order by r.id")
+    Stream<BorrowingRecordDTOResponse> streamAllAsDTO();
+
+    /**
+     * Retrieves the highest borrowing record ID.
+     *
+     * @return The highest borrowing record ID, or 0 if there are no records.
+     */
+    @Query("select coalesce(max(r.id), 0) from BorrowingRecord r")
+    long findMaxId();
+
+    /**
+     * Streams the borrows made since the given date, with the author of each book, to load the borrowing
+     * statistics. Must be consumed inside a transaction, and the returned stream must be closed.
+     *
+     * @param since The earliest borrow date to include.
+     * @return A stream over the borrows made since the date.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.librarymanagementsystem.stats.BorrowEvent("
+            + "r.book.id, r.id, r.borrowDateTime, b.author) "
+            + "from BorrowingRecord r join r.book b where r.borrowDateTime >= :since")
+    Stream<BorrowEvent> streamBorrowEventsSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Counts the borrows of each book made since the given date.
+     *
+     * @param since The earliest borrow date to include.
+     * @return One count per book borrowed since the date.
+     */
+    @Query("select new com.example.librarymanagementsystem.stats.BookBorrowCount(r.book.id, count(r)) "
+            + "from BorrowingRecord r where r.borrowDateTime >= :since group by r.book.id")
+    List<BookBorrowCount> countBorrowsByBookSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Counts the borrows of the books of each author made since the given date.
+     *
+     * @param since The earliest borrow date to include.
+     * @return One count per author whose books were borrowed since the date.
+     */
+    @Query("select new com.example.librarymanagementsystem.stats.AuthorBorrowCount(b.author, count(r)) "
+            + "from BorrowingRecord r join r.book b where r.borrowDateTime >= :since group by b.author")
+    List<AuthorBorrowCount> countBorrowsByAuthorSince(@Param("since") LocalDateTime since);
+}
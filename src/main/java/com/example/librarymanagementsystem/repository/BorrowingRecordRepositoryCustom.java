@@ -0,0 +1,48 @@
+package com.example.librarymanagementsystem.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Custom repository fragment for BorrowingRecord bulk operations executed as JDBC batches.
+ */
+public interface BorrowingRecordRepositoryCustom {
+
+    /**
+     * Inserts one open borrowing record per book for the same patron, in one JDBC batch.
+     *
+     * @param patronId       The ID of the patron.
+     * @param bookIds        The IDs of the borrowed books.
+     * @param borrowDateTime The borrow date of every record.
+     * @param dueDateTime    The due date of every record.
+     * @return The IDs of the inserted records, in the same order as the books.
+     */
+    List<Long> insertAll(Long patronId, List<Long> bookIds, LocalDateTime borrowDateTime, LocalDateTime dueDateTime);
+
+    /**
+     * Sets the return date of the given borrowing records, in one JDBC batch.
+     *
+     * @param borrowingRecordIds The IDs of the records to close.
+     * @param returnDateTime     The return date to set.
+     */
+    void closeAll(List<Long> borrowingRecordIds, LocalDateTime returnDateTime);
+
+    /**
+     * Finds returned borrowing records old enough to be archived, in ID order (keyset pagination).
+     *
+     * @param returnedBefore Only records returned before this date are archived.
+     * @param afterId        The ID of the last record of the previous chunk, or 0.
+     * @param limit          The maximum number of IDs to return.
+     * @return The IDs of the records to archive.
+     */
+    List<Long> findArchivableIds(LocalDateTime returnedBefore, long afterId, int limit);
+
+    /**
+     * Copies the given returned borrowing records into the history table and deletes them, with one INSERT ... SELECT
+     * and one DELETE. Records that are not returned are left alone.
+     *
+     * @param borrowingRecordIds The IDs of the records to archive.
+     * @return The number of records moved.
+     */
+    int moveToHistory(List<Long> borrowingRecordIds);
+}
@@ -0,0 +1,111 @@
+package com.example.librarymanagementsystem.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC implementation of {@link BorrowingRecordRepositoryCustom}.
+ * It runs on the connection of the current JPA transaction, so it commits or rolls back together with it.
+ */
+public class BorrowingRecordRepositoryCustomImpl implements BorrowingRecordRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO borrowing_record (book_id, patron_id, borrow_date_time, due_date_time) VALUES (?, ?, ?, ?)";
+    private static final String CLOSE_SQL = "UPDATE borrowing_record SET return_date_time = ? WHERE id = ?";
+    private static final String ARCHIVABLE_SQL = "SELECT id FROM borrowing_record WHERE id > ? "
+            + "AND return_date_time < ? ORDER BY id LIMIT ?";
+    private static final String ARCHIVE_SQL = "INSERT INTO borrowing_record_history "
+            + "(id, book_id, patron_id, borrow_date_time, due_date_time, return_date_time) "
+            + "SELECT id, book_id, patron_id, borrow_date_time, due_date_time, return_date_time "
+            + "FROM borrowing_record WHERE return_date_time IS NOT NULL AND id IN (%s)";
+    private static final String DELETE_ARCHIVED_SQL =
+            "DELETE FROM borrowing_record WHERE return_date_time IS NOT NULL AND id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public BorrowingRecordRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> insertAll(Long patronId, List<Long> bookIds, LocalDateTime borrowDateTime,
+                                LocalDateTime dueDateTime) {
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        Timestamp timestamp = Timestamp.valueOf(borrowDateTime);
+        Timestamp dueTimestamp = Timestamp.valueOf(dueDateTime);
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, bookIds.get(i));
+                        ps.setLong(2, patronId);
+                        ps.setTimestamp(3, timestamp);
+                        ps.setTimestamp(4, dueTimestamp);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookIds.size();
+                    }
+                }, keys);
+
+        List<Long> ids = new ArrayList<>(bookIds.size());
+        for (Map<String, Object> key : keys.getKeyList()) {
+            ids.add(((Number) key.values().iterator().next()).longValue());
+        }
+        if (ids.size() != bookIds.size()) {
+            throw new IllegalStateException("The JDBC driver returned " + ids.size()
+                    + " generated keys for " + bookIds.size() + " borrowing records");
+        }
+        return ids;
+    }
+
+    @Override
+    public void closeAll(List<Long> borrowingRecordIds, LocalDateTime returnDateTime) {
+        if (borrowingRecordIds.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(returnDateTime);
+        jdbcTemplate.batchUpdate(CLOSE_SQL, borrowingRecordIds, borrowingRecordIds.size(), (ps, id) -> {
+            ps.setTimestamp(1, timestamp);
+            ps.setLong(2, id);
+        });
+    }
+
+    @Override
+    public List<Long> findArchivableIds(LocalDateTime returnedBefore, long afterId, int limit) {
+        return jdbcTemplate.queryForList(ARCHIVABLE_SQL, Long.class, afterId, Timestamp.valueOf(returnedBefore),
+                limit);
+    }
+
+    @Override
+    public int moveToHistory(List<Long> borrowingRecordIds) {
+        if (borrowingRecordIds.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(borrowingRecordIds.size(), "?"));
+        Object[] ids = borrowingRecordIds.toArray();
+        int copied = jdbcTemplate.update(String.format(ARCHIVE_SQL, placeholders), ids);
+        int deleted = jdbcTemplate.update(String.format(DELETE_ARCHIVED_SQL, placeholders), ids);
+        if (copied != deleted) {
+            throw new IllegalStateException("Archived " + copied + " borrowing records but deleted " + deleted);
+        }
+        return deleted;
+    }
+}
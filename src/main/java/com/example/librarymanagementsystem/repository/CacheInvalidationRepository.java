@@ -0,0 +1,57 @@
+package com.example.librarymanagementsystem.repository;
+
+import com.example.librarymanagementsystem.entity.CacheInvalidationRecord;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for the cache invalidation batches exchanged through the database.
+ */
+@Repository
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidationRecord, Long> {
+
+    /**
+     * Inserts a batch in a transaction of its own, so that it is visible to the other instances at once even when
+     * it is sent while the transaction of a change is completing.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "insert into cache_invalidations (node_id, sequence_number, invalidations, created_at) "
+            + "values (:nodeId, :sequenceNumber, :invalidations, :createdAt)", nativeQuery = true)
+    void insert(@Param("nodeId") String nodeId, @Param("sequenceNumber") long sequenceNumber,
+                @Param("invalidations") String invalidations, @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Retrieves the batches following an ID, in the order they were inserted.
+     *
+     * @param afterId The exclusive lower bound of the IDs.
+     * @param limit   The maximum number of batches to return.
+     */
+    @Query("select r from CacheInvalidationRecord r where r.id > :afterId order by r.id")
+    List<CacheInvalidationRecord> findAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Retrieves the ID of the last batch inserted.
+     *
+     * @return The highest ID, or null if there are no batches.
+     */
+    @Query("select max(r.id) from CacheInvalidationRecord r")
+    Long findMaxId();
+
+    /**
+     * Deletes the batches inserted before the given time.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from CacheInvalidationRecord r where r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
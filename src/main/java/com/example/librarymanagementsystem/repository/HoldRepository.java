@@ -0,0 +1,78 @@
+package com.example.librarymanagementsystem.repository;
+
+import com.example.librarymanagementsystem.entity.Hold;
+import com.example.librarymanagementsystem.hold.HoldEntry;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.AvailableHints.HINT_FETCH_SIZE;
+
+/**
+ * Repository interface for performing CRUD operations on Hold entities.
+ */
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    /**
+     * Retrieves and locks the hold queues of the given books, each in FIFO order.
+     * This is a locking read, so it sees holds committed after the transaction started, and a hold being placed
+     * concurrently is either seen or waits for this transaction to end.
+     *
+     * @param bookIds The IDs of the books.
+     * @return The holds of the books, ordered by book and then by ID.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from Hold h where h.bookId in :bookIds order by h.bookId, h.id")
+    List<Hold> findQueuesForUpdate(@Param("bookIds") Collection<Long> bookIds);
+
+    /**
+     * Tells whether a patron already has a hold on a book.
+     *
+     * @param bookId   The ID of the book.
+     * @param patronId The ID of the patron.
+     * @return true if the hold exists.
+     */
+    boolean existsByBookIdAndPatronId(Long bookId, Long patronId);
+
+    /**
+     * Counts the holds of a book placed before the given hold.
+     *
+     * @param bookId The ID of the book.
+     * @param id     The ID of the hold.
+     * @return The number of holds ahead of it in the queue.
+     */
+    long countByBookIdAndIdLessThan(Long bookId, Long id);
+
+    /**
+     * Deletes a patron's hold on a book.
+     *
+     * @param bookId   The ID of the book.
+     * @param patronId The ID of the patron.
+     * @return The number of holds deleted: 1, or 0 if there was none.
+     */
+    @Modifying
+    @Query("delete from Hold h where h.bookId = :bookId and h.patronId = :patronId")
+    int deleteHold(@Param("bookId") Long bookId, @Param("patronId") Long patronId);
+
+    /**
+     * Streams every hold in FIFO order as flat projections.
+     * Must be consumed inside a transaction, and the returned stream must be closed.
+     *
+     * @return A stream over all holds.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.librarymanagementsystem.hold.HoldEntry(h.id, h.bookId, h.patronId) from Hold h "
+            + "order by h.id")
+    Stream<HoldEntry> streamAllEntries();
+}
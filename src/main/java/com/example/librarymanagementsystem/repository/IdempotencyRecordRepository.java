@@ -0,0 +1,80 @@
+package com.example.librarymanagementsystem.repository;
+
+import com.example.librarymanagementsystem.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for the requests made with an Idempotency-Key.
+ * Every method runs in its own transaction, so a failed insert does not roll back anything else.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Inserts a request in progress.
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException if the key is already taken
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into idempotency_keys (idempotency_key, fingerprint, created_at, expires_at) "
+            + "values (:key, :fingerprint, :createdAt, :expiresAt)", nativeQuery = true)
+    void insertInProgress(@Param("key") String key, @Param("fingerprint") String fingerprint,
+                          @Param("createdAt") LocalDateTime createdAt, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Takes over a request in progress that was started before the given time by an instance that has since
+     * stopped, or failed without releasing it.
+     *
+     * @return 1 if the request was taken over, 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.createdAt = :now where r.idempotencyKey = :key "
+            + "and r.responseStatus is null and r.createdAt < :startedBefore")
+    int takeOverStale(@Param("key") String key, @Param("now") LocalDateTime now,
+                      @Param("startedBefore") LocalDateTime startedBefore);
+
+    /**
+     * Stores the response of a request in progress.
+     *
+     * @return 1 if the request was completed, 0 if it is no longer in progress
+     */
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.responseStatus = :status, r.contentType = :contentType, "
+            + "r.responseBody = :body where r.idempotencyKey = :key and r.responseStatus is null")
+    int complete(@Param("key") String key, @Param("status") int status, @Param("contentType") String contentType,
+                 @Param("body") byte[] body);
+
+    /**
+     * Deletes a request in progress, so that its next retry runs again.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.idempotencyKey = :key and r.responseStatus is null")
+    int deleteInProgress(@Param("key") String key);
+
+    /**
+     * Deletes one request if it has expired.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.idempotencyKey = :key and r.expiresAt <= :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    /**
+     * Deletes every expired request.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
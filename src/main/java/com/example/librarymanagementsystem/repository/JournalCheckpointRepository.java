@@ -0,0 +1,26 @@
+package com.example.librarymanagementsystem.repository;
+
+import com.example.librarymanagementsystem.entity.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for the circulation journal checkpoint.
+ */
+@Repository
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, Integer> {
+
+    /**
+     * Records that the journal events up to the given sequence number have been applied.
+     *
+     * @param appliedSequence The sequence number of the last applied event.
+     * @return The number of rows updated: 1, or 0 if the checkpoint row does not exist.
+     */
+    @Modifying
+    @Query("update JournalCheckpoint c set c.appliedSequence = :appliedSequence "
+            + "where c.id = " + JournalCheckpoint.ID)
+    int advance(@Param("appliedSequence") long appliedSequence);
+}
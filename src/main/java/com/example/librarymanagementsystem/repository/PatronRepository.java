@@ -1,12 +1,53 @@
 package com.example.librarymanagementsystem.repository;
 
 import com.example.librarymanagementsystem.entity.Patron;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.AvailableHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.AvailableHints.HINT_READ_ONLY;
+
 /**
  * Repository interface for performing CRUD operations on Patron entities.
  */
 @Repository
 public interface PatronRepository extends JpaRepository<Patron, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Streams all patrons ordered by ID with a forward-only cursor, fetching rows from the database in batches.
+     * Must be consumed inside a transaction, and the returned stream must be closed.
+     *
+     * @return A stream over all patrons.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select p from Patron p order by p.id")
+    Stream<Patron> streamAll();
+
+    /**
+     * Retrieves the IDs following an ID, in ascending order.
+     *
+     * @param afterId The exclusive lower bound of the IDs.
+     * @param limit   The maximum number of IDs to return.
+     * @return The IDs of the patrons following the given ID.
+     */
+    @Query("select p.id from Patron p where p.id > :afterId order by p.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Reads the version of a patron without loading it, to check a cached copy.
+     *
+     * @param id The ID of the patron.
+     * @return The version of the patron, or empty if it does not exist.
+     */
+    @Query("select p.version from Patron p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+}
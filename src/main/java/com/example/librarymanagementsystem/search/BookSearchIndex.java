@@ -0,0 +1,395 @@
+package com.example.librarymanagementsystem.search;
+
+import com.example.librarymanagementsystem.util.LongArrayList;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over book titles and authors.
+ * Every lower-cased term maps to a posting list of book IDs kept in ascending order, one index per field.
+ * A query matches the books containing all of its terms, in the title or the author; matches are ranked by
+ * the inverse document frequency of each term, title matches weighing twice as much as author matches.
+ * Reads share a read lock, so searches run concurrently and only wait for the short index updates.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final float TITLE_WEIGHT = 2.0f;
+    private static final float AUTHOR_WEIGHT = 1.0f;
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, LongArrayList> titlePostings = new HashMap<>();
+    private Map<String, LongArrayList> authorPostings = new HashMap<>();
+    private int documentCount;
+    private List<Runnable> changesDuringRebuild;
+
+    /**
+     * Indexes a book.
+     *
+     * @param id     the ID of the book
+     * @param title  the title of the book
+     * @param author the author of the book
+     */
+    public void add(long id, String title, String author) {
+        write(() -> addDocument(id, title, author));
+    }
+
+    /**
+     * Removes a book from the index.
+     *
+     * @param id     the ID of the book
+     * @param title  the title the book was indexed with
+     * @param author the author the book was indexed with
+     */
+    public void remove(long id, String title, String author) {
+        write(() -> removeDocument(id, title, author));
+    }
+
+    /**
+     * Re-indexes a book whose title or author changed; does nothing if neither changed.
+     *
+     * @param id        the ID of the book
+     * @param oldTitle  the title the book was indexed with
+     * @param oldAuthor the author the book was indexed with
+     * @param newTitle  the new title of the book
+     * @param newAuthor the new author of the book
+     */
+    public void update(long id, String oldTitle, String oldAuthor, String newTitle, String newAuthor) {
+        if (Objects.equals(oldTitle, newTitle) && Objects.equals(oldAuthor, newAuthor)) {
+            return;
+        }
+        write(() -> {
+            removeDocument(id, oldTitle, oldAuthor);
+            addDocument(id, newTitle, newAuthor);
+        });
+    }
+
+    /**
+     * Searches the books containing every term of the query, best matches first.
+     *
+     * @param query  the free-text query
+     * @param offset the number of ranked matches to skip
+     * @param limit  the maximum number of IDs to return
+     * @return the total number of matches and the IDs of the requested page
+     */
+    public SearchHits search(String query, int offset, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return SearchHits.EMPTY;
+        }
+        lock.readLock().lock();
+        try {
+            return rank(terms, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed books.
+     *
+     * @return the number of indexed books
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the start of a full rebuild. Changes made from now on are applied to the live index as usual,
+     * and replayed on top of the rebuilt index so none of them is lost when it replaces the live one.
+     */
+    public void beginRebuild() {
+        write(() -> changesDuringRebuild = new ArrayList<>());
+    }
+
+    /**
+     * Replaces the live index with the given segments, then replays the changes made since {@link #beginRebuild()}.
+     *
+     * @param segments partial indexes over disjoint ID ranges, in ascending ID order
+     */
+    public void completeRebuild(List<Segment> segments) {
+        Map<String, LongArrayList> titles = merge(segments, true);
+        Map<String, LongArrayList> authors = merge(segments, false);
+        int count = segments.stream().mapToInt(segment -> segment.documentCount).sum();
+        lock.writeLock().lock();
+        try {
+            titlePostings = titles;
+            authorPostings = authors;
+            documentCount = count;
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.forEach(Runnable::run);
+                changesDuringRebuild = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Splits a text into its distinct lower-cased terms.
+     *
+     * @param text the text to split
+     * @return the distinct terms of the text, in order of first appearance
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String term : TERM_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addDocument(long id, String title, String author) {
+        boolean added = addPostings(titlePostings, id, title);
+        added |= addPostings(authorPostings, id, author);
+        if (added) {
+            documentCount++;
+        }
+    }
+
+    private void removeDocument(long id, String title, String author) {
+        boolean removed = removePostings(titlePostings, id, title);
+        removed |= removePostings(authorPostings, id, author);
+        if (removed) {
+            documentCount--;
+        }
+    }
+
+    private static boolean addPostings(Map<String, LongArrayList> postings, long id, String text) {
+        boolean added = false;
+        for (String term : tokenize(text)) {
+            added |= postings.computeIfAbsent(term, key -> new LongArrayList()).addSorted(id);
+        }
+        return added;
+    }
+
+    private static boolean removePostings(Map<String, LongArrayList> postings, long id, String text) {
+        boolean removed = false;
+        for (String term : tokenize(text)) {
+            LongArrayList ids = postings.get(term);
+            if (ids != null && ids.removeSorted(id)) {
+                removed = true;
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        return removed;
+    }
+
+    private SearchHits rank(List<String> terms, int offset, int limit) {
+        int termCount = terms.size();
+        LongArrayList[] titles = new LongArrayList[termCount];
+        LongArrayList[] authors = new LongArrayList[termCount];
+        Integer[] order = new Integer[termCount];
+        for (int i = 0; i < termCount; i++) {
+            titles[i] = titlePostings.get(terms.get(i));
+            authors[i] = authorPostings.get(terms.get(i));
+            if (titles[i] == null && authors[i] == null) {
+                return SearchHits.EMPTY;
+            }
+            order[i] = i;
+        }
+        // Start from the rarest term so that the candidate set is as small as possible from the beginning.
+        Arrays.sort(order, (a, b) -> Integer.compare(frequency(titles[a], authors[a]), frequency(titles[b], authors[b])));
+
+        int first = order[0];
+        int capacity = frequency(titles[first], authors[first]);
+        long[] ids = new long[capacity];
+        float[] scores = new float[capacity];
+        int count = union(titles[first], authors[first], idf(titles[first], authors[first]), ids, scores);
+
+        for (int t = 1; t < termCount && count > 0; t++) {
+            int term = order[t];
+            float idf = idf(titles[term], authors[term]);
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                boolean inTitle = titles[term] != null && titles[term].containsSorted(ids[i]);
+                boolean inAuthor = authors[term] != null && authors[term].containsSorted(ids[i]);
+                if (inTitle || inAuthor) {
+                    ids[kept] = ids[i];
+                    scores[kept] = scores[i] + idf * ((inTitle ? TITLE_WEIGHT : 0) + (inAuthor ? AUTHOR_WEIGHT : 0));
+                    kept++;
+                }
+            }
+            count = kept;
+        }
+
+        if (offset >= count) {
+            return new SearchHits(count, new long[0]);
+        }
+        int[] best = topK(ids, scores, count, (int) Math.min(count, (long) offset + limit));
+        long[] page = new long[best.length - offset];
+        for (int i = 0; i < page.length; i++) {
+            page[i] = ids[best[offset + i]];
+        }
+        return new SearchHits(count, page);
+    }
+
+    private int union(LongArrayList titles, LongArrayList authors, float idf, long[] ids, float[] scores) {
+        int titleSize = titles == null ? 0 : titles.size();
+        int authorSize = authors == null ? 0 : authors.size();
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < titleSize || j < authorSize) {
+            long titleId = i < titleSize ? titles.get(i) : Long.MAX_VALUE;
+            long authorId = j < authorSize ? authors.get(j) : Long.MAX_VALUE;
+            long id = Math.min(titleId, authorId);
+            float weight = 0;
+            if (titleId == id) {
+                weight += TITLE_WEIGHT;
+                i++;
+            }
+            if (authorId == id) {
+                weight += AUTHOR_WEIGHT;
+                j++;
+            }
+            ids[count] = id;
+            scores[count] = idf * weight;
+            count++;
+        }
+        return count;
+    }
+
+    private float idf(LongArrayList titles, LongArrayList authors) {
+        return (float) Math.log(1.0 + (double) Math.max(documentCount, 1) / Math.max(frequency(titles, authors), 1));
+    }
+
+    private static int frequency(LongArrayList titles, LongArrayList authors) {
+        return (titles == null ? 0 : titles.size()) + (authors == null ? 0 : authors.size());
+    }
+
+    /**
+     * Selects the positions of the k best candidates with a bounded min-heap, so ranking a large candidate set
+     * only costs O(n log k) instead of a full sort.
+     *
+     * @return the positions of the k best candidates, best first
+     */
+    private static int[] topK(long[] ids, float[] scores, int count, int k) {
+        int[] heap = new int[k];
+        int size = 0;
+        for (int candidate = 0; candidate < count; candidate++) {
+            if (size < k) {
+                heap[size] = candidate;
+                siftUp(heap, size++, ids, scores);
+            } else if (isBetter(candidate, heap[0], ids, scores)) {
+                heap[0] = candidate;
+                siftDown(heap, size, ids, scores);
+            }
+        }
+        int[] sorted = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            sorted[i] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, ids, scores);
+        }
+        return sorted;
+    }
+
+    private static boolean isBetter(int a, int b, long[] ids, float[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && ids[a] < ids[b]);
+    }
+
+    private static void siftUp(int[] heap, int index, long[] ids, float[] scores) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isBetter(heap[parent], heap[index], ids, scores)) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, long[] ids, float[] scores) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && isBetter(heap[worst], heap[left], ids, scores)) {
+                worst = left;
+            }
+            if (right < size && isBetter(heap[worst], heap[right], ids, scores)) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(heap, worst, index);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+
+    private static Map<String, LongArrayList> merge(List<Segment> segments, boolean titles) {
+        Map<String, LongArrayList> merged = new HashMap<>();
+        for (Segment segment : segments) {
+            (titles ? segment.titlePostings : segment.authorPostings).forEach((term, ids) ->
+                    merged.computeIfAbsent(term, key -> new LongArrayList(ids.size())).addAll(ids));
+        }
+        merged.values().forEach(LongArrayList::trimToSize);
+        return merged;
+    }
+
+    /**
+     * Partial index built over one ID range during a rebuild. Books must be added in ascending ID order.
+     * Not thread-safe; each rebuild worker fills its own segment.
+     */
+    public static class Segment {
+
+        private final Map<String, LongArrayList> titlePostings = new HashMap<>();
+        private final Map<String, LongArrayList> authorPostings = new HashMap<>();
+        private int documentCount;
+
+        public void add(long id, String title, String author) {
+            for (String term : tokenize(title)) {
+                titlePostings.computeIfAbsent(term, key -> new LongArrayList()).add(id);
+            }
+            for (String term : tokenize(author)) {
+                authorPostings.computeIfAbsent(term, key -> new LongArrayList()).add(id);
+            }
+            documentCount++;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.librarymanagementsystem.search;
+
+import com.example.librarymanagementsystem.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the {@link BookSearchIndex} from the database once the application is ready.
+ * The ID space is split into contiguous ranges that are read and tokenized in parallel, each into its own segment;
+ * the segments are then concatenated in ID order, which keeps every posting list sorted without re-sorting.
+ */
+@Component
+public class BookSearchIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchIndexInitializer.class);
+    private static final int BATCH_SIZE = 5000;
+    private static final int MAX_WORKERS = 8;
+
+    private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    public BookSearchIndexInitializer(BookRepository bookRepository, BookSearchIndex bookSearchIndex) {
+        this.bookRepository = bookRepository;
+        this.bookSearchIndex = bookSearchIndex;
+    }
+
+    /**
+     * Rebuilds the search index from every book in the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() throws InterruptedException, ExecutionException {
+        long startTime = System.currentTimeMillis();
+        bookSearchIndex.beginRebuild();
+        Long maxId = bookRepository.findMaxId();
+        if (maxId == null) {
+            bookSearchIndex.completeRebuild(List.of());
+            return;
+        }
+        int workers = Math.max(1, Math.min(MAX_WORKERS, Runtime.getRuntime().availableProcessors()));
+        long rangeSize = Math.max(1, (maxId + workers - 1) / workers);
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<BookSearchIndex.Segment>> futures = new ArrayList<>();
+            for (long lowerBound = 0; lowerBound < maxId; lowerBound += rangeSize) {
+                long afterId = lowerBound;
+                long upToId = Math.min(maxId, lowerBound + rangeSize);
+                futures.add(executor.submit(() -> buildSegment(afterId, upToId)));
+            }
+            List<BookSearchIndex.Segment> segments = new ArrayList<>(futures.size());
+            for (Future<BookSearchIndex.Segment> future : futures) {
+                segments.add(future.get());
+            }
+            bookSearchIndex.completeRebuild(segments);
+        } finally {
+            executor.shutdown();
+        }
+        logger.info("Search index rebuilt with {} books in {} ms",
+                bookSearchIndex.size(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Reads the books of an ID range in keyset-paginated batches and indexes them into a new segment.
+     */
+    private BookSearchIndex.Segment buildSegment(long afterId, long upToId) {
+        BookSearchIndex.Segment segment = new BookSearchIndex.Segment();
+        long cursor = afterId;
+        List<BookSearchView> batch;
+        do {
+            batch = bookRepository.findSearchViews(cursor, upToId, Limit.of(BATCH_SIZE));
+            for (BookSearchView book : batch) {
+                segment.add(book.getId(), book.getTitle(), book.getAuthor());
+                cursor = book.getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        return segment;
+    }
+}
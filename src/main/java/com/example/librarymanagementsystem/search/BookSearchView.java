@@ -0,0 +1,13 @@
+package com.example.librarymanagementsystem.search;
+
+/**
+ * Projection of the book columns needed to build the search index.
+ */
+public interface BookSearchView {
+
+    Long getId();
+
+    String getTitle();
+
+    String getAuthor();
+}
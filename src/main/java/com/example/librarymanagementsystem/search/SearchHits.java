@@ -0,0 +1,12 @@
+package com.example.librarymanagementsystem.search;
+
+/**
+ * One page of ranked search results.
+ *
+ * @param total the number of books matching the query
+ * @param ids   the IDs of the books of the requested page, best match first
+ */
+public record SearchHits(long total, long[] ids) {
+
+    public static final SearchHits EMPTY = new SearchHits(0, new long[0]);
+}
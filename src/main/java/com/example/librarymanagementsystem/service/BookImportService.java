@@ -0,0 +1,28 @@
+package com.example.librarymanagementsystem.service;
+
+import com.example.librarymanagementsystem.catalogimport.BookImportListener;
+import com.example.librarymanagementsystem.catalogimport.ImportFormat;
+import com.example.librarymanagementsystem.dto.BookImportReportDTOResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Service interface for importing many books at once.
+ */
+public interface BookImportService {
+
+    /**
+     * Imports the books of a CSV or NDJSON file. Rows are parsed, validated and deduplicated by ISBN while earlier
+     * rows are being inserted; valid rows are inserted in batched chunks, each committed on its own.
+     * Rows that are invalid or whose ISBN already exists are reported to the listener and skipped.
+     *
+     * @param input    The file contents; they are read to the end but not closed.
+     * @param format   The format of the file.
+     * @param listener Receives the rejected rows and the progress after each committed chunk.
+     * @return The final counters of the import.
+     * @throws IOException If reading the input fails.
+     */
+    BookImportReportDTOResponse importBooks(InputStream input, ImportFormat format, BookImportListener listener)
+            throws IOException;
+}
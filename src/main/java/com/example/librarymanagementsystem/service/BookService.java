@@ -1,8 +1,15 @@
 package com.example.librarymanagementsystem.service;
 
+import com.example.librarymanagementsystem.catalog.BookFilter;
+import com.example.librarymanagementsystem.catalog.Versioned;
+import com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse;
 import com.example.librarymanagementsystem.entity.Book;
 import com.example.librarymanagementsystem.exceptionHandler.BookISBNAlreadyExistsException;
 import com.example.librarymanagementsystem.exceptionHandler.BookNotFoundException;
+import com.example.librarymanagementsystem.exceptionHandler.BookOnLoanException;
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -16,7 +23,36 @@ public interface BookService {
      *
      * @return List of all books.
      */
-    List<Book> getAllBooks();
+    List<BookSnapshot> getAllBooks();
+
+    /**
+     * Retrieves a page of the books meeting a filter, ordered by ID, starting right after the given cursor.
+     *
+     * @param afterId The ID of the last book of the previous page, or null to start from the first book.
+     * @param limit   The requested page size; it is capped server-side.
+     * @param filter  The conditions the books must meet.
+     * @return A slice of books following the cursor, which also tells whether more books exist, with the version
+     * of the catalog it was read from.
+     */
+    Versioned<Slice<BookSnapshot>> getBooksPage(Long afterId, int limit, BookFilter filter);
+
+    /**
+     * Counts the books meeting a filter.
+     *
+     * @param filter The conditions the books must meet.
+     * @return The number of books, with the version of the catalog it was read from.
+     */
+    Versioned<Long> countBooks(BookFilter filter);
+
+    /**
+     * Searches books whose title or author contains every term of the query, best matches first.
+     *
+     * @param query The free-text query.
+     * @param page  The zero-based page number.
+     * @param size  The requested page size; it is capped server-side.
+     * @return The requested page of matching books, with the total number of matches.
+     */
+    Page<BookSnapshot> searchBooks(String query, int page, int size);
 
     /**
      * Retrieves a book by its ID.
@@ -25,7 +61,7 @@ public interface BookService {
      * @return The book with the specified ID.
      * @throws BookNotFoundException If the book with the given ID does not exist.
      */
-    Book getBookById(Long id);
+    BookSnapshot getBookById(Long id);
 
     /**
      * Adds a new book to the repository.
@@ -34,7 +70,7 @@ public interface BookService {
      * @return The added book.
      * @throws BookISBNAlreadyExistsException If the ISBN of the book already exists in the repository.
      */
-    Book addBook(Book book);
+    BookSnapshot addBook(Book book);
 
     /**
      * Updates the details of an existing book.
@@ -44,13 +80,25 @@ public interface BookService {
      * @return The updated book.
      * @throws BookNotFoundException If the book with the given ID does not exist.
      */
-    Book updateBook(Long id, Book bookDetails);
+    BookSnapshot updateBook(Long id, Book bookDetails);
 
     /**
      * Deletes a book from the repository.
      *
      * @param id The ID of the book to delete.
      * @throws BookNotFoundException If the book with the given ID does not exist.
+     * @throws BookOnLoanException   If the book is on loan while the circulation journal is enabled.
      */
     void deleteBook(Long id);
-}
\ No newline at end of file
+
+    /**
+     * Retrieves one keyset-paginated page of a book's loans, live and archived, newest first.
+     *
+     * @param id     The ID of the book.
+     * @param before The ID of the last loan of the previous page, if any.
+     * @param limit  The requested page size; it is capped server-side.
+     * @return A slice of the book's loans preceding the cursor.
+     * @throws BookNotFoundException If the book with the given ID does not exist.
+     */
+    Slice<BorrowingRecordDTOResponse> getBookLoans(Long id, Long before, int limit);
+}
@@ -1,9 +1,15 @@
 package com.example.librarymanagementsystem.service;
 
 import com.example.librarymanagementsystem.exceptionHandler.BookAlreadyBorrowedException;
+import com.example.librarymanagementsystem.exceptionHandler.BookNotFoundException;
 import com.example.librarymanagementsystem.exceptionHandler.BorrowingRecordNotFoundException;
 import com.example.librarymanagementsystem.exceptionHandler.PatronNotFoundException;
+import com.example.librarymanagementsystem.dto.BorrowingResultDTOResponse;
+import com.example.librarymanagementsystem.dto.OverdueLoanDTOResponse;
 import jakarta.validation.constraints.NotNull;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
 
 /**
  * Service interface for managing borrowing operations.
@@ -17,8 +23,8 @@ public interface BorrowingService {
      * @param bookId   The ID of the book to borrow
      * @param patronId The ID of the patron borrowing the book
      * @throws BookAlreadyBorrowedException   if the book is already borrowed
+     * @throws BookNotFoundException          if the book is not found
      * @throws PatronNotFoundException        if the patron is not found
-     * @throws BorrowingRecordNotFoundException if the borrowing record is not found
      */
     void borrowBook(@NotNull Long bookId, @NotNull Long patronId);
 
@@ -30,4 +36,34 @@ public interface BorrowingService {
      * @throws BorrowingRecordNotFoundException if the borrowing record is not found
      */
     void returnBook(Long bookId, Long patronId);
-}
\ No newline at end of file
+
+    /**
+     * Borrow several books for the same patron in one transaction.
+     * Books that cannot be borrowed are reported in the result instead of failing the whole batch.
+     *
+     * @param patronId The ID of the patron borrowing the books
+     * @param bookIds  The IDs of the books to borrow
+     * @return one result per distinct book ID, in request order
+     * @throws PatronNotFoundException if the patron is not found
+     */
+    List<BorrowingResultDTOResponse> borrowBooks(@NotNull Long patronId, @NotNull List<Long> bookIds);
+
+    /**
+     * Return several books borrowed by the same patron in one transaction.
+     * Books the patron has no open borrowing record for are reported in the result instead of failing the whole batch.
+     *
+     * @param patronId The ID of the patron returning the books
+     * @param bookIds  The IDs of the books to return
+     * @return one result per distinct book ID, in request order
+     */
+    List<BorrowingResultDTOResponse> returnBooks(@NotNull Long patronId, @NotNull List<Long> bookIds);
+
+    /**
+     * Retrieve one keyset-paginated page of the loans that are past their due date, oldest loans first.
+     *
+     * @param after The borrowing record ID of the last loan of the previous page, if any.
+     * @param limit The requested page size.
+     * @return A slice of overdue loans following the cursor.
+     */
+    Slice<OverdueLoanDTOResponse> getOverdueLoans(Long after, int limit);
+}
@@ -0,0 +1,35 @@
+package com.example.librarymanagementsystem.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service interface for exporting whole tables as newline-delimited JSON (NDJSON).
+ * Rows are read with a forward-only cursor and written one at a time, so memory use does not grow with the table size.
+ */
+public interface ExportService {
+
+    /**
+     * Writes every book as one JSON object per line.
+     *
+     * @param out The stream to write to; it is flushed but not closed.
+     * @throws IOException If writing to the stream fails.
+     */
+    void exportBooks(OutputStream out) throws IOException;
+
+    /**
+     * Writes every patron as one JSON object per line.
+     *
+     * @param out The stream to write to; it is flushed but not closed.
+     * @throws IOException If writing to the stream fails.
+     */
+    void exportPatrons(OutputStream out) throws IOException;
+
+    /**
+     * Writes every borrowing record, live then archived, as one JSON object per line.
+     *
+     * @param out The stream to write to; it is flushed but not closed.
+     * @throws IOException If writing to the stream fails.
+     */
+    void exportBorrowingRecords(OutputStream out) throws IOException;
+}
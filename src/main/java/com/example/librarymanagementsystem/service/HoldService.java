@@ -0,0 +1,57 @@
+package com.example.librarymanagementsystem.service;
+
+import com.example.librarymanagementsystem.dto.HoldDTOResponse;
+import com.example.librarymanagementsystem.exceptionHandler.BookNotFoundException;
+import com.example.librarymanagementsystem.exceptionHandler.HoldNotFoundException;
+import com.example.librarymanagementsystem.exceptionHandler.HoldRejectedException;
+import com.example.librarymanagementsystem.exceptionHandler.PatronNotFoundException;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Service interface for managing holds.
+ * A patron places a hold on a borrowed book to join its queue; when the book is returned, it is lent to the patron
+ * first in the queue.
+ */
+public interface HoldService {
+
+    /**
+     * Place a hold on a borrowed book, at the end of its queue.
+     *
+     * @param bookId   The ID of the book to hold
+     * @param patronId The ID of the patron placing the hold
+     * @return the hold and its position in the queue
+     * @throws BookNotFoundException   if the book is not found
+     * @throws PatronNotFoundException if the patron is not found
+     * @throws HoldRejectedException   if the book is available, or the patron already borrowed or holds it
+     */
+    HoldDTOResponse placeHold(@NotNull Long bookId, @NotNull Long patronId);
+
+    /**
+     * Cancel a patron's hold on a book.
+     *
+     * @param bookId   The ID of the held book
+     * @param patronId The ID of the patron
+     * @throws HoldNotFoundException if the patron has no hold on the book
+     */
+    void cancelHold(Long bookId, Long patronId);
+
+    /**
+     * Retrieve a patron's current position in the hold queue of a book.
+     *
+     * @param bookId   The ID of the held book
+     * @param patronId The ID of the patron
+     * @return the hold and its position in the queue
+     * @throws HoldNotFoundException if the patron has no hold on the book
+     */
+    HoldDTOResponse getHold(Long bookId, Long patronId);
+
+    /**
+     * Retrieve the hold queue of a book, first in line first.
+     *
+     * @param bookId The ID of the held book
+     * @return the holds on the book, empty if nobody is waiting for it
+     */
+    List<HoldDTOResponse> getHoldQueue(Long bookId);
+}
@@ -1,6 +1,10 @@
 package com.example.librarymanagementsystem.service;
 
+import com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse;
+import com.example.librarymanagementsystem.dto.LoanStatus;
 import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.snapshot.PatronSnapshot;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -16,7 +20,7 @@ public interface PatronService {
      *
      * @return List of patrons.
      */
-    List<Patron> getAllPatrons();
+    List<PatronSnapshot> getAllPatrons();
 
     /**
      * Retrieve a patron by ID.
@@ -24,7 +28,7 @@ public interface PatronService {
      * @param id The ID of the patron to retrieve.
      * @return The patron with the specified ID.
      */
-    Patron getPatronById(Long id);
+    PatronSnapshot getPatronById(Long id);
 
     /**
      * Add a new patron.
@@ -32,7 +36,7 @@ public interface PatronService {
      * @param patron The patron to add.
      * @return The added patron.
      */
-    Patron addPatron(Patron patron);
+    PatronSnapshot addPatron(Patron patron);
 
     /**
      * Update details of an existing patron.
@@ -41,7 +45,7 @@ public interface PatronService {
      * @param patronDetails Details of the patron to update.
      * @return The updated patron.
      */
-    Patron updatePatron(Long id, Patron patronDetails);
+    PatronSnapshot updatePatron(Long id, Patron patronDetails);
 
     /**
      * Delete a patron by ID.
@@ -49,4 +53,15 @@ public interface PatronService {
      * @param id The ID of the patron to delete.
      */
     void deletePatron(Long id);
+
+    /**
+     * Retrieve one keyset-paginated page of a patron's loans, newest first.
+     *
+     * @param id     The ID of the patron.
+     * @param status Which loans to list: all, open or returned.
+     * @param before The ID of the last loan of the previous page, if any.
+     * @param limit  The requested page size.
+     * @return A slice of the patron's loans preceding the cursor.
+     */
+    Slice<BorrowingRecordDTOResponse> getPatronLoans(Long id, LoanStatus status, Long before, int limit);
 }
\ No newline at end of file
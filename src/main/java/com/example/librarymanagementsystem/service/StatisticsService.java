@@ -0,0 +1,56 @@
+package com.example.librarymanagementsystem.service;
+
+import com.example.librarymanagementsystem.dto.StatsAccuracyDTOResponse;
+import com.example.librarymanagementsystem.dto.StatsWindow;
+import com.example.librarymanagementsystem.dto.TopAuthorDTOResponse;
+import com.example.librarymanagementsystem.dto.TopBookDTOResponse;
+
+import java.util.List;
+
+/**
+ * Service interface for the live borrowing statistics.
+ * Counts are estimates kept in memory; each comes with the largest amount by which it may overcount.
+ */
+public interface StatisticsService {
+
+    /**
+     * Retrieve the most borrowed books of a window, most borrowed first.
+     *
+     * @param window The window to rank.
+     * @param limit  The requested number of books; it is capped server-side.
+     * @return The most borrowed books with their estimated borrow counts.
+     */
+    List<TopBookDTOResponse> getTopBooks(StatsWindow window, int limit);
+
+    /**
+     * Retrieve the most borrowed authors of a window, most borrowed first.
+     *
+     * @param window The window to rank.
+     * @param limit  The requested number of authors; it is capped server-side.
+     * @return The most borrowed authors with their estimated borrow counts.
+     */
+    List<TopAuthorDTOResponse> getTopAuthors(StatsWindow window, int limit);
+
+    /**
+     * Retrieve the estimated number of borrows of the books of one author over a window.
+     *
+     * @param author The name of the author.
+     * @param window The window to count over.
+     * @return The author with their estimated borrow count, 0 if none of their books was borrowed.
+     */
+    TopAuthorDTOResponse getAuthorBorrows(String author, StatsWindow window);
+
+    /**
+     * Retrieve the results of the last comparison of the estimates with the exact counts.
+     *
+     * @return One report per window and subject, or an empty list if no comparison has run yet.
+     */
+    List<StatsAccuracyDTOResponse> getAccuracy();
+
+    /**
+     * Compare the estimates with the exact counts recomputed from the database now.
+     *
+     * @return One report per window and subject.
+     */
+    List<StatsAccuracyDTOResponse> verifyAccuracy();
+}
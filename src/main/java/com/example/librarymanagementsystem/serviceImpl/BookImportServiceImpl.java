@@ -0,0 +1,341 @@
+package com.example.librarymanagementsystem.serviceImpl;
+
+import com.example.librarymanagementsystem.cache.AbsentIdFilter;
+import com.example.librarymanagementsystem.catalog.BookCatalog;
+import com.example.librarymanagementsystem.catalogimport.BookImportListener;
+import com.example.librarymanagementsystem.catalogimport.BookRow;
+import com.example.librarymanagementsystem.catalogimport.BookRowReader;
+import com.example.librarymanagementsystem.catalogimport.ImportFormat;
+import com.example.librarymanagementsystem.dto.BookDTORequest;
+import com.example.librarymanagementsystem.dto.BookImportErrorDTOResponse;
+import com.example.librarymanagementsystem.dto.BookImportReportDTOResponse;
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.mapper.BookMapper;
+import com.example.librarymanagementsystem.search.BookSearchIndex;
+import com.example.librarymanagementsystem.service.BookImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the {@link BookImportService} interface.
+ * The import is a two-stage pipeline: the calling thread parses, validates and deduplicates rows into chunks, and
+ * a writer thread inserts each chunk in its own transaction. A small bounded queue between the stages lets parsing
+ * overlap with database round trips without buffering the whole file. Chunks are written through a stateless
+ * session: rows were validated while parsing, so there is no persistence context to dirty-check and no second
+ * validation pass, and since book IDs come from a pooled sequence the inserts of a chunk go out as one JDBC batch.
+ */
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookImportServiceImpl.class);
+    private static final int QUEUE_CAPACITY = 4;
+    private static final List<BookRow> END_OF_INPUT = List.of();
+
+    private static final String EXISTING_ISBNS_QUERY = "select b.isbn from Book b where b.isbn in :isbns";
+
+    private final SessionFactory sessionFactory;
+    private final BookSearchIndex bookSearchIndex;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final AbsentIdFilter absentBookIds;
+    private final BookCatalog bookCatalog;
+    private final Cache booksCache;
+    private final ExecutorService writerExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "book-import-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${library.import.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Autowired
+    public BookImportServiceImpl(EntityManagerFactory entityManagerFactory, BookSearchIndex bookSearchIndex,
+                                 Validator validator, ObjectMapper objectMapper,
+                                 @Qualifier("absentBookIds") AbsentIdFilter absentBookIds, BookCatalog bookCatalog,
+                                 CacheManager cacheManager) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.bookSearchIndex = bookSearchIndex;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.absentBookIds = absentBookIds;
+        this.bookCatalog = bookCatalog;
+        this.booksCache = cacheManager.getCache("books");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writerExecutor.shutdownNow();
+    }
+
+    public BookImportReportDTOResponse importBooks(InputStream input, ImportFormat format, BookImportListener listener)
+            throws IOException {
+        ImportRun run = new ImportRun(listener);
+        BlockingQueue<List<BookRow>> chunks = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Future<?> writer = writerExecutor.submit(() -> {
+            writeChunks(chunks, run);
+            return null;
+        });
+
+        boolean parsed = false;
+        try {
+            parseChunks(input, format, chunks, writer, run);
+            parsed = true;
+        } catch (IllegalArgumentException e) {
+            run.fail(e.getMessage());
+        } finally {
+            if (!parsed) {
+                writer.cancel(true);
+            }
+        }
+        if (parsed) {
+            hand(chunks, END_OF_INPUT, writer);
+            awaitWriter(writer, run);
+        }
+
+        BookImportReportDTOResponse report = run.report(true);
+        if (report.getImported() > 0) {
+            // The imported books are not put into the cache one by one, so the catalog is reloaded at once.
+            bookCatalog.reload();
+        }
+        logger.info("Imported {} of {} rows ({} rejected) in {} ms, {} rows/s", report.getImported(),
+                report.getRowsRead(), report.getRejected(), report.getElapsedMillis(), report.getRowsPerSecond());
+        return report;
+    }
+
+    /**
+     * First stage: parses, validates and deduplicates rows, handing full chunks to the writer.
+     */
+    private void parseChunks(InputStream input, ImportFormat format, BlockingQueue<List<BookRow>> chunks,
+                             Future<?> writer, ImportRun run) throws IOException {
+        BookRowReader reader = BookRowReader.open(format, input, objectMapper);
+        Set<String> seenIsbns = new HashSet<>();
+        List<BookRow> chunk = new ArrayList<>(chunkSize);
+        BookRow row;
+        while ((row = reader.next()) != null) {
+            run.rowRead();
+            if (row.isMalformed()) {
+                run.reject(row.line(), null, List.of(row.error()));
+                continue;
+            }
+            List<String> errors = validate(row.book());
+            if (!errors.isEmpty()) {
+                run.reject(row.line(), row.book().getIsbn(), errors);
+                continue;
+            }
+            if (!seenIsbns.add(row.book().getIsbn())) {
+                run.reject(row.line(), row.book().getIsbn(),
+                        List.of("ISBN already appears earlier in the import"));
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                if (!hand(chunks, chunk, writer)) {
+                    return;
+                }
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            hand(chunks, chunk, writer);
+        }
+    }
+
+    private List<String> validate(BookDTORequest book) {
+        Set<ConstraintViolation<BookDTORequest>> violations = validator.validate(book);
+        if (violations.isEmpty()) {
+            return List.of();
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().distinct().toList();
+    }
+
+    /**
+     * Second stage: inserts chunks until the end-of-input marker arrives.
+     * Chunks are first inserted optimistically, relying on the unique ISBN constraint; once a chunk hits an
+     * existing ISBN, that chunk and every following one look up their existing ISBNs before inserting.
+     */
+    private void writeChunks(BlockingQueue<List<BookRow>> chunks, ImportRun run) throws InterruptedException {
+        boolean checkExisting = false;
+        List<BookRow> chunk;
+        while ((chunk = chunks.take()) != END_OF_INPUT) {
+            ChunkResult result = null;
+            if (!checkExisting) {
+                try {
+                    result = insertNewBooks(chunk, false);
+                } catch (ConstraintViolationException e) {
+                    logger.info("Import hit an existing ISBN, checking ISBNs before inserting from now on");
+                    checkExisting = true;
+                }
+            }
+            if (result == null) {
+                result = insertNewBooks(chunk, true);
+            }
+            for (BookRow duplicate : result.duplicates()) {
+                run.reject(duplicate.line(), duplicate.book().getIsbn(),
+                        List.of("Book with ISBN " + duplicate.book().getIsbn() + " already exists"));
+            }
+            for (Book book : result.inserted()) {
+                absentBookIds.recordAdded(book.getId());
+                bookSearchIndex.add(book.getId(), book.getTitle(), book.getAuthor());
+                // Tells the other instances that the book was added, like any other change of a book.
+                booksCache.evict(book.getId());
+            }
+            run.imported(result.inserted().size());
+        }
+    }
+
+    /**
+     * Inserts one chunk in its own transaction, as one JDBC batch.
+     *
+     * @param chunk         the rows to insert
+     * @param checkExisting whether to skip the rows whose ISBN already exists, found with one query
+     * @return the inserted books and the skipped rows
+     * @throws ConstraintViolationException if a row's ISBN already exists and was not skipped; nothing is inserted
+     */
+    private ChunkResult insertNewBooks(List<BookRow> chunk, boolean checkExisting) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(chunk.size());
+            Transaction transaction = session.beginTransaction();
+            try {
+                Set<String> existingIsbns = checkExisting ? findExistingIsbns(session, chunk) : Set.of();
+                List<Book> inserted = new ArrayList<>(chunk.size());
+                List<BookRow> duplicates = new ArrayList<>();
+                for (BookRow row : chunk) {
+                    if (existingIsbns.contains(row.book().getIsbn())) {
+                        duplicates.add(row);
+                        continue;
+                    }
+                    Book book = BookMapper.toBook(row.book());
+                    session.insert(book);
+                    inserted.add(book);
+                }
+                transaction.commit();
+                return new ChunkResult(inserted, duplicates);
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static Set<String> findExistingIsbns(StatelessSession session, List<BookRow> chunk) {
+        List<String> isbns = new ArrayList<>(chunk.size());
+        for (BookRow row : chunk) {
+            isbns.add(row.book().getIsbn());
+        }
+        return new HashSet<>(session.createSelectionQuery(EXISTING_ISBNS_QUERY, String.class)
+                .setParameter("isbns", isbns)
+                .getResultList());
+    }
+
+    /**
+     * Hands a chunk to the writer, waiting while the queue is full.
+     *
+     * @return false if the writer has stopped, in which case parsing should stop too
+     */
+    private static boolean hand(BlockingQueue<List<BookRow>> chunks, List<BookRow> chunk, Future<?> writer) {
+        try {
+            while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                if (writer.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.cancel(true);
+            throw new IllegalStateException("Interrupted while importing books", e);
+        }
+    }
+
+    private static void awaitWriter(Future<?> writer, ImportRun run) {
+        try {
+            writer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.cancel(true);
+            throw new IllegalStateException("Interrupted while importing books", e);
+        } catch (ExecutionException e) {
+            logger.error("Book import failed", e.getCause());
+            run.fail("Import stopped after a database error: " + e.getCause().getMessage());
+        }
+    }
+
+    private record ChunkResult(List<Book> inserted, List<BookRow> duplicates) {
+    }
+
+    /**
+     * Counters of one import, shared by both stages. Methods are synchronized so the listener is never called
+     * concurrently.
+     */
+    private static final class ImportRun {
+
+        private final BookImportListener listener;
+        private final long startTime = System.nanoTime();
+        private long rowsRead;
+        private long imported;
+        private long rejected;
+        private String failure;
+
+        ImportRun(BookImportListener listener) {
+            this.listener = listener;
+        }
+
+        synchronized void rowRead() {
+            rowsRead++;
+        }
+
+        synchronized void reject(long line, String isbn, List<String> errors) {
+            rejected++;
+            listener.onRejected(new BookImportErrorDTOResponse(line, isbn, errors));
+        }
+
+        synchronized void imported(int count) {
+            imported += count;
+            listener.onProgress(report(false));
+        }
+
+        synchronized void fail(String message) {
+            if (failure == null) {
+                failure = message;
+            }
+        }
+
+        synchronized BookImportReportDTOResponse report(boolean completed) {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            return new BookImportReportDTOResponse(rowsRead, imported, rejected, elapsedMillis,
+                    completed && failure == null, failure);
+        }
+    }
+}
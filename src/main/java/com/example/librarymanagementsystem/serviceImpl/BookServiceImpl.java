@@ -1,16 +1,42 @@
 package com.example.librarymanagementsystem.serviceImpl;
 
+import com.example.librarymanagementsystem.archive.LoanHistory;
+import com.example.librarymanagementsystem.cache.AbsentIdFilter;
+import com.example.librarymanagementsystem.catalog.BookCatalog;
+import com.example.librarymanagementsystem.catalog.BookFilter;
+import com.example.librarymanagementsystem.catalog.CatalogSnapshot;
+import com.example.librarymanagementsystem.catalog.Versioned;
+import com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse;
 import com.example.librarymanagementsystem.entity.Book;
 import com.example.librarymanagementsystem.exceptionHandler.BookISBNAlreadyExistsException;
 import com.example.librarymanagementsystem.exceptionHandler.BookNotFoundException;
+import com.example.librarymanagementsystem.exceptionHandler.BookOnLoanException;
+import com.example.librarymanagementsystem.journal.OpenLoans;
 import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.search.BookSearchIndex;
+import com.example.librarymanagementsystem.search.SearchHits;
 import com.example.librarymanagementsystem.service.BookService;
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import com.example.librarymanagementsystem.stats.BorrowingStatistics;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.CacheEvict;
@@ -18,37 +44,123 @@ import org.springframework.cache.annotation.CacheEvict;
 /**
  * Implementation of the BookService interface.
  * Provides methods to manage books in the library management system.
+ * Books are handed out as immutable {@link BookSnapshot}s, which are also what the "books" cache holds, so no
+ * caller can change a cached book and the cache never keeps a persistence context alive.
+ * Lookups of IDs that do not exist are answered by an {@link AbsentIdFilter} where possible, without the database.
+ * Book lists and counts are read from the in-memory {@link BookCatalog}, which hears of the changes of the books
+ * through the "books" cache; every change of a book must therefore put or evict its entry.
  */
 @Service
 public class BookServiceImpl implements BookService {
 
     private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final LoanHistory loanHistory;
+    private final BorrowingStatistics borrowingStatistics;
+    private final AbsentIdFilter absentBookIds;
+    private final BookCatalog bookCatalog;
+    private final ObjectProvider<OpenLoans> openLoans;
+
+    @Value("${library.pagination.max-limit:1000}")
+    private int maxPageLimit = 1000;
 
     @Autowired
-    public BookServiceImpl(BookRepository bookRepository) {
+    public BookServiceImpl(BookRepository bookRepository, BookSearchIndex bookSearchIndex, LoanHistory loanHistory,
+                           BorrowingStatistics borrowingStatistics,
+                           @Qualifier("absentBookIds") AbsentIdFilter absentBookIds, BookCatalog bookCatalog,
+                           ObjectProvider<OpenLoans> openLoans) {
         this.bookRepository = bookRepository;
+        this.bookSearchIndex = bookSearchIndex;
+        this.loanHistory = loanHistory;
+        this.borrowingStatistics = borrowingStatistics;
+        this.absentBookIds = absentBookIds;
+        this.bookCatalog = bookCatalog;
+        this.openLoans = openLoans;
+    }
+
+    /**
+     * Retrieves all books stored in the system, from the catalog.
+     *
+     * @return List of all books in the system, ordered by ID
+     */
+    public List<BookSnapshot> getAllBooks() {
+        return bookCatalog.snapshot().books();
+    }
+
+    /**
+     * Retrieves a page of the books meeting a filter from the catalog, ordered by ID, starting right after the
+     * given cursor. The requested limit is clamped between 1 and the configured maximum page size.
+     *
+     * @param afterId The ID of the last book of the previous page, or null to start from the first book
+     * @param limit   The requested page size
+     * @param filter  The conditions the books must meet
+     * @return A slice of books following the cursor, with the version of the catalog
+     */
+    public Versioned<Slice<BookSnapshot>> getBooksPage(Long afterId, int limit, BookFilter filter) {
+        CatalogSnapshot catalog = bookCatalog.snapshot();
+        return new Versioned<>(catalog.page(afterId, pageSize(limit), filter), catalog.tag());
     }
 
     /**
-     * Retrieves all books stored in the system.
+     * Counts the books meeting a filter in the catalog.
      *
-     * @return List of all books in the system
+     * @param filter The conditions the books must meet
+     * @return The number of books, with the version of the catalog
      */
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    public Versioned<Long> countBooks(BookFilter filter) {
+        CatalogSnapshot catalog = bookCatalog.snapshot();
+        return new Versioned<>(catalog.count(filter), catalog.tag());
+    }
+
+    /**
+     * Searches books through the in-memory search index, then reads the books of the requested page from the
+     * catalog. Only books the index knows of but the catalog does not yet, being added within its staleness bound,
+     * are loaded from the database.
+     *
+     * @param query The free-text query
+     * @param page  The zero-based page number
+     * @param size  The requested page size
+     * @return The requested page of matching books, best matches first
+     */
+    public Page<BookSnapshot> searchBooks(String query, int page, int size) {
+        int pageSize = pageSize(size);
+        int pageNumber = Math.max(0, page);
+        int offset = (int) Math.min(Integer.MAX_VALUE, (long) pageNumber * pageSize);
+        SearchHits hits = bookSearchIndex.search(query, offset, pageSize);
+
+        CatalogSnapshot catalog = bookCatalog.snapshot();
+        BookSnapshot[] books = new BookSnapshot[hits.ids().length];
+        List<Long> missingIds = new ArrayList<>();
+        for (int i = 0; i < books.length; i++) {
+            books[i] = catalog.book(hits.ids()[i]);
+            if (books[i] == null) {
+                missingIds.add(hits.ids()[i]);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            Map<Long, Book> booksById = bookRepository.findAllById(missingIds).stream()
+                    .collect(Collectors.toMap(Book::getId, Function.identity()));
+            for (int i = 0; i < books.length; i++) {
+                if (books[i] == null && booksById.containsKey(hits.ids()[i])) {
+                    books[i] = BookSnapshot.of(booksById.get(hits.ids()[i]));
+                }
+            }
+        }
+        List<BookSnapshot> content = Arrays.stream(books).filter(Objects::nonNull).collect(Collectors.toList());
+        return new PageImpl<>(content, PageRequest.of(pageNumber, pageSize), hits.total());
     }
 
     /**
      * Retrieves a book by its ID.
+     * Concurrent misses on the same book are coalesced: one of them reads the book while the others wait for it.
      *
      * @param id The ID of the book to retrieve
      * @return The book with the specified ID
      * @throws BookNotFoundException if no book exists with the given ID
      */
-    @Cacheable(value = "books", key = "#id")
-    public Book getBookById(Long id) {
-        return bookRepository.findById(id)
-                .orElseThrow(() -> new BookNotFoundException("Book not found with id: " + id));
+    @Cacheable(value = "books", key = "#id", sync = true)
+    public BookSnapshot getBookById(Long id) {
+        return BookSnapshot.of(getBookEntityById(id));
     }
 
     /**
@@ -58,12 +170,17 @@ public class BookServiceImpl implements BookService {
      * @return The added book
      * @throws BookISBNAlreadyExistsException if the ISBN of the book already exists
      */
-    public Book addBook(Book book) {
+    @CachePut(value = "books", key = "#result.id")
+    public BookSnapshot addBook(Book book) {
+        Book savedBook;
         try {
-            return bookRepository.save(book);
+            savedBook = bookRepository.save(book);
         } catch (DataIntegrityViolationException e) {
             throw new BookISBNAlreadyExistsException("Book ISBN Already Exists");
         }
+        absentBookIds.recordAdded(savedBook.getId());
+        bookSearchIndex.add(savedBook.getId(), savedBook.getTitle(), savedBook.getAuthor());
+        return BookSnapshot.of(savedBook);
     }
 
     /**
@@ -75,22 +192,85 @@ public class BookServiceImpl implements BookService {
      * @throws BookNotFoundException if no book exists with the given ID
      */
     @CachePut(value = "books", key = "#id")
-    public Book updateBook(Long id, Book bookDetails) {
-        Book book = getBookById(id);
+    public BookSnapshot updateBook(Long id, Book bookDetails) {
+        Book book = getBookEntityById(id);
+        String oldTitle = book.getTitle();
+        String oldAuthor = book.getAuthor();
         updateBookDetails(book, bookDetails);
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        bookSearchIndex.update(id, oldTitle, oldAuthor, savedBook.getTitle(), savedBook.getAuthor());
+        if (!Objects.equals(oldAuthor, savedBook.getAuthor())) {
+            borrowingStatistics.forgetBook(id);
+        }
+        return BookSnapshot.of(savedBook);
     }
 
     /**
      * Deletes a book from the system.
+     * While the circulation journal is enabled, a book on loan cannot be deleted: its journaled borrow may not be in
+     * the database yet, and could then never be applied.
      *
      * @param id The ID of the book to delete
      * @throws BookNotFoundException if no book exists with the given ID
+     * @throws BookOnLoanException   if a patron holds the book
      */
     @CacheEvict(value = "books", key = "#id")
     public void deleteBook(Long id) {
-        Book book = getBookById(id);
+        OpenLoans journaledLoans = openLoans.getIfAvailable();
+        if (journaledLoans != null && journaledLoans.isOnLoan(id)) {
+            throw new BookOnLoanException("Book with id " + id + " is on loan and cannot be deleted.");
+        }
+        Book book = getBookEntityById(id);
         bookRepository.delete(book);
+        absentBookIds.recordDeleted(id);
+        bookSearchIndex.remove(id, book.getTitle(), book.getAuthor());
+    }
+
+    /**
+     * Retrieves one keyset-paginated page of a book's loans, live and archived, newest first.
+     * The book itself is only looked up when the page is empty, to tell an unknown book from one never borrowed.
+     *
+     * @param id     The ID of the book
+     * @param before The ID of the last loan of the previous page, if any
+     * @param limit  The requested page size
+     * @return A slice of the book's loans preceding the cursor
+     * @throws BookNotFoundException if no book exists with the given ID
+     */
+    public Slice<BorrowingRecordDTOResponse> getBookLoans(Long id, Long before, int limit) {
+        Slice<BorrowingRecordDTOResponse> loans = loanHistory.findBookLoans(id,
+                before == null ? Long.MAX_VALUE : before, pageSize(limit));
+        if (!loans.hasContent() && !bookRepository.existsById(id)) {
+            throw new BookNotFoundException("Book not found with id: " + id);
+        }
+        return loans;
+    }
+
+    /**
+     * Retrieves a book entity by its ID, unless the ID is known not to exist.
+     *
+     * @param id The ID of the book to retrieve
+     * @return The book entity with the specified ID
+     * @throws BookNotFoundException if no book exists with the given ID
+     */
+    private Book getBookEntityById(Long id) {
+        if (id != null && absentBookIds.isAbsent(id)) {
+            throw new BookNotFoundException("Book not found with id: " + id);
+        }
+        long stamp = absentBookIds.beginLookup();
+        return bookRepository.findById(id).orElseThrow(() -> {
+            absentBookIds.recordMissing(id, stamp);
+            return new BookNotFoundException("Book not found with id: " + id);
+        });
+    }
+
+    /**
+     * Clamps a requested page size between 1 and the configured maximum page size.
+     *
+     * @param size The requested page size
+     * @return The page size to use
+     */
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, maxPageLimit));
     }
 
     /**
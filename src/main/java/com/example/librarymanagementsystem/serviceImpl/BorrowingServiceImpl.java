@@ -1,63 +1,402 @@
 package com.example.librarymanagementsystem.serviceImpl;
 
-import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.dto.BorrowingResultDTOResponse;
+import com.example.librarymanagementsystem.dto.BorrowingResultDTOResponse.Status;
+import com.example.librarymanagementsystem.dto.OverdueLoanDTOResponse;
+import com.example.librarymanagementsystem.entity.ActiveLoan;
 import com.example.librarymanagementsystem.entity.BorrowingRecord;
-import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.entity.Hold;
 import com.example.librarymanagementsystem.exceptionHandler.BookAlreadyBorrowedException;
+import com.example.librarymanagementsystem.exceptionHandler.BookNotFoundException;
 import com.example.librarymanagementsystem.exceptionHandler.BorrowingRecordNotFoundException;
+import com.example.librarymanagementsystem.exceptionHandler.LoanLimitExceededException;
+import com.example.librarymanagementsystem.exceptionHandler.PatronNotFoundException;
+import com.example.librarymanagementsystem.hold.HoldQueues;
+import com.example.librarymanagementsystem.limits.LoanLimits;
+import com.example.librarymanagementsystem.overdue.OverdueLoanTracker;
+import com.example.librarymanagementsystem.repository.ActiveLoanRepository;
+import com.example.librarymanagementsystem.repository.BookRepository;
 import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
-import com.example.librarymanagementsystem.service.BookService;
+import com.example.librarymanagementsystem.repository.HoldRepository;
+import com.example.librarymanagementsystem.repository.PatronRepository;
 import com.example.librarymanagementsystem.service.BorrowingService;
 import com.example.librarymanagementsystem.service.PatronService;
+import com.example.librarymanagementsystem.snapshot.PatronSnapshot;
+import com.example.librarymanagementsystem.stats.BorrowEvent;
+import com.example.librarymanagementsystem.stats.BorrowingStatistics;
+import com.example.librarymanagementsystem.util.TransactionCallbacks;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Implementation of the {@link BorrowingService} interface.
+ * A borrow or a return is a conditional update of the book's borrowed flag, so the database decides which of several
+ * concurrent requests wins; open loans are kept in active_loans, and the in-memory state that follows them is only
+ * updated once the transaction commits.
+ */
 @Service
 public class BorrowingServiceImpl implements BorrowingService {
 
     private final BorrowingRecordRepository borrowingRecordRepository;
-    private final BookService bookService;
+    private final ActiveLoanRepository activeLoanRepository;
+    private final BookRepository bookRepository;
+    private final PatronRepository patronRepository;
     private final PatronService patronService;
+    private final CacheManager cacheManager;
+    private final OverdueLoanTracker overdueLoanTracker;
+    private final HoldRepository holdRepository;
+    private final HoldQueues holdQueues;
+    private final BorrowingStatistics borrowingStatistics;
+    private final LoanLimits loanLimits;
+
+    @Value("${library.loans.loan-period:P14D}")
+    private Duration loanPeriod = Duration.ofDays(14);
+
+    @Value("${library.pagination.max-limit:1000}")
+    private int maxPageLimit = 1000;
 
     @Autowired
-    public BorrowingServiceImpl(BorrowingRecordRepository borrowingRecordRepository, BookService bookService, PatronService patronService) {
+    public BorrowingServiceImpl(BorrowingRecordRepository borrowingRecordRepository,
+                                ActiveLoanRepository activeLoanRepository, BookRepository bookRepository,
+                                PatronRepository patronRepository, PatronService patronService, CacheManager cacheManager,
+                                OverdueLoanTracker overdueLoanTracker, HoldRepository holdRepository,
+                                HoldQueues holdQueues, BorrowingStatistics borrowingStatistics,
+                                LoanLimits loanLimits) {
         this.borrowingRecordRepository = borrowingRecordRepository;
-        this.bookService = bookService;
+        this.activeLoanRepository = activeLoanRepository;
+        this.bookRepository = bookRepository;
+        this.patronRepository = patronRepository;
         this.patronService = patronService;
+        this.cacheManager = cacheManager;
+        this.overdueLoanTracker = overdueLoanTracker;
+        this.holdRepository = holdRepository;
+        this.holdQueues = holdQueues;
+        this.borrowingStatistics = borrowingStatistics;
+        this.loanLimits = loanLimits;
     }
 
+    /**
+     * Borrows a book: flips its borrowed flag from false to true in one statement, then inserts the borrowing record
+     * and the active loan.
+     * The cached copy of the book is evicted once the transaction has committed.
+     *
+     * @param bookId   The ID of the book to borrow
+     * @param patronId The ID of the patron borrowing the book
+     * @throws BookNotFoundException        if the book does not exist
+     * @throws BookAlreadyBorrowedException if the book is already borrowed
+     * @throws LoanLimitExceededException   if the patron already has as many loans as their tier allows
+     */
     @Transactional
+    @CacheEvict(value = "books", key = "#bookId")
     public void borrowBook(@NotNull Long bookId, @NotNull Long patronId) {
-        Book book = bookService.getBookById(bookId);
+        PatronSnapshot patron = patronService.getPatronById(patronId);
+        LoanLimits.Reservation reservation = loanLimits.reserve(patronId, patron.tier(), 1);
+        if (reservation.count() == 0) {
+            throw new LoanLimitExceededException(loanLimitMessage(patron));
+        }
+        settleOnCompletion(reservation);
 
-        if (book.isBorrowed()) {
+        if (bookRepository.markBorrowed(bookId) == 0) {
+            if (!bookRepository.existsById(bookId)) {
+                throw new BookNotFoundException("Book not found with id: " + bookId);
+            }
             throw new BookAlreadyBorrowedException("Book with id " + bookId + " is already borrowed.");
         }
 
-        Patron patron = patronService.getPatronById(patronId);
-        BorrowingRecord borrowingRecord = new BorrowingRecord(book, patron);
-        book.setBorrowed(true);
-        bookService.updateBook(bookId, book);
-        borrowingRecordRepository.save(borrowingRecord);
+        BorrowingRecord borrowingRecord = borrowingRecordRepository.save(
+                new BorrowingRecord(bookRepository.getReferenceById(bookId),
+                        patronRepository.getReferenceById(patron.id()), loanPeriod));
+        activeLoanRepository.save(new ActiveLoan(bookId, patronId, borrowingRecord.getId()));
+        TransactionCallbacks.afterCommit(() -> {
+            overdueLoanTracker.register(bookId, patronId, borrowingRecord.getId(), borrowingRecord.getDueDateTime());
+            borrowingStatistics.recordBorrow(new BorrowEvent(bookId, borrowingRecord.getId(),
+                    borrowingRecord.getBorrowDateTime(), null));
+        });
     }
 
+    /**
+     * Returns a book: looks up its active loan by primary key, deletes it with a conditional delete, then closes the
+     * borrowing record by ID and clears the borrowed flag of the book.
+     * If patrons hold the book, it is then lent to the first of them in the same transaction.
+     * The cached copy of the book is evicted once the transaction has committed.
+     *
+     * @param bookId   The ID of the book to return
+     * @param patronId The ID of the patron returning the book
+     * @throws BorrowingRecordNotFoundException if the patron has no open borrowing record for the book
+     */
     @Transactional
+    @CacheEvict(value = "books", key = "#bookId")
     public void returnBook(Long bookId, Long patronId) {
-        Optional<BorrowingRecord> optionalBorrowingRecord = borrowingRecordRepository
-                .findByBookIdAndPatronIdAndReturnDateTimeIsNull(bookId, patronId);
-        BorrowingRecord borrowingRecord = optionalBorrowingRecord.orElseThrow(() ->
-                new BorrowingRecordNotFoundException("Borrowing record not found for bookId: "
-                        + bookId + " and patronId: " + patronId));
+        ActiveLoan loan = activeLoanRepository.findById(bookId)
+                .filter(activeLoan -> activeLoan.getPatronId().equals(patronId))
+                .orElse(null);
+        if (loan == null || activeLoanRepository.deleteOpenLoan(bookId, loan.getBorrowingRecordId()) == 0) {
+            throw new BorrowingRecordNotFoundException("Borrowing record not found for bookId: "
+                    + bookId + " and patronId: " + patronId);
+        }
+        borrowingRecordRepository.closeRecord(loan.getBorrowingRecordId(), LocalDateTime.now());
+        bookRepository.markReturned(bookId);
+        TransactionCallbacks.afterCommit(() -> {
+            overdueLoanTracker.cancel(bookId, loan.getBorrowingRecordId());
+            loanLimits.released(patronId, 1);
+        });
+        serveHolds(holdRepository.findQueuesForUpdate(List.of(bookId)));
+    }
+
+    /**
+     * Borrows several books for one patron: a single IN query finds the missing books, one JDBC batch flips the
+     * borrowed flags, and two more batches insert the records and active loans of the books whose flag was flipped.
+     * Only as many books as the patron's loan limit still allows are tried, in request order; the others are
+     * reported as over the limit.
+     *
+     * @param patronId The ID of the patron borrowing the books
+     * @param bookIds  The IDs of the books to borrow
+     * @return one result per book ID, in request order
+     */
+    @Transactional
+    public List<BorrowingResultDTOResponse> borrowBooks(@NotNull Long patronId, @NotNull List<Long> bookIds) {
+        PatronSnapshot patron = patronService.getPatronById(patronId);
+
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(bookIds));
+        Map<Long, BorrowingResultDTOResponse> outcomes = new HashMap<>();
+        Set<Long> existingIds = distinctIds.isEmpty()
+                ? Set.of() : new HashSet<>(bookRepository.findExistingIds(distinctIds));
+
+        LoanLimits.Reservation reservation = loanLimits.reserve(patronId, patron.tier(), existingIds.size());
+        settleOnCompletion(reservation);
+        List<Long> candidates = new ArrayList<>(existingIds.size());
+        for (Long bookId : distinctIds) {
+            if (!existingIds.contains(bookId)) {
+                outcomes.put(bookId, new BorrowingResultDTOResponse(bookId, Status.BOOK_NOT_FOUND,
+                        "Book not found with id: " + bookId));
+            } else if (candidates.size() < reservation.count()) {
+                candidates.add(bookId);
+            } else {
+                outcomes.put(bookId, new BorrowingResultDTOResponse(bookId, Status.LOAN_LIMIT_REACHED,
+                        loanLimitMessage(patron)));
+            }
+        }
+
+        int[] counts = bookRepository.markAllBorrowed(candidates);
+        List<Long> borrowed = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Long bookId = candidates.get(i);
+            if (counts[i] > 0) {
+                borrowed.add(bookId);
+                outcomes.put(bookId, new BorrowingResultDTOResponse(bookId, Status.BORROWED, null));
+            } else {
+                outcomes.put(bookId, new BorrowingResultDTOResponse(bookId, Status.ALREADY_BORROWED,
+                        "Book with id " + bookId + " is already borrowed."));
+            }
+        }
+        reservation.shrinkTo(borrowed.size());
+        LocalDateTime borrowDateTime = LocalDateTime.now();
+        LocalDateTime dueDateTime = borrowDateTime.plus(loanPeriod);
+        List<Long> borrowingRecordIds = borrowingRecordRepository.insertAll(patronId, borrowed, borrowDateTime,
+                dueDateTime);
+        activeLoanRepository.insertAll(patronId, borrowed, borrowingRecordIds);
+
+        evictBooksAfterCommit(borrowed);
+        TransactionCallbacks.afterCommit(() -> {
+            for (int i = 0; i < borrowed.size(); i++) {
+                overdueLoanTracker.register(borrowed.get(i), patronId, borrowingRecordIds.get(i), dueDateTime);
+                borrowingStatistics.recordBorrow(new BorrowEvent(borrowed.get(i), borrowingRecordIds.get(i),
+                        borrowDateTime, null));
+            }
+        });
+        return inRequestOrder(bookIds, outcomes);
+    }
+
+    /**
+     * Returns several books for one patron: one IN query over the active loans finds the patron's open loans, one
+     * JDBC batch deletes them conditionally, and two more batches close the records and clear the borrowed flags of
+     * the loans that were deleted. One more query reads the hold queues of the returned books, and each book that
+     * patrons are waiting for is lent to the first of them.
+     *
+     * @param patronId The ID of the patron returning the books
+     * @param bookIds  The IDs of the books to return
+     * @return one result per book ID, in request order
+     */
+    @Transactional
+    public List<BorrowingResultDTOResponse> returnBooks(@NotNull Long patronId, @NotNull List<Long> bookIds) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(bookIds));
+        Map<Long, BorrowingResultDTOResponse> outcomes = new HashMap<>();
+        List<ActiveLoan> loans = distinctIds.isEmpty()
+                ? List.of() : activeLoanRepository.findByPatronIdAndBookIdIn(patronId, distinctIds);
+
+        int[] counts = activeLoanRepository.removeAll(loans);
+        List<Long> returned = new ArrayList<>(loans.size());
+        List<Long> borrowingRecordIds = new ArrayList<>(loans.size());
+        for (int i = 0; i < loans.size(); i++) {
+            if (counts[i] > 0) {
+                ActiveLoan loan = loans.get(i);
+                returned.add(loan.getBookId());
+                borrowingRecordIds.add(loan.getBorrowingRecordId());
+                outcomes.put(loan.getBookId(), new BorrowingResultDTOResponse(loan.getBookId(), Status.RETURNED, null));
+            }
+        }
+        for (Long bookId : distinctIds) {
+            outcomes.computeIfAbsent(bookId, id -> new BorrowingResultDTOResponse(id, Status.NOT_BORROWED_BY_PATRON,
+                    "Borrowing record not found for bookId: " + id + " and patronId: " + patronId));
+        }
+        borrowingRecordRepository.closeAll(borrowingRecordIds, LocalDateTime.now());
+        bookRepository.markAllReturned(returned);
 
-        borrowingRecord.setReturnDateTime(LocalDateTime.now());
-        borrowingRecordRepository.save(borrowingRecord);
+        evictBooksAfterCommit(returned);
+        TransactionCallbacks.afterCommit(() -> {
+            for (int i = 0; i < returned.size(); i++) {
+                overdueLoanTracker.cancel(returned.get(i), borrowingRecordIds.get(i));
+            }
+            loanLimits.released(patronId, returned.size());
+        });
+        if (!returned.isEmpty()) {
+            serveHolds(holdRepository.findQueuesForUpdate(returned));
+        }
+        return inRequestOrder(bookIds, outcomes);
+    }
+
+    /**
+     * Lists the overdue loans from the in-memory tracker, without querying the database.
+     *
+     * @param after The borrowing record ID of the last loan of the previous page, if any
+     * @param limit The requested page size
+     * @return A slice of overdue loans following the cursor
+     */
+    public Slice<OverdueLoanDTOResponse> getOverdueLoans(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageLimit));
+        List<OverdueLoanDTOResponse> loans = overdueLoanTracker.getOverdueLoans(after == null ? 0L : after,
+                pageSize + 1);
+        boolean hasNext = loans.size() > pageSize;
+        return new SliceImpl<>(hasNext ? loans.subList(0, pageSize) : loans, PageRequest.of(0, pageSize), hasNext);
+    }
+
+    /**
+     * Lends each returned book to the first patron in its hold queue, skipping and dropping the holds of patrons
+     * that no longer exist. Patrons who have reached their loan limit are skipped but keep their place.
+     * The holds must be ordered by book and then in FIFO order.
+     */
+    private void serveHolds(List<Hold> holds) {
+        Long servedBookId = null;
+        for (Hold hold : holds) {
+            if (hold.getBookId().equals(servedBookId)) {
+                continue;
+            }
+            PatronSnapshot patron;
+            try {
+                patron = patronService.getPatronById(hold.getPatronId());
+            } catch (PatronNotFoundException e) {
+                dropHold(hold);
+                continue;
+            }
+            LoanLimits.Reservation reservation = loanLimits.reserve(patron.id(), patron.tier(), 1);
+            if (reservation.count() == 0) {
+                continue;
+            }
+            settleOnCompletion(reservation);
+            dropHold(hold);
+            handOff(hold.getBookId(), patron);
+            servedBookId = hold.getBookId();
+        }
+    }
+
+    private void dropHold(Hold hold) {
+        holdRepository.delete(hold);
+        TransactionCallbacks.afterCommit(() -> holdQueues.remove(hold.getBookId(), hold.getPatronId()));
+    }
+
+    /**
+     * Lends a book that was just returned, and whose row is locked, to the patron first in its hold queue.
+     * The active loan is inserted with JDBC because the persistence context may still hold the loan that was
+     * just closed, which has the same primary key.
+     */
+    private void handOff(Long bookId, PatronSnapshot patron) {
+        bookRepository.markBorrowed(bookId);
+        BorrowingRecord borrowingRecord = borrowingRecordRepository.save(
+                new BorrowingRecord(bookRepository.getReferenceById(bookId),
+                        patronRepository.getReferenceById(patron.id()), loanPeriod));
+        activeLoanRepository.insertAll(patron.id(), List.of(bookId), List.of(borrowingRecord.getId()));
+        TransactionCallbacks.afterCommit(() -> {
+            overdueLoanTracker.register(bookId, patron.id(), borrowingRecord.getId(),
+                    borrowingRecord.getDueDateTime());
+            borrowingStatistics.recordBorrow(new BorrowEvent(bookId, borrowingRecord.getId(),
+                    borrowingRecord.getBorrowDateTime(), null));
+        });
+    }
+
+    /**
+     * Lists the outcome of each requested ID in request order; repetitions of an ID are reported as duplicates.
+     */
+    private static List<BorrowingResultDTOResponse> inRequestOrder(List<Long> bookIds,
+                                                                   Map<Long, BorrowingResultDTOResponse> outcomes) {
+        List<BorrowingResultDTOResponse> results = new ArrayList<>(bookIds.size());
+        Set<Long> seen = new HashSet<>();
+        for (Long bookId : bookIds) {
+            if (seen.add(bookId)) {
+                results.add(outcomes.get(bookId));
+            } else {
+                results.add(new BorrowingResultDTOResponse(bookId, Status.DUPLICATE,
+                        "Book with id " + bookId + " appears more than once in the batch."));
+            }
+        }
+        return results;
+    }
+
+    private String loanLimitMessage(PatronSnapshot patron) {
+        return "Patron with id " + patron.id() + " has reached the limit of "
+                + loanLimits.limitOf(patron.tier()) + " open loans.";
+    }
 
-        Book book = borrowingRecord.getBook();
-        book.setBorrowed(false);
-        bookService.updateBook(bookId, book);
+    /**
+     * Keeps a reservation of loans if the surrounding transaction commits and gives it back otherwise, or keeps it
+     * right away outside of a transaction.
+     */
+    private static void settleOnCompletion(LoanLimits.Reservation reservation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reservation.confirm();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    reservation.confirm();
+                } else {
+                    reservation.cancel();
+                }
+            }
+        });
+    }
+
+    /**
+     * Evicts the cached copies of the given books once the surrounding transaction has committed,
+     * so a concurrent read cannot put the pre-commit state back into the cache.
+     */
+    private void evictBooksAfterCommit(List<Long> bookIds) {
+        Cache cache = cacheManager.getCache("books");
+        if (cache == null || bookIds.isEmpty()) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> bookIds.forEach(cache::evict));
     }
-}
\ No newline at end of file
+}
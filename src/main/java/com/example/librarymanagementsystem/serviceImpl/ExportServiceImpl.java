@@ -0,0 +1,107 @@
+package com.example.librarymanagementsystem.serviceImpl;
+
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.mapper.BookMapper;
+import com.example.librarymanagementsystem.mapper.PatronMapper;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordHistoryRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
+import com.example.librarymanagementsystem.repository.PatronRepository;
+import com.example.librarymanagementsystem.service.ExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the {@link ExportService} interface.
+ * Each export runs in a read-only transaction that keeps a database cursor open while rows are written out;
+ * entities are detached from the persistence context as soon as they are serialized.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BookRepository bookRepository;
+    private final PatronRepository patronRepository;
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final BorrowingRecordHistoryRepository borrowingRecordHistoryRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter objectWriter;
+
+    @Autowired
+    public ExportServiceImpl(BookRepository bookRepository, PatronRepository patronRepository,
+                             BorrowingRecordRepository borrowingRecordRepository,
+                             BorrowingRecordHistoryRepository borrowingRecordHistoryRepository,
+                             EntityManager entityManager, ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.patronRepository = patronRepository;
+        this.borrowingRecordRepository = borrowingRecordRepository;
+        this.borrowingRecordHistoryRepository = borrowingRecordHistoryRepository;
+        this.entityManager = entityManager;
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBooks(OutputStream out) throws IOException {
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            writeLines(books, book -> {
+                entityManager.detach(book);
+                return BookMapper.toBookDTOResponse(book);
+            }, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportPatrons(OutputStream out) throws IOException {
+        try (Stream<Patron> patrons = patronRepository.streamAll()) {
+            writeLines(patrons, patron -> {
+                entityManager.detach(patron);
+                return PatronMapper.toPatronDTOResponse(patron);
+            }, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBorrowingRecords(OutputStream out) throws IOException {
+        try (Stream<?> borrowingRecords = borrowingRecordRepository.streamAllAsDTO()) {
+            writeLines(borrowingRecords, Function.identity(), out);
+        }
+        try (Stream<?> archivedRecords = borrowingRecordHistoryRepository.streamAllAsDTO()) {
+            writeLines(archivedRecords, Function.identity(), out);
+        }
+    }
+
+    /**
+     * Serializes each row of the stream as one line of JSON.
+     *
+     * @param rows   The rows to write
+     * @param mapper Converts a row into the object to serialize
+     * @param out    The stream to write to
+     * @throws IOException If writing to the stream fails
+     */
+    private <T> void writeLines(Stream<T> rows, Function<T, ?> mapper, OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            buffered.write(objectWriter.writeValueAsBytes(mapper.apply(iterator.next())));
+            buffered.write('\n');
+        }
+        buffered.flush();
+    }
+}
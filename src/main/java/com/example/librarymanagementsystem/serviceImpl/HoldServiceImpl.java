@@ -0,0 +1,124 @@
+package com.example.librarymanagementsystem.serviceImpl;
+
+import com.example.librarymanagementsystem.dto.HoldDTOResponse;
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.entity.Hold;
+import com.example.librarymanagementsystem.exceptionHandler.BookNotFoundException;
+import com.example.librarymanagementsystem.exceptionHandler.HoldNotFoundException;
+import com.example.librarymanagementsystem.exceptionHandler.HoldRejectedException;
+import com.example.librarymanagementsystem.hold.HoldQueues;
+import com.example.librarymanagementsystem.repository.ActiveLoanRepository;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.repository.HoldRepository;
+import com.example.librarymanagementsystem.service.HoldService;
+import com.example.librarymanagementsystem.service.PatronService;
+import com.example.librarymanagementsystem.util.TransactionCallbacks;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of the {@link HoldService} interface.
+ * Holds are written to the holds table, which decides who a returned book goes to, and mirrored in the
+ * {@link HoldQueues} once their transaction commits, so positions and queues are read from memory. Holds commit in
+ * the order of their IDs, but their callbacks may run in any order, so the mirror places each hold by its ID.
+ * Placing a hold locks the row of the book, so it cannot interleave with a return reading the book's queue.
+ */
+@Service
+public class HoldServiceImpl implements HoldService {
+
+    private final HoldRepository holdRepository;
+    private final BookRepository bookRepository;
+    private final ActiveLoanRepository activeLoanRepository;
+    private final PatronService patronService;
+    private final HoldQueues holdQueues;
+
+    @Autowired
+    public HoldServiceImpl(HoldRepository holdRepository, BookRepository bookRepository,
+                           ActiveLoanRepository activeLoanRepository, PatronService patronService,
+                           HoldQueues holdQueues) {
+        this.holdRepository = holdRepository;
+        this.bookRepository = bookRepository;
+        this.activeLoanRepository = activeLoanRepository;
+        this.patronService = patronService;
+        this.holdQueues = holdQueues;
+    }
+
+    /**
+     * Places a hold: locks the book, checks that it is borrowed by someone else and not already held by the patron,
+     * then inserts the hold and counts the holds placed before it.
+     *
+     * @param bookId   The ID of the book to hold
+     * @param patronId The ID of the patron placing the hold
+     * @return the hold and its position in the queue
+     */
+    @Transactional
+    public HoldDTOResponse placeHold(@NotNull Long bookId, @NotNull Long patronId) {
+        patronService.getPatronById(patronId);
+        Book book = bookRepository.findByIdForUpdate(bookId)
+                .orElseThrow(() -> new BookNotFoundException("Book not found with id: " + bookId));
+        if (!book.isBorrowed()) {
+            throw new HoldRejectedException("Book with id " + bookId + " is available; borrow it instead.");
+        }
+        if (activeLoanRepository.findById(bookId).filter(loan -> loan.getPatronId().equals(patronId)).isPresent()) {
+            throw new HoldRejectedException("Patron with id " + patronId + " has already borrowed book with id "
+                    + bookId + ".");
+        }
+        if (holdRepository.existsByBookIdAndPatronId(bookId, patronId)) {
+            throw new HoldRejectedException("Patron with id " + patronId + " already holds book with id "
+                    + bookId + ".");
+        }
+        Hold hold = holdRepository.save(new Hold(bookId, patronId));
+        int position = (int) holdRepository.countByBookIdAndIdLessThan(bookId, hold.getId()) + 1;
+        TransactionCallbacks.afterCommit(() -> holdQueues.add(bookId, hold.getId(), patronId));
+        return new HoldDTOResponse(bookId, patronId, position);
+    }
+
+    /**
+     * Cancels a hold with a single delete.
+     *
+     * @param bookId   The ID of the held book
+     * @param patronId The ID of the patron
+     */
+    @Transactional
+    public void cancelHold(Long bookId, Long patronId) {
+        if (holdRepository.deleteHold(bookId, patronId) == 0) {
+            throw new HoldNotFoundException("Hold not found for bookId: " + bookId + " and patronId: " + patronId);
+        }
+        TransactionCallbacks.afterCommit(() -> holdQueues.remove(bookId, patronId));
+    }
+
+    /**
+     * Retrieves a patron's position from the in-memory queues, without querying the database.
+     *
+     * @param bookId   The ID of the held book
+     * @param patronId The ID of the patron
+     * @return the hold and its position in the queue
+     */
+    public HoldDTOResponse getHold(Long bookId, Long patronId) {
+        int position = holdQueues.position(bookId, patronId);
+        if (position == 0) {
+            throw new HoldNotFoundException("Hold not found for bookId: " + bookId + " and patronId: " + patronId);
+        }
+        return new HoldDTOResponse(bookId, patronId, position);
+    }
+
+    /**
+     * Retrieves the hold queue of a book from the in-memory queues, without querying the database.
+     *
+     * @param bookId The ID of the held book
+     * @return the holds on the book, first in line first
+     */
+    public List<HoldDTOResponse> getHoldQueue(Long bookId) {
+        long[] patronIds = holdQueues.patrons(bookId);
+        List<HoldDTOResponse> holds = new ArrayList<>(patronIds.length);
+        for (int i = 0; i < patronIds.length; i++) {
+            holds.add(new HoldDTOResponse(bookId, patronIds[i], i + 1));
+        }
+        return holds;
+    }
+}
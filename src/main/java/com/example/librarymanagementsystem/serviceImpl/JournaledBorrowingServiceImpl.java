@@ -0,0 +1,299 @@
+package com.example.librarymanagementsystem.serviceImpl;
+
+import com.example.librarymanagementsystem.dto.BorrowingResultDTOResponse;
+import com.example.librarymanagementsystem.dto.BorrowingResultDTOResponse.Status;
+import com.example.librarymanagementsystem.dto.OverdueLoanDTOResponse;
+import com.example.librarymanagementsystem.exceptionHandler.BookAlreadyBorrowedException;
+import com.example.librarymanagementsystem.exceptionHandler.BookNotFoundException;
+import com.example.librarymanagementsystem.exceptionHandler.BorrowingRecordNotFoundException;
+import com.example.librarymanagementsystem.exceptionHandler.LoanLimitExceededException;
+import com.example.librarymanagementsystem.exceptionHandler.PatronNotFoundException;
+import com.example.librarymanagementsystem.hold.HoldQueues;
+import com.example.librarymanagementsystem.journal.CirculationEvent.Type;
+import com.example.librarymanagementsystem.journal.CirculationJournal;
+import com.example.librarymanagementsystem.journal.OpenLoans;
+import com.example.librarymanagementsystem.limits.LoanLimits;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.service.BorrowingService;
+import com.example.librarymanagementsystem.service.PatronService;
+import com.example.librarymanagementsystem.snapshot.PatronSnapshot;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementation of the {@link BorrowingService} interface used when the circulation journal is enabled.
+ * A borrow or return is admitted against the {@link OpenLoans} map, appended to the {@link CirculationJournal} and
+ * acknowledged as soon as the journal is on disk; the database is updated later, in batches, by the journal applier.
+ * Concurrent requests share the journal's fsync, so no request waits for a database commit.
+ * Admitting a change and appending it happen under a lock striped by book, so the events of a book reach the journal
+ * in the order they were admitted.
+ * A returned book that patrons are waiting for is passed to the first of them in the same journal group, as the
+ * return itself followed by a borrow from the hold.
+ * Loans are reserved against the patron's loan limit in {@link LoanLimits} before they are admitted, and the
+ * reservation is given back if they are not.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "library.journal.enabled", havingValue = "true")
+public class JournaledBorrowingServiceImpl implements BorrowingService {
+
+    private final CirculationJournal journal;
+    private final OpenLoans openLoans;
+    private final BookRepository bookRepository;
+    private final PatronService patronService;
+    private final HoldQueues holdQueues;
+    private final BorrowingServiceImpl borrowingService;
+    private final LoanLimits loanLimits;
+    private final Clock clock;
+    private final ReentrantLock[] bookLocks = new ReentrantLock[64];
+
+    @Value("${library.loans.loan-period:P14D}")
+    private Duration loanPeriod = Duration.ofDays(14);
+
+    @Autowired
+    public JournaledBorrowingServiceImpl(CirculationJournal journal, OpenLoans openLoans,
+                                         BookRepository bookRepository, PatronService patronService,
+                                         HoldQueues holdQueues, BorrowingServiceImpl borrowingService,
+                                         LoanLimits loanLimits) {
+        this.journal = journal;
+        this.openLoans = openLoans;
+        this.bookRepository = bookRepository;
+        this.patronService = patronService;
+        this.holdQueues = holdQueues;
+        this.borrowingService = borrowingService;
+        this.loanLimits = loanLimits;
+        this.clock = Clock.systemDefaultZone();
+        for (int i = 0; i < bookLocks.length; i++) {
+            bookLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Borrows a book: takes it in the open loans map, then journals the borrow and waits for the journal to be
+     * forced.
+     *
+     * @param bookId   The ID of the book to borrow
+     * @param patronId The ID of the patron borrowing the book
+     */
+    public void borrowBook(@NotNull Long bookId, @NotNull Long patronId) {
+        PatronSnapshot patron = patronService.getPatronById(patronId);
+        if (!bookRepository.existsById(bookId)) {
+            throw new BookNotFoundException("Book not found with id: " + bookId);
+        }
+        journal.awaitDurable(admitBorrow(bookId, patron));
+    }
+
+    /**
+     * Returns a book: frees it in the open loans map, or passes it to the first patron waiting for it, then journals
+     * the return and waits for the journal to be forced.
+     *
+     * @param bookId   The ID of the book to return
+     * @param patronId The ID of the patron returning the book
+     */
+    public void returnBook(Long bookId, Long patronId) {
+        long sequence = admitReturn(bookId, patronId);
+        if (sequence == 0) {
+            throw new BorrowingRecordNotFoundException("Borrowing record not found for bookId: "
+                    + bookId + " and patronId: " + patronId);
+        }
+        journal.awaitDurable(sequence);
+    }
+
+    /**
+     * Borrows several books for one patron: a single IN query finds the missing books, the others are admitted and
+     * journaled one by one, and the request waits once for the last of them to be forced.
+     *
+     * @param patronId The ID of the patron borrowing the books
+     * @param bookIds  The IDs of the books to borrow
+     * @return one result per book ID, in request order
+     */
+    public List<BorrowingResultDTOResponse> borrowBooks(@NotNull Long patronId, @NotNull List<Long> bookIds) {
+        PatronSnapshot patron = patronService.getPatronById(patronId);
+
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(bookIds));
+        Set<Long> existingIds = distinctIds.isEmpty()
+                ? Set.of() : new HashSet<>(bookRepository.findExistingIds(distinctIds));
+        Map<Long, BorrowingResultDTOResponse> outcomes = new HashMap<>();
+        long lastSequence = 0;
+        for (Long bookId : distinctIds) {
+            if (!existingIds.contains(bookId)) {
+                outcomes.put(bookId, new BorrowingResultDTOResponse(bookId, Status.BOOK_NOT_FOUND,
+                        "Book not found with id: " + bookId));
+                continue;
+            }
+            try {
+                lastSequence = admitBorrow(bookId, patron);
+                outcomes.put(bookId, new BorrowingResultDTOResponse(bookId, Status.BORROWED, null));
+            } catch (BookAlreadyBorrowedException e) {
+                outcomes.put(bookId, new BorrowingResultDTOResponse(bookId, Status.ALREADY_BORROWED, e.getMessage()));
+            } catch (LoanLimitExceededException e) {
+                outcomes.put(bookId, new BorrowingResultDTOResponse(bookId, Status.LOAN_LIMIT_REACHED,
+                        e.getMessage()));
+            }
+        }
+        journal.awaitDurable(lastSequence);
+        return inRequestOrder(bookIds, outcomes);
+    }
+
+    /**
+     * Returns several books for one patron: each book is admitted and journaled in turn, and the request waits once
+     * for the last of them to be forced.
+     *
+     * @param patronId The ID of the patron returning the books
+     * @param bookIds  The IDs of the books to return
+     * @return one result per book ID, in request order
+     */
+    public List<BorrowingResultDTOResponse> returnBooks(@NotNull Long patronId, @NotNull List<Long> bookIds) {
+        Map<Long, BorrowingResultDTOResponse> outcomes = new HashMap<>();
+        long lastSequence = 0;
+        for (Long bookId : new LinkedHashSet<>(bookIds)) {
+            long sequence = admitReturn(bookId, patronId);
+            if (sequence == 0) {
+                outcomes.put(bookId, new BorrowingResultDTOResponse(bookId, Status.NOT_BORROWED_BY_PATRON,
+                        "Borrowing record not found for bookId: " + bookId + " and patronId: " + patronId));
+            } else {
+                lastSequence = sequence;
+                outcomes.put(bookId, new BorrowingResultDTOResponse(bookId, Status.RETURNED, null));
+            }
+        }
+        journal.awaitDurable(lastSequence);
+        return inRequestOrder(bookIds, outcomes);
+    }
+
+    /**
+     * Lists the overdue loans from the in-memory tracker, which journaled loans join once they are applied.
+     */
+    public Slice<OverdueLoanDTOResponse> getOverdueLoans(Long after, int limit) {
+        return borrowingService.getOverdueLoans(after, limit);
+    }
+
+    /**
+     * Takes a book for a patron and journals the borrow, without waiting for it to be durable.
+     *
+     * @return the sequence number of the journaled borrow
+     * @throws LoanLimitExceededException   if the patron already has as many loans as their tier allows
+     * @throws BookAlreadyBorrowedException if someone else holds the book
+     */
+    private long admitBorrow(Long bookId, PatronSnapshot patron) {
+        Long patronId = patron.id();
+        LoanLimits.Reservation reservation = loanLimits.reserve(patronId, patron.tier(), 1);
+        if (reservation.count() == 0) {
+            throw new LoanLimitExceededException("Patron with id " + patronId + " has reached the limit of "
+                    + loanLimits.limitOf(patron.tier()) + " open loans.");
+        }
+        ReentrantLock lock = lockFor(bookId);
+        lock.lock();
+        try {
+            if (!openLoans.borrow(bookId, patronId)) {
+                throw new BookAlreadyBorrowedException("Book with id " + bookId + " is already borrowed.");
+            }
+            try {
+                long now = clock.millis();
+                long sequence = journal.append(Type.BORROW, false, bookId, patronId, now,
+                        now + loanPeriod.toMillis());
+                reservation.confirm();
+                return sequence;
+            } catch (RuntimeException e) {
+                openLoans.release(bookId, patronId);
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+            reservation.cancel();
+        }
+    }
+
+    /**
+     * Releases a book held by a patron, or passes it to the first patron waiting for it, and journals the change,
+     * without waiting for it to be durable.
+     *
+     * @return the sequence number of the last journaled event, or 0 if the patron does not hold the book
+     */
+    private long admitReturn(Long bookId, Long patronId) {
+        LoanLimits.Reservation next = firstWaitingPatron(bookId);
+        Long nextPatronId = next == null ? null : next.patronId();
+        ReentrantLock lock = lockFor(bookId);
+        lock.lock();
+        try {
+            boolean admitted = nextPatronId == null
+                    ? openLoans.release(bookId, patronId)
+                    : openLoans.transfer(bookId, patronId, nextPatronId);
+            if (!admitted) {
+                return 0;
+            }
+            long now = clock.millis();
+            long sequence = journal.append(Type.RETURN, false, bookId, patronId, now, 0);
+            loanLimits.released(patronId, 1);
+            if (nextPatronId != null) {
+                holdQueues.remove(bookId, nextPatronId);
+                sequence = journal.append(Type.BORROW, true, bookId, nextPatronId, now,
+                        now + loanPeriod.toMillis());
+                next.confirm();
+            }
+            return sequence;
+        } finally {
+            lock.unlock();
+            if (next != null) {
+                next.cancel();
+            }
+        }
+    }
+
+    /**
+     * Reserves a loan for the first patron in the hold queue of a book who still exists and has not reached their
+     * loan limit, dropping the patrons that no longer exist from the queue.
+     *
+     * @return the reservation, or null if nobody is waiting for the book
+     */
+    private LoanLimits.Reservation firstWaitingPatron(Long bookId) {
+        for (long patronId : holdQueues.patrons(bookId)) {
+            PatronSnapshot patron;
+            try {
+                patron = patronService.getPatronById(patronId);
+            } catch (PatronNotFoundException e) {
+                holdQueues.remove(bookId, patronId);
+                continue;
+            }
+            LoanLimits.Reservation reservation = loanLimits.reserve(patronId, patron.tier(), 1);
+            if (reservation.count() > 0) {
+                return reservation;
+            }
+        }
+        return null;
+    }
+
+    private ReentrantLock lockFor(Long bookId) {
+        return bookLocks[(Long.hashCode(bookId) * 0x9E3779B9 >>> 26) & (bookLocks.length - 1)];
+    }
+
+    private static List<BorrowingResultDTOResponse> inRequestOrder(List<Long> bookIds,
+                                                                   Map<Long, BorrowingResultDTOResponse> outcomes) {
+        List<BorrowingResultDTOResponse> results = new ArrayList<>(bookIds.size());
+        Set<Long> seen = new HashSet<>();
+        for (Long bookId : bookIds) {
+            if (seen.add(bookId)) {
+                results.add(outcomes.get(bookId));
+            } else {
+                results.add(new BorrowingResultDTOResponse(bookId, Status.DUPLICATE,
+                        "Book with id " + bookId + " appears more than once in the batch."));
+            }
+        }
+        return results;
+    }
+}
@@ -1,26 +1,82 @@
 package com.example.librarymanagementsystem.serviceImpl;
 
+import com.example.librarymanagementsystem.archive.LoanHistory;
+import com.example.librarymanagementsystem.cache.AbsentIdFilter;
+import com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse;
+import com.example.librarymanagementsystem.dto.LoanStatus;
 import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.entity.PatronTier;
+import com.example.librarymanagementsystem.exceptionHandler.PatronHasLoansException;
 import com.example.librarymanagementsystem.exceptionHandler.PatronNotFoundException;
+import com.example.librarymanagementsystem.journal.OpenLoans;
+import com.example.librarymanagementsystem.repository.ActiveLoanRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
 import com.example.librarymanagementsystem.repository.PatronRepository;
 import com.example.librarymanagementsystem.service.PatronService;
+import com.example.librarymanagementsystem.snapshot.PatronSnapshot;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Implementation of the {@link PatronService} interface.
+ * Patrons are handed out as immutable {@link PatronSnapshot}s, which are what the "patrons" cache holds, so no caller
+ * can change a cached patron in place. The cache is written through: an update commits and then puts the new
+ * snapshot, and a delete commits and then evicts it, both while holding a per-patron lock so that two writes to the
+ * same patron reach the cache in the order they committed. A cache miss is loaded by a single thread, and a put
+ * waits for a load of the same patron in progress, so a read racing a write can never cache the details the write
+ * replaced. Lookups of IDs that do not exist are answered by an {@link AbsentIdFilter} where possible.
  */
 @Service
 public class PatronServiceImpl implements PatronService {
 
+    private static final String CACHE_NAME = "patrons";
+    private static final int STRIPES = 64;
+
     private final PatronRepository patronRepository;
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final ActiveLoanRepository activeLoanRepository;
+    private final LoanHistory loanHistory;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final AbsentIdFilter absentPatronIds;
+    private final ObjectProvider<OpenLoans> openLoans;
+    private final ReentrantLock[] writeLocks = new ReentrantLock[STRIPES];
+
+    @Value("${library.pagination.max-limit:1000}")
+    private int maxPageLimit = 1000;
 
     @Autowired
-    public PatronServiceImpl(PatronRepository patronRepository) {
+    public PatronServiceImpl(PatronRepository patronRepository, BorrowingRecordRepository borrowingRecordRepository,
+                             ActiveLoanRepository activeLoanRepository, LoanHistory loanHistory,
+                             CacheManager cacheManager, PlatformTransactionManager transactionManager,
+                             @Qualifier("absentPatronIds") AbsentIdFilter absentPatronIds,
+                             ObjectProvider<OpenLoans> openLoans) {
         this.patronRepository = patronRepository;
+        this.borrowingRecordRepository = borrowingRecordRepository;
+        this.activeLoanRepository = activeLoanRepository;
+        this.loanHistory = loanHistory;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.absentPatronIds = absentPatronIds;
+        this.openLoans = openLoans;
+        for (int i = 0; i < STRIPES; i++) {
+            writeLocks[i] = new ReentrantLock();
+        }
     }
 
     /**
@@ -29,8 +85,8 @@ public class PatronServiceImpl implements PatronService {
      * @return List of patrons.
      */
     @Override
-    public List<Patron> getAllPatrons() {
-        return patronRepository.findAll();
+    public List<PatronSnapshot> getAllPatrons() {
+        return patronRepository.findAll().stream().map(PatronSnapshot::of).toList();
     }
 
     /**
@@ -41,24 +97,31 @@ public class PatronServiceImpl implements PatronService {
      * @throws PatronNotFoundException If no patron is found with the given ID.
      */
     @Override
-    @Cacheable(value = "patrons", key = "#id")
-    public Patron getPatronById(Long id) {
-        return getPatronEntityById(id);
+    @Cacheable(value = CACHE_NAME, key = "#id", sync = true)
+    public PatronSnapshot getPatronById(Long id) {
+        return PatronSnapshot.of(getPatronEntityById(id));
     }
 
     /**
-     * Add a new patron.
+     * Add a new patron. Its snapshot is cached right away, since a new patron is usually looked up next.
      *
      * @param patron The patron to add.
      * @return The added patron.
      */
     @Override
-    public Patron addPatron(Patron patron) {
-        return patronRepository.save(patron);
+    @CachePut(value = CACHE_NAME, key = "#result.id")
+    public PatronSnapshot addPatron(Patron patron) {
+        if (patron.getTier() == null) {
+            patron.setTier(PatronTier.STANDARD);
+        }
+        PatronSnapshot snapshot = PatronSnapshot.of(patronRepository.save(patron));
+        absentPatronIds.recordAdded(snapshot.id());
+        return snapshot;
     }
 
     /**
-     * Update details of an existing patron.
+     * Update details of an existing patron, then replace its cached snapshot once the update has committed.
+     * The patron is read again from the database rather than from the cache.
      *
      * @param id            The ID of the patron to update.
      * @param patronDetails Details of the patron to update.
@@ -66,26 +129,85 @@ public class PatronServiceImpl implements PatronService {
      * @throws PatronNotFoundException If no patron is found with the given ID.
      */
     @Override
-    public Patron updatePatron(Long id, Patron patronDetails) {
-        Patron patron = getPatronById(id);
-        updatePatronDetails(patron, patronDetails);
-        return patronRepository.save(patron);
+    public PatronSnapshot updatePatron(Long id, Patron patronDetails) {
+        ReentrantLock lock = writeLockFor(id);
+        lock.lock();
+        try {
+            PatronSnapshot snapshot = transactionTemplate.execute(status -> {
+                Patron patron = getPatronEntityById(id);
+                updatePatronDetails(patron, patronDetails);
+                // Flushed here so that the snapshot carries the version the update commits.
+                return PatronSnapshot.of(patronRepository.saveAndFlush(patron));
+            });
+            patronCache().put(id, snapshot);
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Delete a patron by ID.
+     * Delete a patron by ID, then evict its cached snapshot once the delete has committed.
+     * A patron holding books cannot be deleted, as the delete would take their borrowing records with it and leave the
+     * books lent to nobody; with the circulation journal, borrows not yet applied are checked too.
      *
      * @param id The ID of the patron to delete.
      * @throws PatronNotFoundException If no patron is found with the given ID.
+     * @throws PatronHasLoansException If the patron holds borrowed books.
      */
     @Override
     public void deletePatron(Long id) {
-        Patron patron = getPatronEntityById(id);
-        patronRepository.delete(patron);
+        OpenLoans journaledLoans = openLoans.getIfAvailable();
+        if (journaledLoans != null && journaledLoans.hasLoans(id)) {
+            throw new PatronHasLoansException("Patron with id " + id + " has books on loan and cannot be deleted.");
+        }
+        ReentrantLock lock = writeLockFor(id);
+        lock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Patron patron = getPatronEntityById(id);
+                if (activeLoanRepository.existsByPatronId(id)) {
+                    throw new PatronHasLoansException("Patron with id " + id
+                            + " has books on loan and cannot be deleted.");
+                }
+                patronRepository.delete(patron);
+            });
+            patronCache().evict(id);
+            absentPatronIds.recordDeleted(id);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Update details of a patron.
+     * Retrieve one keyset-paginated page of a patron's loans, newest first, with a single projection query.
+     * Returned loans are also read from the archive, in parallel with the live table.
+     * The patron itself is only looked up when the page is empty, to tell an unknown patron from one without loans.
+     *
+     * @param id     The ID of the patron.
+     * @param status Which loans to list: all, open or returned.
+     * @param before The ID of the last loan of the previous page, if any.
+     * @param limit  The requested page size.
+     * @return A slice of the patron's loans preceding the cursor.
+     * @throws PatronNotFoundException If no patron is found with the given ID.
+     */
+    @Override
+    public Slice<BorrowingRecordDTOResponse> getPatronLoans(Long id, LoanStatus status, Long before, int limit) {
+        long beforeId = before == null ? Long.MAX_VALUE : before;
+        Pageable pageable = PageRequest.of(0, Math.max(1, Math.min(limit, maxPageLimit)));
+        Slice<BorrowingRecordDTOResponse> loans = switch (status) {
+            case ALL -> loanHistory.findPatronLoans(id, false, beforeId, pageable.getPageSize());
+            case OPEN -> borrowingRecordRepository.findOpenPatronLoans(id, beforeId, pageable);
+            case RETURNED -> loanHistory.findPatronLoans(id, true, beforeId, pageable.getPageSize());
+        };
+        if (!loans.hasContent() && !patronRepository.existsById(id)) {
+            throw new PatronNotFoundException("Patron not found with id: " + id);
+        }
+        return loans;
+    }
+
+    /**
+     * Update details of a patron. The tier is kept when the details give none.
      *
      * @param patron         The patron to update.
      * @param patronDetails  Details of the patron to update.
@@ -93,7 +215,10 @@ public class PatronServiceImpl implements PatronService {
     private void updatePatronDetails(Patron patron, Patron patronDetails) {
         patron.setName(patronDetails.getName());
         patron.setPhoneNumber(patronDetails.getPhoneNumber());
-        patron.setEmailAddress(patron.getEmailAddress());
+        patron.setEmailAddress(patronDetails.getEmailAddress());
+        if (patronDetails.getTier() != null) {
+            patron.setTier(patronDetails.getTier());
+        }
     }
 
     /**
@@ -104,7 +229,21 @@ public class PatronServiceImpl implements PatronService {
      * @throws PatronNotFoundException If no patron is found with the given ID.
      */
     private Patron getPatronEntityById(Long id) {
-        return patronRepository.findById(id)
-                .orElseThrow(() -> new PatronNotFoundException("Patron not found with id: " + id));
+        if (id != null && absentPatronIds.isAbsent(id)) {
+            throw new PatronNotFoundException("Patron not found with id: " + id);
+        }
+        long stamp = absentPatronIds.beginLookup();
+        return patronRepository.findById(id).orElseThrow(() -> {
+            absentPatronIds.recordMissing(id, stamp);
+            return new PatronNotFoundException("Patron not found with id: " + id);
+        });
+    }
+
+    private Cache patronCache() {
+        return cacheManager.getCache(CACHE_NAME);
+    }
+
+    private ReentrantLock writeLockFor(Long id) {
+        return writeLocks[(Long.hashCode(id) * 0x9E3779B9 >>> 26) & (STRIPES - 1)];
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package com.example.librarymanagementsystem.serviceImpl;
+
+import com.example.librarymanagementsystem.dto.StatsAccuracyDTOResponse;
+import com.example.librarymanagementsystem.dto.StatsWindow;
+import com.example.librarymanagementsystem.dto.TopAuthorDTOResponse;
+import com.example.librarymanagementsystem.dto.TopBookDTOResponse;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.search.BookSearchView;
+import com.example.librarymanagementsystem.service.StatisticsService;
+import com.example.librarymanagementsystem.stats.BorrowingStatistics;
+import com.example.librarymanagementsystem.stats.BorrowingStatisticsVerifier;
+import com.example.librarymanagementsystem.stats.HeavyHitter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the {@link StatisticsService} interface.
+ * Rankings are read from the {@link BorrowingStatistics}; the titles and authors of the top books are then read in
+ * one query.
+ */
+@Service
+public class StatisticsServiceImpl implements StatisticsService {
+
+    private final BorrowingStatistics borrowingStatistics;
+    private final BorrowingStatisticsVerifier borrowingStatisticsVerifier;
+    private final BookRepository bookRepository;
+
+    @Autowired
+    public StatisticsServiceImpl(BorrowingStatistics borrowingStatistics,
+                                 BorrowingStatisticsVerifier borrowingStatisticsVerifier,
+                                 BookRepository bookRepository) {
+        this.borrowingStatistics = borrowingStatistics;
+        this.borrowingStatisticsVerifier = borrowingStatisticsVerifier;
+        this.bookRepository = bookRepository;
+    }
+
+    /**
+     * Retrieve the most borrowed books of a window, most borrowed first. Books deleted since they were borrowed are
+     * listed without a title or author.
+     *
+     * @param window The window to rank.
+     * @param limit  The requested number of books.
+     * @return The most borrowed books with their estimated borrow counts.
+     */
+    @Override
+    public List<TopBookDTOResponse> getTopBooks(StatsWindow window, int limit) {
+        List<HeavyHitter<Long>> top = borrowingStatistics.topBooks(window, Math.max(1, limit));
+        Map<Long, BookSearchView> books = top.isEmpty() ? Map.of()
+                : bookRepository.findViewsByIds(top.stream().map(HeavyHitter::key).toList()).stream()
+                .collect(Collectors.toMap(BookSearchView::getId, Function.identity()));
+        return top.stream().map(hitter -> {
+            BookSearchView book = books.get(hitter.key());
+            return new TopBookDTOResponse(hitter.key(), book == null ? null : book.getTitle(),
+                    book == null ? null : book.getAuthor(), hitter.estimatedCount(), hitter.maxError());
+        }).toList();
+    }
+
+    /**
+     * Retrieve the most borrowed authors of a window, most borrowed first.
+     *
+     * @param window The window to rank.
+     * @param limit  The requested number of authors.
+     * @return The most borrowed authors with their estimated borrow counts.
+     */
+    @Override
+    public List<TopAuthorDTOResponse> getTopAuthors(StatsWindow window, int limit) {
+        return borrowingStatistics.topAuthors(window, Math.max(1, limit)).stream()
+                .map(hitter -> new TopAuthorDTOResponse(hitter.key(), hitter.estimatedCount(), hitter.maxError()))
+                .toList();
+    }
+
+    /**
+     * Retrieve the estimated number of borrows of the books of one author over a window.
+     *
+     * @param author The name of the author.
+     * @param window The window to count over.
+     * @return The author with their estimated borrow count.
+     */
+    @Override
+    public TopAuthorDTOResponse getAuthorBorrows(String author, StatsWindow window) {
+        HeavyHitter<String> estimate = borrowingStatistics.estimateAuthor(author, window);
+        return new TopAuthorDTOResponse(author, estimate.estimatedCount(), estimate.maxError());
+    }
+
+    /**
+     * Retrieve the results of the last comparison of the estimates with the exact counts.
+     *
+     * @return One report per window and subject.
+     */
+    @Override
+    public List<StatsAccuracyDTOResponse> getAccuracy() {
+        return borrowingStatisticsVerifier.getLastReports();
+    }
+
+    /**
+     * Compare the estimates with the exact counts recomputed from the database now.
+     *
+     * @return One report per window and subject.
+     */
+    @Override
+    public List<StatsAccuracyDTOResponse> verifyAccuracy() {
+        return borrowingStatisticsVerifier.verify();
+    }
+}
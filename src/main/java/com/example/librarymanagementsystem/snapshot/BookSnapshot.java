@@ -0,0 +1,44 @@
+package com.example.librarymanagementsystem.snapshot;
+
+import com.example.librarymanagementsystem.entity.Book;
+
+/**
+ * Immutable copy of a book's details, as kept in the "books" cache and handed out by the book service.
+ * Its author string is shared with every other snapshot of a book by the same author.
+ */
+public record BookSnapshot(long id, String title, String author, int publicationYear, String isbn,
+                           boolean borrowed, long version) implements Snapshot {
+
+    private static final StringPool AUTHORS = new StringPool();
+
+    /**
+     * Creates a snapshot of a book that has not been updated since it was added.
+     */
+    public BookSnapshot(long id, String title, String author, int publicationYear, String isbn, boolean borrowed) {
+        this(id, title, author, publicationYear, isbn, borrowed, 0);
+    }
+
+    /**
+     * Copies the current details of a book entity.
+     */
+    public static BookSnapshot of(Book book) {
+        return new BookSnapshot(book.getId(), book.getTitle(), AUTHORS.intern(book.getAuthor()),
+                book.getPublicationYear(), book.getIsbn(), book.isBorrowed(), Snapshot.versionOf(book.getVersion()));
+    }
+
+    /**
+     * Creates a snapshot from its details, sharing its author string like {@link #of(Book)} does.
+     */
+    public static BookSnapshot of(long id, String title, String author, int publicationYear, String isbn,
+                                  boolean borrowed, long version) {
+        return new BookSnapshot(id, title, AUTHORS.intern(author), publicationYear, isbn, borrowed, version);
+    }
+
+    /**
+     * The author string is shared with other snapshots, so it is not counted.
+     */
+    @Override
+    public int estimatedBytes() {
+        return 48 + Snapshot.stringBytes(title) + Snapshot.stringBytes(isbn);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.librarymanagementsystem.snapshot;
+
+import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.entity.PatronTier;
+
+/**
+ * Immutable copy of a patron's details, as kept in the "patrons" cache and handed out by the patron service.
+ * Unlike a detached entity, a snapshot can be shared between threads and never changes under a reader; an update
+ * replaces the cached snapshot instead of modifying it.
+ */
+public record PatronSnapshot(long id, String name, String phoneNumber, String emailAddress, PatronTier tier,
+                             long version) implements Snapshot {
+
+    /**
+     * Creates a snapshot of a patron that has not been updated since it was added.
+     */
+    public PatronSnapshot(long id, String name, String phoneNumber, String emailAddress, PatronTier tier) {
+        this(id, name, phoneNumber, emailAddress, tier, 0);
+    }
+
+    /**
+     * Copies the current details of a patron entity.
+     */
+    public static PatronSnapshot of(Patron patron) {
+        return new PatronSnapshot(patron.getId(), patron.getName(), patron.getPhoneNumber(),
+                patron.getEmailAddress(), patron.getTier(), Snapshot.versionOf(patron.getVersion()));
+    }
+
+    @Override
+    public int estimatedBytes() {
+        return 48 + Snapshot.stringBytes(name) + Snapshot.stringBytes(phoneNumber)
+                + Snapshot.stringBytes(emailAddress);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.librarymanagementsystem.snapshot;
+
+/**
+ * An immutable cached copy of an entity, which can tell roughly how much heap it takes so that caches can be bounded
+ * by size in bytes rather than by number of entries. It also carries the version of its entity, so that a copy
+ * kept across a restart can be checked against the database.
+ */
+public interface Snapshot {
+
+    /**
+     * Returns an estimate of the heap taken by this snapshot and the strings only it refers to, in bytes.
+     */
+    int estimatedBytes();
+
+    /**
+     * Returns the ID of the entity this snapshot was copied from.
+     */
+    long id();
+
+    /**
+     * Returns the version of the entity this snapshot was copied from, which every update of the entity increments.
+     */
+    long version();
+
+    /**
+     * Returns the version of an entity, which is 0 until it has been saved.
+     */
+    static long versionOf(Long version) {
+        return version == null ? 0 : version;
+    }
+
+    /**
+     * Returns an estimate of the heap taken by a string of one-byte characters, header and array included.
+     */
+    static int stringBytes(String value) {
+        return value == null ? 0 : 40 + (value.length() + 7 & ~7);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.librarymanagementsystem.snapshot;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out one shared instance per distinct string, so that the many snapshots repeating the same value (most
+ * books share their author with others) hold a single copy of it. Strings are held weakly: once no snapshot refers
+ * to a value any more, it is dropped from the pool.
+ * The pool is a {@link ConcurrentHashMap} keyed by weak references, so threads interning strings never wait for one
+ * another; a value already pooled is found without allocating anything but the lookup key.
+ */
+final class StringPool {
+
+    private final ConcurrentHashMap<Object, PooledString> strings = new ConcurrentHashMap<>();
+    private final ReferenceQueue<String> collected = new ReferenceQueue<>();
+
+    /**
+     * Returns the pooled instance equal to the given string, adding the string to the pool if there is none.
+     */
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        removeCollected();
+        PooledString pooled = strings.get(new LookupKey(value));
+        String instance = pooled == null ? null : pooled.get();
+        if (instance != null) {
+            return instance;
+        }
+        PooledString added = new PooledString(value, collected);
+        while (true) {
+            pooled = strings.putIfAbsent(added, added);
+            if (pooled == null) {
+                return value;
+            }
+            instance = pooled.get();
+            if (instance != null) {
+                return instance;
+            }
+            // The pooled string was collected but not removed yet; an entry is only ever equal to itself then.
+            strings.remove(pooled, pooled);
+        }
+    }
+
+    /**
+     * Returns the number of distinct strings in the pool.
+     */
+    int size() {
+        removeCollected();
+        return strings.size();
+    }
+
+    private void removeCollected() {
+        Reference<? extends String> reference;
+        while ((reference = collected.poll()) != null) {
+            strings.remove(reference, reference);
+        }
+    }
+
+    /**
+     * A pooled string, equal to another pooled string or lookup key of an equal string while it is not collected.
+     */
+    private static final class PooledString extends WeakReference<String> {
+
+        private final int hash;
+
+        PooledString(String value, ReferenceQueue<String> queue) {
+            super(value, queue);
+            this.hash = value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            String value = get();
+            return value != null && (other instanceof PooledString pooled ? value.equals(pooled.get())
+                    : other instanceof LookupKey key && value.equals(key.value));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The key a string is looked up with, which holds it strongly only for the lookup.
+     */
+    private record LookupKey(String value) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof PooledString pooled && value.equals(pooled.get());
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+    }
+}
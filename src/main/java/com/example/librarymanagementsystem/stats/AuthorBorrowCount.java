@@ -0,0 +1,7 @@
+package com.example.librarymanagementsystem.stats;
+
+/**
+ * Exact number of borrows of the books of one author, as counted by the database.
+ */
+public record AuthorBorrowCount(String author, long count) {
+}
@@ -0,0 +1,7 @@
+package com.example.librarymanagementsystem.stats;
+
+/**
+ * Exact number of borrows of one book, as counted by the database.
+ */
+public record BookBorrowCount(long bookId, long count) {
+}
@@ -0,0 +1,14 @@
+package com.example.librarymanagementsystem.stats;
+
+import java.time.LocalDateTime;
+
+/**
+ * One borrow counted by the {@link BorrowingStatistics}.
+ *
+ * @param bookId            the ID of the borrowed book
+ * @param borrowingRecordId the ID of the borrowing record of the loan
+ * @param borrowDateTime    when the book was borrowed
+ * @param author            the author of the book, or null if it still has to be looked up
+ */
+public record BorrowEvent(long bookId, long borrowingRecordId, LocalDateTime borrowDateTime, String author) {
+}
@@ -0,0 +1,379 @@
+package com.example.librarymanagementsystem.stats;
+
+import com.example.librarymanagementsystem.dto.StatsWindow;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.search.BookSearchView;
+import com.example.librarymanagementsystem.util.LongIntHashMap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Live "most borrowed" statistics per book and per author, over sliding windows of up to a month.
+ * Borrows are counted in Count-Min sketches and Space-Saving summaries of a fixed size, and the counts are estimates
+ * with a known error bound.
+ * Committed borrows are handed over through a bounded queue and counted by a single background thread, which looks
+ * up the authors of books it has not seen yet in batches; a borrow never waits for the statistics. The authors of
+ * the books are remembered in two generations, the second dropped whenever the first has been kept for the longest
+ * window, and an author whose books were not borrowed during that window is forgotten then too. So besides the
+ * fixed-size counters, memory grows with the books and authors borrowed over the last two months at most, not with
+ * the catalog or the borrowing history.
+ * The statistics are loaded from the last month of borrowing records at startup; borrows queued until then are
+ * counted afterwards, skipping the ones the load already counted.
+ */
+@Component
+public class BorrowingStatistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(BorrowingStatistics.class);
+    private static final int NO_AUTHOR = -1;
+    private static final int BATCH_SIZE = 1000;
+    private static final int RETAINED_DAYS = Arrays.stream(StatsWindow.values()).mapToInt(StatsWindow::days).max()
+            .orElseThrow();
+
+    private final BookRepository bookRepository;
+    private final Clock clock;
+    private final int capacity;
+    private final BlockingQueue<BorrowEvent> pending;
+    private final AtomicLong dropped = new AtomicLong();
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final WindowedHeavyHitters books;
+    private final WindowedHeavyHitters authors;
+    private LongIntHashMap authorByBook = new LongIntHashMap(1024, NO_AUTHOR);
+    private LongIntHashMap previousAuthorByBook = new LongIntHashMap(16, NO_AUTHOR);
+    private long generationStartDay;
+    /** The name of every author ID, or null for a forgotten ID that can be given to another author. */
+    private final List<String> authorNames = new ArrayList<>();
+    private long[] authorLastDays = new long[16];
+    private final Deque<Integer> freeAuthorIds = new ArrayDeque<>();
+    private final Map<String, Integer> authorIds = new HashMap<>();
+    private volatile long loadedUpToRecordId;
+    private Thread countingThread;
+    private volatile boolean running;
+
+    @Autowired
+    public BorrowingStatistics(BookRepository bookRepository,
+                               @Value("${library.stats.sketch-width:4096}") int sketchWidth,
+                               @Value("${library.stats.sketch-depth:4}") int sketchDepth,
+                               @Value("${library.stats.capacity:1000}") int capacity,
+                               @Value("${library.stats.queue-capacity:100000}") int queueCapacity) {
+        this(bookRepository, sketchWidth, sketchDepth, capacity, queueCapacity, Clock.systemDefaultZone());
+    }
+
+    BorrowingStatistics(BookRepository bookRepository, int sketchWidth, int sketchDepth, int capacity,
+                        int queueCapacity, Clock clock) {
+        this.bookRepository = bookRepository;
+        this.clock = clock;
+        this.capacity = capacity;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.books = new WindowedHeavyHitters(RETAINED_DAYS, sketchWidth, sketchDepth, capacity);
+        this.authors = new WindowedHeavyHitters(RETAINED_DAYS, sketchWidth, sketchDepth, capacity);
+        this.generationStartDay = today();
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        countingThread = new Thread(this::countWhenLoaded, "borrowing-statistics");
+        countingThread.setDaemon(true);
+        countingThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (countingThread != null) {
+            countingThread.interrupt();
+        }
+    }
+
+    /**
+     * Queues a committed borrow to be counted. If the queue is full the borrow is dropped from the statistics.
+     */
+    public void recordBorrow(BorrowEvent borrow) {
+        if (!pending.offer(borrow) && dropped.incrementAndGet() % 10_000 == 1) {
+            logger.warn("Borrowing statistics queue is full; {} borrows dropped so far", dropped.get());
+        }
+    }
+
+    /**
+     * Counts borrows read from the database at startup, in batches. May be called more than once before
+     * {@link #completeLoad(long)}.
+     */
+    public void load(Stream<BorrowEvent> borrows) {
+        Iterator<BorrowEvent> iterator = borrows.iterator();
+        List<BorrowEvent> batch = new ArrayList<>(BATCH_SIZE);
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            if (batch.size() == BATCH_SIZE || !iterator.hasNext()) {
+                count(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Starts counting the queued borrows, skipping the ones already counted by {@link #load(Stream)}.
+     *
+     * @param upToRecordId the highest borrowing record ID that the load could have seen
+     */
+    public void completeLoad(long upToRecordId) {
+        loadedUpToRecordId = upToRecordId;
+        loaded.countDown();
+    }
+
+    /**
+     * Forgets the author of a book, so that later borrows are counted under its current author.
+     */
+    public void forgetBook(long bookId) {
+        lock.lock();
+        try {
+            authorByBook.remove(bookId);
+            previousAuthorByBook.remove(bookId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the most borrowed books of a window, most borrowed first.
+     *
+     * @param window the window to rank
+     * @param limit  the maximum number of books, capped by the number of counters per day
+     */
+    public List<HeavyHitter<Long>> topBooks(StatsWindow window, int limit) {
+        lock.lock();
+        try {
+            return books.top(window.days(), today(), Math.min(limit, capacity));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the most borrowed authors of a window, most borrowed first.
+     *
+     * @param window the window to rank
+     * @param limit  the maximum number of authors, capped by the number of counters per day
+     */
+    public List<HeavyHitter<String>> topAuthors(StatsWindow window, int limit) {
+        lock.lock();
+        try {
+            List<HeavyHitter<String>> top = new ArrayList<>();
+            for (HeavyHitter<Long> hitter : authors.top(window.days(), today(), Math.min(limit, capacity))) {
+                String author = authorNames.get(hitter.key().intValue());
+                if (author != null) {
+                    top.add(new HeavyHitter<>(author, hitter.estimatedCount(), hitter.maxError()));
+                }
+            }
+            return top;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the estimated number of borrows of one book over a window.
+     */
+    public HeavyHitter<Long> estimateBook(long bookId, StatsWindow window) {
+        lock.lock();
+        try {
+            return books.estimate(bookId, window.days(), today());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the estimated number of borrows of the books of one author over a window.
+     */
+    public HeavyHitter<String> estimateAuthor(String author, StatsWindow window) {
+        lock.lock();
+        try {
+            Integer authorId = authorIds.get(author);
+            if (authorId == null) {
+                return new HeavyHitter<>(author, 0, 0);
+            }
+            HeavyHitter<Long> estimate = authors.estimate(authorId, window.days(), today());
+            return new HeavyHitter<>(author, estimate.estimatedCount(), estimate.maxError());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of borrows counted over a window.
+     */
+    public long totalBorrows(StatsWindow window) {
+        lock.lock();
+        try {
+            return books.total(window.days(), today());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void countWhenLoaded() {
+        List<BorrowEvent> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            loaded.await();
+            while (running) {
+                batch.add(pending.take());
+                pending.drainTo(batch, BATCH_SIZE - 1);
+                try {
+                    countQueued(batch);
+                } catch (RuntimeException e) {
+                    logger.error("Failed to count {} borrows", batch.size(), e);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void countQueued(List<BorrowEvent> batch) {
+        long upToRecordId = loadedUpToRecordId;
+        batch.removeIf(borrow -> borrow.borrowingRecordId() <= upToRecordId);
+        count(batch);
+    }
+
+    /**
+     * Counts a batch of borrows, looking up the authors that are neither given nor known in one query first.
+     */
+    private void count(List<BorrowEvent> batch) {
+        Set<Long> unknownBooks = new HashSet<>();
+        lock.lock();
+        try {
+            rotateIfDue();
+            for (BorrowEvent borrow : batch) {
+                if (borrow.author() == null && authorOf(borrow.bookId()) == NO_AUTHOR) {
+                    unknownBooks.add(borrow.bookId());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        List<BookSearchView> views = unknownBooks.isEmpty() ? List.of() : bookRepository.findViewsByIds(unknownBooks);
+
+        lock.lock();
+        try {
+            for (BookSearchView view : views) {
+                authorByBook.put(view.getId(), authorId(view.getAuthor()));
+            }
+            for (BorrowEvent borrow : batch) {
+                long day = borrow.borrowDateTime().toLocalDate().toEpochDay();
+                books.add(borrow.bookId(), day);
+                int authorId = borrow.author() != null ? authorId(borrow.author()) : authorOf(borrow.bookId());
+                if (authorId != NO_AUTHOR) {
+                    authorByBook.put(borrow.bookId(), authorId);
+                    authors.add(authorId, day);
+                    authorLastDays[authorId] = Math.max(authorLastDays[authorId], day);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the author ID of a book from either generation, or {@link #NO_AUTHOR} if it is not known.
+     */
+    private int authorOf(long bookId) {
+        int authorId = authorByBook.get(bookId);
+        return authorId != NO_AUTHOR ? authorId : previousAuthorByBook.get(bookId);
+    }
+
+    private int authorId(String author) {
+        return authorIds.computeIfAbsent(author, name -> {
+            Integer free = freeAuthorIds.poll();
+            if (free != null) {
+                authorNames.set(free, name);
+                authorLastDays[free] = Long.MIN_VALUE;
+                return free;
+            }
+            authorNames.add(name);
+            if (authorNames.size() > authorLastDays.length) {
+                authorLastDays = Arrays.copyOf(authorLastDays, authorLastDays.length * 2);
+            }
+            authorLastDays[authorNames.size() - 1] = Long.MIN_VALUE;
+            return authorNames.size() - 1;
+        });
+    }
+
+    /**
+     * Starts a new generation of book authors once the current one has been kept for the longest window, dropping
+     * the previous one, and forgets the authors that no book of the kept generation refers to and that nothing
+     * borrowed within the longest window, so that their IDs can be given to other authors.
+     */
+    private void rotateIfDue() {
+        long today = today();
+        if (today < generationStartDay + RETAINED_DAYS) {
+            return;
+        }
+        previousAuthorByBook = authorByBook;
+        authorByBook = new LongIntHashMap(Math.max(1024, previousAuthorByBook.size()), NO_AUTHOR);
+        generationStartDay = today;
+        boolean[] referenced = new boolean[authorNames.size()];
+        previousAuthorByBook.forEach((bookId, authorId) -> referenced[authorId] = true);
+        for (int authorId = 0; authorId < authorNames.size(); authorId++) {
+            String author = authorNames.get(authorId);
+            if (author != null && !referenced[authorId] && authorLastDays[authorId] <= today - RETAINED_DAYS) {
+                authorIds.remove(author);
+                authorNames.set(authorId, null);
+                freeAuthorIds.push(authorId);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of books whose author is remembered, in both generations.
+     */
+    int rememberedBooks() {
+        lock.lock();
+        try {
+            return authorByBook.size() + previousAuthorByBook.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of authors remembered.
+     */
+    int rememberedAuthors() {
+        lock.lock();
+        try {
+            return authorIds.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+}
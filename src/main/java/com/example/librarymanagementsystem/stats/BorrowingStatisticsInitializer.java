@@ -0,0 +1,61 @@
+package com.example.librarymanagementsystem.stats;
+
+import com.example.librarymanagementsystem.dto.StatsWindow;
+import com.example.librarymanagementsystem.repository.BorrowingRecordHistoryRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Loads the borrows of the longest statistics window into the {@link BorrowingStatistics} once the application is
+ * ready, from both the live and the archived borrowing records.
+ */
+@Component
+public class BorrowingStatisticsInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BorrowingStatisticsInitializer.class);
+
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final BorrowingRecordHistoryRepository historyRepository;
+    private final BorrowingStatistics borrowingStatistics;
+
+    @Autowired
+    public BorrowingStatisticsInitializer(BorrowingRecordRepository borrowingRecordRepository,
+                                          BorrowingRecordHistoryRepository historyRepository,
+                                          BorrowingStatistics borrowingStatistics) {
+        this.borrowingRecordRepository = borrowingRecordRepository;
+        this.historyRepository = historyRepository;
+        this.borrowingStatistics = borrowingStatistics;
+    }
+
+    /**
+     * Counts the borrows of the last month. Borrows committed from now on are queued and counted once the load
+     * completes; a borrow still committing while the highest record ID is read may be missed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long startTime = System.currentTimeMillis();
+        long upToRecordId = borrowingRecordRepository.findMaxId();
+        LocalDateTime since = LocalDate.now().minusDays(StatsWindow.MONTH.days() - 1).atStartOfDay();
+        try (Stream<BorrowEvent> archived = historyRepository.streamBorrowEventsSince(since)) {
+            borrowingStatistics.load(archived);
+        }
+        try (Stream<BorrowEvent> live = borrowingRecordRepository.streamBorrowEventsSince(since)) {
+            borrowingStatistics.load(live.filter(borrow -> borrow.borrowingRecordId() <= upToRecordId));
+        } finally {
+            borrowingStatistics.completeLoad(upToRecordId);
+        }
+        logger.info("Borrowing statistics loaded with {} borrows in {} ms",
+                borrowingStatistics.totalBorrows(StatsWindow.MONTH), System.currentTimeMillis() - startTime);
+    }
+}
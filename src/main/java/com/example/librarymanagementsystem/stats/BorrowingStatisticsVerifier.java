@@ -0,0 +1,132 @@
+package com.example.librarymanagementsystem.stats;
+
+import com.example.librarymanagementsystem.dto.StatsAccuracyDTOResponse;
+import com.example.librarymanagementsystem.dto.StatsWindow;
+import com.example.librarymanagementsystem.repository.BorrowingRecordHistoryRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Recomputes the exact top borrowed books and authors of every window with GROUP BY queries over the live and
+ * archived borrowing records, on the {@code library.stats.verify-cron} schedule, and compares them with the
+ * estimates of the {@link BorrowingStatistics}. The results of the last run are kept for the statistics endpoint.
+ */
+@Component
+public class BorrowingStatisticsVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(BorrowingStatisticsVerifier.class);
+
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final BorrowingRecordHistoryRepository historyRepository;
+    private final BorrowingStatistics borrowingStatistics;
+    private volatile List<StatsAccuracyDTOResponse> lastReports = List.of();
+
+    @Value("${library.stats.verify-top:100}")
+    private int topK = 100;
+
+    @Autowired
+    public BorrowingStatisticsVerifier(BorrowingRecordRepository borrowingRecordRepository,
+                                       BorrowingRecordHistoryRepository historyRepository,
+                                       BorrowingStatistics borrowingStatistics) {
+        this.borrowingRecordRepository = borrowingRecordRepository;
+        this.historyRepository = historyRepository;
+        this.borrowingStatistics = borrowingStatistics;
+    }
+
+    @Scheduled(cron = "${library.stats.verify-cron:0 0 3 * * *}")
+    void verifyOnSchedule() {
+        verify();
+    }
+
+    /**
+     * Compares the estimated top books and authors of every window with the exact counts.
+     *
+     * @return one report per window and subject
+     */
+    @Transactional(readOnly = true)
+    public List<StatsAccuracyDTOResponse> verify() {
+        List<StatsAccuracyDTOResponse> reports = new ArrayList<>();
+        for (StatsWindow window : StatsWindow.values()) {
+            LocalDateTime since = LocalDate.now().minusDays(window.days() - 1).atStartOfDay();
+
+            Map<Long, Long> bookCounts = new HashMap<>();
+            for (List<BookBorrowCount> counts : List.of(borrowingRecordRepository.countBorrowsByBookSince(since),
+                    historyRepository.countBorrowsByBookSince(since))) {
+                counts.forEach(count -> bookCounts.merge(count.bookId(), count.count(), Long::sum));
+            }
+            reports.add(compare("BOOKS", window, bookCounts, borrowingStatistics.topBooks(window, topK),
+                    bookId -> borrowingStatistics.estimateBook(bookId, window)));
+
+            Map<String, Long> authorCounts = new HashMap<>();
+            for (List<AuthorBorrowCount> counts : List.of(borrowingRecordRepository.countBorrowsByAuthorSince(since),
+                    historyRepository.countBorrowsByAuthorSince(since))) {
+                counts.forEach(count -> authorCounts.merge(count.author(), count.count(), Long::sum));
+            }
+            reports.add(compare("AUTHORS", window, authorCounts, borrowingStatistics.topAuthors(window, topK),
+                    author -> borrowingStatistics.estimateAuthor(author, window)));
+        }
+        for (StatsAccuracyDTOResponse report : reports) {
+            logger.info("Top {} {} of the {}: recall {}, mean relative error {}, max relative error {}, "
+                            + "within bounds: {}", report.getTopK(), report.getSubject(), report.getWindow(),
+                    report.getRecall(), report.getMeanRelativeError(), report.getMaxRelativeError(),
+                    report.isWithinBounds());
+        }
+        lastReports = List.copyOf(reports);
+        return lastReports;
+    }
+
+    /**
+     * Returns the reports of the last verification, or an empty list if none has run yet.
+     */
+    public List<StatsAccuracyDTOResponse> getLastReports() {
+        return lastReports;
+    }
+
+    private <K extends Comparable<K>> StatsAccuracyDTOResponse compare(String subject, StatsWindow window,
+                                                                       Map<K, Long> exactCounts,
+                                                                       List<HeavyHitter<K>> estimatedTop,
+                                                                       Function<K, HeavyHitter<K>> estimator) {
+        List<Map.Entry<K, Long>> exactTop = exactCounts.entrySet().stream()
+                .sorted(Map.Entry.<K, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(topK)
+                .toList();
+        Set<K> estimatedKeys = new HashSet<>();
+        estimatedTop.forEach(hitter -> estimatedKeys.add(hitter.key()));
+
+        int found = 0;
+        double totalError = 0;
+        double maxError = 0;
+        boolean withinBounds = true;
+        for (Map.Entry<K, Long> entry : exactTop) {
+            if (estimatedKeys.contains(entry.getKey())) {
+                found++;
+            }
+            HeavyHitter<K> estimate = estimator.apply(entry.getKey());
+            double error = Math.abs(estimate.estimatedCount() - entry.getValue()) / (double) entry.getValue();
+            totalError += error;
+            maxError = Math.max(maxError, error);
+            withinBounds &= entry.getValue() <= estimate.estimatedCount()
+                    && entry.getValue() >= estimate.estimatedCount() - estimate.maxError();
+        }
+        double recall = exactTop.isEmpty() ? 1.0 : found / (double) exactTop.size();
+        double meanError = exactTop.isEmpty() ? 0.0 : totalError / exactTop.size();
+        return new StatsAccuracyDTOResponse(subject, window, topK, recall, meanError, maxError, withinBounds,
+                LocalDateTime.now());
+    }
+}
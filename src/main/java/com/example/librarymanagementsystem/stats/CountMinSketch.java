@@ -0,0 +1,68 @@
+package com.example.librarymanagementsystem.stats;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min sketch over long keys: {@code depth} rows of {@code width} counters, each row indexed by its own hash of
+ * the key. A key's estimate is the smallest of its counters; it never undercounts, and overcounts by more than
+ * {@code e / width} of the total count with probability at most {@code e^-depth}.
+ * Not thread-safe.
+ */
+final class CountMinSketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x94D049BB133111EBL
+    };
+
+    private final int depth;
+    private final int mask;
+    private final int[] counters;
+    private long total;
+
+    /**
+     * @param width the number of counters per row, rounded up to a power of two
+     * @param depth the number of rows, at most 8
+     */
+    CountMinSketch(int width, int depth) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("Sketch depth must be between 1 and " + SEEDS.length);
+        }
+        int rowWidth = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.depth = depth;
+        this.mask = rowWidth - 1;
+        this.counters = new int[rowWidth * depth];
+    }
+
+    void add(long key) {
+        int rowWidth = mask + 1;
+        for (int row = 0; row < depth; row++) {
+            counters[row * rowWidth + index(key, row)]++;
+        }
+        total++;
+    }
+
+    long estimate(long key) {
+        int rowWidth = mask + 1;
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * rowWidth + index(key, row)]);
+        }
+        return estimate;
+    }
+
+    long total() {
+        return total;
+    }
+
+    void clear() {
+        Arrays.fill(counters, 0);
+        total = 0;
+    }
+
+    private int index(long key, int row) {
+        long hash = (key ^ SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 31)) * 0x94D049BB133111EBL;
+        return (int) (hash ^ (hash >>> 29)) & mask;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.librarymanagementsystem.stats;
+
+/**
+ * A frequently borrowed key with its estimated count over a window. The true count lies between
+ * {@code estimatedCount - maxError} and {@code estimatedCount}.
+ *
+ * @param key            the book ID or author name
+ * @param estimatedCount the estimated number of borrows, never lower than the true number
+ * @param maxError       the largest possible overestimate
+ */
+public record HeavyHitter<K>(K key, long estimatedCount, long maxError) {
+}
@@ -0,0 +1,134 @@
+package com.example.librarymanagementsystem.stats;
+
+import com.example.librarymanagementsystem.util.LongIntHashMap;
+
+/**
+ * Space-Saving top-K summary: a fixed number of counters, each monitoring one key. A key that is not monitored
+ * takes over the counter with the smallest count and inherits that count as its error, so every count is an
+ * overestimate by at most its error, and every key seen more often than the smallest count is monitored.
+ * Counters sit in flat arrays ordered as a binary min-heap by count, so both increments and takeovers are O(log k).
+ * Not thread-safe.
+ */
+final class SpaceSaving {
+
+    private static final int NOT_MONITORED = -1;
+
+    private final LongIntHashMap slotByKey;
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final int[] heap;
+    private final int[] positions;
+    private int size;
+
+    SpaceSaving(int capacity) {
+        slotByKey = new LongIntHashMap(capacity, NOT_MONITORED);
+        keys = new long[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+        heap = new int[capacity];
+        positions = new int[capacity];
+    }
+
+    void add(long key) {
+        int slot = slotByKey.get(key);
+        if (slot != NOT_MONITORED) {
+            counts[slot]++;
+            siftDown(positions[slot]);
+            return;
+        }
+        if (size < keys.length) {
+            slot = size;
+            keys[slot] = key;
+            counts[slot] = 1;
+            errors[slot] = 0;
+            heap[size] = slot;
+            positions[slot] = size++;
+            slotByKey.put(key, slot);
+            siftUp(positions[slot]);
+            return;
+        }
+        slot = heap[0];
+        slotByKey.remove(keys[slot]);
+        keys[slot] = key;
+        errors[slot] = counts[slot];
+        counts[slot]++;
+        slotByKey.put(key, slot);
+        siftDown(0);
+    }
+
+    /**
+     * Returns the count above which every key is guaranteed to be monitored: the smallest count once every counter
+     * is taken, 0 before.
+     */
+    long minCount() {
+        return size < keys.length ? 0 : counts[heap[0]];
+    }
+
+    /**
+     * Returns the slot monitoring a key, or -1 if the key is not monitored.
+     */
+    int slotOf(long key) {
+        return slotByKey.get(key);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long key(int slot) {
+        return keys[slot];
+    }
+
+    long count(int slot) {
+        return counts[slot];
+    }
+
+    long error(int slot) {
+        return errors[slot];
+    }
+
+    void clear() {
+        slotByKey.clear();
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        int slot = heap[index];
+        long count = counts[slot];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            int parentSlot = heap[parent];
+            if (counts[parentSlot] <= count) {
+                break;
+            }
+            heap[index] = parentSlot;
+            positions[parentSlot] = index;
+            index = parent;
+        }
+        heap[index] = slot;
+        positions[slot] = index;
+    }
+
+    private void siftDown(int index) {
+        int slot = heap[index];
+        long count = counts[slot];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && counts[heap[right]] < counts[heap[child]]) {
+                child = right;
+            }
+            int childSlot = heap[child];
+            if (count <= counts[childSlot]) {
+                break;
+            }
+            heap[index] = childSlot;
+            positions[childSlot] = index;
+            index = child;
+        }
+        heap[index] = slot;
+        positions[slot] = index;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.librarymanagementsystem.stats;
+
+import com.example.librarymanagementsystem.util.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Heavy hitters over sliding windows of whole days. Each of the last {@code days} days has its own Count-Min sketch
+ * and Space-Saving summary; a day's bucket is recycled when the ring comes back round to it, so old borrows expire
+ * without ever being subtracted.
+ * A window is answered by taking the keys monitored on any of its days as candidates and adding up each candidate's
+ * daily bounds. On a day where the candidate is monitored its Space-Saving count is used; on other days it is
+ * bounded by both the day's smallest monitored count and its sketch estimate.
+ * Not thread-safe.
+ */
+final class WindowedHeavyHitters {
+
+    private static final long UNUSED = Long.MIN_VALUE;
+
+    private final CountMinSketch[] sketches;
+    private final SpaceSaving[] summaries;
+    private final long[] bucketDays;
+
+    WindowedHeavyHitters(int days, int sketchWidth, int sketchDepth, int capacity) {
+        sketches = new CountMinSketch[days];
+        summaries = new SpaceSaving[days];
+        bucketDays = new long[days];
+        for (int i = 0; i < days; i++) {
+            sketches[i] = new CountMinSketch(sketchWidth, sketchDepth);
+            summaries[i] = new SpaceSaving(capacity);
+            bucketDays[i] = UNUSED;
+        }
+    }
+
+    /**
+     * Counts one occurrence of a key on the given day; occurrences older than the ring are dropped.
+     */
+    void add(long key, long epochDay) {
+        int bucket = Math.floorMod(epochDay, bucketDays.length);
+        if (bucketDays[bucket] != epochDay) {
+            if (bucketDays[bucket] > epochDay) {
+                return;
+            }
+            sketches[bucket].clear();
+            summaries[bucket].clear();
+            bucketDays[bucket] = epochDay;
+        }
+        sketches[bucket].add(key);
+        summaries[bucket].add(key);
+    }
+
+    /**
+     * Returns the most frequent keys of the {@code days} days ending with {@code today}, most frequent first.
+     */
+    List<HeavyHitter<Long>> top(int days, long today, int limit) {
+        List<Integer> buckets = bucketsOf(days, today);
+        LongIntHashMap seen = new LongIntHashMap(1024, 0);
+        List<HeavyHitter<Long>> candidates = new ArrayList<>();
+        for (int bucket : buckets) {
+            SpaceSaving summary = summaries[bucket];
+            for (int slot = 0; slot < summary.size(); slot++) {
+                long key = summary.key(slot);
+                if (seen.put(key, 1) == 0) {
+                    candidates.add(estimate(key, buckets));
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingLong((HeavyHitter<Long> hitter) -> hitter.estimatedCount()).reversed()
+                .thenComparingLong(HeavyHitter::maxError));
+        return candidates.subList(0, Math.min(limit, candidates.size()));
+    }
+
+    /**
+     * Returns the estimated count of one key over the {@code days} days ending with {@code today}.
+     */
+    HeavyHitter<Long> estimate(long key, int days, long today) {
+        return estimate(key, bucketsOf(days, today));
+    }
+
+    /**
+     * Returns the number of occurrences counted over the {@code days} days ending with {@code today}.
+     */
+    long total(int days, long today) {
+        long total = 0;
+        for (int bucket : bucketsOf(days, today)) {
+            total += sketches[bucket].total();
+        }
+        return total;
+    }
+
+    private HeavyHitter<Long> estimate(long key, List<Integer> buckets) {
+        long upper = 0;
+        long lower = 0;
+        for (int bucket : buckets) {
+            SpaceSaving summary = summaries[bucket];
+            long sketchEstimate = sketches[bucket].estimate(key);
+            int slot = summary.slotOf(key);
+            if (slot >= 0) {
+                upper += Math.min(summary.count(slot), sketchEstimate);
+                lower += summary.count(slot) - summary.error(slot);
+            } else {
+                upper += Math.min(summary.minCount(), sketchEstimate);
+            }
+        }
+        return new HeavyHitter<>(key, upper, upper - lower);
+    }
+
+    private List<Integer> bucketsOf(int days, long today) {
+        List<Integer> buckets = new ArrayList<>(days);
+        for (int bucket = 0; bucket < bucketDays.length; bucket++) {
+            if (bucketDays[bucket] != UNUSED && bucketDays[bucket] <= today && bucketDays[bucket] > today - days) {
+                buckets.add(bucket);
+            }
+        }
+        return buckets;
+    }
+}
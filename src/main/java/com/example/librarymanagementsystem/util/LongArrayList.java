@@ -0,0 +1,177 @@
+package com.example.librarymanagementsystem.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive longs.
+ * Avoids boxing every element into a {@link Long}, which matters for lists with millions of IDs.
+ * Not thread-safe.
+ */
+public class LongArrayList {
+
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private long[] elements;
+    private int size;
+
+    public LongArrayList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongArrayList(int initialCapacity) {
+        this.elements = new long[Math.max(1, initialCapacity)];
+    }
+
+    /**
+     * Appends a value at the end of the list.
+     *
+     * @param value the value to append
+     */
+    public void add(long value) {
+        ensureCapacity(size + 1);
+        elements[size++] = value;
+    }
+
+    /**
+     * Appends every value of another list at the end of this list.
+     *
+     * @param other the list whose values to append
+     */
+    public void addAll(LongArrayList other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.elements, 0, elements, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Inserts a value into a list kept in ascending order, unless it is already present.
+     * Appending a value greater than the last one, the common case for increasing IDs, costs O(1).
+     *
+     * @param value the value to insert
+     * @return true if the value was inserted, false if it was already present
+     */
+    public boolean addSorted(long value) {
+        if (size == 0 || elements[size - 1] < value) {
+            add(value);
+            return true;
+        }
+        int index = binarySearch(value);
+        if (index >= 0) {
+            return false;
+        }
+        int insertionPoint = -index - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(elements, insertionPoint, elements, insertionPoint + 1, size - insertionPoint);
+        elements[insertionPoint] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes a value from a list kept in ascending order.
+     *
+     * @param value the value to remove
+     * @return true if the value was present
+     */
+    public boolean removeSorted(long value) {
+        int index = binarySearch(value);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Removes the value at the given position, shifting the following values to the left.
+     *
+     * @param index the position of the value to remove
+     * @return the removed value
+     */
+    public long removeAt(int index) {
+        checkIndex(index);
+        long value = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        return value;
+    }
+
+    /**
+     * Searches a list kept in ascending order for a value.
+     *
+     * @param value the value to search for
+     * @return the index of the value, or (-(insertion point) - 1) if it is absent, like {@link Arrays#binarySearch}
+     */
+    public int binarySearch(long value) {
+        return Arrays.binarySearch(elements, 0, size, value);
+    }
+
+    /**
+     * Tells whether a list kept in ascending order contains a value.
+     *
+     * @param value the value to look for
+     * @return true if the value is present
+     */
+    public boolean containsSorted(long value) {
+        return binarySearch(value) >= 0;
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public void set(int index, long value) {
+        checkIndex(index);
+        elements[index] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Sorts the values in ascending order.
+     */
+    public void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    /**
+     * Returns a copy of the values as an array.
+     *
+     * @return an array holding the values of the list
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Shrinks the backing array to the number of values, releasing unused capacity.
+     */
+    public void trimToSize() {
+        if (elements.length > size) {
+            elements = Arrays.copyOf(elements, Math.max(1, size));
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(capacity, elements.length + (elements.length >> 1) + 1));
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.librarymanagementsystem.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over primitive longs: a set that can answer "definitely not added" without storing its elements.
+ * A long that was added is always reported as possibly present; a long that was not added is reported as possibly
+ * present with about the configured false positive rate, as long as no more than the expected number of longs were
+ * added. Elements cannot be removed.
+ * Thread-safe: adds set bits atomically and never block readers.
+ */
+public class LongBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions the number of longs to size the filter for
+     * @param falsePositiveRate  the rate of false positives wanted once that many longs were added
+     */
+    public LongBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter size: " + expectedInsertions + " longs at "
+                    + falsePositiveRate + " false positives");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Adds a long to the filter.
+     */
+    public void add(long value) {
+        long hash = mix(value);
+        long step = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (hash & Long.MAX_VALUE) % bitCount;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((words.get(word) & mask) == 0) {
+                words.getAndUpdate(word, current -> current | mask);
+            }
+            hash += step;
+        }
+    }
+
+    /**
+     * Returns whether a long may have been added; false means it definitely was not.
+     */
+    public boolean mightContain(long value) {
+        long hash = mix(value);
+        long step = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (hash & Long.MAX_VALUE) % bitCount;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            hash += step;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the size of the filter in bits.
+     */
+    public long bitCount() {
+        return bitCount;
+    }
+
+    /**
+     * Returns the number of bits set per long.
+     */
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Spreads sequential IDs over the whole filter (the finalizer of MurmurHash3).
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb93e2c1b874fL;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.librarymanagementsystem.util;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from primitive longs to primitive ints, with open addressing and linear probing.
+ * Stores keys and values in two flat arrays instead of one boxed entry object per mapping, which cuts the
+ * memory of a map with millions of IDs several times over.
+ * Not thread-safe.
+ */
+public class LongIntHashMap {
+
+    private static final float MAX_LOAD = 0.75f;
+    private static final long EMPTY_KEY = 0L;
+
+    private final int missingValue;
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+    private boolean hasEmptyKey;
+    private int emptyKeyValue;
+
+    /**
+     * @param expectedSize the number of mappings to size the map for
+     * @param missingValue the value returned for absent keys
+     */
+    public LongIntHashMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the value mapped to a key.
+     *
+     * @param key the key to look up
+     * @return the value, or the missing value if the key is absent
+     */
+    public int get(long key) {
+        if (key == EMPTY_KEY) {
+            return hasEmptyKey ? emptyKeyValue : missingValue;
+        }
+        for (int index = indexOf(key); ; index = (index + 1) & mask) {
+            long candidate = keys[index];
+            if (candidate == key) {
+                return values[index];
+            }
+            if (candidate == EMPTY_KEY) {
+                return missingValue;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        if (key == EMPTY_KEY) {
+            return hasEmptyKey;
+        }
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous value.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the previous value, or the missing value if the key was absent
+     */
+    public int put(long key, int value) {
+        if (key == EMPTY_KEY) {
+            int previous = hasEmptyKey ? emptyKeyValue : missingValue;
+            if (!hasEmptyKey) {
+                hasEmptyKey = true;
+                size++;
+            }
+            emptyKeyValue = value;
+            return previous;
+        }
+        int index = indexOf(key);
+        for (; keys[index] != EMPTY_KEY; index = (index + 1) & mask) {
+            if (keys[index] == key) {
+                int previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return missingValue;
+    }
+
+    /**
+     * Adds a delta to the value of a key, mapping absent keys to the delta.
+     *
+     * @param key   the key
+     * @param delta the amount to add
+     * @return the new value
+     */
+    public int addTo(long key, int delta) {
+        if (key == EMPTY_KEY) {
+            int value = (hasEmptyKey ? emptyKeyValue : 0) + delta;
+            put(key, value);
+            return value;
+        }
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            return values[slot] += delta;
+        }
+        put(key, delta);
+        return delta;
+    }
+
+    /**
+     * Removes the mapping of a key.
+     *
+     * @param key the key to remove
+     * @return the removed value, or the missing value if the key was absent
+     */
+    public int remove(long key) {
+        if (key == EMPTY_KEY) {
+            if (!hasEmptyKey) {
+                return missingValue;
+            }
+            hasEmptyKey = false;
+            size--;
+            return emptyKeyValue;
+        }
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return missingValue;
+        }
+        int previous = values[slot];
+        shiftBack(slot);
+        size--;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Calls an action for every mapping, in no particular order. The map must not be changed meanwhile.
+     */
+    public void forEach(EntryConsumer action) {
+        if (hasEmptyKey) {
+            action.accept(EMPTY_KEY, emptyKeyValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY_KEY) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY_KEY);
+        hasEmptyKey = false;
+        size = 0;
+    }
+
+    private int slotOf(long key) {
+        for (int index = indexOf(key); ; index = (index + 1) & mask) {
+            long candidate = keys[index];
+            if (candidate == key) {
+                return index;
+            }
+            if (candidate == EMPTY_KEY) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Closes the gap left by a removed entry by moving back the following entries of its probe sequence,
+     * so lookups never need tombstones.
+     */
+    private void shiftBack(int gap) {
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            long key = keys[index];
+            if (key == EMPTY_KEY) {
+                break;
+            }
+            int home = indexOf(key);
+            // Move the entry into the gap unless its home slot lies cyclically within (gap, index].
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+        keys[gap] = EMPTY_KEY;
+    }
+
+    private int indexOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY_KEY) {
+                int index = indexOf(key);
+                while (keys[index] != EMPTY_KEY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * MAX_LOAD);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long required = Math.max(4, (long) Math.ceil(Math.max(0, expectedSize) / MAX_LOAD) + 1);
+        return (int) Math.min(1 << 30, Long.highestOneBit(required - 1) << 1);
+    }
+
+    /**
+     * Action called with the key and value of a mapping.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        void accept(long key, int value);
+    }
+}
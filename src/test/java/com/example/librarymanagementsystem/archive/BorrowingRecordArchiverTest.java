@@ -0,0 +1,130 @@
+package com.example.librarymanagementsystem.archive;
+
+import com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse;
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.entity.BorrowingRecord;
+import com.example.librarymanagementsystem.entity.BorrowingRecordHistory;
+import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordHistoryRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
+import com.example.librarymanagementsystem.repository.PatronRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Archives borrowing records in small chunks, in committed transactions as in production, and reads the loan history
+ * back across both tables.
+ */
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false", "library.archive.chunk-size=3"}, showSql = false)
+@Import({BorrowingRecordArchiver.class, LoanHistory.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BorrowingRecordArchiverTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Autowired
+    private BorrowingRecordArchiver archiver;
+
+    @Autowired
+    private LoanHistory loanHistory;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private BorrowingRecordHistoryRepository historyRepository;
+
+    private Book book;
+    private Patron patron;
+    private final List<Long> oldRecordIds = new ArrayList<>();
+    private final List<Long> recentRecordIds = new ArrayList<>();
+
+    /**
+     * Creates 8 loans returned two years ago, then one returned yesterday and one still open.
+     */
+    @BeforeEach
+    void setUp() {
+        book = bookRepository.save(new Book("Title", "Author", 2000, "123-0000000001", false));
+        patron = patronRepository.save(new Patron("Patron", "1234567890", "patron@example.com"));
+        for (int i = 0; i < 8; i++) {
+            oldRecordIds.add(saveRecord(NOW.minusYears(2)));
+        }
+        recentRecordIds.add(saveRecord(NOW.minusDays(1)));
+        recentRecordIds.add(saveRecord(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        historyRepository.deleteAll();
+        borrowingRecordRepository.deleteAll();
+        bookRepository.deleteAll();
+        patronRepository.deleteAll();
+    }
+
+    @Test
+    void testOnlyOldReturnedRecordsAreArchived() {
+        assertEquals(8, archiver.archive(NOW.minusYears(1)));
+
+        assertEquals(recentRecordIds, borrowingRecordRepository.findAll().stream().map(BorrowingRecord::getId)
+                .sorted().toList());
+        assertEquals(oldRecordIds, historyRepository.findAll().stream().map(BorrowingRecordHistory::getId)
+                .sorted().toList());
+        assertEquals(0, archiver.archive(NOW.minusYears(1)));
+    }
+
+    @Test
+    void testHistoryIsPagedAcrossLiveAndArchivedRecords() {
+        archiver.archive(NOW.minusYears(1));
+        List<Long> expected = new ArrayList<>(oldRecordIds);
+        expected.addAll(recentRecordIds);
+        Collections.reverse(expected);
+
+        assertEquals(expected, pageThrough(before -> loanHistory.findPatronLoans(patron.getId(), false, before, 4)));
+        assertEquals(expected, pageThrough(before -> loanHistory.findBookLoans(book.getId(), before, 3)));
+        assertEquals(expected.subList(1, expected.size()),
+                pageThrough(before -> loanHistory.findPatronLoans(patron.getId(), true, before, 4)));
+    }
+
+    private List<Long> pageThrough(LongFunction<Slice<BorrowingRecordDTOResponse>> pages) {
+        List<Long> seen = new ArrayList<>();
+        long before = Long.MAX_VALUE;
+        Slice<BorrowingRecordDTOResponse> page;
+        do {
+            page = pages.apply(before);
+            page.forEach(loan -> seen.add(loan.getId()));
+            if (page.hasContent()) {
+                before = page.getContent().get(page.getNumberOfElements() - 1).getId();
+            }
+        } while (page.hasNext());
+        return seen;
+    }
+
+    private long saveRecord(LocalDateTime returnDateTime) {
+        BorrowingRecord record = new BorrowingRecord(book, patron);
+        record.setReturnDateTime(returnDateTime);
+        return borrowingRecordRepository.save(record).getId();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.librarymanagementsystem.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AbsentIdFilterTest {
+
+    private final AbsentIdFilter filter = new AbsentIdFilter(10_000, 0.01, 1000, Duration.ofMinutes(1));
+
+    @Test
+    void testOnlyMissingIdsAreAbsentBeforeLoading() {
+        assertFalse(filter.isAbsent(5L));
+
+        filter.recordMissing(5L, filter.beginLookup());
+
+        assertTrue(filter.isAbsent(5L));
+        assertFalse(filter.isAbsent(6L));
+    }
+
+    @Test
+    void testIdsAboveTheHighestAssignedIdOrNeverAssignedAreAbsentOnceLoaded() {
+        LongStream.rangeClosed(1, 5_000).filter(id -> id % 2 == 0).forEach(filter::recordExisting);
+        filter.completeLoad();
+
+        assertTrue(filter.isAbsent(5_001L));
+        assertTrue(filter.isAbsent(Long.MAX_VALUE));
+        assertTrue(LongStream.rangeClosed(1, 5_000).filter(id -> id % 2 == 0).noneMatch(filter::isAbsent));
+        long oddIdsAnswered = LongStream.rangeClosed(1, 5_000).filter(id -> id % 2 == 1).filter(filter::isAbsent)
+                .count();
+        // At most about 1% of the IDs that were never assigned go to the database.
+        assertTrue(oddIdsAnswered > 2_400, "only " + oddIdsAnswered + " of 2500 absent IDs were recognized");
+    }
+
+    @Test
+    void testAddingAnIdMakesItPresent() {
+        filter.completeLoad();
+        filter.recordMissing(7L, filter.beginLookup());
+
+        filter.recordAdded(7L);
+
+        assertFalse(filter.isAbsent(7L));
+        assertTrue(filter.isAbsent(8L));
+    }
+
+    @Test
+    void testMissRacingAnAddIsNotRemembered() {
+        long stamp = filter.beginLookup();
+        filter.recordAdded(7L);
+
+        filter.recordMissing(7L, stamp);
+
+        assertFalse(filter.isAbsent(7L));
+    }
+
+    @Test
+    void testDeletedIdsAreAbsent() {
+        filter.recordExisting(3L);
+        filter.completeLoad();
+
+        filter.recordDeleted(3L);
+
+        assertTrue(filter.isAbsent(3L));
+    }
+
+    @Test
+    void testMissingIdsExpire() throws InterruptedException {
+        AbsentIdFilter shortLived = new AbsentIdFilter(100, 0.01, 100, Duration.ofMillis(50));
+        shortLived.recordMissing(5L, shortLived.beginLookup());
+
+        Thread.sleep(100);
+
+        assertFalse(shortLived.isAbsent(5L));
+    }
+}
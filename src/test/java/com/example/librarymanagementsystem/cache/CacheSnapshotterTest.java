@@ -0,0 +1,143 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.entity.PatronTier;
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import com.example.librarymanagementsystem.snapshot.PatronSnapshot;
+import com.example.librarymanagementsystem.snapshot.Snapshot;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheSnapshotterTest {
+
+    @TempDir
+    private Path directory;
+
+    private final AtomicInteger bookBatches = new AtomicInteger();
+    private final AtomicInteger bookLoads = new AtomicInteger();
+    private final CacheEntryLoader bookLoader = loader("books", CacheSnapshotterTest::book);
+    private final CacheEntryLoader patronLoader = loader("patrons", CacheSnapshotterTest::patron);
+
+    @Test
+    void testSavedKeysAreReloadedInBatches() {
+        CacheManager before = cacheManager(false);
+        for (long id = 1; id <= 1200; id++) {
+            before.getCache("books").put(id, book(id));
+        }
+        before.getCache("patrons").put(1L, patron(1L));
+
+        assertEquals(1201, snapshotter(before, false).save());
+        CacheManager after = cacheManager(false);
+        assertEquals(1201, snapshotter(after, false).restore());
+
+        assertEquals(3, bookBatches.get());
+        assertEquals(book(700L), after.getCache("books").get(700L, BookSnapshot.class));
+        assertEquals(patron(1L), after.getCache("patrons").get(1L, PatronSnapshot.class));
+    }
+
+    @Test
+    void testSavedValuesAreRestoredWithoutTheDatabaseAndCheckedWhenRead() {
+        CacheManager before = cacheManager(true);
+        for (long id = 1; id <= 10; id++) {
+            before.getCache("books").put(id, book(id));
+        }
+        before.getCache("patrons").put(1L, patron(1L));
+        before.getCache("patrons").put(2L, patron(2L));
+
+        snapshotter(before, true).save();
+        CacheManager after = cacheManager(true);
+        assertEquals(12, snapshotter(after, true).restore());
+
+        assertEquals(0, bookBatches.get() + bookLoads.get());
+        assertEquals(book(5L), after.getCache("books").get(5L, BookSnapshot.class));
+        assertEquals(patron(2L), after.getCache("patrons").get(2L, PatronSnapshot.class));
+        assertEquals(1, ((RevalidatingCache) after.getCache("books")).currentCount());
+    }
+
+    @Test
+    void testRestoreWithoutAReadableFileLeavesTheCachesEmpty() throws IOException {
+        CacheManager cacheManager = cacheManager(false);
+        assertEquals(0, snapshotter(cacheManager, false).restore());
+
+        Files.writeString(directory.resolve("cache-snapshot.bin"), "not a snapshot");
+        assertEquals(0, snapshotter(cacheManager, false).restore());
+        assertNull(cacheManager.getCache("books").get(1L));
+    }
+
+    private CacheSnapshotter snapshotter(CacheManager cacheManager, boolean includeValues) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of(
+                "bookSnapshotLoader", bookLoader, "patronSnapshotLoader", patronLoader));
+        return new CacheSnapshotter(cacheManager, beans.getBeanProvider(CacheEntryLoader.class),
+                directory.resolve("cache-snapshot.bin"), 100_000, includeValues, 2, Duration.ofSeconds(10));
+    }
+
+    private CacheManager cacheManager(boolean revalidating) {
+        Map<String, CacheEntryLoader> loaders = Map.of("books", bookLoader, "patrons", patronLoader);
+        List<Cache> caches = loaders.keySet().stream()
+                .map(name -> (Cache) new CaffeineCache(name, Caffeine.newBuilder().maximumSize(10_000).build()))
+                .map(cache -> revalidating ? new RevalidatingCache(cache, loaders.get(cache.getName())) : cache)
+                .toList();
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        cacheManager.afterPropertiesSet();
+        return cacheManager;
+    }
+
+    private CacheEntryLoader loader(String cacheName, LongFunction<Snapshot> snapshots) {
+        return new CacheEntryLoader() {
+            @Override
+            public String cacheName() {
+                return cacheName;
+            }
+
+            @Override
+            public Object load(Object key) {
+                if (cacheName.equals("books")) {
+                    bookLoads.incrementAndGet();
+                }
+                return snapshots.apply((Long) key);
+            }
+
+            @Override
+            public Map<Object, Object> loadAll(Collection<?> keys) {
+                if (cacheName.equals("books")) {
+                    bookBatches.incrementAndGet();
+                }
+                return keys.stream().collect(Collectors.toMap(Function.identity(),
+                        key -> snapshots.apply((Long) key)));
+            }
+
+            @Override
+            public Long loadVersion(Object key) {
+                return snapshots.apply((Long) key).version();
+            }
+        };
+    }
+
+    private static BookSnapshot book(long id) {
+        return BookSnapshot.of(id, "Title " + id, "Author " + id % 3, 2001, "123-1234567890", id % 2 == 0, id);
+    }
+
+    private static PatronSnapshot patron(long id) {
+        return new PatronSnapshot(id, "Patron " + id, "1234567890", null, PatronTier.PREMIUM, 2);
+    }
+}
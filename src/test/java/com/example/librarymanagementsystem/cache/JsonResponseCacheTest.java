@@ -0,0 +1,86 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.configuration.CachingConfig;
+import com.example.librarymanagementsystem.configuration.ResponseCacheConfig;
+import com.example.librarymanagementsystem.mapper.BookMapper;
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import com.example.librarymanagementsystem.snapshot.PatronSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonResponseCache<BookSnapshot> responses = new JsonResponseCache<>("books",
+            BookMapper::toBookDTOResponse, objectMapper, DataSize.ofMegabytes(1));
+
+    @Test
+    void testSameVersionIsServedFromTheCacheAsTheMapperWouldWriteIt() throws Exception {
+        BookSnapshot book = new BookSnapshot(1L, "Title", "Author", 2001, "123-1234567890", false, 3);
+
+        byte[] first = responses.get(book);
+
+        assertArrayEquals(objectMapper.writeValueAsBytes(BookMapper.toBookDTOResponse(book)), first);
+        assertSame(first, responses.get(new BookSnapshot(1L, "Title", "Author", 2001, "123-1234567890", false, 3)));
+    }
+
+    @Test
+    void testOtherVersionIsEncodedAgain() throws Exception {
+        byte[] available = responses.get(new BookSnapshot(1L, "Title", "Author", 2001, "123-1234567890", false, 3));
+        BookSnapshot borrowed = new BookSnapshot(1L, "Title", "Author", 2001, "123-1234567890", true, 4);
+
+        byte[] current = responses.get(borrowed);
+
+        assertNotSame(available, current);
+        assertArrayEquals(objectMapper.writeValueAsBytes(BookMapper.toBookDTOResponse(borrowed)), current);
+        assertSame(current, responses.get(borrowed));
+    }
+
+    @Test
+    void testChangesOfTheEntityCacheDropTheEntries() {
+        BookSnapshot first = new BookSnapshot(1L, "Title", "Author", 2001, "123-1234567890", false, 3);
+        BookSnapshot second = new BookSnapshot(2L, "Other", "Author", 2002, "123-0987654321", false, 1);
+        byte[] firstJson = responses.get(first);
+        byte[] secondJson = responses.get(second);
+
+        responses.changed(1L);
+
+        assertNotSame(firstJson, responses.get(first));
+        assertSame(secondJson, responses.get(second));
+        responses.cleared();
+        assertNotSame(secondJson, responses.get(second));
+    }
+
+    @Test
+    void testResponseCachesFollowTheEntityCachesWhenEnabled() {
+        ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class))
+                .withUserConfiguration(CachingConfig.class, ResponseCacheConfig.class);
+        contextRunner.withPropertyValues("library.response-cache.enabled=true").run(context -> {
+            CacheManager cacheManager = context.getBean(CacheManager.class);
+            @SuppressWarnings("unchecked")
+            JsonResponseCache<BookSnapshot> bookResponses = (JsonResponseCache<BookSnapshot>) context
+                    .getBeanProvider(ResolvableType.forClassWithGenerics(JsonResponseCache.class, BookSnapshot.class))
+                    .getObject();
+            BookSnapshot book = new BookSnapshot(1L, "Title", "Author", 2001, "123-1234567890", false, 3);
+            byte[] json = bookResponses.get(book);
+
+            cacheManager.getCache("books").evict(1L);
+
+            assertInstanceOf(ObservedCache.class, cacheManager.getCache("books"));
+            assertInstanceOf(ObservedCache.class, cacheManager.getCache("patrons"));
+            assertNotSame(json, bookResponses.get(book));
+            assertNotNull(context.getBeanProvider(
+                    ResolvableType.forClassWithGenerics(JsonResponseCache.class, PatronSnapshot.class)).getIfAvailable());
+        });
+        contextRunner.run(context -> assertTrue(context.getBeansOfType(JsonResponseCache.class).isEmpty()));
+    }
+}
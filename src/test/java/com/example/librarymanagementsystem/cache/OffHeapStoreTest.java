@@ -0,0 +1,177 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStoreTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(now.get());
+        }
+    };
+
+    private final OffHeapStore<BookSnapshot> store = new OffHeapStore<>(new BookSnapshotCodec(), 4, 1024,
+            Duration.ofHours(1), clock);
+
+    @Test
+    void testStoredValuesAreReadBackEqual() {
+        BookSnapshot book = book(1L);
+        BookSnapshot untitled = new BookSnapshot(2L, null, "Author", 1999, null, true);
+
+        store.put(1L, book);
+        store.put(2L, untitled);
+
+        assertEquals(book, store.get(1L));
+        assertEquals(untitled, store.get(2L));
+        assertSame(store.get(1L).author(), store.get(2L).author());
+        assertNull(store.get(3L));
+        assertEquals(2, store.size());
+        assertEquals(4, store.hitCount());
+        assertEquals(1, store.missCount());
+    }
+
+    @Test
+    void testTakeAndRemoveDropTheValue() {
+        store.put(1L, book(1L));
+        store.put(2L, book(2L));
+        long twoRecords = store.liveBytes();
+
+        assertEquals(book(1L), store.take(1L));
+        assertNull(store.take(1L));
+        assertTrue(store.remove(2L));
+        assertFalse(store.remove(2L));
+
+        assertEquals(0, store.size());
+        assertEquals(0, store.liveBytes());
+        assertTrue(twoRecords > 2 * OffHeapStore.HEADER_BYTES);
+    }
+
+    @Test
+    void testPutReplacesTheValueOfAKey() {
+        store.put(1L, book(1L));
+        BookSnapshot borrowed = new BookSnapshot(1L, "Title 1", "Author", 2001, "123-1234567890", true);
+
+        store.put(1L, borrowed);
+
+        assertEquals(borrowed, store.get(1L));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testOldestEntriesAreEvictedWhenTheSlabsAreFull() {
+        for (long id = 1; id <= 200; id++) {
+            store.put(id, book(id));
+        }
+
+        assertNull(store.get(1L));
+        assertEquals(book(200L), store.get(200L));
+        assertTrue(store.evictionCount() > 0);
+        assertEquals(200, store.size() + store.evictionCount());
+        assertTrue(store.liveBytes() <= store.maximumBytes());
+        assertEquals(store.maximumBytes(), store.allocatedBytes());
+    }
+
+    @Test
+    void testRewrittenEntryIsNotEvictedWithItsOldRecord() {
+        store.put(1L, book(1L));
+        for (long id = 2; id <= 30; id++) {
+            store.put(id, book(id));
+        }
+        store.put(1L, book(1L));
+        // Wraps around into the slab that held the first record of ID 1.
+        for (long id = 31; id <= 60; id++) {
+            store.put(id, book(id));
+        }
+
+        assertNull(store.get(2L));
+        assertEquals(book(1L), store.get(1L));
+    }
+
+    @Test
+    void testEntriesExpireAfterWrite() {
+        store.put(1L, book(1L));
+        now.addAndGet(Duration.ofMinutes(30).toMillis());
+        store.put(2L, book(2L));
+        now.addAndGet(Duration.ofMinutes(40).toMillis());
+
+        assertNull(store.get(1L));
+        assertEquals(book(2L), store.get(2L));
+    }
+
+    @Test
+    void testClearRemovesEveryValue() {
+        for (long id = 1; id <= 100; id++) {
+            store.put(id, book(id));
+        }
+
+        store.clear();
+        store.put(101L, book(101L));
+
+        assertNull(store.get(100L));
+        assertEquals(book(101L), store.get(101L));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testPutsAreDroppedUntilAccepted() {
+        store.put(1L, book(1L));
+
+        store.clearAndRefusePuts();
+        store.put(2L, book(2L));
+        store.acceptPuts();
+        store.put(3L, book(3L));
+
+        assertNull(store.get(1L));
+        assertNull(store.get(2L));
+        assertEquals(book(3L), store.get(3L));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testValueLargerThanASlabIsNotStored() {
+        store.put(1L, book(1L));
+
+        store.put(1L, new BookSnapshot(1L, "T".repeat(2000), "Author", 2001, "123-1234567890", false));
+
+        assertNull(store.get(1L));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testInvalidSlabsAreRejected() {
+        BookSnapshotCodec codec = new BookSnapshotCodec();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new OffHeapStore<>(codec, 1, 1024, Duration.ofHours(1), clock));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OffHeapStore<>(codec, 4, 1020, Duration.ofHours(1), clock));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OffHeapStore<>(codec, 32L * 1024 * 1024 * 1024, Duration.ofHours(1)));
+    }
+
+    private static BookSnapshot book(long id) {
+        return new BookSnapshot(id, "Title " + id, "Author", 2001, "123-1234567890", false);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevalidatingCacheTest {
+
+    private final Map<Object, Long> versions = new HashMap<>();
+    private final AtomicInteger versionLoads = new AtomicInteger();
+    private final RevalidatingCache cache = new RevalidatingCache(new ConcurrentMapCache("books"),
+            new CacheEntryLoader() {
+                @Override
+                public String cacheName() {
+                    return "books";
+                }
+
+                @Override
+                public Object load(Object key) {
+                    throw new AssertionError("Only versions are read");
+                }
+
+                @Override
+                public Long loadVersion(Object key) {
+                    versionLoads.incrementAndGet();
+                    return versions.get(key);
+                }
+            });
+
+    @Test
+    void testRestoredValueIsKeptWhileItsVersionMatches() {
+        versions.put(1L, 3L);
+        cache.restore(1L, book(1L, 3L));
+
+        assertEquals(book(1L, 3L), cache.get(1L, BookSnapshot.class));
+        assertEquals(book(1L, 3L), cache.get(1L).get());
+
+        assertEquals(1, versionLoads.get());
+        assertEquals(1, cache.currentCount());
+        assertEquals(0, cache.staleCount());
+    }
+
+    @Test
+    void testChangedOrDeletedValueIsEvictedWhenFirstRead() {
+        versions.put(1L, 4L);
+        cache.restore(1L, book(1L, 3L));
+        cache.restore(2L, book(2L, 1L));
+
+        assertNull(cache.get(1L));
+        assertEquals(book(2L, 5L), cache.get(2L, () -> book(2L, 5L)));
+
+        assertEquals(book(2L, 5L), cache.get(2L, BookSnapshot.class));
+        assertEquals(2, cache.staleCount());
+        assertEquals(0, cache.currentCount());
+    }
+
+    @Test
+    void testValuesPutByTheApplicationAreNotChecked() {
+        cache.restore(1L, book(1L, 3L));
+        cache.put(1L, book(1L, 4L));
+        cache.put(2L, book(2L, 1L));
+        cache.restore(2L, book(2L, 0L));
+
+        assertEquals(book(1L, 4L), cache.get(1L, BookSnapshot.class));
+        assertEquals(book(2L, 1L), cache.get(2L, BookSnapshot.class));
+        assertEquals(0, versionLoads.get());
+    }
+
+    private static BookSnapshot book(long id, long version) {
+        return BookSnapshot.of(id, "Title " + id, "Author", 2001, "123-1234567890", false, version);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the heap used by a catalog of books held in a Caffeine cache alone with the heap used when most of it is
+ * in an off-heap tier behind a small Caffeine cache, and the time a random read takes in each.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class TieredCacheBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TieredCacheBenchmarkTest.class);
+    private static final int BOOKS = 500_000;
+    private static final int ON_HEAP_BOOKS = 10_000;
+    private static final int READS = 1_000_000;
+
+    @Test
+    void compareOnHeapCacheWithTieredCache() {
+        long heapBefore = usedHeap();
+        Cache onHeap = new CaffeineCache("books", Caffeine.newBuilder().build());
+        fill(onHeap);
+        long onHeapBytes = usedHeap() - heapBefore;
+        long onHeapNanos = readNanos(onHeap);
+        onHeap = null;
+
+        heapBefore = usedHeap();
+        OffHeapStore<BookSnapshot> offHeap = new OffHeapStore<>(new BookSnapshotCodec(), 256L * 1024 * 1024,
+                Duration.ofHours(1));
+        Cache tiered = new TieredCache(new CaffeineCache("books", Caffeine.newBuilder()
+                .maximumSize(ON_HEAP_BOOKS)
+                .executor(Runnable::run)
+                .evictionListener(TieredCache.demoter(offHeap))
+                .build()), offHeap);
+        fill(tiered);
+        long tieredBytes = usedHeap() - heapBefore;
+        long tieredNanos = readNanos(tiered);
+
+        logger.info("{} books: {} MB on the heap and {} ns per read in a Caffeine cache, {} MB on the heap, {} MB "
+                        + "off it and {} ns per read with {} on the heap and the rest off it", BOOKS,
+                onHeapBytes >> 20, onHeapNanos, tieredBytes >> 20, offHeap.liveBytes() >> 20, tieredNanos,
+                ON_HEAP_BOOKS);
+        assertEquals(BOOKS, offHeap.size() + ((TieredCache) tiered).getNativeCache().estimatedSize());
+        assertTrue(tieredBytes < onHeapBytes);
+    }
+
+    private static void fill(Cache cache) {
+        for (long id = 1; id <= BOOKS; id++) {
+            cache.put(id, new BookSnapshot(id, "Title " + id, "Author " + id % 2_000, 1900 + (int) (id % 120),
+                    String.format("978-%010d", id), false));
+        }
+    }
+
+    private static long readNanos(Cache cache) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            assertNotNull(cache.get(random.nextLong(1, BOOKS + 1)));
+        }
+        return (System.nanoTime() - startTime) / READS;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
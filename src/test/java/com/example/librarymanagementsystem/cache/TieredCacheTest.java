@@ -0,0 +1,151 @@
+package com.example.librarymanagementsystem.cache;
+
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final OffHeapStore<BookSnapshot> offHeap = new OffHeapStore<>(new BookSnapshotCodec(), 1024 * 1024,
+            Duration.ofHours(1));
+    private final TieredCache cache = new TieredCache(new CaffeineCache("books", Caffeine.newBuilder()
+            .maximumSize(2)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .ticker(nanos::get)
+            .executor(Runnable::run)
+            .evictionListener(TieredCache.demoter(offHeap))
+            .build()), offHeap);
+
+    @Test
+    void testEntriesEvictedForSizeAreDemotedAndPromotedWhenRead() {
+        LongStream.rangeClosed(1, 5).forEach(id -> cache.put(id, book(id)));
+        cache.getNativeCache().cleanUp();
+
+        assertEquals(2, cache.getNativeCache().estimatedSize());
+        assertEquals(3, offHeap.size());
+        for (long id = 1; id <= 5; id++) {
+            assertEquals(book(id), cache.get(id, BookSnapshot.class));
+        }
+        // Promoting an entry may demote one that has not been read yet, to be promoted again when it is.
+        assertTrue(offHeap.hitCount() >= 3);
+    }
+
+    @Test
+    void testLoaderIsOnlyCalledForEntriesInNeitherTier() {
+        LongStream.rangeClosed(1, 5).forEach(id -> cache.put(id, book(id)));
+        cache.getNativeCache().cleanUp();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (long id = 1; id <= 6; id++) {
+            long key = id;
+            assertEquals(book(id), cache.get(id, () -> {
+                loads.incrementAndGet();
+                return book(key);
+            }));
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testPutAndEvictReachTheOffHeapTier() {
+        LongStream.rangeClosed(1, 5).forEach(id -> cache.put(id, book(id)));
+        cache.getNativeCache().cleanUp();
+        long demoted = LongStream.rangeClosed(1, 5).filter(id -> offHeap.get(id) != null).findFirst().orElseThrow();
+        long evicted = LongStream.rangeClosed(1, 5).filter(id -> offHeap.get(id) != null).skip(1).findFirst()
+                .orElseThrow();
+        BookSnapshot borrowed = new BookSnapshot(demoted, "Title " + demoted, "Author", 2001, "123-1234567890", true);
+
+        cache.put(demoted, borrowed);
+        assertTrue(cache.evictIfPresent(evicted));
+
+        assertNull(offHeap.get(demoted));
+        assertEquals(borrowed, cache.get(demoted, BookSnapshot.class));
+        assertNull(cache.get(evicted));
+        assertFalse(cache.evictIfPresent(evicted));
+    }
+
+    @Test
+    void testExpiredEntriesAreDroppedRatherThanDemoted() {
+        cache.put(1L, book(1L));
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(11));
+        cache.getNativeCache().cleanUp();
+
+        assertEquals(0, offHeap.size());
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void testClearEmptiesBothTiers() {
+        LongStream.rangeClosed(1, 5).forEach(id -> cache.put(id, book(id)));
+        cache.getNativeCache().cleanUp();
+
+        cache.clear();
+
+        assertEquals(0, cache.getNativeCache().estimatedSize());
+        assertEquals(0, offHeap.size());
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void testValuesMovingBetweenTiersDoNotOutliveAClear() throws Exception {
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 200; round++) {
+                LongStream.rangeClosed(1, 20).forEach(id -> cache.put(id, book(id)));
+                AtomicBoolean running = new AtomicBoolean(true);
+                List<Future<?>> reads = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    reads.add(readers.submit(() -> {
+                        while (running.get()) {
+                            // Each read promotes an entry and demotes another one.
+                            LongStream.rangeClosed(1, 20).forEach(cache::get);
+                        }
+                    }));
+                }
+
+                cache.clear();
+                running.set(false);
+                for (Future<?> read : reads) {
+                    read.get(10, TimeUnit.SECONDS);
+                }
+
+                for (long id = 1; id <= 20; id++) {
+                    assertNull(cache.get(id), "book " + id + " outlived the clear of round " + round);
+                }
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testKeysThatAreNotIdsStayOnTheHeap() {
+        cache.put("a", book(1L));
+        cache.put("b", book(2L));
+        cache.put("c", book(3L));
+        cache.getNativeCache().cleanUp();
+
+        assertEquals(0, offHeap.size());
+    }
+
+    private static BookSnapshot book(long id) {
+        return new BookSnapshot(id, "Title " + id, "Author", 2001, "123-1234567890", false);
+    }
+}
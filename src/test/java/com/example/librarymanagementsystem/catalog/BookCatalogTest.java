@@ -0,0 +1,188 @@
+package com.example.librarymanagementsystem.catalog;
+
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class BookCatalogTest {
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final List<Book> books = new ArrayList<>();
+
+    @Test
+    void testPagesFollowTheCursorAndKeepOnlyTheBooksMeetingTheFilter() {
+        CatalogSnapshot catalog = new CatalogSnapshot("e", 1, List.of(
+                new BookSnapshot(2L, "A", "Ann Author", 2001, "isbn-2", false),
+                new BookSnapshot(4L, "B", "Bob Author", 2002, "isbn-4", true),
+                new BookSnapshot(6L, "C", "ann author", 2003, "isbn-6", true),
+                new BookSnapshot(8L, "D", "Ann Author", 2004, "isbn-8", false)));
+
+        assertEquals(List.of(2L, 4L), ids(catalog.page(null, 2, BookFilter.NONE)));
+        assertTrue(catalog.page(null, 2, BookFilter.NONE).hasNext());
+        assertEquals(List.of(6L, 8L), ids(catalog.page(4L, 2, BookFilter.NONE)));
+        assertFalse(catalog.page(4L, 2, BookFilter.NONE).hasNext());
+        assertEquals(List.of(6L, 8L), ids(catalog.page(5L, 5, BookFilter.NONE)));
+        assertEquals(List.of(), ids(catalog.page(8L, 5, BookFilter.NONE)));
+        assertEquals(List.of(6L), ids(catalog.page(2L, 1, new BookFilter("ANN AUTHOR", null))));
+        assertTrue(catalog.page(2L, 1, new BookFilter("ANN AUTHOR", null)).hasNext());
+        assertEquals(List.of(2L, 8L), ids(catalog.page(null, 5, new BookFilter(null, false))));
+        assertEquals(4, catalog.count(BookFilter.NONE));
+        assertEquals(1, catalog.count(new BookFilter("Ann Author", true)));
+        assertEquals("e-1", catalog.tag());
+    }
+
+    @Test
+    void testChangesBuildTheNextVersionWithoutTouchingThePreviousOne() {
+        CatalogSnapshot catalog = new CatalogSnapshot("e", 1, List.of(
+                new BookSnapshot(2L, "A", "Author", 2001, "isbn-2", false),
+                new BookSnapshot(4L, "B", "Author", 2002, "isbn-4", false),
+                new BookSnapshot(6L, "C", "Author", 2003, "isbn-6", false)));
+        BookSnapshot borrowed = new BookSnapshot(4L, "B", "Author", 2002, "isbn-4", true, 1);
+        BookSnapshot added = new BookSnapshot(7L, "E", "Author", 2005, "isbn-7", false);
+        BookSnapshot first = new BookSnapshot(1L, "F", "Author", 2006, "isbn-1", false);
+
+        CatalogSnapshot next = catalog.withChanges(new long[]{1L, 4L, 6L, 7L, 9L},
+                Map.of(1L, first, 4L, borrowed, 7L, added));
+
+        assertEquals(2, next.version());
+        assertEquals(List.of(1L, 2L, 4L, 7L), ids(next.page(null, 10, BookFilter.NONE)));
+        assertEquals(borrowed, next.books().get(2));
+        assertEquals(List.of(2L, 4L, 6L), ids(catalog.page(null, 10, BookFilter.NONE)));
+        assertFalse(catalog.books().get(1).borrowed());
+    }
+
+    @Test
+    void testBooksSurviveTheRecordsBeingMovedToNewChunks() {
+        List<BookSnapshot> initial = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            initial.add(new BookSnapshot(id, "Title " + id, "Author " + id % 7, 2000, null, false));
+        }
+        CatalogSnapshot first = new CatalogSnapshot("e", 1, initial);
+        CatalogSnapshot catalog = first;
+        String longTitle = "t".repeat(10_000);
+        // Rewriting the same books with a long title leaves far more dead records than live ones, so the records move.
+        for (int round = 0; round < 300; round++) {
+            long id = round % 10 + 1;
+            catalog = catalog.withChanges(new long[]{id}, Map.of(id,
+                    new BookSnapshot(id, longTitle + round, "Author " + id % 7, 2000, null, round % 2 == 0, round)));
+        }
+
+        assertEquals(1000, catalog.size());
+        assertEquals(new BookSnapshot(10L, longTitle + 299, "Author 3", 2000, null, false, 299),
+                catalog.books().get(9));
+        assertEquals(new BookSnapshot(11L, "Title 11", "Author 4", 2000, null, false, 0), catalog.books().get(10));
+        assertEquals(5, catalog.count(new BookFilter(null, true)));
+        assertEquals(143, catalog.count(new BookFilter("author 4", null)));
+        assertEquals(initial, first.books());
+    }
+
+    @Test
+    void testChangesAreAppliedOnTheFirstReadAfterTheStalenessBound() {
+        books.addAll(List.of(new Book(1L, "A", "Author", 2001, "isbn-1"), new Book(2L, "B", "Author", 2002, "isbn-2")));
+        stubRepository();
+        BookCatalog catalog = new BookCatalog(bookRepository, Duration.ZERO);
+        catalog.reload();
+        CatalogSnapshot loaded = catalog.snapshot();
+
+        books.set(1, new Book(2L, "B", "Author", 2002, "isbn-2", true));
+        books.add(new Book(3L, "C", "Author", 2003, "isbn-3"));
+        books.remove(0);
+        catalog.changed(1L);
+        catalog.changed(2L);
+        catalog.changed(3L);
+        CatalogSnapshot changed = catalog.snapshot();
+
+        assertEquals(List.of(1L, 2L), ids(loaded.page(null, 10, BookFilter.NONE)));
+        assertEquals(List.of(2L, 3L), ids(changed.page(null, 10, BookFilter.NONE)));
+        assertTrue(changed.books().get(0).borrowed());
+        assertEquals(loaded.version() + 1, changed.version());
+        assertSame(changed, catalog.snapshot());
+        verify(bookRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void testChangesAreNotSeenBeforeTheStalenessBound() {
+        books.add(new Book(1L, "A", "Author", 2001, "isbn-1"));
+        stubRepository();
+        BookCatalog catalog = new BookCatalog(bookRepository, Duration.ofHours(1));
+        CatalogSnapshot loaded = catalog.snapshot();
+
+        books.add(new Book(2L, "B", "Author", 2002, "isbn-2"));
+        catalog.changed(2L);
+
+        assertSame(loaded, catalog.snapshot());
+        verify(bookRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void testClearedCacheReloadsEveryBook() {
+        books.add(new Book(1L, "A", "Author", 2001, "isbn-1"));
+        stubRepository();
+        BookCatalog catalog = new BookCatalog(bookRepository, Duration.ZERO);
+        catalog.reload();
+
+        books.add(new Book(2L, "B", "Author", 2002, "isbn-2"));
+        catalog.cleared();
+
+        assertEquals(2, catalog.snapshot().size());
+        assertEquals(2, catalog.snapshot().version());
+        verify(bookRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void testFailedUpdateKeepsServingThePreviousVersionAndRetries() {
+        books.add(new Book(1L, "A", "Author", 2001, "isbn-1"));
+        stubRepository();
+        BookCatalog catalog = new BookCatalog(bookRepository, Duration.ZERO);
+        CatalogSnapshot loaded = catalog.snapshot();
+        doThrow(new DataAccessResourceFailureException("down")).when(bookRepository).findAllById(anyIterable());
+
+        books.add(new Book(2L, "B", "Author", 2002, "isbn-2"));
+        catalog.changed(2L);
+
+        assertSame(loaded, catalog.snapshot());
+        doAnswer(invocation -> matching(invocation.getArgument(0))).when(bookRepository).findAllById(anyIterable());
+        assertEquals(2, catalog.snapshot().size());
+    }
+
+    private void stubRepository() {
+        when(bookRepository.findByIdGreaterThan(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            List<Book> page = books.stream().filter(book -> book.getId() > afterId)
+                    .limit(pageable.getPageSize() + 1L).toList();
+            boolean hasNext = page.size() > pageable.getPageSize();
+            return new SliceImpl<>(hasNext ? page.subList(0, pageable.getPageSize()) : page,
+                    PageRequest.of(0, pageable.getPageSize()), hasNext);
+        });
+        when(bookRepository.findAllById(anyIterable()))
+                .thenAnswer(invocation -> matching(invocation.getArgument(0)));
+    }
+
+    private List<Book> matching(Iterable<Long> ids) {
+        List<Long> wanted = new ArrayList<>();
+        ids.forEach(wanted::add);
+        return books.stream().filter(book -> wanted.contains(book.getId())).toList();
+    }
+
+    private static List<Long> ids(Slice<BookSnapshot> page) {
+        return page.getContent().stream().map(BookSnapshot::id).toList();
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.librarymanagementsystem.configuration;
+
+import com.example.librarymanagementsystem.cache.CacheChangeListener;
+import com.example.librarymanagementsystem.cache.CacheEntryLoader;
+import com.example.librarymanagementsystem.cache.ObservedCache;
+import com.example.librarymanagementsystem.cache.RefreshAheadCaffeineCache;
+import com.example.librarymanagementsystem.cache.RevalidatingCache;
+import com.example.librarymanagementsystem.cache.TieredCache;
+import com.example.librarymanagementsystem.invalidation.CacheInvalidationBus;
+import com.example.librarymanagementsystem.invalidation.ClusterInvalidatingCache;
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.cache.CacheMetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(CachingConfig.class);
+
+    @Test
+    void testEachCacheHasItsOwnPolicyFromProperties() {
+        contextRunner.withPropertyValues("library.cache.books.maximum-weight=1MB",
+                        "library.cache.books.expire-after-write=PT1H", "library.cache.patrons.expire-after-write=5m")
+                .run(context -> {
+                    Cache<Object, Object> books = nativeCache(context.getBean(CacheManager.class), "books");
+                    Cache<Object, Object> patrons = nativeCache(context.getBean(CacheManager.class), "patrons");
+
+                    assertEquals(DataSize.ofMegabytes(1).toBytes(),
+                            books.policy().eviction().orElseThrow().getMaximum());
+                    assertEquals(Duration.ofHours(1), expireAfterWrite(books));
+                    assertEquals(DataSize.ofMegabytes(32).toBytes(),
+                            patrons.policy().eviction().orElseThrow().getMaximum());
+                    assertEquals(Duration.ofMinutes(5), expireAfterWrite(patrons));
+                    assertTrue(books.policy().refreshAfterWrite().isEmpty());
+                    assertNull(context.getBean(CacheManager.class).getCache("unknown"));
+                });
+    }
+
+    @Test
+    void testCacheIsBoundedByTheEstimatedSizeOfItsEntries() {
+        Cache<Object, Object> cache = CachingConfig.buildCache("books",
+                new CachingConfig.CacheSpec(DataSize.ofKilobytes(64), Duration.ofMinutes(10), null, null), null)
+                .getNativeCache();
+
+        for (long id = 1; id <= 2_000; id++) {
+            cache.put(id, new BookSnapshot(id, "Title " + id, "Author", 2001, "123-1234567890", false));
+        }
+        cache.cleanUp();
+
+        Policy.Eviction<Object, Object> eviction = cache.policy().eviction().orElseThrow();
+        assertTrue(eviction.weightedSize().orElseThrow() <= DataSize.ofKilobytes(64).toBytes());
+        assertTrue(cache.estimatedSize() < 2_000);
+        assertTrue(cache.stats().evictionCount() > 0);
+    }
+
+    @Test
+    void testEntriesReadAfterTheRefreshPeriodAreReloadedThroughTheLoader() throws InterruptedException {
+        List<Object> loaded = new CopyOnWriteArrayList<>();
+        CaffeineCache cache = CachingConfig.buildCache("books",
+                new CachingConfig.CacheSpec(DataSize.ofMegabytes(1), Duration.ofMinutes(10), Duration.ofMillis(1),
+                        null),
+                CacheEntryLoader.of("books", key -> {
+                    loaded.add(key);
+                    return "reloaded " + key;
+                }));
+        cache.put(1L, "stale");
+        cache.put(2L, "stale");
+        Thread.sleep(5);
+
+        assertEquals("stale", cache.get(1L).get());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!"reloaded 1".equals(cache.getNativeCache().getIfPresent(1L))) {
+            assertTrue(System.nanoTime() < deadline, "the entry was not refreshed");
+            Thread.sleep(5);
+        }
+        assertEquals(List.of(1L), loaded);
+        assertEquals("stale", cache.getNativeCache().getIfPresent(2L));
+    }
+
+    @Test
+    void testRefreshDoesNotOverwriteAnEntryUpdatedOrEvictedWhileReloading() throws InterruptedException {
+        Semaphore reloading = new Semaphore(0);
+        Semaphore release = new Semaphore(0);
+        RefreshAheadCaffeineCache cache = (RefreshAheadCaffeineCache) CachingConfig.buildCache("books",
+                new CachingConfig.CacheSpec(DataSize.ofMegabytes(1), Duration.ofMinutes(10), Duration.ofMillis(1),
+                        null),
+                CacheEntryLoader.of("books", key -> {
+                    reloading.release();
+                    try {
+                        release.tryAcquire(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "reloaded " + key;
+                }));
+        cache.put(1L, "stale");
+        cache.put(2L, "stale");
+        Thread.sleep(5);
+
+        cache.get(1L);
+        assertTrue(reloading.tryAcquire(5, TimeUnit.SECONDS));
+        cache.put(1L, "updated");
+        release.release();
+        awaitRefreshes(cache, 1);
+        cache.get(2L);
+        assertTrue(reloading.tryAcquire(5, TimeUnit.SECONDS));
+        cache.evict(2L);
+        release.release();
+        awaitRefreshes(cache, 2);
+
+        assertEquals("updated", cache.getNativeCache().getIfPresent(1L));
+        assertNull(cache.getNativeCache().getIfPresent(2L));
+    }
+
+    @Test
+    void testRefreshWithoutALoaderIsRejected() {
+        contextRunner.withPropertyValues("library.cache.patrons.refresh-after-write=PT1M")
+                .run(context -> assertNotNull(context.getStartupFailure()));
+    }
+
+    @Test
+    void testCacheStatisticsArePublishedAsMetrics() {
+        contextRunner.withConfiguration(AutoConfigurations.of(MetricsAutoConfiguration.class,
+                        CompositeMeterRegistryAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+                        CacheMetricsAutoConfiguration.class))
+                .run(context -> {
+                    org.springframework.cache.Cache books = context.getBean(CacheManager.class).getCache("books");
+                    books.get(1L, () -> new BookSnapshot(1L, "Title", "Author", 2001, "123-1234567890", false));
+                    books.get(1L);
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+                    assertEquals(1.0, registry.get("cache.gets").tags("cache", "books", "result", "hit")
+                            .functionCounter().count());
+                    assertEquals(1.0, registry.get("cache.gets").tags("cache", "books", "result", "miss")
+                            .functionCounter().count());
+                    assertEquals(0.0, registry.get("cache.evictions").tags("cache", "books")
+                            .functionCounter().count());
+                    assertEquals(1.0, registry.get("cache.load.duration").tags("cache", "books")
+                            .functionTimer().count());
+                    assertEquals(1.0, registry.get("cache.load").tags("cache", "books", "result", "success")
+                            .functionCounter().count());
+                    assertNotNull(registry.get("cache.gets").tags("cache", "patrons", "result", "hit")
+                            .functionCounter());
+                });
+    }
+
+    @Test
+    void testCacheWithAnOffHeapSizeHasAnOffHeapTier() {
+        contextRunner.withConfiguration(AutoConfigurations.of(MetricsAutoConfiguration.class,
+                        CompositeMeterRegistryAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+                        CacheMetricsAutoConfiguration.class))
+                .withPropertyValues("library.cache.books.off-heap.maximum-size=1MB",
+                        "library.cache.books.off-heap.expire-after-write=PT2H")
+                .run(context -> {
+                    CacheManager cacheManager = context.getBean(CacheManager.class);
+                    TieredCache books = (TieredCache) cacheManager.getCache("books");
+                    books.get(1L, () -> new BookSnapshot(1L, "Title", "Author", 2001, "123-1234567890", false));
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+                    assertEquals(DataSize.ofMegabytes(1).toBytes(), books.getOffHeap().maximumBytes());
+                    assertInstanceOf(CaffeineCache.class, cacheManager.getCache("patrons"));
+                    assertEquals(1.0, registry.get("cache.gets").tags("cache", "books", "result", "miss")
+                            .functionCounter().count());
+                    assertEquals(1.0, registry.get("cache.load").tags("cache", "books", "result", "success")
+                            .functionCounter().count());
+                    assertEquals(0.0, registry.get("cache.off-heap.size").tags("cache", "books").gauge().value());
+                    assertNotNull(registry.get("cache.off-heap.gets").tags("cache", "books", "result", "hit")
+                            .functionCounter());
+                });
+    }
+
+    @Test
+    void testOffHeapTierWithoutACodecIsRejected() {
+        CachingConfig.CacheSpec spec = new CachingConfig.CacheSpec(DataSize.ofMegabytes(1), Duration.ofMinutes(10),
+                null, new CachingConfig.OffHeapSpec(DataSize.ofMegabytes(1), Duration.ofMinutes(10)));
+
+        assertThrows(IllegalStateException.class, () -> CachingConfig.createCache("loans", spec, null));
+    }
+
+    @Test
+    void testCachesCheckRestoredValuesWhenSnapshotsIncludeValues() {
+        contextRunner.withBean(CacheEntryLoader.class, () -> CacheEntryLoader.of("books", key -> null))
+                .withBean("patronLoader", CacheEntryLoader.class, () -> CacheEntryLoader.of("patrons", key -> null))
+                .withPropertyValues("library.cache.snapshot.enabled=true", "library.cache.snapshot.include-values=true")
+                .run(context -> {
+                    CacheManager cacheManager = context.getBean(CacheManager.class);
+
+                    assertInstanceOf(RevalidatingCache.class, cacheManager.getCache("books"));
+                    assertInstanceOf(RevalidatingCache.class, cacheManager.getCache("patrons"));
+                });
+        contextRunner.withPropertyValues("library.cache.snapshot.enabled=true")
+                .run(context -> assertInstanceOf(CaffeineCache.class,
+                        context.getBean(CacheManager.class).getCache("books")));
+    }
+
+    @Test
+    void testCachesPublishTheirChangesWhenKeptCoherentAcrossInstances() {
+        contextRunner.withUserConfiguration(CacheInvalidationConfig.class)
+                .withConfiguration(AutoConfigurations.of(MetricsAutoConfiguration.class,
+                        CompositeMeterRegistryAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+                        CacheMetricsAutoConfiguration.class))
+                .withPropertyValues("library.cache.invalidation.enabled=true",
+                        "library.cache.invalidation.transport=loopback")
+                .run(context -> {
+                    CacheManager cacheManager = context.getBean(CacheManager.class);
+                    org.springframework.cache.Cache books = cacheManager.getCache("books");
+                    books.get(1L, () -> new BookSnapshot(1L, "Title", "Author", 2001, "123-1234567890", false));
+                    books.evict(1L);
+                    CacheInvalidationBus bus = context.getBean(CacheInvalidationBus.class);
+                    bus.flush();
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+                    assertInstanceOf(ClusterInvalidatingCache.class, books);
+                    assertInstanceOf(ClusterInvalidatingCache.class, cacheManager.getCache("patrons"));
+                    assertEquals(1, bus.sentBatchCount());
+                    assertEquals(1.0, registry.get("cache.invalidation.entries").tags("result", "sent")
+                            .functionCounter().count());
+                    assertEquals(1.0, registry.get("cache.load").tags("cache", "books", "result", "success")
+                            .functionCounter().count());
+                    assertNotNull(registry.get("cache.gets").tags("cache", "books", "result", "miss")
+                            .functionCounter());
+                });
+        contextRunner.withUserConfiguration(CacheInvalidationConfig.class)
+                .withPropertyValues("library.cache.invalidation.enabled=true",
+                        "library.cache.invalidation.transport=multicast")
+                .run(context -> assertNotNull(context.getStartupFailure()));
+    }
+
+    @Test
+    void testChangeListenerHearsOfLocalAndRemoteChangesButNotOfLoads() {
+        List<Object> changes = new CopyOnWriteArrayList<>();
+        CacheChangeListener listener = new CacheChangeListener() {
+            @Override
+            public String cacheName() {
+                return "books";
+            }
+
+            @Override
+            public void changed(Object key) {
+                changes.add(key);
+            }
+
+            @Override
+            public void cleared() {
+                changes.add("cleared");
+            }
+        };
+        contextRunner.withUserConfiguration(CacheInvalidationConfig.class)
+                .withConfiguration(AutoConfigurations.of(MetricsAutoConfiguration.class,
+                        CompositeMeterRegistryAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+                        CacheMetricsAutoConfiguration.class))
+                .withBean(CacheChangeListener.class, () -> listener)
+                .withPropertyValues("library.cache.invalidation.enabled=true",
+                        "library.cache.invalidation.transport=loopback")
+                .run(context -> {
+                    CacheManager cacheManager = context.getBean(CacheManager.class);
+                    ClusterInvalidatingCache books = (ClusterInvalidatingCache) cacheManager.getCache("books");
+                    books.get(1L, () -> new BookSnapshot(1L, "Title", "Author", 2001, "123-1234567890", false));
+                    books.putIfAbsent(3L, new BookSnapshot(3L, "Title", "Author", 2001, "123-1234567891", false));
+                    books.put(1L, new BookSnapshot(1L, "New Title", "Author", 2001, "123-1234567890", true));
+                    books.evictLocally(2L);
+                    books.clearLocally();
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+                    assertInstanceOf(ObservedCache.class, books.getTargetCache());
+                    assertInstanceOf(ClusterInvalidatingCache.class, cacheManager.getCache("patrons"));
+                    assertEquals(List.of(1L, 2L, "cleared"), changes);
+                    assertNotNull(registry.get("cache.gets").tags("cache", "books", "result", "miss")
+                            .functionCounter());
+                });
+    }
+
+    private static void awaitRefreshes(RefreshAheadCaffeineCache cache, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.refreshCount() < count) {
+            assertTrue(System.nanoTime() < deadline, "the reload did not complete");
+            Thread.sleep(5);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cache<Object, Object> nativeCache(CacheManager cacheManager, String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+
+    private static Duration expireAfterWrite(Cache<Object, Object> cache) {
+        return Duration.ofNanos(cache.policy().expireAfterWrite().orElseThrow().getExpiresAfter(TimeUnit.NANOSECONDS));
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.librarymanagementsystem.controller;
 
+import com.example.librarymanagementsystem.catalog.BookFilter;
+import com.example.librarymanagementsystem.catalog.Versioned;
 import com.example.librarymanagementsystem.dto.BookDTORequest;
 import com.example.librarymanagementsystem.entity.Book;
 import com.example.librarymanagementsystem.exceptionHandler.BookNotFoundException;
 import com.example.librarymanagementsystem.repository.BookRepository;
 import com.example.librarymanagementsystem.service.BookService;
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +15,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -46,26 +52,97 @@ public class BookControllerIntegrationTest {
     @Test
     public void testGetAllBooks() throws Exception {
         // Given
-        Book book1 = new Book(1234L, "Title1", "Author", 2000, "123-1234567890", false);
-        Book book2 = new Book(12345L, "Title2", "Author", 2001, "123-0987654321", false);
+        BookSnapshot book1 = new BookSnapshot(1234L, "Title1", "Author", 2000, "123-1234567890", false);
+        BookSnapshot book2 = new BookSnapshot(12345L, "Title2", "Author", 2001, "123-0987654321", false);
 
         // When & Then
-        when(bookService.getAllBooks()).thenReturn(List.of(book1, book2));
+        when(bookService.getBooksPage(null, 50, BookFilter.NONE)).thenReturn(new Versioned<>(
+                new SliceImpl<>(List.of(book1, book2), PageRequest.of(0, 50), false), "a1-7"));
         mockMvc.perform(MockMvcRequestBuilders.get("/api/books")
                         .header(ADMIN_KEY_HEADER, ADMIN_KEY_VALUE)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(2));
+                .andExpect(header().string("ETag", "\"a1-7\""))
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void testGetAllBooksNotModified() throws Exception {
+        // Given
+        BookSnapshot book = new BookSnapshot(1234L, "Title1", "Author", 2000, "123-1234567890", true);
+
+        // When & Then
+        when(bookService.getBooksPage(null, 50, new BookFilter("Author", true))).thenReturn(new Versioned<>(
+                new SliceImpl<>(List.of(book), PageRequest.of(0, 50), false), "a1-7"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/books")
+                        .param("author", "Author")
+                        .param("borrowed", "true")
+                        .header("If-None-Match", "\"a1-7\"")
+                        .header(ADMIN_KEY_HEADER, ADMIN_KEY_VALUE)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void testCountBooks() throws Exception {
+        // When & Then
+        when(bookService.countBooks(new BookFilter(null, false))).thenReturn(new Versioned<>(42L, "a1-8"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/books/count")
+                        .param("borrowed", "false")
+                        .header("If-None-Match", "\"a1-7\"")
+                        .header(ADMIN_KEY_HEADER, ADMIN_KEY_VALUE)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"a1-8\""))
+                .andExpect(jsonPath("$.count").value(42));
+    }
+
+    @Test
+    public void testGetAllBooksNextCursor() throws Exception {
+        // Given
+        BookSnapshot book1 = new BookSnapshot(1234L, "Title1", "Author", 2000, "123-1234567890", false);
+        BookSnapshot book2 = new BookSnapshot(12345L, "Title2", "Author", 2001, "123-0987654321", false);
+
+        // When & Then
+        when(bookService.getBooksPage(1000L, 2, BookFilter.NONE)).thenReturn(new Versioned<>(
+                new SliceImpl<>(List.of(book1, book2), PageRequest.of(0, 2), true), "a1-7"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/books")
+                        .param("after", "1000")
+                        .param("limit", "2")
+                        .header(ADMIN_KEY_HEADER, ADMIN_KEY_VALUE)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").value(12345));
+    }
+
+    @Test
+    public void testSearchBooks() throws Exception {
+        // Given
+        BookSnapshot book = new BookSnapshot(1234L, "Title1", "Author", 2000, "123-1234567890", false);
+
+        // When & Then
+        when(bookService.searchBooks("title1", 0, 20))
+                .thenReturn(new PageImpl<>(List.of(book), PageRequest.of(0, 20), 1));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/books/search")
+                        .param("q", "title1")
+                        .header(ADMIN_KEY_HEADER, ADMIN_KEY_VALUE)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("Title1"));
     }
 
     @Test
     public void testGetBookById() throws Exception {
         // Given
-        Book book = new Book(1234L, "Title1", "Author", 2000, "123-1234567890", false);
+        BookSnapshot book = new BookSnapshot(1234L, "Title1", "Author", 2000, "123-1234567890", false);
 
         // When & Then
         when(bookService.getBookById(1234L)).thenReturn(book);
-        mockMvc.perform(MockMvcRequestBuilders.get("/api/books/{id}", book.getId())
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/books/{id}", book.id())
                         .header(ADMIN_KEY_HEADER, ADMIN_KEY_VALUE)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
@@ -76,7 +153,7 @@ public class BookControllerIntegrationTest {
     public void testAddBook() throws Exception {
         // Given
         BookDTORequest bookDTORequest = new BookDTORequest("Title1", "Author", 2000, "123-1234567890", false);
-        Book book = new Book(1L, "Title1", "Author", 2000, "123-1234567890", false);
+        BookSnapshot book = new BookSnapshot(1L, "Title1", "Author", 2000, "123-1234567890", false);
 
         // When & Then
         when(bookService.addBook(any())).thenReturn(book);
@@ -145,7 +222,7 @@ public class BookControllerIntegrationTest {
     public void testUpdateBook() throws Exception {
         // Given
         Book bookDetails = new Book("UpdatedTitle", "UpdatedAuthor", 2001, "123-1234567890", false);
-        Book book = new Book(1234L, "UpdatedTitle", "UpdatedAuthor", 2001, "123-1234567890", false);
+        BookSnapshot book = new BookSnapshot(1234L, "UpdatedTitle", "UpdatedAuthor", 2001, "123-1234567890", false);
         BookDTORequest updatedBookDTORequest = new BookDTORequest("UpdatedTitle", "UpdatedAuthor", 2001, "123-1234567890", false);
 
         // When & Then
@@ -162,7 +239,7 @@ public class BookControllerIntegrationTest {
     public void testUpdateBookInvalidBookId() throws Exception {
         // Given
         Book bookDetails = new Book("UpdatedTitle", "UpdatedAuthor", 2001, "123-1234567890", false);
-        Book book = new Book(1234L, "UpdatedTitle", "UpdatedAuthor", 2001, "123-1234567890", false);
+        BookSnapshot book = new BookSnapshot(1234L, "UpdatedTitle", "UpdatedAuthor", 2001, "123-1234567890", false);
 
         // When & Then
         doThrow(new BookNotFoundException("")).when(bookService).updateBook(-1L, bookDetails);
@@ -1,5 +1,7 @@
 package com.example.librarymanagementsystem.controller;
 
+import com.example.librarymanagementsystem.dto.BorrowingResultDTOResponse;
+import com.example.librarymanagementsystem.dto.BorrowingResultDTOResponse.Status;
 import com.example.librarymanagementsystem.exceptionHandler.BookAlreadyBorrowedException;
 import com.example.librarymanagementsystem.exceptionHandler.BookNotFoundException;
 import com.example.librarymanagementsystem.service.BorrowingService;
@@ -11,6 +13,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -109,4 +114,28 @@ public class BorrowingControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void testBorrowBooksBatch() throws Exception {
+        when(borrowingService.borrowBooks(1L, List.of(1L, 2L))).thenReturn(List.of(
+                new BorrowingResultDTOResponse(1L, Status.BORROWED, null),
+                new BorrowingResultDTOResponse(2L, Status.ALREADY_BORROWED, "Book with id 2 is already borrowed.")));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/borrow/batch/patron/{patronId}", 1L)
+                        .header(ADMIN_KEY_HEADER, ADMIN_KEY_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\":[1,2]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("BORROWED"))
+                .andExpect(jsonPath("$[1].status").value("ALREADY_BORROWED"));
+    }
+
+    @Test
+    public void testReturnBooksBatchEmpty() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/borrow/batch/patron/{patronId}", 1L)
+                        .header(ADMIN_KEY_HEADER, ADMIN_KEY_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
 }
@@ -2,8 +2,10 @@ package com.example.librarymanagementsystem.controller;
 
 import com.example.librarymanagementsystem.dto.PatronDTORequest;
 import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.entity.PatronTier;
 import com.example.librarymanagementsystem.exceptionHandler.PatronNotFoundException;
 import com.example.librarymanagementsystem.service.PatronService;
+import com.example.librarymanagementsystem.snapshot.PatronSnapshot;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -34,8 +36,10 @@ class PatronControllerIntegrationTest {
     @Test
     void getAllPatronsSuccess() throws Exception {
         // Given
-        Patron patron1 = new Patron(1L, "John Doe", "1234567890", "john@example.com");
-        Patron patron2 = new Patron(2L, "Jane Smith", "9876543210", "jane@example.com");
+        PatronSnapshot patron1 = new PatronSnapshot(1L, "John Doe", "1234567890", "john@example.com",
+                PatronTier.STANDARD);
+        PatronSnapshot patron2 = new PatronSnapshot(2L, "Jane Smith", "9876543210", "jane@example.com",
+                PatronTier.STANDARD);
 
         // When & Then
         when(patronService.getAllPatrons()).thenReturn(List.of(patron1, patron2));
@@ -51,7 +55,8 @@ class PatronControllerIntegrationTest {
     @Test
     void getPatronByIdSuccess() throws Exception {
         // Given
-        Patron patron = new Patron(1L, "John Doe", "1234567890", "john@example.com");
+        PatronSnapshot patron = new PatronSnapshot(1L, "John Doe", "1234567890", "john@example.com",
+                PatronTier.STANDARD);
 
         // When & Then
         when(patronService.getPatronById(1L)).thenReturn(patron);
@@ -66,7 +71,8 @@ class PatronControllerIntegrationTest {
     void addPatronSuccess() throws Exception {
         // Given
         PatronDTORequest patronDTORequest = new PatronDTORequest("John Doe", "1234567890", "john@example.com");
-        Patron patron = new Patron(1L, patronDTORequest.getName(), patronDTORequest.getPhoneNumber(), patronDTORequest.getEmailAddress());
+        PatronSnapshot patron = new PatronSnapshot(1L, patronDTORequest.getName(), patronDTORequest.getPhoneNumber(),
+                patronDTORequest.getEmailAddress(), PatronTier.STANDARD);
 
         // When & Then
         when(patronService.addPatron(any())).thenReturn(patron);
@@ -84,7 +90,8 @@ class PatronControllerIntegrationTest {
         // Given
         PatronDTORequest patronDTORequest = new PatronDTORequest("Jane Smith", "9876543210", "jane@example.com");
         Patron patronDetails = new Patron(patronDTORequest.getName(), patronDTORequest.getPhoneNumber(), patronDTORequest.getEmailAddress());
-        Patron patron = new Patron(1L, patronDTORequest.getName(), patronDTORequest.getPhoneNumber(), patronDTORequest.getEmailAddress());
+        PatronSnapshot patron = new PatronSnapshot(1L, patronDTORequest.getName(), patronDTORequest.getPhoneNumber(),
+                patronDTORequest.getEmailAddress(), PatronTier.STANDARD);
 
         // When & Then
         when(patronService.updatePatron(1L, patronDetails)).thenReturn(patron);
@@ -0,0 +1,85 @@
+package com.example.librarymanagementsystem.hold;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HoldQueuesTest {
+
+    private final HoldQueues queues = new HoldQueues();
+
+    @Test
+    void testPositionsFollowPlacementOrder() {
+        queues.add(1L, 1L, 10L);
+        queues.add(1L, 2L, 11L);
+        queues.add(1L, 3L, 12L);
+        queues.add(1L, 4L, 10L);
+        queues.add(2L, 5L, 12L);
+
+        assertEquals(1, queues.position(1L, 10L));
+        assertEquals(3, queues.position(1L, 12L));
+        assertEquals(1, queues.position(2L, 12L));
+        assertEquals(0, queues.position(2L, 10L));
+        assertArrayEquals(new long[]{10L, 11L, 12L}, queues.patrons(1L));
+    }
+
+    @Test
+    void testHoldsAddedOutOfOrderAreQueuedByHoldId() {
+        queues.add(1L, 1L, 10L);
+        queues.add(1L, 4L, 13L);
+        queues.add(1L, 3L, 12L);
+        queues.add(1L, 2L, 11L);
+        queues.remove(1L, 10L);
+        queues.add(1L, 5L, 14L);
+
+        assertArrayEquals(new long[]{11L, 12L, 13L, 14L}, queues.patrons(1L));
+        assertEquals(1, queues.position(1L, 11L));
+        assertEquals(3, queues.position(1L, 13L));
+        assertEquals(4, queues.position(1L, 14L));
+    }
+
+    @Test
+    void testRemovingMovesTheHoldsBehindForward() {
+        for (long patronId = 1; patronId <= 5; patronId++) {
+            queues.add(1L, patronId, patronId);
+        }
+
+        queues.remove(1L, 1L);
+        queues.remove(1L, 3L);
+        queues.remove(1L, 99L);
+
+        assertArrayEquals(new long[]{2L, 4L, 5L}, queues.patrons(1L));
+        assertEquals(1, queues.position(1L, 2L));
+        assertEquals(2, queues.position(1L, 4L));
+        assertEquals(3, queues.position(1L, 5L));
+        assertEquals(0, queues.position(1L, 3L));
+    }
+
+    @Test
+    void testServedSpaceIsReusedAsTheQueueTurnsOver() {
+        for (long patronId = 1; patronId <= 1_000; patronId++) {
+            queues.add(1L, patronId, patronId);
+            if (patronId > 3) {
+                queues.remove(1L, patronId - 3);
+            }
+        }
+
+        assertArrayEquals(new long[]{998L, 999L, 1_000L}, queues.patrons(1L));
+        assertEquals(3, queues.position(1L, 1_000L));
+    }
+
+    @Test
+    void testReloadKeepsChangesMadeWhileLoading() {
+        queues.add(3L, 1L, 30L);
+        queues.beginReload();
+        HoldQueues.Loader loader = queues.newLoader();
+        loader.add(new HoldEntry(2L, 1L, 10L));
+        loader.add(new HoldEntry(3L, 1L, 11L));
+        queues.remove(1L, 10L);
+        queues.add(1L, 4L, 12L);
+        queues.completeReload(loader);
+
+        assertArrayEquals(new long[]{11L, 12L}, queues.patrons(1L));
+        assertArrayEquals(new long[0], queues.patrons(3L));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.librarymanagementsystem.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(now.get());
+        }
+    };
+
+    @Test
+    void testSecondAcquisitionSharesTheFirstEntry() {
+        IdempotencyCache cache = new IdempotencyCache(1000, Duration.ofHours(1), clock);
+        StoredResponse response = new StoredResponse(200, "application/json", new byte[]{1});
+
+        IdempotencyCache.Acquisition first = cache.acquire("key", "fp");
+        IdempotencyCache.Acquisition second = cache.acquire("key", "other");
+        cache.complete(first.entry(), response);
+
+        assertTrue(first.created());
+        assertFalse(second.created());
+        assertSame(first.entry(), second.entry());
+        assertEquals("fp", second.entry().fingerprint);
+        assertSame(response, second.entry().result.getNow(null));
+    }
+
+    @Test
+    void testAbandonedEntryWakesWaitersAndIsForgotten() {
+        IdempotencyCache cache = new IdempotencyCache(1000, Duration.ofHours(1), clock);
+        IdempotencyCache.Entry entry = cache.acquire("key", "fp").entry();
+
+        cache.abandon("key", entry);
+
+        assertTrue(entry.result.isDone());
+        assertNull(entry.result.getNow(null));
+        assertTrue(cache.acquire("key", "fp").created());
+    }
+
+    @Test
+    void testEntriesExpireAfterTheirTtl() {
+        IdempotencyCache cache = new IdempotencyCache(1000, Duration.ofMinutes(10), clock);
+        cache.put("key", "fp", new StoredResponse(201, null, new byte[0]));
+
+        now.addAndGet(Duration.ofMinutes(9).toMillis());
+        assertFalse(cache.acquire("key", "fp").created());
+        now.addAndGet(Duration.ofMinutes(2).toMillis());
+        assertTrue(cache.acquire("key", "fp").created());
+    }
+
+    @Test
+    void testOldestEntriesAreEvictedWhenAStripeIsFull() {
+        // One entry per stripe.
+        IdempotencyCache cache = new IdempotencyCache(64, Duration.ofHours(1), clock);
+        for (int i = 0; i < 10_000; i++) {
+            cache.acquire("key-" + i, "fp");
+        }
+
+        assertTrue(cache.size() <= 64);
+        assertFalse(cache.acquire("key-9999", "fp").created());
+        assertTrue(cache.acquire("key-0", "fp").created());
+    }
+}
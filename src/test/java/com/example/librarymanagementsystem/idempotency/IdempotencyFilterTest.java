@@ -0,0 +1,231 @@
+package com.example.librarymanagementsystem.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdempotencyFilterTest {
+
+    private static final String SCOPED_KEY = IdempotencyFilter.scopedKey("client", "k1");
+
+    private final IdempotencyCache cache = new IdempotencyCache(1000, Duration.ofHours(1));
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private IdempotencyFilter filter(IdempotencyRecordStore store) {
+        return new IdempotencyFilter(cache, store, new ObjectMapper(), 1024, Duration.ofSeconds(5),
+                List.of("/api/books/import"));
+    }
+
+    private static MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/books");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        request.setUserPrincipal(() -> "client");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private FilterChain chain(int status) {
+        return (request, response) -> {
+            int call = calls.incrementAndGet();
+            byte[] body = request.getInputStream().readAllBytes();
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(status);
+            http.setContentType("application/json");
+            http.getWriter().write("{\"call\":" + call + ",\"length\":" + body.length + "}");
+        };
+    }
+
+    @Test
+    void testRetryReplaysTheStoredResponse() throws Exception {
+        IdempotencyFilter filter = filter(null);
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+
+        filter.doFilter(request("k1", "{\"title\":\"A\"}"), first, chain(201));
+        filter.doFilter(request("k1", "{\"title\":\"A\"}"), retry, chain(201));
+
+        assertEquals(1, calls.get());
+        assertEquals(201, first.getStatus());
+        assertEquals("{\"call\":1,\"length\":13}", first.getContentAsString());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void testKeyReusedForAnotherRequestIsRejected() throws Exception {
+        IdempotencyFilter filter = filter(null);
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+
+        filter.doFilter(request("k1", "{\"title\":\"A\"}"), new MockHttpServletResponse(), chain(201));
+        filter.doFilter(request("k1", "{\"title\":\"B\"}"), retry, chain(201));
+
+        assertEquals(1, calls.get());
+        assertEquals(422, retry.getStatus());
+        assertTrue(retry.getContentAsString().contains("errors"));
+    }
+
+    @Test
+    void testServerErrorsAreNotStored() throws Exception {
+        IdempotencyFilter filter = filter(null);
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+
+        filter.doFilter(request("k1", "{}"), new MockHttpServletResponse(), chain(500));
+        filter.doFilter(request("k1", "{}"), retry, chain(200));
+
+        assertEquals(2, calls.get());
+        assertEquals(200, retry.getStatus());
+    }
+
+    @Test
+    void testRequestsWithoutKeyOrOversizedBodiesAreNotStored() throws Exception {
+        IdempotencyFilter filter = filter(null);
+        MockHttpServletRequest withoutKey = new MockHttpServletRequest("POST", "/api/books");
+        MockHttpServletResponse tooLarge = new MockHttpServletResponse();
+
+        filter.doFilter(withoutKey, new MockHttpServletResponse(), chain(201));
+        filter.doFilter(withoutKey, new MockHttpServletResponse(), chain(201));
+        filter.doFilter(request("k1", "x".repeat(2000)), tooLarge, chain(201));
+
+        assertEquals(2, calls.get());
+        assertEquals(413, tooLarge.getStatus());
+    }
+
+    @Test
+    void testConcurrentDuplicatesRunOnce() throws Exception {
+        IdempotencyFilter filter = filter(null);
+        CountDownLatch inChain = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slowChain = (request, response) -> {
+            inChain.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            chain(200).doFilter(request, response);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                responses.add(executor.submit(() -> {
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    filter.doFilter(request("k1", "{}"), response, slowChain);
+                    return response;
+                }));
+            }
+            assertTrue(inChain.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<MockHttpServletResponse> response : responses) {
+                assertEquals(200, response.get(5, TimeUnit.SECONDS).getStatus());
+                assertEquals("{\"call\":1,\"length\":2}", response.get().getContentAsString());
+            }
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSameKeyFromAnotherClientIsAnotherRequest() throws Exception {
+        IdempotencyFilter filter = filter(null);
+        MockHttpServletRequest otherClient = request("k1", "{}");
+        otherClient.setUserPrincipal(() -> "other-client");
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse other = new MockHttpServletResponse();
+
+        filter.doFilter(request("k1", "{}"), first, chain(201));
+        filter.doFilter(otherClient, other, chain(201));
+
+        assertEquals(2, calls.get());
+        assertEquals(201, other.getStatus());
+        assertNull(other.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNotEquals(first.getContentAsString(), other.getContentAsString());
+    }
+
+    @Test
+    void testBodyCanBeReadAsynchronously() throws Exception {
+        List<String> events = new ArrayList<>();
+        FilterChain asyncReader = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add("data:" + new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+            ((HttpServletResponse) response).setStatus(204);
+        };
+
+        filter(null).doFilter(request("k1", "{}"), new MockHttpServletResponse(), asyncReader);
+
+        assertEquals(List.of("data:{}", "done"), events);
+    }
+
+    @Test
+    void testResponseStoredByAnotherInstanceIsReplayed() throws Exception {
+        IdempotencyRecordStore store = mock(IdempotencyRecordStore.class);
+        StoredResponse stored = new StoredResponse(201, "application/json",
+                "{\"id\":7}".getBytes(StandardCharsets.UTF_8));
+        when(store.claim(eq(SCOPED_KEY), anyString())).thenAnswer(invocation ->
+                new IdempotencyRecordStore.Claim(false, invocation.getArgument(1), stored));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter(store).doFilter(request("k1", "{}"), response, chain(201));
+
+        assertEquals(0, calls.get());
+        assertEquals(201, response.getStatus());
+        assertEquals("{\"id\":7}", response.getContentAsString());
+        verify(store, never()).complete(anyString(), any());
+    }
+
+    @Test
+    void testClaimedRequestIsStoredInTheDatabase() throws Exception {
+        IdempotencyRecordStore store = mock(IdempotencyRecordStore.class);
+        when(store.claim(eq(SCOPED_KEY), anyString())).thenReturn(IdempotencyRecordStore.Claim.CLAIMED);
+
+        filter(store).doFilter(request("k1", "{}"), new MockHttpServletResponse(), chain(201));
+
+        assertEquals(1, calls.get());
+        verify(store).complete(eq(SCOPED_KEY), argThat(response -> response.status() == 201));
+        verify(store, never()).release(anyString());
+    }
+}
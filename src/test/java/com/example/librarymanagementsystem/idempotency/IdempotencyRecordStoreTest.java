@@ -0,0 +1,87 @@
+package com.example.librarymanagementsystem.idempotency;
+
+import com.example.librarymanagementsystem.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Claims keys against H2, each repository call in its own committed transaction as in production.
+ */
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false"}, showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyRecordStoreTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyRecordStore storeAt(Instant now) {
+        return new IdempotencyRecordStore(idempotencyRecordRepository, Duration.ofHours(24), Duration.ofMinutes(1),
+                Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotencyRecordRepository.deleteAll();
+    }
+
+    @Test
+    void testKeyIsClaimedOnceThenReplayed() {
+        IdempotencyRecordStore store = storeAt(NOW);
+        StoredResponse response = new StoredResponse(201, "application/json",
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(store.claim("k1", "fp").claimed());
+        IdempotencyRecordStore.Claim inProgress = store.claim("k1", "fp");
+        store.complete("k1", response);
+        IdempotencyRecordStore.Claim completed = store.claim("k1", "fp");
+
+        assertFalse(inProgress.claimed());
+        assertNull(inProgress.response());
+        assertFalse(completed.claimed());
+        assertEquals("fp", completed.fingerprint());
+        assertEquals(201, completed.response().status());
+        assertArrayEquals(response.body(), completed.response().body());
+    }
+
+    @Test
+    void testReleasedStaleAndExpiredKeysCanBeClaimedAgain() {
+        IdempotencyRecordStore store = storeAt(NOW);
+        store.claim("released", "fp");
+        store.release("released");
+        store.claim("stale", "fp");
+        store.claim("expired", "fp");
+        store.complete("expired", new StoredResponse(200, null, new byte[0]));
+
+        assertTrue(store.claim("released", "fp").claimed());
+        assertFalse(storeAt(NOW.plusSeconds(30)).claim("stale", "fp").claimed());
+        assertFalse(storeAt(NOW.plusSeconds(90)).claim("stale", "other").claimed());
+        assertTrue(storeAt(NOW.plusSeconds(90)).claim("stale", "fp").claimed());
+        assertTrue(storeAt(NOW.plus(Duration.ofHours(25))).claim("expired", "fp").claimed());
+    }
+
+    @Test
+    void testPurgeDeletesExpiredKeys() {
+        storeAt(NOW).claim("old", "fp");
+        storeAt(NOW.plus(Duration.ofHours(12))).claim("new", "fp");
+
+        storeAt(NOW.plus(Duration.ofHours(30))).purgeExpired();
+
+        assertEquals(1, idempotencyRecordRepository.count());
+        assertTrue(idempotencyRecordRepository.existsById("new"));
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.librarymanagementsystem.invalidation;
+
+import com.example.librarymanagementsystem.cache.AbsentIdFilter;
+import com.example.librarymanagementsystem.invalidation.InvalidationBatch.Invalidation;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheInvalidationBusTest {
+
+    private final List<InvalidationBatch> sent = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean losing = new AtomicBoolean();
+    private final LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport() {
+        @Override
+        public void send(InvalidationBatch batch) {
+            sent.add(batch);
+            if (!losing.get()) {
+                super.send(batch);
+            }
+        }
+    };
+    private final CacheInvalidationBus first = new CacheInvalidationBus(transport, 100);
+    private final CacheInvalidationBus second = new CacheInvalidationBus(transport, 100);
+    private final Cache firstBooks = cache(first, "books");
+    private final Cache firstPatrons = cache(first, "patrons");
+    private final Cache secondBooks = cache(second, "books");
+    private final Cache secondPatrons = cache(second, "patrons");
+
+    @Test
+    void testChangesOnOneInstanceEvictTheEntriesOfTheOthers() {
+        fill(firstBooks, 1L, 2L, 3L);
+        fill(secondBooks, 1L, 2L, 3L);
+
+        firstBooks.put(1L, "updated");
+        firstBooks.evict(2L);
+        first.flush();
+
+        assertNull(secondBooks.get(1L));
+        assertNull(secondBooks.get(2L));
+        assertEquals("book 3", secondBooks.get(3L).get());
+        assertEquals("updated", firstBooks.get(1L).get());
+        assertEquals("book 3", firstBooks.get(3L).get());
+        assertEquals(1, second.receivedBatchCount());
+        assertEquals(0, first.receivedBatchCount());
+    }
+
+    @Test
+    void testLoadingAValueIsNotPublished() {
+        secondBooks.put(1L, "book 1");
+        second.flush();
+        sent.clear();
+
+        firstBooks.get(1L, () -> "book 1");
+        firstBooks.putIfAbsent(2L, "book 2");
+        first.flush();
+
+        assertTrue(sent.isEmpty());
+        assertEquals("book 1", secondBooks.get(1L).get());
+    }
+
+    @Test
+    void testBatchesHoldEachEntryOnceAndNoEntriesOfClearedCaches() {
+        firstBooks.put(1L, "book 1");
+        firstBooks.evict(1L);
+        firstBooks.put(1L, "book 1");
+        firstPatrons.evict(7L);
+        firstPatrons.clear();
+        firstPatrons.evict(8L);
+        first.flush();
+        first.flush();
+
+        assertEquals(1, sent.size());
+        assertEquals(List.of(new Invalidation("books", 1L), Invalidation.ofCache("patrons")),
+                sent.get(0).invalidations());
+        assertEquals(1, sent.get(0).sequence());
+    }
+
+    @Test
+    void testFullBatchIsSentWithoutWaiting() {
+        for (long id = 1; id <= 250; id++) {
+            firstBooks.evict(id);
+        }
+
+        assertEquals(2, sent.size());
+        assertEquals(List.of(1L, 2L), sent.stream().map(InvalidationBatch::sequence).toList());
+    }
+
+    @Test
+    void testLostBatchClearsTheCachesOfTheReceiver() {
+        fill(secondBooks, 1L, 2L, 3L);
+        fill(secondPatrons, 1L);
+        firstBooks.evict(1L);
+        first.flush();
+
+        losing.set(true);
+        firstBooks.evict(2L);
+        first.flush();
+        losing.set(false);
+        firstBooks.evict(4L);
+        first.flush();
+
+        assertEquals(1, second.gapCount());
+        assertNull(secondBooks.get(3L));
+        assertNull(secondPatrons.get(1L));
+
+        fill(secondBooks, 2L);
+        second.receive(sent.get(1));
+        assertEquals("book 2", secondBooks.get(2L).get());
+        assertEquals(1, second.gapCount());
+    }
+
+    @Test
+    void testRepeatedBatchIsIgnored() {
+        firstBooks.evict(1L);
+        first.flush();
+        fill(secondBooks, 1L);
+
+        second.receive(sent.get(0));
+
+        assertEquals("book 1", secondBooks.get(1L).get());
+        assertEquals(1, second.receivedBatchCount());
+        assertEquals(0, second.gapCount());
+    }
+
+    @Test
+    void testBatchThatCannotBeSentIsCountedAndDropped() {
+        CacheInvalidationBus bus = new CacheInvalidationBus(new InvalidationTransport() {
+            @Override
+            public void send(InvalidationBatch batch) {
+                throw new IllegalStateException("the database is down");
+            }
+
+            @Override
+            public void subscribe(Consumer<InvalidationBatch> receiver) {
+            }
+        }, 100);
+        Cache books = cache(bus, "books");
+
+        books.evict(1L);
+        bus.flush();
+        bus.flush();
+
+        assertEquals(1, bus.failedBatchCount());
+        assertEquals(0, bus.sentBatchCount());
+    }
+
+    @Test
+    void testIdAddedOnOneInstanceIsNoLongerTakenForAbsentOnTheOthers() {
+        AbsentIdFilter firstIds = loadedFilter(1L, 2L);
+        AbsentIdFilter secondIds = loadedFilter(1L, 2L);
+        Cache firstBooks = cache(first, "books", firstIds);
+        cache(second, "books", secondIds);
+        assertTrue(secondIds.isAbsent(3L));
+
+        firstIds.recordAdded(3L);
+        firstBooks.put(3L, "book 3");
+        first.flush();
+
+        assertFalse(secondIds.isAbsent(3L));
+        assertTrue(secondIds.isAbsent(4L));
+        assertTrue(secondIds.isLoaded());
+    }
+
+    @Test
+    void testLostBatchStopsTheReceiverFromAnsweringFromItsAssignedIds() {
+        AbsentIdFilter secondIds = loadedFilter(1L, 2L);
+        Cache firstBooks = cache(first, "books", loadedFilter(1L, 2L));
+        cache(second, "books", secondIds);
+        firstBooks.evict(1L);
+        first.flush();
+
+        losing.set(true);
+        firstBooks.put(3L, "book 3");
+        first.flush();
+        losing.set(false);
+        firstBooks.evict(2L);
+        first.flush();
+
+        assertFalse(secondIds.isLoaded());
+        assertFalse(secondIds.isAbsent(3L));
+        assertFalse(secondIds.isAbsent(4L));
+    }
+
+    private static AbsentIdFilter loadedFilter(Long... ids) {
+        AbsentIdFilter filter = new AbsentIdFilter(1000, 0.01, 100, Duration.ofMinutes(1));
+        for (Long id : ids) {
+            filter.recordExisting(id);
+        }
+        filter.completeLoad();
+        return filter;
+    }
+
+    private static Cache cache(CacheInvalidationBus bus, String name, AbsentIdFilter absentIds) {
+        ClusterInvalidatingCache cache = new ClusterInvalidatingCache(new ConcurrentMapCache(name), bus, absentIds);
+        bus.register(cache);
+        return cache;
+    }
+
+    private static Cache cache(CacheInvalidationBus bus, String name) {
+        ClusterInvalidatingCache cache = new ClusterInvalidatingCache(new ConcurrentMapCache(name), bus);
+        bus.register(cache);
+        return cache;
+    }
+
+    private static void fill(Cache cache, Long... ids) {
+        for (Long id : ids) {
+            cache.putIfAbsent(id, "book " + id);
+        }
+    }
+}
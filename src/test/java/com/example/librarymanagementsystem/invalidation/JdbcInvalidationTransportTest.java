@@ -0,0 +1,99 @@
+package com.example.librarymanagementsystem.invalidation;
+
+import com.example.librarymanagementsystem.invalidation.InvalidationBatch.Invalidation;
+import com.example.librarymanagementsystem.repository.CacheInvalidationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcInvalidationTransportTest {
+
+    @Autowired
+    private CacheInvalidationRepository cacheInvalidationRepository;
+
+    @AfterEach
+    void tearDown() {
+        cacheInvalidationRepository.deleteAll();
+    }
+
+    @Test
+    void testBatchesReachTheOtherInstancesInOrder() {
+        JdbcInvalidationTransport firstTransport = new JdbcInvalidationTransport(cacheInvalidationRepository, 2,
+                Duration.ofHours(1));
+        JdbcInvalidationTransport secondTransport = new JdbcInvalidationTransport(cacheInvalidationRepository, 2,
+                Duration.ofHours(1));
+        firstTransport.send(new InvalidationBatch("earlier", 1, List.of(new Invalidation("books", 9L))));
+        CacheInvalidationBus first = new CacheInvalidationBus(firstTransport, 100);
+        CacheInvalidationBus second = new CacheInvalidationBus(secondTransport, 100);
+        Cache firstBooks = cache(first, "books");
+        Cache secondBooks = cache(second, "books");
+        assertEquals(0, firstTransport.poll());
+        assertEquals(0, secondTransport.poll());
+        for (long id = 1; id <= 5; id++) {
+            secondBooks.putIfAbsent(id, "book " + id);
+        }
+
+        for (long id = 1; id <= 3; id++) {
+            firstBooks.evict(id);
+            first.flush();
+        }
+
+        assertEquals(3, secondTransport.poll());
+        assertEquals(3, firstTransport.poll());
+        assertNull(secondBooks.get(3L));
+        assertEquals("book 4", secondBooks.get(4L).get());
+        assertEquals(3, second.receivedBatchCount());
+        assertEquals(0, second.gapCount());
+        assertEquals(0, first.receivedBatchCount());
+        assertEquals(0, secondTransport.poll());
+    }
+
+    @Test
+    void testOldBatchesArePurged() {
+        Clock later = Clock.fixed(Instant.now().plus(Duration.ofHours(2)), ZoneOffset.UTC);
+        JdbcInvalidationTransport transport = new JdbcInvalidationTransport(cacheInvalidationRepository, 10,
+                Duration.ofHours(1), later);
+        new JdbcInvalidationTransport(cacheInvalidationRepository, 10, Duration.ofHours(1))
+                .send(new InvalidationBatch("node", 1, List.of(Invalidation.ofCache("books"))));
+        transport.send(new InvalidationBatch("node", 2, List.of(Invalidation.ofCache("books"))));
+
+        transport.purge();
+
+        assertEquals(1, cacheInvalidationRepository.count());
+    }
+
+    @Test
+    void testInvalidationsSurviveEncoding() {
+        List<Invalidation> invalidations = List.of(new Invalidation("books", 1L), new Invalidation("books", 42L),
+                Invalidation.ofCache("patrons"), new Invalidation("books", 7L));
+
+        String encoded = JdbcInvalidationTransport.encode(invalidations);
+
+        assertEquals("books:1,42;patrons:*;books:7", encoded);
+        assertEquals(invalidations, JdbcInvalidationTransport.decode(encoded));
+        assertEquals(new ArrayList<>(), JdbcInvalidationTransport.decode(JdbcInvalidationTransport.encode(List.of())));
+    }
+
+    private static Cache cache(CacheInvalidationBus bus, String name) {
+        ClusterInvalidatingCache cache = new ClusterInvalidatingCache(new ConcurrentMapCache(name), bus);
+        bus.register(cache);
+        return cache;
+    }
+}
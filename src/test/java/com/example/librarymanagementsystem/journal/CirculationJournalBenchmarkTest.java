@@ -0,0 +1,67 @@
+package com.example.librarymanagementsystem.journal;
+
+import com.example.librarymanagementsystem.journal.CirculationEvent.Type;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the latency of acknowledging journaled events with many concurrent writers, and how many events share
+ * each force. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class CirculationJournalBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CirculationJournalBenchmarkTest.class);
+    private static final int THREADS = 32;
+    private static final int APPENDS_PER_THREAD = 2_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void acknowledgeEventsFromManyThreads() throws Exception {
+        long[] latencies = new long[THREADS * APPENDS_PER_THREAD];
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try (CirculationJournal journal = new CirculationJournal(directory, 64L * 1024 * 1024)) {
+            long startTime = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < APPENDS_PER_THREAD; i++) {
+                        long appendStart = System.nanoTime();
+                        journal.awaitDurable(journal.append(Type.BORROW, false, i, thread, 1_000L, 2_000L));
+                        latencies[thread * APPENDS_PER_THREAD + i] = System.nanoTime() - appendStart;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long totalNanos = System.nanoTime() - startTime;
+
+            Arrays.sort(latencies);
+            logger.info("{} events acknowledged in {} ms with {} threads; p50 {} us, p99 {} us; {} events per force",
+                    latencies.length, TimeUnit.NANOSECONDS.toMillis(totalNanos), THREADS,
+                    latencies[latencies.length / 2] / 1_000, latencies[latencies.length * 99 / 100] / 1_000,
+                    latencies.length / journal.flushCount());
+            assertTrue(journal.flushCount() < latencies.length);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.librarymanagementsystem.journal;
+
+import com.example.librarymanagementsystem.journal.CirculationEvent.Type;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CirculationJournalTest {
+
+    private static final long SEGMENT_SIZE = 1024 * JournalSegment.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testDurableEventsAreRecoveredAfterReopening() throws Exception {
+        try (CirculationJournal journal = new CirculationJournal(directory, SEGMENT_SIZE)) {
+            journal.awaitDurable(journal.append(Type.BORROW, false, 1L, 10L, 1_000L, 2_000L));
+            journal.awaitDurable(journal.append(Type.RETURN, false, 1L, 10L, 1_500L, 0L));
+            journal.awaitDurable(journal.append(Type.BORROW, true, 1L, 11L, 1_500L, 2_500L));
+        }
+
+        try (CirculationJournal journal = new CirculationJournal(directory, SEGMENT_SIZE)) {
+            journal.recover(1L);
+
+            assertEquals(List.of(new CirculationEvent(2L, Type.RETURN, false, 1L, 10L, 1_500L, 0L),
+                    new CirculationEvent(3L, Type.BORROW, true, 1L, 11L, 1_500L, 2_500L)),
+                    journal.takeDurable(10, 0));
+            assertEquals(4L, journal.append(Type.RETURN, false, 1L, 11L, 3_000L, 0L));
+        }
+    }
+
+    @Test
+    void testATornRecordEndsRecoveryAndIsOverwritten() throws Exception {
+        try (CirculationJournal journal = new CirculationJournal(directory, SEGMENT_SIZE)) {
+            for (long bookId = 1; bookId <= 3; bookId++) {
+                journal.awaitDurable(journal.append(Type.BORROW, false, bookId, 10L, 1_000L, 2_000L));
+            }
+        }
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), JournalSegment.RECORD_SIZE + 20);
+        }
+
+        try (CirculationJournal journal = new CirculationJournal(directory, SEGMENT_SIZE)) {
+            assertEquals(List.of(1L), journal.takeDurable(10, 0).stream().map(CirculationEvent::bookId).toList());
+            journal.awaitDurable(journal.append(Type.BORROW, false, 4L, 10L, 1_000L, 2_000L));
+        }
+        try (CirculationJournal journal = new CirculationJournal(directory, SEGMENT_SIZE)) {
+            assertEquals(List.of(1L, 4L), journal.takeDurable(10, 0).stream().map(CirculationEvent::bookId).toList());
+        }
+    }
+
+    @Test
+    void testSegmentsRollOverAndAreDeletedOnceApplied() throws Exception {
+        try (CirculationJournal journal = new CirculationJournal(directory, 4 * JournalSegment.RECORD_SIZE)) {
+            for (long bookId = 1; bookId <= 10; bookId++) {
+                journal.awaitDurable(journal.append(Type.BORROW, false, bookId, 10L, 1_000L, 2_000L));
+            }
+            assertEquals(3, segments().size());
+
+            journal.markApplied(7L);
+            assertEquals(2, segments().size());
+
+            journal.markApplied(10L);
+            assertEquals(1, segments().size());
+            assertEquals(10, journal.takeDurable(100, 0).size());
+        }
+        try (CirculationJournal journal = new CirculationJournal(directory, 4 * JournalSegment.RECORD_SIZE)) {
+            journal.recover(10L);
+            assertTrue(journal.takeDurable(10, 0).isEmpty());
+            assertEquals(11L, journal.append(Type.RETURN, false, 10L, 10L, 3_000L, 0L));
+        }
+    }
+
+    @Test
+    void testRecoveryNeverReusesAppliedSequenceNumbers() throws Exception {
+        try (CirculationJournal journal = new CirculationJournal(directory, SEGMENT_SIZE)) {
+            journal.recover(41L);
+
+            assertEquals(42L, journal.append(Type.BORROW, false, 1L, 10L, 1_000L, 2_000L));
+        }
+    }
+
+    @Test
+    void testConcurrentAppendersShareForces() throws Exception {
+        int threads = 8;
+        int appendsPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (CirculationJournal journal = new CirculationJournal(directory, SEGMENT_SIZE * 4)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long patronId = t + 1;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < appendsPerThread; i++) {
+                        journal.awaitDurable(journal.append(Type.BORROW, false, i, patronId, 1_000L, 2_000L));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            List<CirculationEvent> events = journal.takeDurable(threads * appendsPerThread, 0);
+            assertEquals(threads * appendsPerThread, events.size());
+            for (int i = 0; i < events.size(); i++) {
+                assertEquals(i + 1, events.get(i).sequence());
+            }
+            assertTrue(journal.flushCount() < threads * appendsPerThread);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSegment::isSegment).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.librarymanagementsystem.journal;
+
+import com.example.librarymanagementsystem.cache.SnapshotCacheLoaders;
+import com.example.librarymanagementsystem.configuration.CachingConfig;
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.entity.JournalCheckpoint;
+import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.journal.CirculationEvent.Type;
+import com.example.librarymanagementsystem.limits.LoanLimits;
+import com.example.librarymanagementsystem.overdue.OverdueLoanTracker;
+import com.example.librarymanagementsystem.repository.ActiveLoanRepository;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
+import com.example.librarymanagementsystem.repository.HoldRepository;
+import com.example.librarymanagementsystem.repository.JournalCheckpointRepository;
+import com.example.librarymanagementsystem.repository.PatronRepository;
+import com.example.librarymanagementsystem.stats.BorrowingStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replays journals left behind by a stopped application against a real database.
+ */
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false"}, showSql = false)
+@Import({CachingConfig.class, SnapshotCacheLoaders.class, OverdueLoanTracker.class, BorrowingStatistics.class,
+        LoanLimits.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JournalApplierTest {
+
+    private static final long SEGMENT_SIZE = 1024 * JournalSegment.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private JournalCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private ActiveLoanRepository activeLoanRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private BorrowingStatistics borrowingStatistics;
+
+    @Autowired
+    private LoanLimits loanLimits;
+
+    @Autowired
+    private OverdueLoanTracker overdueLoanTracker;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        checkpointRepository.deleteAll();
+        activeLoanRepository.deleteAll();
+        borrowingRecordRepository.deleteAll();
+        bookRepository.deleteAll();
+        patronRepository.deleteAll();
+    }
+
+    @Test
+    void testUnappliedEventsAreReplayedOnceAtStartup() throws Exception {
+        long firstBook = bookRepository.save(new Book("Title1", "Author", 2000, "123-0000000001", false)).getId();
+        long secondBook = bookRepository.save(new Book("Title2", "Author", 2000, "123-0000000002", false)).getId();
+        long patronId = patronRepository.save(new Patron("Patron", "1234567890", "patron@example.com")).getId();
+        checkpointRepository.save(new JournalCheckpoint(1L));
+        try (CirculationJournal journal = new CirculationJournal(directory, SEGMENT_SIZE)) {
+            // The first event was applied before the application stopped.
+            journal.awaitDurable(journal.append(Type.BORROW, false, 999L, patronId, 1_000L, 2_000L));
+            journal.append(Type.BORROW, false, firstBook, patronId, 1_000L, 2_000L);
+            journal.append(Type.BORROW, false, secondBook, patronId, 1_000L, 2_000L);
+            journal.awaitDurable(journal.append(Type.RETURN, false, firstBook, patronId, 1_500L, 0L));
+        }
+
+        OpenLoans openLoans = new OpenLoans();
+        try (CirculationJournal journal = new CirculationJournal(directory, SEGMENT_SIZE)) {
+            JournalApplier applier = newApplier(journal, openLoans);
+            applier.start();
+            applier.stop();
+        }
+
+        assertEquals(4L, checkpointRepository.findById(JournalCheckpoint.ID).orElseThrow().getAppliedSequence());
+        assertEquals(2, borrowingRecordRepository.count());
+        assertEquals(secondBook, activeLoanRepository.findAll().get(0).getBookId());
+        assertFalse(bookRepository.findById(firstBook).orElseThrow().isBorrowed());
+        assertTrue(bookRepository.findById(secondBook).orElseThrow().isBorrowed());
+        assertEquals(1, openLoans.size());
+        assertFalse(openLoans.borrow(secondBook, patronId + 1));
+
+        try (CirculationJournal journal = new CirculationJournal(directory, SEGMENT_SIZE)) {
+            JournalApplier applier = newApplier(journal, new OpenLoans());
+            applier.start();
+            applier.stop();
+        }
+        assertEquals(2, borrowingRecordRepository.count());
+    }
+
+    @Test
+    void testAJournalWithoutCheckpointIsNotReplayed() throws Exception {
+        try (CirculationJournal journal = new CirculationJournal(directory, SEGMENT_SIZE)) {
+            journal.awaitDurable(journal.append(Type.BORROW, false, 1L, 1L, 1_000L, 2_000L));
+        }
+
+        try (CirculationJournal journal = new CirculationJournal(directory, SEGMENT_SIZE)) {
+            JournalApplier applier = newApplier(journal, new OpenLoans());
+            applier.start();
+            applier.stop();
+            assertEquals(2L, journal.append(Type.BORROW, false, 1L, 1L, 1_000L, 2_000L));
+        }
+
+        assertEquals(1L, checkpointRepository.findById(JournalCheckpoint.ID).orElseThrow().getAppliedSequence());
+        assertEquals(0, borrowingRecordRepository.count());
+    }
+
+    @Test
+    void testEventsThatCanNeverBeAppliedAreSkipped() throws Exception {
+        long bookId = bookRepository.save(new Book("Title1", "Author", 2000, "123-0000000001", false)).getId();
+        long patronId = patronRepository.save(new Patron("Patron", "1234567890", "patron@example.com")).getId();
+        checkpointRepository.save(new JournalCheckpoint(0L));
+        try (CirculationJournal journal = new CirculationJournal(directory, SEGMENT_SIZE)) {
+            // The book was deleted before its borrow was applied.
+            journal.append(Type.BORROW, false, bookId + 1, patronId, 1_000L, 2_000L);
+            journal.awaitDurable(journal.append(Type.BORROW, false, bookId, patronId, 1_000L, 2_000L));
+        }
+
+        OpenLoans openLoans = new OpenLoans();
+        try (CirculationJournal journal = new CirculationJournal(directory, SEGMENT_SIZE)) {
+            JournalApplier applier = newApplier(journal, openLoans);
+            applier.start();
+            assertEquals(2L, checkpointRepository.findById(JournalCheckpoint.ID).orElseThrow().getAppliedSequence());
+            assertEquals(1, borrowingRecordRepository.count());
+
+            // The patron was deleted before the borrow was applied, and the applier carries on after it.
+            assertTrue(openLoans.borrow(bookId + 2, patronId + 1));
+            journal.append(Type.BORROW, false, bookId + 2, patronId + 1, 1_000L, 2_000L);
+            journal.awaitDurable(journal.append(Type.RETURN, false, bookId, patronId, 1_500L, 0L));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (checkpointRepository.findById(JournalCheckpoint.ID).orElseThrow().getAppliedSequence() < 4L
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            applier.stop();
+        }
+
+        assertEquals(4L, checkpointRepository.findById(JournalCheckpoint.ID).orElseThrow().getAppliedSequence());
+        assertEquals(1, borrowingRecordRepository.count());
+        assertEquals(0, activeLoanRepository.count());
+        assertFalse(bookRepository.findById(bookId).orElseThrow().isBorrowed());
+        assertFalse(openLoans.isOnLoan(bookId + 2));
+    }
+
+    private JournalApplier newApplier(CirculationJournal journal, OpenLoans openLoans) {
+        return new JournalApplier(journal, openLoans, checkpointRepository, bookRepository,
+                borrowingRecordRepository, activeLoanRepository, holdRepository, overdueLoanTracker,
+                borrowingStatistics, loanLimits, cacheManager, transactionManager);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.librarymanagementsystem.limits;
+
+import com.example.librarymanagementsystem.entity.PatronTier;
+import com.example.librarymanagementsystem.repository.ActiveLoanRepository;
+import com.example.librarymanagementsystem.util.LongIntHashMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LoanLimitsTest {
+
+    private final ActiveLoanRepository activeLoanRepository = mock(ActiveLoanRepository.class);
+    private final LoanLimits loanLimits = new LoanLimits(activeLoanRepository,
+            Map.of(PatronTier.STANDARD, 3, PatronTier.PREMIUM, 5, PatronTier.STAFF, 8));
+
+    @Test
+    void testReservationsStopAtTheLimitOfTheTier() {
+        when(activeLoanRepository.countByPatronId(1L)).thenReturn(1L);
+
+        assertEquals(2, loanLimits.reserve(1L, PatronTier.STANDARD, 4).count());
+        assertEquals(0, loanLimits.reserve(1L, null, 1).count());
+        assertEquals(2, loanLimits.reserve(1L, PatronTier.PREMIUM, 2).count());
+        assertEquals(5, loanLimits.openLoans(1L));
+        verify(activeLoanRepository, times(1)).countByPatronId(1L);
+    }
+
+    @Test
+    void testCancelledAndShrunkReservationsAreGivenBack() {
+        LoanLimits.Reservation cancelled = loanLimits.reserve(1L, PatronTier.STANDARD, 2);
+        LoanLimits.Reservation shrunk = loanLimits.reserve(2L, PatronTier.STANDARD, 3);
+
+        cancelled.cancel();
+        cancelled.confirm();
+        shrunk.shrinkTo(1);
+        shrunk.confirm();
+        shrunk.cancel();
+
+        assertEquals(0, loanLimits.openLoans(1L));
+        assertEquals(1, loanLimits.openLoans(2L));
+        loanLimits.released(2L, 1);
+        assertEquals(0, loanLimits.openLoans(2L));
+    }
+
+    @Test
+    void testReturnsOfPatronsNotLoadedAreLeftToTheDatabase() {
+        loanLimits.released(1L, 1);
+        when(activeLoanRepository.countByPatronId(1L)).thenReturn(2L);
+
+        assertEquals(2, loanLimits.openLoans(1L));
+    }
+
+    @Test
+    void testReconcileCorrectsDriftButSkipsPatronsWithReservationsInProgress() {
+        loanLimits.reserve(1L, PatronTier.STANDARD, 2).confirm();
+        loanLimits.reserve(2L, PatronTier.STANDARD, 1);
+        loanLimits.reserve(3L, PatronTier.STANDARD, 1).confirm();
+        LongIntHashMap actual = new LongIntHashMap(4, 0);
+        actual.put(1L, 1);
+        actual.put(3L, 1);
+
+        assertEquals(1, loanLimits.reconcile(() -> actual));
+        assertEquals(1, loanLimits.openLoans(1L));
+        assertEquals(1, loanLimits.openLoans(2L));
+        assertEquals(1, loanLimits.openLoans(3L));
+    }
+
+    @Test
+    void testReconcileSkipsPatronsWhoseLoansChangeWhileCounting() {
+        loanLimits.reserve(1L, PatronTier.STANDARD, 2).confirm();
+        loanLimits.reserve(2L, PatronTier.STANDARD, 2).confirm();
+
+        int corrected = loanLimits.reconcile(() -> {
+            LongIntHashMap actual = new LongIntHashMap(4, 0);
+            actual.put(1L, 2);
+            actual.put(2L, 1);
+            // Patron 1 returns a book after the counts were read, and patron 3 borrows one.
+            loanLimits.released(1L, 1);
+            loanLimits.reserve(3L, PatronTier.STANDARD, 1).confirm();
+            return actual;
+        });
+
+        assertEquals(1, corrected);
+        assertEquals(1, loanLimits.openLoans(1L));
+        assertEquals(1, loanLimits.openLoans(2L));
+        assertEquals(1, loanLimits.openLoans(3L));
+    }
+
+    @Test
+    void testPreloadedPatronsAreNeverCountedFromTheDatabase() {
+        LongIntHashMap counts = new LongIntHashMap(4, 0);
+        counts.put(1L, 3);
+        loanLimits.preload(counts);
+
+        assertEquals(0, loanLimits.reserve(1L, PatronTier.STANDARD, 1).count());
+        assertEquals(3, loanLimits.reserve(2L, PatronTier.STANDARD, 3).count());
+        verifyNoInteractions(activeLoanRepository);
+    }
+
+    @Test
+    void testConcurrentReservationsNeverExceedTheLimit() throws Exception {
+        int threads = 16;
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger maxHeld = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 10_000; i++) {
+                        LoanLimits.Reservation reservation = loanLimits.reserve(1L, PatronTier.STAFF, 1);
+                        if (reservation.count() == 0) {
+                            continue;
+                        }
+                        maxHeld.accumulateAndGet(held.incrementAndGet(), Math::max);
+                        held.decrementAndGet();
+                        if (i % 2 == 0) {
+                            reservation.cancel();
+                        } else {
+                            reservation.confirm();
+                            loanLimits.released(1L, 1);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(maxHeld.get() <= 8);
+        assertEquals(0, loanLimits.openLoans(1L));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.librarymanagementsystem.overdue;
+
+import com.example.librarymanagementsystem.dto.OverdueLoanDTOResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the heap used by the tracker with a million open loans, and the cost of loading, registering,
+ * cancelling and firing them. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class OverdueLoanTrackerBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueLoanTrackerBenchmarkTest.class);
+    private static final int LOANS = 1_000_000;
+    private static final int PAGES = 10_000;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Test
+    void trackAMillionOpenLoans() {
+        Random random = new Random(42);
+        LocalDateTime[] dueDates = new LocalDateTime[LOANS];
+        for (int i = 0; i < LOANS; i++) {
+            dueDates[i] = NOW.plusMinutes(random.nextInt((int) TimeUnit.DAYS.toMinutes(28)));
+        }
+        OverdueLoanTracker tracker = new OverdueLoanTracker(event -> { },
+                Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+
+        long heapBefore = usedHeap();
+        long startTime = System.nanoTime();
+        tracker.beginReload();
+        OverdueLoanTracker.Loader loader = tracker.newLoader(LOANS);
+        for (int i = 0; i < LOANS; i++) {
+            loader.add(new OverdueLoanDTOResponse(i + 1, i + 1, i % 50_000 + 1, dueDates[i]));
+        }
+        tracker.completeReload(loader);
+        long loadNanos = System.nanoTime() - startTime;
+        long heapAfter = usedHeap();
+
+        startTime = System.nanoTime();
+        for (int i = 0; i < LOANS; i++) {
+            tracker.cancel(i + 1, i + 1);
+            tracker.register(i + 1, i % 50_000 + 1, LOANS + i + 1, dueDates[i]);
+        }
+        long churnNanos = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        int fired = 0;
+        long now = NOW.plusDays(7).toInstant(ZoneOffset.UTC).toEpochMilli();
+        int batch;
+        while ((batch = tracker.fireDue(now).size()) > 0) {
+            fired += batch;
+        }
+        long fireNanos = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        long after = 0;
+        for (int page = 0; page < PAGES; page++) {
+            List<OverdueLoanDTOResponse> loans = tracker.getOverdueLoans(after, 50);
+            after = loans.isEmpty() ? 0 : loans.get(loans.size() - 1).getBorrowingRecordId();
+        }
+        long pageNanos = System.nanoTime() - startTime;
+
+        logger.info("Loaded {} loans in {} ms using about {} bytes per loan", LOANS,
+                TimeUnit.NANOSECONDS.toMillis(loadNanos), (heapAfter - heapBefore) / LOANS);
+        logger.info("Returned and re-borrowed every loan in {} ms ({} ns per pair)",
+                TimeUnit.NANOSECONDS.toMillis(churnNanos), churnNanos / LOANS);
+        logger.info("Fired {} overdue loans in {} ms", fired, TimeUnit.NANOSECONDS.toMillis(fireNanos));
+        logger.info("Read {} pages of 50 overdue loans in {} ms ({} us per page)", PAGES,
+                TimeUnit.NANOSECONDS.toMillis(pageNanos), TimeUnit.NANOSECONDS.toMicros(pageNanos / PAGES));
+        assertEquals(LOANS, tracker.pendingCount() + tracker.overdueCount());
+        assertTrue(fired > 0);
+        // A loan should cost well under the 200+ bytes of a queue of entry objects.
+        assertTrue(heapAfter - heapBefore < 100L * LOANS);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.librarymanagementsystem.overdue;
+
+import com.example.librarymanagementsystem.dto.OverdueLoanDTOResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OverdueLoanTrackerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+    private static final long NOW_MILLIS = NOW.toInstant(ZoneOffset.UTC).toEpochMilli();
+
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private final OverdueLoanTracker tracker = new OverdueLoanTracker(events::add,
+            Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+
+    @AfterEach
+    void tearDown() {
+        tracker.stop();
+    }
+
+    @Test
+    void testLoansFallDueInDueDateOrderOnce() {
+        tracker.register(1L, 10L, 100L, NOW.plusDays(3));
+        tracker.register(2L, 10L, 101L, NOW.plusDays(1));
+        tracker.register(3L, 11L, 102L, NOW.plusDays(2));
+
+        assertTrue(tracker.fireDue(NOW_MILLIS).isEmpty());
+        List<LoanOverdueEvent> fired = tracker.fireDue(NOW_MILLIS + TimeUnit.DAYS.toMillis(2));
+
+        assertEquals(List.of(101L, 102L), fired.stream().map(LoanOverdueEvent::borrowingRecordId).toList());
+        assertEquals(new LoanOverdueEvent(101L, 2L, 10L, NOW.plusDays(1)), fired.get(0));
+        assertTrue(tracker.fireDue(NOW_MILLIS + TimeUnit.DAYS.toMillis(2)).isEmpty());
+        assertEquals(1, tracker.pendingCount());
+        assertEquals(2, tracker.overdueCount());
+    }
+
+    @Test
+    void testCancelRemovesPendingAndOverdueLoans() {
+        tracker.register(1L, 10L, 100L, NOW.minusDays(1));
+        tracker.register(2L, 10L, 101L, NOW.plusDays(1));
+        tracker.register(3L, 10L, 102L, NOW.plusDays(2));
+        tracker.fireDue(NOW_MILLIS);
+
+        tracker.cancel(1L, 100L);
+        tracker.cancel(2L, 101L);
+        tracker.cancel(3L, 999L);
+
+        assertEquals(0, tracker.overdueCount());
+        assertEquals(1, tracker.pendingCount());
+        assertEquals(List.of(102L), tracker.fireDue(Long.MAX_VALUE).stream()
+                .map(LoanOverdueEvent::borrowingRecordId).toList());
+    }
+
+    @Test
+    void testRegisteringABookAgainReplacesItsLoan() {
+        tracker.register(1L, 10L, 100L, NOW.minusDays(1));
+        tracker.register(1L, 11L, 101L, NOW.plusDays(1));
+
+        assertTrue(tracker.fireDue(NOW_MILLIS).isEmpty());
+        assertEquals(1, tracker.pendingCount());
+    }
+
+    @Test
+    void testOverdueLoansArePagedByRecordId() {
+        for (long id = 1; id <= 5; id++) {
+            tracker.register(id, 10L, 200L - id, NOW.minusHours(id));
+        }
+        tracker.fireDue(NOW_MILLIS);
+
+        List<OverdueLoanDTOResponse> first = tracker.getOverdueLoans(0L, 2);
+        List<OverdueLoanDTOResponse> second = tracker.getOverdueLoans(first.get(1).getBorrowingRecordId(), 2);
+
+        assertEquals(List.of(195L, 196L), first.stream().map(OverdueLoanDTOResponse::getBorrowingRecordId).toList());
+        assertEquals(List.of(197L, 198L), second.stream().map(OverdueLoanDTOResponse::getBorrowingRecordId).toList());
+        assertEquals(NOW.minusHours(5), first.get(0).getDueDateTime());
+    }
+
+    @Test
+    void testOverdueLoansStayInRecordIdOrderAsTheyFallDueAndAreReturned() {
+        Random random = new Random(42);
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        for (long bookId = 1; bookId <= 2_000; bookId++) {
+            long recordId = 10_000 + random.nextInt(1_000_000);
+            while (expected.containsKey(recordId)) {
+                recordId++;
+            }
+            // Record IDs fall due in no particular order, over several calls.
+            tracker.register(bookId, 10L, recordId, NOW.minusMinutes(random.nextInt(600)).minusDays(bookId % 4));
+            expected.put(recordId, bookId);
+        }
+        for (int day = 3; day >= 0; day--) {
+            tracker.fireDue(NOW_MILLIS - TimeUnit.DAYS.toMillis(day));
+        }
+        // Returning most of the loans leaves tombstones behind, compacted as they pile up.
+        for (Map.Entry<Long, Long> loan : List.copyOf(expected.entrySet())) {
+            if (random.nextInt(4) != 0) {
+                tracker.cancel(loan.getValue(), loan.getKey());
+                expected.remove(loan.getKey());
+            }
+        }
+
+        List<Long> paged = new ArrayList<>();
+        List<OverdueLoanDTOResponse> page = tracker.getOverdueLoans(0L, 7);
+        while (!page.isEmpty()) {
+            page.forEach(loan -> paged.add(loan.getBorrowingRecordId()));
+            page = tracker.getOverdueLoans(paged.get(paged.size() - 1), 7);
+        }
+
+        assertEquals(List.copyOf(expected.keySet()), paged);
+        assertEquals(expected.size(), tracker.overdueCount());
+        long after = expected.ceilingKey(500_000L) - 1;
+        assertEquals(expected.ceilingKey(500_000L), tracker.getOverdueLoans(after, 1).get(0).getBorrowingRecordId());
+    }
+
+    @Test
+    void testReloadKeepsChangesMadeWhileLoading() {
+        tracker.beginReload();
+        OverdueLoanTracker.Loader loader = tracker.newLoader(3);
+        loader.add(new OverdueLoanDTOResponse(100L, 1L, 10L, NOW.minusDays(1)));
+        loader.add(new OverdueLoanDTOResponse(101L, 2L, 10L, NOW.plusDays(1)));
+        loader.add(new OverdueLoanDTOResponse(102L, 3L, 10L, null));
+        tracker.cancel(1L, 100L);
+        tracker.register(4L, 10L, 103L, NOW.minusDays(2));
+        tracker.completeReload(loader);
+
+        assertEquals(List.of(103L), tracker.fireDue(NOW_MILLIS).stream()
+                .map(LoanOverdueEvent::borrowingRecordId).toList());
+        assertEquals(1, tracker.pendingCount());
+    }
+
+    @Test
+    void testFiringThreadPublishesWithoutPolling() throws Exception {
+        CountDownLatch published = new CountDownLatch(1);
+        OverdueLoanTracker live = new OverdueLoanTracker(event -> published.countDown(), Clock.systemUTC());
+        live.start();
+        try {
+            live.register(1L, 10L, 100L, LocalDateTime.ofInstant(Instant.now().plusMillis(200), ZoneOffset.UTC));
+            assertTrue(published.await(5, TimeUnit.SECONDS));
+            assertEquals(1, live.overdueCount());
+        } finally {
+            live.stop();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.librarymanagementsystem.repository;
+
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.entity.Patron;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the two ways of finding the open loan of a book while its loan history grows: the original derived query
+ * on borrowing_record, and the primary-key lookup in active_loans. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false"}, showSql = false)
+class ActiveLoanLookupBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveLoanLookupBenchmarkTest.class);
+    private static final int BOOKS = 50;
+    private static final int LOOKUPS = 2_000;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private ActiveLoanRepository activeLoanRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void compareOpenLoanLookupsAsHistoryGrows() {
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            bookIds.add(bookRepository.save(
+                    new Book("Title" + i, "Author", 2000, String.format("123-%010d", i), true)).getId());
+        }
+        Long patronId = patronRepository.save(new Patron("Patron", "1234567890", "patron@example.com")).getId();
+        List<Long> recordIds = borrowingRecordRepository.insertAll(patronId, bookIds, LocalDateTime.now(),
+                LocalDateTime.now().plusDays(14));
+        activeLoanRepository.insertAll(patronId, bookIds, recordIds);
+
+        int history = 0;
+        for (int historyPerBook : new int[]{100, 1_000, 10_000}) {
+            addReturnedLoans(bookIds, patronId, historyPerBook - history);
+            history = historyPerBook;
+
+            double derivedQuery = measure(bookIds, bookId -> assertTrue(borrowingRecordRepository
+                    .findByBookIdAndPatronIdAndReturnDateTimeIsNull(bookId, patronId).isPresent()));
+            double activeLoan = measure(bookIds, bookId -> assertTrue(activeLoanRepository
+                    .findById(bookId).isPresent()));
+            logger.info("{} returned loans per book ({} rows): borrowing_record query {} us, active_loans lookup {} us",
+                    historyPerBook, (long) historyPerBook * BOOKS, String.format("%.1f", derivedQuery),
+                    String.format("%.1f", activeLoan));
+        }
+    }
+
+    private void addReturnedLoans(List<Long> bookIds, Long patronId, int perBook) {
+        Timestamp borrowed = Timestamp.valueOf(LocalDateTime.now().minusYears(1));
+        Timestamp returned = Timestamp.valueOf(LocalDateTime.now().minusYears(1).plusDays(14));
+        for (Long bookId : bookIds) {
+            jdbcTemplate.batchUpdate("INSERT INTO borrowing_record (book_id, patron_id, borrow_date_time, "
+                    + "return_date_time) VALUES (?, ?, ?, ?)", Collections.nCopies(perBook, bookId),
+                    1_000, (ps, id) -> {
+                        ps.setLong(1, id);
+                        ps.setLong(2, patronId);
+                        ps.setTimestamp(3, borrowed);
+                        ps.setTimestamp(4, returned);
+                    });
+        }
+    }
+
+    /**
+     * Clears the persistence context before each lookup so that every lookup reaches the database.
+     *
+     * @return the mean latency of one lookup in microseconds, after a warm-up pass
+     */
+    private double measure(List<Long> bookIds, LongConsumer lookup) {
+        for (int i = 0; i < LOOKUPS / 4; i++) {
+            entityManager.clear();
+            lookup.accept(bookIds.get(i % BOOKS));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            entityManager.clear();
+            lookup.accept(bookIds.get(i % BOOKS));
+        }
+        return (System.nanoTime() - start) / 1_000.0 / LOOKUPS;
+    }
+}
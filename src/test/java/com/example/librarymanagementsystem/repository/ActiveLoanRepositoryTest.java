@@ -0,0 +1,110 @@
+package com.example.librarymanagementsystem.repository;
+
+import com.example.librarymanagementsystem.dto.OverdueLoanDTOResponse;
+import com.example.librarymanagementsystem.entity.ActiveLoan;
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.limits.PatronLoanCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false"})
+class ActiveLoanRepositoryTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private ActiveLoanRepository activeLoanRepository;
+
+    private Long firstBookId;
+    private Long secondBookId;
+    private Long patronId;
+
+    @BeforeEach
+    void setUp() {
+        firstBookId = bookRepository.save(new Book("Title1", "Author", 2000, "123-1234567890", true)).getId();
+        secondBookId = bookRepository.save(new Book("Title2", "Author", 2000, "123-0987654321", true)).getId();
+        patronId = patronRepository.save(new Patron("Patron", "1234567890", "patron@example.com")).getId();
+    }
+
+    @Test
+    void testBatchInsertLinksLoansToTheirRecords() {
+        List<Long> recordIds = borrowingRecordRepository.insertAll(patronId, List.of(firstBookId, secondBookId),
+                LocalDateTime.now(), LocalDateTime.now().plusDays(14));
+        activeLoanRepository.insertAll(patronId, List.of(firstBookId, secondBookId), recordIds);
+
+        List<ActiveLoan> loans = activeLoanRepository.findByPatronIdAndBookIdIn(patronId,
+                List.of(firstBookId, secondBookId));
+        assertEquals(2, loans.size());
+        for (ActiveLoan loan : loans) {
+            assertEquals(loan.getBookId(),
+                    borrowingRecordRepository.findById(loan.getBorrowingRecordId()).orElseThrow().getBook().getId());
+        }
+    }
+
+    @Test
+    void testRemoveAllOnlyDeletesLoansThatAreStillOpen() {
+        List<Long> recordIds = borrowingRecordRepository.insertAll(patronId, List.of(firstBookId, secondBookId),
+                LocalDateTime.now(), LocalDateTime.now().plusDays(14));
+        activeLoanRepository.insertAll(patronId, List.of(firstBookId, secondBookId), recordIds);
+        ActiveLoan first = new ActiveLoan(firstBookId, patronId, recordIds.get(0));
+        ActiveLoan second = new ActiveLoan(secondBookId, patronId, recordIds.get(1));
+
+        assertEquals(1, activeLoanRepository.deleteOpenLoan(firstBookId, recordIds.get(0)));
+        assertArrayEquals(new int[]{0, 1}, activeLoanRepository.removeAll(List.of(first, second)));
+        assertEquals(0, activeLoanRepository.count());
+    }
+
+    @Test
+    void testStreamOpenLoanDueDatesSkipsReturnedLoans() {
+        LocalDateTime dueDateTime = LocalDateTime.of(2024, 5, 15, 12, 0);
+        List<Long> recordIds = borrowingRecordRepository.insertAll(patronId, List.of(firstBookId, secondBookId),
+                dueDateTime.minusDays(14), dueDateTime);
+        activeLoanRepository.insertAll(patronId, List.of(firstBookId, secondBookId), recordIds);
+        activeLoanRepository.deleteOpenLoan(secondBookId, recordIds.get(1));
+
+        try (Stream<OverdueLoanDTOResponse> loans = borrowingRecordRepository.streamOpenLoanDueDates()) {
+            assertEquals(List.of(new OverdueLoanDTOResponse(recordIds.get(0), firstBookId, patronId, dueDateTime)),
+                    loans.toList());
+        }
+    }
+
+    @Test
+    void testBookCannotHaveTwoActiveLoans() {
+        activeLoanRepository.insertAll(patronId, List.of(firstBookId), List.of(1L));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> activeLoanRepository.insertAll(patronId, List.of(firstBookId), List.of(2L)));
+    }
+
+    @Test
+    void testOpenLoansAreCountedPerPatron() {
+        Long otherPatronId = patronRepository.save(new Patron("Other", "1234567890", "other@example.com")).getId();
+        List<Long> recordIds = borrowingRecordRepository.insertAll(patronId, List.of(firstBookId, secondBookId),
+                LocalDateTime.now(), LocalDateTime.now().plusDays(14));
+        activeLoanRepository.insertAll(patronId, List.of(firstBookId, secondBookId), recordIds);
+
+        assertEquals(2, activeLoanRepository.countByPatronId(patronId));
+        assertEquals(0, activeLoanRepository.countByPatronId(otherPatronId));
+        try (Stream<PatronLoanCount> counts = activeLoanRepository.streamOpenLoanCounts()) {
+            assertEquals(List.of(new PatronLoanCount(patronId, 2)), counts.toList());
+        }
+    }
+}
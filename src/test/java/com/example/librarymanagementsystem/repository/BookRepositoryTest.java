@@ -0,0 +1,39 @@
+package com.example.librarymanagementsystem.repository;
+
+import com.example.librarymanagementsystem.entity.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false"})
+class BookRepositoryTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void testEveryUpdateIncrementsTheVersion() {
+        Book book = bookRepository.saveAndFlush(new Book("Title", "Author", 2000, "123-1234567890", false));
+        Long id = book.getId();
+        assertEquals(Optional.of(0L), bookRepository.findVersionById(id));
+
+        book.setTitle("Other Title");
+        bookRepository.saveAndFlush(book);
+        assertEquals(Optional.of(1L), bookRepository.findVersionById(id));
+
+        assertEquals(1, bookRepository.markBorrowed(id));
+        assertEquals(0, bookRepository.markBorrowed(id));
+        assertEquals(Optional.of(2L), bookRepository.findVersionById(id));
+
+        assertEquals(1, bookRepository.markReturned(id));
+        bookRepository.markAllBorrowed(List.of(id));
+        assertEquals(Optional.of(4L), bookRepository.findVersionById(id));
+        assertEquals(Optional.empty(), bookRepository.findVersionById(id + 1));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.librarymanagementsystem.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex();
+        index.add(1L, "The Hobbit", "J R R Tolkien");
+        index.add(2L, "The Lord of the Rings", "J R R Tolkien");
+        index.add(3L, "Tolkien A Biography", "Humphrey Carpenter");
+        index.add(4L, "Dune", "Frank Herbert");
+    }
+
+    @Test
+    void testTokenizeLowerCasesAndDeduplicates() {
+        assertEquals(List.of("the", "lord", "of", "rings"), BookSearchIndex.tokenize("The Lord of the  RINGS"));
+        assertTrue(BookSearchIndex.tokenize("   ").isEmpty());
+    }
+
+    @Test
+    void testSearchRequiresEveryTerm() {
+        SearchHits hits = index.search("tolkien hobbit", 0, 10);
+
+        assertEquals(1, hits.total());
+        assertArrayEquals(new long[]{1L}, hits.ids());
+    }
+
+    @Test
+    void testSearchRanksTitleMatchesFirst() {
+        SearchHits hits = index.search("Tolkien", 0, 10);
+
+        assertEquals(3, hits.total());
+        assertArrayEquals(new long[]{3L, 1L, 2L}, hits.ids());
+    }
+
+    @Test
+    void testSearchPaginates() {
+        SearchHits hits = index.search("tolkien", 1, 1);
+
+        assertEquals(3, hits.total());
+        assertArrayEquals(new long[]{1L}, hits.ids());
+        assertEquals(0, index.search("tolkien", 5, 1).ids().length);
+    }
+
+    @Test
+    void testSearchUnknownTerm() {
+        assertEquals(0, index.search("tolkien unknown", 0, 10).total());
+    }
+
+    @Test
+    void testUpdateAndRemove() {
+        index.update(4L, "Dune", "Frank Herbert", "Dune Messiah", "Frank Herbert");
+        assertArrayEquals(new long[]{4L}, index.search("messiah", 0, 10).ids());
+
+        index.remove(4L, "Dune Messiah", "Frank Herbert");
+        assertEquals(0, index.search("dune", 0, 10).total());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testRebuildKeepsChangesMadeDuringRebuild() {
+        BookSearchIndex.Segment first = new BookSearchIndex.Segment();
+        first.add(1L, "The Hobbit", "J R R Tolkien");
+        BookSearchIndex.Segment second = new BookSearchIndex.Segment();
+        second.add(7L, "Emma", "Jane Austen");
+
+        index.beginRebuild();
+        index.add(9L, "Persuasion", "Jane Austen");
+        index.completeRebuild(List.of(first, second));
+
+        assertArrayEquals(new long[]{7L, 9L}, index.search("austen", 0, 10).ids());
+        assertEquals(0, index.search("dune", 0, 10).total());
+        assertEquals(3, index.size());
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.librarymanagementsystem.serviceImpl;
+
+import com.example.librarymanagementsystem.cache.AbsentIdFilter;
+import com.example.librarymanagementsystem.catalog.BookCatalog;
+import com.example.librarymanagementsystem.catalogimport.BookImportListener;
+import com.example.librarymanagementsystem.catalogimport.ImportFormat;
+import com.example.librarymanagementsystem.dto.BookImportErrorDTOResponse;
+import com.example.librarymanagementsystem.dto.BookImportReportDTOResponse;
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.search.BookSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs imports against a real database, without the surrounding test transaction, since chunks are committed
+ * by the writer thread.
+ */
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false"}, showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookImportServiceImplTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final BookSearchIndex bookSearchIndex = new BookSearchIndex();
+    private final AbsentIdFilter absentBookIds = new AbsentIdFilter(1000, 0.01, 100, Duration.ofMinutes(1));
+    private final List<BookImportErrorDTOResponse> errors = new ArrayList<>();
+    private final List<BookImportReportDTOResponse> progress = new ArrayList<>();
+    private final BookImportListener listener = new BookImportListener() {
+        @Override
+        public void onRejected(BookImportErrorDTOResponse error) {
+            errors.add(error);
+        }
+
+        @Override
+        public void onProgress(BookImportReportDTOResponse report) {
+            progress.add(report);
+        }
+    };
+
+    private final List<Object> evictedBooks = new ArrayList<>();
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager("books") {
+        @Override
+        protected Cache createConcurrentMapCache(String name) {
+            return new ConcurrentMapCache(name) {
+                @Override
+                public void evict(Object key) {
+                    evictedBooks.add(key);
+                    super.evict(key);
+                }
+            };
+        }
+    };
+    private BookCatalog bookCatalog;
+    private BookImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        bookCatalog = new BookCatalog(bookRepository, Duration.ZERO);
+        importService = new BookImportServiceImpl(entityManagerFactory, bookSearchIndex,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), absentBookIds,
+                bookCatalog, cacheManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void testImportCsvReportsInvalidAndDuplicateRows() throws Exception {
+        bookRepository.save(new Book("Existing", "Author", 2000, "123-0000000001", false));
+        String csv = """
+                isbn,title,author,publicationYear
+                123-0000000002,"Clean Code",Robert Martin,2008
+                123-0000000001,Duplicate Of Existing,Someone,2001
+                123-0000000002,Duplicate In File,Someone,2001
+                bad-isbn,Refactoring,Martin Fowler,1999
+                123-0000000003,Refactoring,Martin Fowler,not a year
+                123-0000000004,"Unterminated,Someone,2001
+
+                123-0000000005,Domain Driven Design,Eric Evans,2003
+                """;
+
+        BookImportReportDTOResponse report = importService.importBooks(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV, listener);
+
+        assertTrue(report.isCompleted());
+        assertEquals(7, report.getRowsRead());
+        assertEquals(2, report.getImported());
+        assertEquals(5, report.getRejected());
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L),
+                errors.stream().map(BookImportErrorDTOResponse::getLine).sorted().toList());
+        assertEquals(3, bookRepository.count());
+        assertEquals(1, bookSearchIndex.search("clean code", 0, 10).total());
+    }
+
+    @Test
+    void testImportNdjson() throws Exception {
+        String ndjson = """
+                {"title":"Clean Code","author":"Robert Martin","publicationYear":2008,"isbn":"123-0000000002"}
+                {"title":"Refactoring","author":"Martin Fowler","publicationYear":"1999x","isbn":"123-0000000003"}
+                {not json
+                {"title":"Domain Driven Design","author":"Eric Evans","publicationYear":2003,"isbn":"123-0000000005"}
+                """;
+
+        BookImportReportDTOResponse report = importService.importBooks(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON, listener);
+
+        assertEquals(2, report.getImported());
+        assertEquals(List.of(2L, 3L), errors.stream().map(BookImportErrorDTOResponse::getLine).sorted().toList());
+        assertEquals(2, bookRepository.count());
+    }
+
+    @Test
+    void testImportReloadsTheCatalog() throws Exception {
+        bookCatalog.reload();
+        long version = bookCatalog.snapshot().version();
+        String csv = """
+                isbn,title,author,publicationYear
+                123-0000000002,Clean Code,Robert Martin,2008
+                123-0000000005,Domain Driven Design,Eric Evans,2003
+                """;
+
+        importService.importBooks(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV,
+                listener);
+
+        assertEquals(2, bookCatalog.snapshot().size());
+        assertEquals(version + 1, bookCatalog.snapshot().version());
+        assertEquals(bookRepository.findAll().stream().map(Book::getId).sorted().toList(),
+                evictedBooks.stream().map(Long.class::cast).sorted().toList());
+    }
+
+    @Test
+    void testImportedBooksAreNoLongerTakenForAbsent() throws Exception {
+        absentBookIds.completeLoad();
+        String csv = "title,author,publicationYear,isbn\nClean Code,Robert Martin,2008,123-0000000002\n";
+
+        importService.importBooks(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV,
+                listener);
+
+        Book imported = bookRepository.findAll().get(0);
+        assertFalse(absentBookIds.isAbsent(imported.getId()));
+        assertTrue(absentBookIds.isAbsent(imported.getId() + 1));
+    }
+
+    @Test
+    void testImportCsvWithoutRequiredColumnFails() throws Exception {
+        BookImportReportDTOResponse report = importService.importBooks(
+                new ByteArrayInputStream("title,author\nA,B\n".getBytes(StandardCharsets.UTF_8)),
+                ImportFormat.CSV, listener);
+
+        assertFalse(report.isCompleted());
+        assertEquals("The CSV header has no 'publicationyear' column", report.getFailure());
+        assertEquals(0, bookRepository.count());
+    }
+
+    @Test
+    void testImportLargeCsvInChunks() throws Exception {
+        int rows = 50_000;
+        StringBuilder csv = new StringBuilder("title,author,publicationYear,isbn\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Title ").append(i).append(",Author,2000,").append(String.format("123-%010d", i)).append('\n');
+        }
+
+        BookImportReportDTOResponse report = importService.importBooks(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV,
+                listener);
+
+        assertTrue(report.isCompleted());
+        assertEquals(rows, report.getImported());
+        assertEquals(rows, bookRepository.count());
+        assertEquals(rows / 1000, progress.size());
+        assertEquals(rows, progress.get(progress.size() - 1).getImported());
+        assertTrue(errors.isEmpty());
+    }
+}
@@ -1,16 +1,36 @@
 package com.example.librarymanagementsystem.serviceImpl;
 
+import com.example.librarymanagementsystem.archive.LoanHistory;
+import com.example.librarymanagementsystem.cache.AbsentIdFilter;
+import com.example.librarymanagementsystem.catalog.BookCatalog;
+import com.example.librarymanagementsystem.catalog.BookFilter;
+import com.example.librarymanagementsystem.catalog.CatalogSnapshot;
+import com.example.librarymanagementsystem.catalog.Versioned;
+import com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse;
 import com.example.librarymanagementsystem.entity.Book;
 import com.example.librarymanagementsystem.exceptionHandler.BookISBNAlreadyExistsException;
 import com.example.librarymanagementsystem.exceptionHandler.BookNotFoundException;
+import com.example.librarymanagementsystem.exceptionHandler.BookOnLoanException;
+import com.example.librarymanagementsystem.journal.OpenLoans;
 import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.search.BookSearchIndex;
+import com.example.librarymanagementsystem.search.SearchHits;
+import com.example.librarymanagementsystem.snapshot.BookSnapshot;
+import com.example.librarymanagementsystem.stats.BorrowingStatistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -28,6 +48,24 @@ public class BookServiceImplTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private LoanHistory loanHistory;
+
+    @Mock
+    private BorrowingStatistics borrowingStatistics;
+
+    @Mock
+    private BookCatalog bookCatalog;
+
+    @Mock
+    private ObjectProvider<OpenLoans> openLoans;
+
+    @Spy
+    private AbsentIdFilter absentBookIds = new AbsentIdFilter(1000, 0.01, 100, Duration.ofMinutes(1));
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -35,14 +73,75 @@ public class BookServiceImplTest {
 
     @Test
     public void testGetAllBooks() {
-        List<Book> books = new ArrayList<>();
-        books.add(new Book(1L, "Title1", "Author1", 2021, "ISBN1"));
-        when(bookRepository.findAll()).thenReturn(books);
+        when(bookCatalog.snapshot()).thenReturn(new CatalogSnapshot("e", 1,
+                List.of(new BookSnapshot(1L, "Title1", "Author1", 2021, "ISBN1", false))));
 
-        List<Book> result = bookService.getAllBooks();
+        List<BookSnapshot> result = bookService.getAllBooks();
 
         assertEquals(1, result.size());
-        assertEquals("Title1", result.get(0).getTitle());
+        assertEquals("Title1", result.get(0).title());
+    }
+
+    @Test
+    public void testGetBooksPage() {
+        when(bookCatalog.snapshot()).thenReturn(new CatalogSnapshot("e", 3, List.of(
+                new BookSnapshot(5L, "Title5", "Author5", 2021, "ISBN5", false),
+                new BookSnapshot(6L, "Title6", "Author6", 2021, "ISBN6", false),
+                new BookSnapshot(7L, "Title7", "Author7", 2021, "ISBN7", false))));
+
+        Versioned<Slice<BookSnapshot>> result = bookService.getBooksPage(5L, 1, BookFilter.NONE);
+
+        assertEquals(List.of(6L), result.value().map(BookSnapshot::id).getContent());
+        assertTrue(result.value().hasNext());
+        assertEquals("e-3", result.version());
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    public void testGetBooksPageCapsLimit() {
+        when(bookCatalog.snapshot()).thenReturn(new CatalogSnapshot("e", 1, List.of()));
+
+        Versioned<Slice<BookSnapshot>> result = bookService.getBooksPage(null, 1_000_000, BookFilter.NONE);
+
+        assertEquals(1000, result.value().getSize());
+    }
+
+    @Test
+    public void testCountBooks() {
+        when(bookCatalog.snapshot()).thenReturn(new CatalogSnapshot("e", 2, List.of(
+                new BookSnapshot(1L, "Title1", "Author1", 2021, "ISBN1", true),
+                new BookSnapshot(2L, "Title2", "Author1", 2021, "ISBN2", false))));
+
+        assertEquals(new Versioned<>(2L, "e-2"), bookService.countBooks(BookFilter.NONE));
+        assertEquals(1L, bookService.countBooks(new BookFilter(null, true)).value());
+    }
+
+    @Test
+    public void testSearchBooksKeepsRankingOrderWithoutTheDatabase() {
+        BookSnapshot first = new BookSnapshot(2L, "Title2", "Author2", 2021, "ISBN2", false);
+        BookSnapshot second = new BookSnapshot(1L, "Title1", "Author1", 2021, "ISBN1", true);
+        when(bookSearchIndex.search("title", 0, 20)).thenReturn(new SearchHits(2, new long[]{2L, 1L}));
+        when(bookCatalog.snapshot()).thenReturn(new CatalogSnapshot("e", 1, List.of(second, first)));
+
+        Page<BookSnapshot> result = bookService.searchBooks("title", 0, 20);
+
+        assertEquals(2, result.getTotalElements());
+        assertEquals(List.of(first, second), result.getContent());
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    public void testSearchBooksLoadsOnlyTheBooksTheCatalogDoesNotHaveYet() {
+        BookSnapshot cataloged = new BookSnapshot(1L, "Title1", "Author1", 2021, "ISBN1", false);
+        Book added = new Book(3L, "Title3", "Author3", 2021, "ISBN3");
+        when(bookSearchIndex.search("title", 0, 20)).thenReturn(new SearchHits(3, new long[]{3L, 1L, 4L}));
+        when(bookCatalog.snapshot()).thenReturn(new CatalogSnapshot("e", 1, List.of(cataloged)));
+        when(bookRepository.findAllById(List.of(3L, 4L))).thenReturn(List.of(added));
+
+        Page<BookSnapshot> result = bookService.searchBooks("title", 0, 20);
+
+        assertEquals(List.of(BookSnapshot.of(added), cataloged), result.getContent());
+        verify(bookRepository).findAllById(List.of(3L, 4L));
     }
 
     @Test
@@ -50,10 +149,10 @@ public class BookServiceImplTest {
         Book book = new Book(1L, "Title1", "Author1", 2021, "ISBN1");
         when(bookRepository.findById(anyLong())).thenReturn(Optional.of(book));
 
-        Book result = bookService.getBookById(1L);
+        BookSnapshot result = bookService.getBookById(1L);
 
         assertNotNull(result);
-        assertEquals("Title1", result.getTitle());
+        assertEquals("Title1", result.title());
     }
 
     @Test
@@ -63,15 +162,45 @@ public class BookServiceImplTest {
         assertThrows(BookNotFoundException.class, () -> bookService.getBookById(1L));
     }
 
+    @Test
+    public void testGetBookByIdNotFoundIsRememberedUntilAdded() {
+        Book book = new Book(1L, "Title1", "Author1", 2021, "ISBN1");
+        when(bookRepository.findById(1L)).thenReturn(Optional.empty(), Optional.of(book));
+        when(bookRepository.save(any(Book.class))).thenReturn(book);
+
+        BookNotFoundException notFound = assertThrows(BookNotFoundException.class, () -> bookService.getBookById(1L));
+        assertThrows(BookNotFoundException.class, () -> bookService.getBookById(1L));
+        verify(bookRepository, times(1)).findById(1L);
+        assertEquals(0, notFound.getStackTrace().length);
+        bookService.addBook(new Book(null, "Title1", "Author1", 2021, "ISBN1"));
+
+        assertEquals("Title1", bookService.getBookById(1L).title());
+    }
+
+    @Test
+    public void testGetBookByIdAboveTheHighestIdSkipsTheDatabase() {
+        absentBookIds.recordExisting(1L);
+        absentBookIds.recordExisting(3L);
+        absentBookIds.completeLoad();
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(new Book(1L, "Title1", "Author1", 2021, "ISBN1")));
+
+        assertThrows(BookNotFoundException.class, () -> bookService.getBookById(4L));
+        assertThrows(BookNotFoundException.class, () -> bookService.getBookById(1_000_000L));
+        assertEquals("Title1", bookService.getBookById(1L).title());
+        verify(bookRepository, never()).findById(4L);
+        verify(bookRepository, never()).findById(1_000_000L);
+    }
+
     @Test
     public void testAddBookSuccess() {
         Book book = new Book(1L, "Title1", "Author1", 2021, "ISBN1");
         when(bookRepository.save(any(Book.class))).thenReturn(book);
 
-        Book result = bookService.addBook(book);
+        BookSnapshot result = bookService.addBook(book);
 
         assertNotNull(result);
-        assertEquals("Title1", result.getTitle());
+        assertEquals("Title1", result.title());
+        verify(bookSearchIndex).add(1L, "Title1", "Author1");
     }
 
     @Test
@@ -79,6 +208,7 @@ public class BookServiceImplTest {
         when(bookRepository.save(any(Book.class))).thenThrow(DataIntegrityViolationException.class);
 
         assertThrows(BookISBNAlreadyExistsException.class, () -> bookService.addBook(new Book()));
+        verifyNoInteractions(bookSearchIndex);
     }
 
     @Test
@@ -88,10 +218,11 @@ public class BookServiceImplTest {
         when(bookRepository.save(any(Book.class))).thenReturn(book);
 
         Book updatedDetails = new Book(1L, "UpdatedTitle", "UpdatedAuthor", 2022, "ISBN1");
-        Book result = bookService.updateBook(1L, updatedDetails);
+        BookSnapshot result = bookService.updateBook(1L, updatedDetails);
 
         assertNotNull(result);
-        assertEquals("UpdatedTitle", result.getTitle());
+        assertEquals("UpdatedTitle", result.title());
+        verify(bookSearchIndex).update(1L, "Title1", "Author1", "UpdatedTitle", "UpdatedAuthor");
     }
 
     @Test
@@ -110,6 +241,17 @@ public class BookServiceImplTest {
         bookService.deleteBook(1L);
 
         verify(bookRepository, times(1)).delete(book);
+        verify(bookSearchIndex).remove(1L, "Title1", "Author1");
+    }
+
+    @Test
+    public void testDeleteBook_OnLoan() {
+        OpenLoans loans = new OpenLoans();
+        loans.borrow(1L, 3L);
+        when(openLoans.getIfAvailable()).thenReturn(loans);
+
+        assertThrows(BookOnLoanException.class, () -> bookService.deleteBook(1L));
+        verify(bookRepository, never()).delete(any(Book.class));
     }
 
     @Test
@@ -118,4 +260,24 @@ public class BookServiceImplTest {
 
         assertThrows(BookNotFoundException.class, () -> bookService.deleteBook(1L));
     }
+
+    @Test
+    public void testGetBookLoansSkipsBookLookup() {
+        BorrowingRecordDTOResponse loan = new BorrowingRecordDTOResponse(7L, 1L, 3L, null, null);
+        when(loanHistory.findBookLoans(1L, Long.MAX_VALUE, 10))
+                .thenReturn(new SliceImpl<>(List.of(loan), PageRequest.of(0, 10), false));
+
+        Slice<BorrowingRecordDTOResponse> loans = bookService.getBookLoans(1L, null, 10);
+
+        assertEquals(List.of(loan), loans.getContent());
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    public void testGetBookLoans_NotFound() {
+        when(loanHistory.findBookLoans(1L, 8L, 50)).thenReturn(new SliceImpl<>(List.of()));
+        when(bookRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(BookNotFoundException.class, () -> bookService.getBookLoans(1L, 8L, 50));
+    }
 }
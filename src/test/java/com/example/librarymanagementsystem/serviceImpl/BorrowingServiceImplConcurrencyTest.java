@@ -0,0 +1,264 @@
+package com.example.librarymanagementsystem.serviceImpl;
+
+import com.example.librarymanagementsystem.archive.LoanHistory;
+import com.example.librarymanagementsystem.cache.SnapshotCacheLoaders;
+import com.example.librarymanagementsystem.configuration.CachingConfig;
+import com.example.librarymanagementsystem.dto.BorrowingResultDTOResponse;
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.entity.BorrowingRecord;
+import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.entity.PatronTier;
+import com.example.librarymanagementsystem.exceptionHandler.BookAlreadyBorrowedException;
+import com.example.librarymanagementsystem.exceptionHandler.BorrowingRecordNotFoundException;
+import com.example.librarymanagementsystem.exceptionHandler.LoanLimitExceededException;
+import com.example.librarymanagementsystem.hold.HoldQueues;
+import com.example.librarymanagementsystem.limits.LoanLimits;
+import com.example.librarymanagementsystem.overdue.OverdueLoanTracker;
+import com.example.librarymanagementsystem.repository.ActiveLoanRepository;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
+import com.example.librarymanagementsystem.repository.PatronRepository;
+import com.example.librarymanagementsystem.service.BorrowingService;
+import com.example.librarymanagementsystem.stats.BorrowingStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress test running many concurrent borrows and returns against a real database, without the surrounding test
+ * transaction, to check that a book is never lent twice at the same time.
+ */
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false", "library.loans.limits.standard=100",
+        "library.loans.limits.premium=3"})
+@Import({BorrowingServiceImpl.class, PatronServiceImpl.class, LoanHistory.class, CachingConfig.class,
+        SnapshotCacheLoaders.class, OverdueLoanTracker.class, HoldQueues.class, BorrowingStatistics.class,
+        LoanLimits.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BorrowingServiceImplConcurrencyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BorrowingServiceImplConcurrencyTest.class);
+    private static final int THREADS = 16;
+    private static final int BOOKS = 20;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private ActiveLoanRepository activeLoanRepository;
+
+    @Autowired
+    private LoanLimits loanLimits;
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> patronIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < BOOKS; i++) {
+            bookIds.add(bookRepository.save(
+                    new Book("Title" + i, "Author", 2000, String.format("123-%010d", i), false)).getId());
+        }
+        for (int i = 0; i < THREADS; i++) {
+            patronIds.add(patronRepository.save(
+                    new Patron("Patron", "1234567890", "patron" + i + "@example.com")).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        activeLoanRepository.deleteAll();
+        borrowingRecordRepository.deleteAll();
+        bookRepository.deleteAll();
+        patronRepository.deleteAll();
+    }
+
+    @Test
+    void testConcurrentBorrowsLendEachBookOnce() throws Exception {
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        runConcurrently(patronId -> () -> {
+            for (Long bookId : bookIds) {
+                try {
+                    borrowingService.borrowBook(bookId, patronId);
+                    successes.incrementAndGet();
+                } catch (BookAlreadyBorrowedException e) {
+                    conflicts.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertEquals(BOOKS, successes.get());
+        assertEquals(BOOKS * (THREADS - 1), conflicts.get());
+        assertEquals(BOOKS, borrowingRecordRepository.count());
+        assertEquals(BOOKS, activeLoanRepository.count());
+        assertTrue(bookRepository.findAll().stream().allMatch(Book::isBorrowed));
+    }
+
+    @Test
+    void testConcurrentBatchBorrowsLendEachBookOnce() throws Exception {
+        AtomicInteger borrowed = new AtomicInteger();
+
+        runConcurrently(patronId -> () -> {
+            for (BorrowingResultDTOResponse result : borrowingService.borrowBooks(patronId, bookIds)) {
+                if (result.isSuccess()) {
+                    borrowed.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertEquals(BOOKS, borrowed.get());
+        assertEquals(BOOKS, borrowingRecordRepository.count());
+        assertTrue(bookRepository.findAll().stream().allMatch(Book::isBorrowed));
+    }
+
+    @Test
+    void testConcurrentBorrowsByOnePatronStopAtTheLoanLimit() throws Exception {
+        Patron premium = new Patron("Premium", "1234567890", "premium@example.com");
+        premium.setTier(PatronTier.PREMIUM);
+        Long patronId = patronRepository.save(premium).getId();
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger refusals = new AtomicInteger();
+
+        runConcurrently(thread -> () -> {
+            Long bookId = bookIds.get((int) (thread % THREADS));
+            try {
+                borrowingService.borrowBook(bookId, patronId);
+                successes.incrementAndGet();
+            } catch (LoanLimitExceededException e) {
+                refusals.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertEquals(3, successes.get());
+        assertEquals(THREADS - 3, refusals.get());
+        assertEquals(3, loanLimits.openLoans(patronId));
+        assertEquals(3, activeLoanRepository.countByPatronId(patronId));
+
+        borrowingService.returnBook(activeLoanRepository.findAll().get(0).getBookId(), patronId);
+        List<BorrowingResultDTOResponse> results = borrowingService.borrowBooks(patronId, bookIds.subList(16, 20));
+
+        assertEquals(List.of(BorrowingResultDTOResponse.Status.BORROWED,
+                        BorrowingResultDTOResponse.Status.LOAN_LIMIT_REACHED,
+                        BorrowingResultDTOResponse.Status.LOAN_LIMIT_REACHED,
+                        BorrowingResultDTOResponse.Status.LOAN_LIMIT_REACHED),
+                results.stream().map(BorrowingResultDTOResponse::getStatus).toList());
+        assertEquals(3, loanLimits.openLoans(patronId));
+    }
+
+    @Test
+    void testBatchReturnClosesOnlyThePatronsLoans() {
+        Long patronId = patronIds.get(0);
+        List<Long> lent = bookIds.subList(0, 5);
+        borrowingService.borrowBooks(patronId, lent);
+
+        List<BorrowingResultDTOResponse> results = borrowingService.returnBooks(patronId, bookIds.subList(0, 10));
+
+        assertEquals(5, results.stream().filter(BorrowingResultDTOResponse::isSuccess).count());
+        assertTrue(borrowingRecordRepository.findAll().stream()
+                .allMatch(record -> record.getReturnDateTime() != null));
+        assertEquals(0, activeLoanRepository.count());
+        assertTrue(bookRepository.findAll().stream().noneMatch(Book::isBorrowed));
+    }
+
+    @Test
+    void testConcurrentBorrowReturnCyclesNeverOverlap() throws Exception {
+        int rounds = 50;
+        AtomicInteger operations = new AtomicInteger();
+        long startTime = System.nanoTime();
+
+        runConcurrently(patronId -> () -> {
+            for (int round = 0; round < rounds; round++) {
+                Long bookId = bookIds.get((int) ((patronId + round) % BOOKS));
+                try {
+                    borrowingService.borrowBook(bookId, patronId);
+                    operations.incrementAndGet();
+                    borrowingService.returnBook(bookId, patronId);
+                    operations.incrementAndGet();
+                } catch (BookAlreadyBorrowedException | BorrowingRecordNotFoundException e) {
+                    // Lost the race for this book; try the next one.
+                }
+            }
+            return null;
+        });
+
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        logger.info("{} successful borrow/return operations in {} s ({} ops/s) with {} threads",
+                operations.get(), String.format("%.2f", seconds),
+                String.format("%.0f", operations.get() / seconds), THREADS);
+
+        List<BorrowingRecord> records = borrowingRecordRepository.findAll();
+        assertEquals(operations.get() / 2, records.size());
+        assertTrue(records.stream().allMatch(record -> record.getReturnDateTime() != null));
+        assertEquals(0, activeLoanRepository.count());
+        assertTrue(bookRepository.findAll().stream().noneMatch(Book::isBorrowed));
+        Map<Long, List<BorrowingRecord>> recordsByBook = records.stream()
+                .collect(Collectors.groupingBy(record -> record.getBook().getId()));
+        recordsByBook.values().forEach(BorrowingServiceImplConcurrencyTest::assertNoOverlappingLoans);
+    }
+
+    private static void assertNoOverlappingLoans(List<BorrowingRecord> records) {
+        List<BorrowingRecord> sorted = records.stream()
+                .sorted((a, b) -> a.getBorrowDateTime().compareTo(b.getBorrowDateTime()))
+                .toList();
+        for (int i = 1; i < sorted.size(); i++) {
+            assertFalse(sorted.get(i).getBorrowDateTime().isBefore(sorted.get(i - 1).getReturnDateTime()),
+                    "Book lent again before being returned");
+        }
+    }
+
+    private void runConcurrently(java.util.function.Function<Long, Callable<Void>> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Long patronId : patronIds) {
+                Callable<Void> work = task.apply(patronId);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return work.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,22 +1,50 @@
 package com.example.librarymanagementsystem.serviceImpl;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import com.example.librarymanagementsystem.dto.BorrowingResultDTOResponse;
+import com.example.librarymanagementsystem.dto.BorrowingResultDTOResponse.Status;
+import com.example.librarymanagementsystem.dto.OverdueLoanDTOResponse;
+import com.example.librarymanagementsystem.entity.ActiveLoan;
 import com.example.librarymanagementsystem.entity.Book;
 import com.example.librarymanagementsystem.entity.BorrowingRecord;
+import com.example.librarymanagementsystem.entity.Hold;
 import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.entity.PatronTier;
 import com.example.librarymanagementsystem.exceptionHandler.BookAlreadyBorrowedException;
+import com.example.librarymanagementsystem.exceptionHandler.BookNotFoundException;
 import com.example.librarymanagementsystem.exceptionHandler.BorrowingRecordNotFoundException;
+import com.example.librarymanagementsystem.exceptionHandler.LoanLimitExceededException;
+import com.example.librarymanagementsystem.exceptionHandler.PatronNotFoundException;
+import com.example.librarymanagementsystem.hold.HoldQueues;
+import com.example.librarymanagementsystem.limits.LoanLimits;
+import com.example.librarymanagementsystem.overdue.OverdueLoanTracker;
+import com.example.librarymanagementsystem.repository.ActiveLoanRepository;
+import com.example.librarymanagementsystem.repository.BookRepository;
 import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
-import com.example.librarymanagementsystem.service.BookService;
+import com.example.librarymanagementsystem.repository.HoldRepository;
+import com.example.librarymanagementsystem.repository.PatronRepository;
 import com.example.librarymanagementsystem.service.PatronService;
+import com.example.librarymanagementsystem.snapshot.PatronSnapshot;
+import com.example.librarymanagementsystem.stats.BorrowingStatistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 class BorrowingServiceImplTest {
@@ -25,63 +53,276 @@ class BorrowingServiceImplTest {
     private BorrowingRecordRepository borrowingRecordRepository;
 
     @Mock
-    private BookService bookService;
+    private ActiveLoanRepository activeLoanRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PatronRepository patronRepository;
 
     @Mock
     private PatronService patronService;
 
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private OverdueLoanTracker overdueLoanTracker;
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Mock
+    private HoldQueues holdQueues;
+
+    @Mock
+    private BorrowingStatistics borrowingStatistics;
+
+    @Spy
+    private LoanLimits loanLimits = new LoanLimits(mock(ActiveLoanRepository.class), 2, 10, 20);
+
     @InjectMocks
     private BorrowingServiceImpl borrowingService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.initMocks(this);
+        when(patronService.getPatronById(anyLong())).thenAnswer(invocation ->
+                new PatronSnapshot(invocation.getArgument(0), "Patron", "1234567890", "patron@example.com",
+                        PatronTier.STANDARD));
     }
 
     @Test
     void testBorrowBookSuccess() {
-        Book book = new Book(1L, "Title1", "Author1", 2000, "1234567890", false);
+        Book book = new Book(1L, "Title1", "Author1", 2000, "1234567890", true);
         Patron patron = new Patron(1L, "Patron1", "1234567890", "patron1@example.com");
 
-        when(bookService.getBookById(1L)).thenReturn(book);
-        when(patronService.getPatronById(1L)).thenReturn(patron);
+        when(patronService.getPatronById(1L)).thenReturn(PatronSnapshot.of(patron));
+        when(patronRepository.getReferenceById(1L)).thenReturn(patron);
+        when(bookRepository.markBorrowed(1L)).thenReturn(1);
+        when(bookRepository.getReferenceById(1L)).thenReturn(book);
+        when(borrowingRecordRepository.save(any(BorrowingRecord.class))).thenAnswer(invocation -> {
+            BorrowingRecord saved = invocation.getArgument(0);
+            saved.setId(7L);
+            return saved;
+        });
 
         borrowingService.borrowBook(1L, 1L);
 
-        assertTrue(book.isBorrowed());
-        verify(borrowingRecordRepository, times(1)).save(any(BorrowingRecord.class));
+        ArgumentCaptor<BorrowingRecord> borrowingRecord = ArgumentCaptor.forClass(BorrowingRecord.class);
+        verify(borrowingRecordRepository, times(1)).save(borrowingRecord.capture());
+        assertSame(book, borrowingRecord.getValue().getBook());
+        assertSame(patron, borrowingRecord.getValue().getPatron());
+        assertNotNull(borrowingRecord.getValue().getBorrowDateTime());
+        assertEquals(borrowingRecord.getValue().getBorrowDateTime().plusDays(14), borrowingRecord.getValue().getDueDateTime());
+        ArgumentCaptor<ActiveLoan> activeLoan = ArgumentCaptor.forClass(ActiveLoan.class);
+        verify(activeLoanRepository, times(1)).save(activeLoan.capture());
+        assertEquals(1L, activeLoan.getValue().getBookId());
+        assertEquals(7L, activeLoan.getValue().getBorrowingRecordId());
+        verify(overdueLoanTracker, times(1)).register(1L, 1L, 7L, borrowingRecord.getValue().getDueDateTime());
     }
 
     @Test
     void testBorrowBookAlreadyBorrowed() {
-        Book book = new Book(1L, "Title1", "Author1", 2000, "1234567890", true);
-        when(bookService.getBookById(1L)).thenReturn(book);
+        when(bookRepository.markBorrowed(1L)).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(true);
 
         assertThrows(BookAlreadyBorrowedException.class, () -> borrowingService.borrowBook(1L, 1L));
+        verify(borrowingRecordRepository, never()).save(any());
+        verifyNoInteractions(overdueLoanTracker);
+    }
+
+    @Test
+    void testBorrowBookNotFound() {
+        when(bookRepository.markBorrowed(1L)).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(BookNotFoundException.class, () -> borrowingService.borrowBook(1L, 1L));
+        verify(borrowingRecordRepository, never()).save(any());
+    }
+
+    @Test
+    void testBorrowBookPatronNotFound() {
+        when(patronService.getPatronById(1L)).thenThrow(new PatronNotFoundException("Patron not found with id: 1"));
+
+        assertThrows(PatronNotFoundException.class, () -> borrowingService.borrowBook(1L, 1L));
+        verify(bookRepository, never()).markBorrowed(any());
+    }
+
+    @Test
+    void testBorrowBookOverTheLoanLimit() {
+        when(bookRepository.markBorrowed(any())).thenReturn(1);
+        when(borrowingRecordRepository.save(any(BorrowingRecord.class))).thenAnswer(invocation -> {
+            BorrowingRecord saved = invocation.getArgument(0);
+            saved.setId(7L);
+            return saved;
+        });
+        borrowingService.borrowBook(1L, 1L);
+        borrowingService.borrowBook(2L, 1L);
+
+        assertThrows(LoanLimitExceededException.class, () -> borrowingService.borrowBook(3L, 1L));
+        verify(bookRepository, never()).markBorrowed(3L);
+        assertEquals(2, loanLimits.openLoans(1L));
+    }
+
+    @Test
+    void testRolledBackBorrowGivesItsLoanBack() {
+        when(bookRepository.markBorrowed(1L)).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(true);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThrows(BookAlreadyBorrowedException.class, () -> borrowingService.borrowBook(1L, 1L));
+            assertEquals(1, loanLimits.openLoans(1L));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, loanLimits.openLoans(1L));
     }
 
     @Test
     void testReturnBookSuccess() {
-        Book book = new Book(1L, "Title1", "Author1", 2000, "1234567890", true);
-        Patron patron = new Patron(1L, "Patron1", "1234567890", "patron1@example.com");
-        BorrowingRecord borrowingRecord = new BorrowingRecord(book, patron);
+        when(activeLoanRepository.findById(1L)).thenReturn(Optional.of(new ActiveLoan(1L, 1L, 7L)));
+        when(activeLoanRepository.deleteOpenLoan(1L, 7L)).thenReturn(1);
+
+        borrowingService.returnBook(1L, 1L);
 
-        when(borrowingRecordRepository.findByBookIdAndPatronIdAndReturnDateTimeIsNull(1L, 1L))
-                .thenReturn(Optional.of(borrowingRecord));
+        verify(borrowingRecordRepository, times(1)).closeRecord(eq(7L), any(LocalDateTime.class));
+        verify(bookRepository, times(1)).markReturned(1L);
+        verify(overdueLoanTracker, times(1)).cancel(1L, 7L);
+    }
+
+    @Test
+    void testReturnBookHandsTheBookToTheFirstRemainingHold() {
+        Book book = new Book(1L, "Title1", "Author1", 2000, "1234567890", true);
+        PatronSnapshot patron = new PatronSnapshot(2L, "Patron2", "1234567890", "patron2@example.com",
+                PatronTier.STANDARD);
+        Hold deletedPatronHold = new Hold(1L, 9L);
+        Hold firstHold = new Hold(1L, 2L);
+        Hold secondHold = new Hold(1L, 3L);
+        when(activeLoanRepository.findById(1L)).thenReturn(Optional.of(new ActiveLoan(1L, 1L, 7L)));
+        when(activeLoanRepository.deleteOpenLoan(1L, 7L)).thenReturn(1);
+        when(holdRepository.findQueuesForUpdate(List.of(1L)))
+                .thenReturn(List.of(deletedPatronHold, firstHold, secondHold));
+        when(patronService.getPatronById(9L)).thenThrow(new PatronNotFoundException("Patron not found with id: 9"));
+        when(patronService.getPatronById(2L)).thenReturn(patron);
+        when(bookRepository.getReferenceById(1L)).thenReturn(book);
+        when(borrowingRecordRepository.save(any(BorrowingRecord.class))).thenAnswer(invocation -> {
+            BorrowingRecord saved = invocation.getArgument(0);
+            saved.setId(8L);
+            return saved;
+        });
 
         borrowingService.returnBook(1L, 1L);
 
-        assertNotNull(borrowingRecord.getReturnDateTime());
-        assertFalse(book.isBorrowed());
-        verify(borrowingRecordRepository, times(1)).save(borrowingRecord);
+        verify(bookRepository, times(1)).markReturned(1L);
+        verify(bookRepository, times(1)).markBorrowed(1L);
+        verify(holdRepository, times(1)).delete(deletedPatronHold);
+        verify(holdRepository, times(1)).delete(firstHold);
+        verify(holdRepository, never()).delete(secondHold);
+        verify(activeLoanRepository, times(1)).insertAll(2L, List.of(1L), List.of(8L));
+        verify(overdueLoanTracker, times(1)).register(eq(1L), eq(2L), eq(8L), any(LocalDateTime.class));
+        verify(holdQueues, times(1)).remove(1L, 9L);
+        verify(holdQueues, times(1)).remove(1L, 2L);
     }
 
     @Test
     void testReturnBookBorrowingRecordNotFound() {
-        when(borrowingRecordRepository.findByBookIdAndPatronIdAndReturnDateTimeIsNull(1L, 1L))
-                .thenReturn(Optional.empty());
+        when(activeLoanRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(BorrowingRecordNotFoundException.class, () -> borrowingService.returnBook(1L, 1L));
+        verify(bookRepository, never()).markReturned(any());
+    }
+
+    @Test
+    void testReturnBookBorrowedByAnotherPatron() {
+        when(activeLoanRepository.findById(1L)).thenReturn(Optional.of(new ActiveLoan(1L, 2L, 7L)));
+
+        assertThrows(BorrowingRecordNotFoundException.class, () -> borrowingService.returnBook(1L, 1L));
+        verify(activeLoanRepository, never()).deleteOpenLoan(any(), any());
+        verify(borrowingRecordRepository, never()).closeRecord(any(), any());
+    }
+
+    @Test
+    void testReturnBookAlreadyReturnedConcurrently() {
+        when(activeLoanRepository.findById(1L)).thenReturn(Optional.of(new ActiveLoan(1L, 1L, 7L)));
+        when(activeLoanRepository.deleteOpenLoan(1L, 7L)).thenReturn(0);
+
+        assertThrows(BorrowingRecordNotFoundException.class, () -> borrowingService.returnBook(1L, 1L));
+        verify(borrowingRecordRepository, never()).closeRecord(any(), any());
+    }
+
+    @Test
+    void testBorrowBooksReportsEachItem() {
+        when(patronService.getPatronById(1L)).thenReturn(new PatronSnapshot(1L, "Patron1", "1234567890",
+                "patron1@example.com", PatronTier.STANDARD));
+        when(bookRepository.findExistingIds(List.of(1L, 2L, 3L))).thenReturn(List.of(1L, 2L));
+        when(bookRepository.markAllBorrowed(List.of(1L, 2L))).thenReturn(new int[]{1, 0});
+        when(borrowingRecordRepository.insertAll(eq(1L), eq(List.of(1L)), any(LocalDateTime.class),
+                any(LocalDateTime.class)))
+                .thenReturn(List.of(7L));
+
+        List<BorrowingResultDTOResponse> results = borrowingService.borrowBooks(1L, List.of(1L, 2L, 3L, 1L));
+
+        assertEquals(List.of(Status.BORROWED, Status.ALREADY_BORROWED, Status.BOOK_NOT_FOUND, Status.DUPLICATE),
+                results.stream().map(BorrowingResultDTOResponse::getStatus).toList());
+        assertEquals(List.of(1L, 2L, 3L, 1L), results.stream().map(BorrowingResultDTOResponse::getBookId).toList());
+        verify(activeLoanRepository, times(1)).insertAll(1L, List.of(1L), List.of(7L));
+        verify(overdueLoanTracker, times(1)).register(eq(1L), eq(1L), eq(7L), any(LocalDateTime.class));
     }
-}
 
+    @Test
+    void testBorrowBooksStopsAtTheLoanLimit() {
+        when(bookRepository.findExistingIds(List.of(1L, 2L, 3L))).thenReturn(List.of(1L, 2L, 3L));
+        when(bookRepository.markAllBorrowed(List.of(1L, 2L))).thenReturn(new int[]{1, 1});
+        when(borrowingRecordRepository.insertAll(eq(1L), eq(List.of(1L, 2L)), any(LocalDateTime.class),
+                any(LocalDateTime.class)))
+                .thenReturn(List.of(7L, 8L));
+
+        List<BorrowingResultDTOResponse> results = borrowingService.borrowBooks(1L, List.of(1L, 2L, 3L));
+
+        assertEquals(List.of(Status.BORROWED, Status.BORROWED, Status.LOAN_LIMIT_REACHED),
+                results.stream().map(BorrowingResultDTOResponse::getStatus).toList());
+        assertEquals(2, loanLimits.openLoans(1L));
+    }
+
+    @Test
+    void testBorrowBooksPatronNotFound() {
+        when(patronService.getPatronById(1L)).thenThrow(new PatronNotFoundException("Patron not found with id: 1"));
+
+        assertThrows(PatronNotFoundException.class, () -> borrowingService.borrowBooks(1L, List.of(1L, 2L)));
+        verify(bookRepository, never()).markAllBorrowed(any());
+    }
+
+    @Test
+    void testReturnBooksReportsEachItem() {
+        ActiveLoan loan = new ActiveLoan(2L, 1L, 7L);
+        when(activeLoanRepository.findByPatronIdAndBookIdIn(1L, List.of(1L, 2L))).thenReturn(List.of(loan));
+        when(activeLoanRepository.removeAll(List.of(loan))).thenReturn(new int[]{1});
+
+        List<BorrowingResultDTOResponse> results = borrowingService.returnBooks(1L, List.of(1L, 2L));
+
+        assertEquals(List.of(Status.NOT_BORROWED_BY_PATRON, Status.RETURNED),
+                results.stream().map(BorrowingResultDTOResponse::getStatus).toList());
+        verify(borrowingRecordRepository, times(1)).closeAll(eq(List.of(7L)), any(LocalDateTime.class));
+        verify(bookRepository, times(1)).markAllReturned(List.of(2L));
+        verify(overdueLoanTracker, times(1)).cancel(2L, 7L);
+    }
+
+    @Test
+    void testGetOverdueLoansReadsOneExtraLoanToDetectTheNextPage() {
+        List<OverdueLoanDTOResponse> loans = List.of(
+                new OverdueLoanDTOResponse(7L, 1L, 1L, LocalDateTime.now().minusDays(1)),
+                new OverdueLoanDTOResponse(8L, 2L, 1L, LocalDateTime.now().minusDays(1)));
+        when(overdueLoanTracker.getOverdueLoans(5L, 2)).thenReturn(loans);
+
+        Slice<OverdueLoanDTOResponse> page = borrowingService.getOverdueLoans(5L, 1);
+
+        assertEquals(List.of(loans.get(0)), page.getContent());
+        assertTrue(page.hasNext());
+    }
+}
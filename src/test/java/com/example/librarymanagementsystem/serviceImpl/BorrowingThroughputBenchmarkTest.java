@@ -0,0 +1,148 @@
+package com.example.librarymanagementsystem.serviceImpl;
+
+import com.example.librarymanagementsystem.archive.LoanHistory;
+import com.example.librarymanagementsystem.cache.SnapshotCacheLoaders;
+import com.example.librarymanagementsystem.configuration.CachingConfig;
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.exceptionHandler.BookAlreadyBorrowedException;
+import com.example.librarymanagementsystem.exceptionHandler.BorrowingRecordNotFoundException;
+import com.example.librarymanagementsystem.hold.HoldQueues;
+import com.example.librarymanagementsystem.limits.LoanLimits;
+import com.example.librarymanagementsystem.overdue.OverdueLoanTracker;
+import com.example.librarymanagementsystem.repository.ActiveLoanRepository;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
+import com.example.librarymanagementsystem.repository.PatronRepository;
+import com.example.librarymanagementsystem.service.BorrowingService;
+import com.example.librarymanagementsystem.stats.BorrowingStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the throughput of borrow/return cycles with 16 threads against H2, once with each thread lending its own
+ * books and once with every thread competing for the same 20 books. It only calls {@code borrowBook} and
+ * {@code returnBook}, so the same harness also runs against the original read-check-write implementation. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false", "library.loans.limits.standard=100"}, showSql = false)
+@Import({BorrowingServiceImpl.class, PatronServiceImpl.class, LoanHistory.class, CachingConfig.class,
+        SnapshotCacheLoaders.class, OverdueLoanTracker.class, HoldQueues.class, BorrowingStatistics.class,
+        LoanLimits.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BorrowingThroughputBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BorrowingThroughputBenchmarkTest.class);
+    private static final int THREADS = 16;
+    private static final int SHARED_BOOKS = 20;
+    private static final int WARM_UP_ROUNDS = 100;
+    private static final int ROUNDS = 500;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private ActiveLoanRepository activeLoanRepository;
+
+    @AfterEach
+    void tearDown() {
+        activeLoanRepository.deleteAll();
+        borrowingRecordRepository.deleteAll();
+        bookRepository.deleteAll();
+        patronRepository.deleteAll();
+    }
+
+    @Test
+    void measureBorrowReturnCycles() throws Exception {
+        List<Long> patronIds = new ArrayList<>();
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            patronIds.add(patronRepository.save(
+                    new Patron("Patron", "1234567890", "patron" + i + "@example.com")).getId());
+        }
+        for (int i = 0; i < THREADS * SHARED_BOOKS; i++) {
+            bookIds.add(bookRepository.save(
+                    new Book("Title" + i, "Author", 2000, String.format("123-%010d", i), false)).getId());
+        }
+
+        cycle(patronIds, bookIds, false, WARM_UP_ROUNDS);
+        double uncontended = cycle(patronIds, bookIds, false, ROUNDS);
+        double contended = cycle(patronIds, bookIds.subList(0, SHARED_BOOKS), true, ROUNDS);
+        logger.info("{} threads: {} ops/s with a book per thread, {} ops/s sharing {} books", THREADS,
+                String.format("%.0f", uncontended), String.format("%.0f", contended), SHARED_BOOKS);
+    }
+
+    /**
+     * Runs borrow/return cycles on every thread and returns the successful borrows and returns per second.
+     *
+     * @param shared whether every thread picks from all the books, rather than from a slice of its own
+     */
+    private double cycle(List<Long> patronIds, List<Long> bookIds, boolean shared, int rounds) throws Exception {
+        AtomicInteger operations = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int first = thread;
+                Long patronId = patronIds.get(thread);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < rounds; round++) {
+                        Long bookId = shared ? bookIds.get((first + round) % bookIds.size())
+                                : bookIds.get(first * SHARED_BOOKS + round % SHARED_BOOKS);
+                        try {
+                            borrowingService.borrowBook(bookId, patronId);
+                            operations.incrementAndGet();
+                            borrowingService.returnBook(bookId, patronId);
+                            operations.incrementAndGet();
+                        } catch (BookAlreadyBorrowedException | BorrowingRecordNotFoundException e) {
+                            // Lost the race for this book; try the next one.
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long startTime = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            assertTrue(operations.get() > 0);
+            return operations.get() / seconds;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
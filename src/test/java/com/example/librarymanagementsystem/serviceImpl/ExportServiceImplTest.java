@@ -0,0 +1,106 @@
+package com.example.librarymanagementsystem.serviceImpl;
+
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.entity.BorrowingRecord;
+import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordHistoryRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
+import com.example.librarymanagementsystem.repository.PatronRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false"})
+class ExportServiceImplTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private BorrowingRecordHistoryRepository borrowingRecordHistoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private ExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportServiceImpl(bookRepository, patronRepository, borrowingRecordRepository,
+                borrowingRecordHistoryRepository, entityManager, objectMapper);
+    }
+
+    @Test
+    void testExportBooksWritesOneLinePerBookAndDetaches() throws Exception {
+        Book first = bookRepository.save(new Book("Title1", "Author", 2000, "123-1234567890", false));
+        bookRepository.save(new Book("Title2", "Author", 2001, "123-0987654321", true));
+        entityManager.flush();
+        entityManager.clear();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportBooks(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode firstLine = objectMapper.readTree(lines[0]);
+        assertEquals(first.getId(), firstLine.get("id").asLong());
+        assertEquals("Title1", firstLine.get("title").asText());
+        assertTrue(objectMapper.readTree(lines[1]).get("borrowed").asBoolean());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void testExportPatronsLeavesPersistenceContextEmpty() throws Exception {
+        patronRepository.save(new Patron("Patron", "1234567890", "patron@example.com"));
+        entityManager.flush();
+        entityManager.clear();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportPatrons(out);
+
+        assertEquals(1, out.toString(StandardCharsets.UTF_8).split("\n").length);
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void testExportBorrowingRecords() throws Exception {
+        Book book = bookRepository.save(new Book("Title1", "Author", 2000, "123-1234567890", true));
+        Patron patron = patronRepository.save(new Patron("Patron", "1234567890", "patron@example.com"));
+        borrowingRecordRepository.save(new BorrowingRecord(book, patron));
+        entityManager.flush();
+        entityManager.clear();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportBorrowingRecords(out);
+
+        JsonNode line = objectMapper.readTree(out.toString(StandardCharsets.UTF_8).trim());
+        assertEquals(book.getId(), line.get("bookId").asLong());
+        assertEquals(patron.getId(), line.get("patronId").asLong());
+        assertTrue(line.get("returnDateTime").isNull());
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.librarymanagementsystem.serviceImpl;
+
+import com.example.librarymanagementsystem.archive.LoanHistory;
+import com.example.librarymanagementsystem.cache.SnapshotCacheLoaders;
+import com.example.librarymanagementsystem.configuration.CachingConfig;
+import com.example.librarymanagementsystem.dto.HoldDTOResponse;
+import com.example.librarymanagementsystem.entity.ActiveLoan;
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.exceptionHandler.HoldNotFoundException;
+import com.example.librarymanagementsystem.exceptionHandler.HoldRejectedException;
+import com.example.librarymanagementsystem.hold.HoldQueues;
+import com.example.librarymanagementsystem.limits.LoanLimits;
+import com.example.librarymanagementsystem.overdue.OverdueLoanTracker;
+import com.example.librarymanagementsystem.repository.ActiveLoanRepository;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
+import com.example.librarymanagementsystem.repository.HoldRepository;
+import com.example.librarymanagementsystem.repository.PatronRepository;
+import com.example.librarymanagementsystem.service.BorrowingService;
+import com.example.librarymanagementsystem.service.HoldService;
+import com.example.librarymanagementsystem.stats.BorrowingStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Places holds and returns books against a real database, without the surrounding test transaction, so the
+ * in-memory queues are updated by committed transactions as they are in production.
+ */
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false"}, showSql = false)
+@Import({BorrowingServiceImpl.class, HoldServiceImpl.class, PatronServiceImpl.class, LoanHistory.class,
+        CachingConfig.class, SnapshotCacheLoaders.class, OverdueLoanTracker.class, HoldQueues.class,
+        BorrowingStatistics.class, LoanLimits.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HoldHandOffTest {
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private ActiveLoanRepository activeLoanRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    private Long bookId;
+    private final List<Long> patronIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        bookId = bookRepository.save(new Book("Title", "Author", 2000, "123-0000000001", false)).getId();
+        for (int i = 0; i < 4; i++) {
+            patronIds.add(patronRepository.save(
+                    new Patron("Patron", "1234567890", "patron" + i + "@example.com")).getId());
+        }
+        borrowingService.borrowBook(bookId, patronIds.get(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Long patronId : patronIds) {
+            try {
+                holdService.cancelHold(bookId, patronId);
+            } catch (HoldNotFoundException e) {
+                // The patron held no place in the queue.
+            }
+        }
+        activeLoanRepository.deleteAll();
+        borrowingRecordRepository.deleteAll();
+        bookRepository.deleteAll();
+        patronRepository.deleteAll();
+    }
+
+    @Test
+    void testHoldsAreQueuedInPlacementOrder() {
+        assertEquals(1, holdService.placeHold(bookId, patronIds.get(1)).getPosition());
+        assertEquals(2, holdService.placeHold(bookId, patronIds.get(2)).getPosition());
+        assertEquals(3, holdService.placeHold(bookId, patronIds.get(3)).getPosition());
+
+        holdService.cancelHold(bookId, patronIds.get(1));
+
+        assertEquals(1, holdService.getHold(bookId, patronIds.get(2)).getPosition());
+        assertEquals(List.of(patronIds.get(2), patronIds.get(3)), holdService.getHoldQueue(bookId).stream()
+                .map(HoldDTOResponse::getPatronId).toList());
+        assertThrows(HoldNotFoundException.class, () -> holdService.getHold(bookId, patronIds.get(1)));
+    }
+
+    @Test
+    void testHoldsAreRejectedWhenTheyCannotBeServed() {
+        holdService.placeHold(bookId, patronIds.get(1));
+        Long availableBookId = bookRepository.save(new Book("Other", "Author", 2000, "123-0000000002", false))
+                .getId();
+
+        assertThrows(HoldRejectedException.class, () -> holdService.placeHold(bookId, patronIds.get(0)));
+        assertThrows(HoldRejectedException.class, () -> holdService.placeHold(bookId, patronIds.get(1)));
+        assertThrows(HoldRejectedException.class, () -> holdService.placeHold(availableBookId, patronIds.get(1)));
+        assertEquals(1, holdRepository.count());
+    }
+
+    @Test
+    void testReturningABookLendsItToTheFirstHold() {
+        holdService.placeHold(bookId, patronIds.get(1));
+        holdService.placeHold(bookId, patronIds.get(2));
+
+        borrowingService.returnBook(bookId, patronIds.get(0));
+
+        ActiveLoan loan = activeLoanRepository.findById(bookId).orElseThrow();
+        assertEquals(patronIds.get(1), loan.getPatronId());
+        assertTrue(bookRepository.findById(bookId).orElseThrow().isBorrowed());
+        assertEquals(2, borrowingRecordRepository.count());
+        assertEquals(1, holdService.getHold(bookId, patronIds.get(2)).getPosition());
+        assertThrows(HoldNotFoundException.class, () -> holdService.getHold(bookId, patronIds.get(1)));
+
+        borrowingService.returnBooks(patronIds.get(1), List.of(bookId));
+
+        assertEquals(patronIds.get(2), activeLoanRepository.findById(bookId).orElseThrow().getPatronId());
+        assertTrue(holdService.getHoldQueue(bookId).isEmpty());
+        assertEquals(0, holdRepository.count());
+
+        borrowingService.returnBook(bookId, patronIds.get(2));
+
+        assertFalse(bookRepository.findById(bookId).orElseThrow().isBorrowed());
+        assertEquals(0, activeLoanRepository.count());
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.librarymanagementsystem.serviceImpl;
+
+import com.example.librarymanagementsystem.archive.LoanHistory;
+import com.example.librarymanagementsystem.cache.SnapshotCacheLoaders;
+import com.example.librarymanagementsystem.configuration.CachingConfig;
+import com.example.librarymanagementsystem.configuration.JournalConfig;
+import com.example.librarymanagementsystem.dto.BorrowingResultDTOResponse;
+import com.example.librarymanagementsystem.dto.BorrowingResultDTOResponse.Status;
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.entity.JournalCheckpoint;
+import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.exceptionHandler.BookAlreadyBorrowedException;
+import com.example.librarymanagementsystem.exceptionHandler.BorrowingRecordNotFoundException;
+import com.example.librarymanagementsystem.exceptionHandler.LoanLimitExceededException;
+import com.example.librarymanagementsystem.hold.HoldQueues;
+import com.example.librarymanagementsystem.journal.CirculationJournal;
+import com.example.librarymanagementsystem.journal.JournalApplier;
+import com.example.librarymanagementsystem.journal.OpenLoans;
+import com.example.librarymanagementsystem.limits.LoanLimits;
+import com.example.librarymanagementsystem.overdue.OverdueLoanTracker;
+import com.example.librarymanagementsystem.repository.ActiveLoanRepository;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
+import com.example.librarymanagementsystem.repository.HoldRepository;
+import com.example.librarymanagementsystem.repository.JournalCheckpointRepository;
+import com.example.librarymanagementsystem.repository.PatronRepository;
+import com.example.librarymanagementsystem.service.BorrowingService;
+import com.example.librarymanagementsystem.service.HoldService;
+import com.example.librarymanagementsystem.stats.BorrowingStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Borrows and returns books through the journal against a real database, checking that requests are admitted from
+ * memory and that the applier brings the database up to date.
+ */
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false", "library.journal.enabled=true",
+        "library.loans.limits.standard=2"}, showSql = false)
+@Import({JournaledBorrowingServiceImpl.class, BorrowingServiceImpl.class, HoldServiceImpl.class,
+        PatronServiceImpl.class, LoanHistory.class, CachingConfig.class, SnapshotCacheLoaders.class,
+        JournalConfig.class, JournalApplier.class, OpenLoans.class, OverdueLoanTracker.class, HoldQueues.class,
+        BorrowingStatistics.class, LoanLimits.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JournaledBorrowingServiceImplTest {
+
+    @TempDir
+    static Path journalDirectory;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("library.journal.directory", () -> journalDirectory.toString());
+    }
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private CirculationJournal journal;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Autowired
+    private ActiveLoanRepository activeLoanRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private JournalCheckpointRepository checkpointRepository;
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> patronIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            bookIds.add(bookRepository.save(
+                    new Book("Title" + i, "Author", 2000, String.format("123-%010d", i), false)).getId());
+            patronIds.add(patronRepository.save(
+                    new Patron("Patron", "1234567890", "patron" + i + "@example.com")).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        borrowingService.returnBooks(patronIds.get(0), bookIds);
+        borrowingService.returnBooks(patronIds.get(1), bookIds);
+        awaitApplied();
+        holdRepository.deleteAll();
+        borrowingRecordRepository.deleteAll();
+        bookRepository.deleteAll();
+        patronRepository.deleteAll();
+    }
+
+    @Test
+    void testBorrowsAreAdmittedFromMemoryAndAppliedInTheBackground() throws InterruptedException {
+        borrowingService.borrowBook(bookIds.get(0), patronIds.get(0));
+
+        assertThrows(BookAlreadyBorrowedException.class,
+                () -> borrowingService.borrowBook(bookIds.get(0), patronIds.get(1)));
+        assertThrows(BorrowingRecordNotFoundException.class,
+                () -> borrowingService.returnBook(bookIds.get(0), patronIds.get(1)));
+        awaitApplied();
+        assertEquals(patronIds.get(0), activeLoanRepository.findById(bookIds.get(0)).orElseThrow().getPatronId());
+        assertTrue(bookRepository.findById(bookIds.get(0)).orElseThrow().isBorrowed());
+
+        borrowingService.returnBook(bookIds.get(0), patronIds.get(0));
+        awaitApplied();
+
+        assertEquals(0, activeLoanRepository.count());
+        assertFalse(bookRepository.findById(bookIds.get(0)).orElseThrow().isBorrowed());
+        assertNotNull(borrowingRecordRepository.findAll().get(0).getReturnDateTime());
+    }
+
+    @Test
+    void testLoanLimitIsEnforcedWithoutTheDatabase() {
+        List<BorrowingResultDTOResponse> results = borrowingService.borrowBooks(patronIds.get(0), bookIds);
+
+        assertEquals(List.of(Status.BORROWED, Status.BORROWED, Status.LOAN_LIMIT_REACHED),
+                results.stream().map(BorrowingResultDTOResponse::getStatus).toList());
+        assertThrows(LoanLimitExceededException.class,
+                () -> borrowingService.borrowBook(bookIds.get(2), patronIds.get(0)));
+        borrowingService.returnBook(bookIds.get(0), patronIds.get(0));
+        borrowingService.borrowBook(bookIds.get(2), patronIds.get(0));
+    }
+
+    @Test
+    void testBatchesReportEachBook() throws InterruptedException {
+        borrowingService.borrowBook(bookIds.get(1), patronIds.get(1));
+
+        List<BorrowingResultDTOResponse> results = borrowingService.borrowBooks(patronIds.get(0),
+                List.of(bookIds.get(0), bookIds.get(1), -1L, bookIds.get(0)));
+
+        assertEquals(List.of(Status.BORROWED, Status.ALREADY_BORROWED, Status.BOOK_NOT_FOUND, Status.DUPLICATE),
+                results.stream().map(BorrowingResultDTOResponse::getStatus).toList());
+        awaitApplied();
+        assertEquals(2, activeLoanRepository.count());
+    }
+
+    @Test
+    void testAReturnedBookIsPassedToTheFirstHold() throws InterruptedException {
+        borrowingService.borrowBook(bookIds.get(0), patronIds.get(0));
+        awaitApplied();
+        holdService.placeHold(bookIds.get(0), patronIds.get(1));
+
+        borrowingService.returnBook(bookIds.get(0), patronIds.get(0));
+
+        assertThrows(BookAlreadyBorrowedException.class,
+                () -> borrowingService.borrowBook(bookIds.get(0), patronIds.get(2)));
+        awaitApplied();
+        assertEquals(patronIds.get(1), activeLoanRepository.findById(bookIds.get(0)).orElseThrow().getPatronId());
+        assertEquals(0, holdRepository.count());
+        assertTrue(holdService.getHoldQueue(bookIds.get(0)).isEmpty());
+    }
+
+    private void awaitApplied() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (checkpointRepository.findById(JournalCheckpoint.ID).orElseThrow().getAppliedSequence()
+                < journal.lastSequence()) {
+            assertTrue(System.nanoTime() < deadline, "Journal not applied in time");
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+}
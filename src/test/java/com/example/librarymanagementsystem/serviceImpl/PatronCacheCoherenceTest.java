@@ -0,0 +1,190 @@
+package com.example.librarymanagementsystem.serviceImpl;
+
+import com.example.librarymanagementsystem.archive.LoanHistory;
+import com.example.librarymanagementsystem.cache.SnapshotCacheLoaders;
+import com.example.librarymanagementsystem.configuration.CachingConfig;
+import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.entity.PatronTier;
+import com.example.librarymanagementsystem.exceptionHandler.PatronNotFoundException;
+import com.example.librarymanagementsystem.repository.PatronRepository;
+import com.example.librarymanagementsystem.service.PatronService;
+import com.example.librarymanagementsystem.snapshot.PatronSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * Interleaves patron reads with updates and deletes against a real database and the real cache, without the
+ * surrounding test transaction, to check that the cache always ends up holding what was committed last.
+ */
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false"}, showSql = false)
+@Import({PatronServiceImpl.class, LoanHistory.class, CachingConfig.class, SnapshotCacheLoaders.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PatronCacheCoherenceTest {
+
+    private static final String READER = "patron-reader";
+
+    @Autowired
+    private PatronService patronService;
+
+    @SpyBean
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Patron patron;
+
+    @BeforeEach
+    void setUp() {
+        patron = patronRepository.save(new Patron("Patron", "1234567890", "patron@example.com"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        patronCache().clear();
+        patronRepository.deleteAll();
+    }
+
+    @Test
+    void testReadRacingAnUpdateCachesTheUpdatedPatron() throws Exception {
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        pauseReaderAfterLoading(loaded, release);
+
+        Thread reader = new Thread(() -> patronService.getPatronById(patron.getId()), READER);
+        reader.start();
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        Patron details = new Patron("Updated Patron", "0987654321", "updated@example.com");
+        details.setTier(PatronTier.PREMIUM);
+        Thread writer = new Thread(() -> patronService.updatePatron(patron.getId(), details));
+        writer.start();
+        awaitCommitted(() -> patronRepository.findById(patron.getId()).orElseThrow().getName()
+                .equals("Updated Patron"));
+        release.countDown();
+        reader.join(5000);
+        writer.join(5000);
+
+        PatronSnapshot expected = new PatronSnapshot(patron.getId(), "Updated Patron", "0987654321",
+                "updated@example.com", PatronTier.PREMIUM, 1);
+        assertEquals(expected, patronCache().get(patron.getId()).get());
+        assertEquals(expected, patronService.getPatronById(patron.getId()));
+    }
+
+    @Test
+    void testReadRacingADeleteDoesNotCacheTheDeletedPatron() throws Exception {
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        pauseReaderAfterLoading(loaded, release);
+
+        Thread reader = new Thread(() -> patronService.getPatronById(patron.getId()), READER);
+        reader.start();
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        Thread writer = new Thread(() -> patronService.deletePatron(patron.getId()));
+        writer.start();
+        awaitCommitted(() -> !patronRepository.existsById(patron.getId()));
+        release.countDown();
+        reader.join(5000);
+        writer.join(5000);
+
+        assertNull(patronCache().get(patron.getId()));
+        assertThrows(PatronNotFoundException.class, () -> patronService.getPatronById(patron.getId()));
+    }
+
+    @Test
+    void testConcurrentUpdatesAndReadsLeaveTheLastCommittedPatronCached() throws Exception {
+        String[] names = {"Alice", "Bob", "Carol", "Dave"};
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (String name : names) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        patronService.updatePatron(patron.getId(),
+                                new Patron(name, "1234567890", "patron@example.com"));
+                    }
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                readers.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        PatronSnapshot read = patronService.getPatronById(patron.getId());
+                        assertTrue(List.of("Patron", "Alice", "Bob", "Carol", "Dave").contains(read.name()));
+                        patronCache().evict(patron.getId());
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        PatronSnapshot committed = PatronSnapshot.of(patronRepository.findById(patron.getId()).orElseThrow());
+        Cache.ValueWrapper cached = patronCache().get(patron.getId());
+        if (cached != null) {
+            assertEquals(committed, cached.get());
+        }
+        assertEquals(committed, patronService.getPatronById(patron.getId()));
+    }
+
+    /**
+     * Makes the reader thread stop between reading the patron from the database and caching it.
+     */
+    private void pauseReaderAfterLoading(CountDownLatch loaded, CountDownLatch release) {
+        // The spy wraps the repository proxy, so the real method is reached through its delegating default answer.
+        Answer<?> repository = mockingDetails(patronRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            Object result = repository.answer(invocation);
+            if (Thread.currentThread().getName().equals(READER)) {
+                loaded.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return result;
+        }).when(patronRepository).findById(any());
+    }
+
+    private static void awaitCommitted(BooleanSupplier committed) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!committed.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "the write did not commit");
+            Thread.sleep(10);
+        }
+    }
+
+    private Cache patronCache() {
+        return cacheManager.getCache("patrons");
+    }
+}
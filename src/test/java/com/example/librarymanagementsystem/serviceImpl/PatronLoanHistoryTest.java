@@ -0,0 +1,144 @@
+package com.example.librarymanagementsystem.serviceImpl;
+
+import com.example.librarymanagementsystem.archive.LoanHistory;
+import com.example.librarymanagementsystem.cache.SnapshotCacheLoaders;
+import com.example.librarymanagementsystem.configuration.CachingConfig;
+import com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse;
+import com.example.librarymanagementsystem.dto.LoanStatus;
+import com.example.librarymanagementsystem.entity.ActiveLoan;
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.entity.BorrowingRecord;
+import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.exceptionHandler.PatronNotFoundException;
+import com.example.librarymanagementsystem.logging.LoggingAspect;
+import com.example.librarymanagementsystem.service.PatronService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the statements issued for a patron's loan history, through the service proxy so the logging aspect runs.
+ */
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"}, showSql = false)
+@Import({PatronServiceImpl.class, LoanHistory.class, LoggingAspect.class, CachingConfig.class,
+        SnapshotCacheLoaders.class})
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+class PatronLoanHistoryTest {
+
+    private static final int LOANS = 25;
+
+    @Autowired
+    private PatronService patronService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Patron patron;
+    private final List<Long> recordIds = new ArrayList<>();
+
+    /**
+     * Creates a patron with {@value #LOANS} loans; every third one is still open.
+     */
+    @BeforeEach
+    void setUp() {
+        patron = new Patron("Patron", "1234567890", "patron@example.com");
+        entityManager.persist(patron);
+        for (int i = 0; i < LOANS; i++) {
+            Book book = new Book("Title" + i, "Author", 2000, String.format("123-%010d", i), false);
+            entityManager.persist(book);
+            BorrowingRecord record = new BorrowingRecord(book, patron);
+            boolean open = i % 3 == 0;
+            if (!open) {
+                record.setReturnDateTime(LocalDateTime.now());
+            }
+            entityManager.persist(record);
+            if (open) {
+                entityManager.persist(new ActiveLoan(book.getId(), patron.getId(), record.getId()));
+            }
+            recordIds.add(record.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testEachPageIsOneStatementPerTable() {
+        Statistics statistics = statistics();
+        List<Long> seen = new ArrayList<>();
+        Long cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            Slice<BorrowingRecordDTOResponse> page = patronService.getPatronLoans(patron.getId(), LoanStatus.ALL,
+                    cursor, 10);
+            // One query on the live table and one on the archive.
+            assertEquals(2, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+            page.forEach(loan -> seen.add(loan.getId()));
+            cursor = page.hasNext() ? page.getContent().get(page.getNumberOfElements() - 1).getId() : null;
+            pages++;
+        } while (cursor != null);
+
+        Collections.reverse(seen);
+        assertEquals(3, pages);
+        assertEquals(recordIds, seen);
+    }
+
+    @Test
+    void testFilterByStatus() {
+        List<BorrowingRecordDTOResponse> open = patronService.getPatronLoans(patron.getId(), LoanStatus.OPEN, null, 100)
+                .getContent();
+        List<BorrowingRecordDTOResponse> returned = patronService.getPatronLoans(patron.getId(), LoanStatus.RETURNED,
+                null, 100).getContent();
+
+        assertEquals(9, open.size());
+        assertTrue(open.stream().allMatch(loan -> loan.getReturnDateTime() == null));
+        assertEquals(recordIds.get(24), open.get(0).getId());
+        assertEquals(16, returned.size());
+        assertTrue(returned.stream().allMatch(loan -> loan.getReturnDateTime() != null));
+        assertEquals(recordIds.get(23), returned.get(0).getId());
+    }
+
+    @Test
+    void testUnknownPatron() {
+        assertThrows(PatronNotFoundException.class,
+                () -> patronService.getPatronLoans(patron.getId() + 1, LoanStatus.ALL, null, 10));
+    }
+
+    @Test
+    void testPatronNeverLoadsItsBorrowingRecords() {
+        Patron loaded = entityManager.find(Patron.class, patron.getId());
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        loaded.toString();
+        loaded.hashCode();
+        loaded.equals(patron);
+        patronService.updatePatron(loaded.getId(), loaded);
+
+        assertFalse(Hibernate.isInitialized(loaded.getBorrowingRecords()));
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    private Statistics statistics() {
+        return entityManager.unwrap(Session.class).getSessionFactory().getStatistics();
+    }
+}
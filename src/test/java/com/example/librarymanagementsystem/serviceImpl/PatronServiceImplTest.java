@@ -2,14 +2,36 @@ package com.example.librarymanagementsystem.serviceImpl;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import com.example.librarymanagementsystem.archive.LoanHistory;
+import com.example.librarymanagementsystem.cache.AbsentIdFilter;
+import com.example.librarymanagementsystem.dto.BorrowingRecordDTOResponse;
+import com.example.librarymanagementsystem.dto.LoanStatus;
+import com.example.librarymanagementsystem.dto.PatronDTORequest;
 import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.entity.PatronTier;
+import com.example.librarymanagementsystem.exceptionHandler.PatronHasLoansException;
 import com.example.librarymanagementsystem.exceptionHandler.PatronNotFoundException;
+import com.example.librarymanagementsystem.journal.OpenLoans;
+import com.example.librarymanagementsystem.mapper.PatronMapper;
+import com.example.librarymanagementsystem.repository.ActiveLoanRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
 import com.example.librarymanagementsystem.repository.PatronRepository;
+import com.example.librarymanagementsystem.snapshot.PatronSnapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +41,27 @@ class PatronServiceImplTest {
     @Mock
     private PatronRepository patronRepository;
 
+    @Mock
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Mock
+    private ActiveLoanRepository activeLoanRepository;
+
+    @Mock
+    private LoanHistory loanHistory;
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager("patrons");
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private AbsentIdFilter absentPatronIds = new AbsentIdFilter(1000, 0.01, 100, Duration.ofMinutes(1));
+
+    @Mock
+    private ObjectProvider<OpenLoans> openLoans;
+
     @InjectMocks
     private PatronServiceImpl patronService;
 
@@ -34,7 +77,7 @@ class PatronServiceImplTest {
 
         when(patronRepository.findAll()).thenReturn(Arrays.asList(patron1, patron2));
 
-        List<Patron> patrons = patronService.getAllPatrons();
+        List<PatronSnapshot> patrons = patronService.getAllPatrons();
 
         assertEquals(2, patrons.size());
         verify(patronRepository, times(1)).findAll();
@@ -46,9 +89,9 @@ class PatronServiceImplTest {
 
         when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
 
-        Patron foundPatron = patronService.getPatronById(1L);
+        PatronSnapshot foundPatron = patronService.getPatronById(1L);
 
-        assertEquals("Patron1", foundPatron.getName());
+        assertEquals("Patron1", foundPatron.name());
         verify(patronRepository, times(1)).findById(1L);
     }
 
@@ -61,13 +104,17 @@ class PatronServiceImplTest {
 
     @Test
     void testAddPatron_Success() {
-        Patron patron = new Patron(1L, "Patron1", "1234567890", "patron1@example.com");
+        Patron patron = PatronMapper.toPatron(new PatronDTORequest("Patron1", "1234567890", "patron1@example.com"));
 
-        when(patronRepository.save(any(Patron.class))).thenReturn(patron);
+        when(patronRepository.save(any(Patron.class))).thenAnswer(invocation -> {
+            patron.setId(1L);
+            return patron;
+        });
 
-        Patron addedPatron = patronService.addPatron(patron);
+        PatronSnapshot addedPatron = patronService.addPatron(patron);
 
-        assertEquals("Patron1", addedPatron.getName());
+        assertEquals("Patron1", addedPatron.name());
+        assertEquals(PatronTier.STANDARD, addedPatron.tier());
         verify(patronRepository, times(1)).save(patron);
     }
 
@@ -77,13 +124,42 @@ class PatronServiceImplTest {
         Patron updatedPatronDetails = new Patron(1L, "UpdatedPatron", "0987654321", "updatedpatron@example.com");
 
         when(patronRepository.findById(1L)).thenReturn(Optional.of(existingPatron));
-        when(patronRepository.save(any(Patron.class))).thenReturn(updatedPatronDetails);
+        when(patronRepository.saveAndFlush(any(Patron.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        Patron updatedPatron = patronService.updatePatron(1L, updatedPatronDetails);
+        PatronSnapshot updatedPatron = patronService.updatePatron(1L, updatedPatronDetails);
 
-        assertEquals("UpdatedPatron", updatedPatron.getName());
+        assertEquals("UpdatedPatron", updatedPatron.name());
+        assertEquals("updatedpatron@example.com", updatedPatron.emailAddress());
+        assertSame(updatedPatron, cacheManager.getCache("patrons").get(1L).get());
         verify(patronRepository, times(1)).findById(1L);
-        verify(patronRepository, times(1)).save(existingPatron);
+        verify(patronRepository, times(1)).saveAndFlush(existingPatron);
+    }
+
+    @Test
+    void testUpdatePatron_LeavesEarlierSnapshotsUnchanged() {
+        Patron existingPatron = new Patron(1L, "Patron1", "1234567890", "patron1@example.com");
+        when(patronRepository.findById(1L)).thenReturn(Optional.of(existingPatron));
+        when(patronRepository.saveAndFlush(any(Patron.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        PatronSnapshot before = patronService.getPatronById(1L);
+
+        patronService.updatePatron(1L, new Patron("UpdatedPatron", "0987654321", "updatedpatron@example.com"));
+
+        assertEquals(new PatronSnapshot(1L, "Patron1", "1234567890", "patron1@example.com", before.tier()), before);
+    }
+
+    @Test
+    void testUpdatePatron_WithoutTierKeepsTheTier() {
+        Patron existingPatron = new Patron(1L, "Patron1", "1234567890", "patron1@example.com");
+        existingPatron.setTier(PatronTier.PREMIUM);
+        when(patronRepository.findById(1L)).thenReturn(Optional.of(existingPatron));
+        when(patronRepository.saveAndFlush(any(Patron.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PatronSnapshot updatedPatron = patronService.updatePatron(1L, PatronMapper.toPatron(
+                new PatronDTORequest("UpdatedPatron", "0987654321", "updatedpatron@example.com")));
+
+        assertEquals("UpdatedPatron", updatedPatron.name());
+        assertEquals(PatronTier.PREMIUM, updatedPatron.tier());
+        assertEquals(PatronTier.PREMIUM, existingPatron.getTier());
     }
 
     @Test
@@ -93,6 +169,7 @@ class PatronServiceImplTest {
         when(patronRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(PatronNotFoundException.class, () -> patronService.updatePatron(1L, updatedPatronDetails));
+        assertNull(cacheManager.getCache("patrons").get(1L));
     }
 
     @Test
@@ -100,11 +177,59 @@ class PatronServiceImplTest {
         Patron patron = new Patron(1L, "Patron1", "1234567890", "patron1@example.com");
 
         when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
+        cacheManager.getCache("patrons").put(1L, PatronSnapshot.of(patron));
 
         patronService.deletePatron(1L);
 
         verify(patronRepository, times(1)).findById(1L);
         verify(patronRepository, times(1)).delete(patron);
+        assertNull(cacheManager.getCache("patrons").get(1L));
+    }
+
+    @Test
+    void testDeletePatron_LaterLookupsSkipTheDatabase() {
+        Patron patron = new Patron(1L, "Patron1", "1234567890", "patron1@example.com");
+        when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
+
+        patronService.deletePatron(1L);
+
+        assertThrows(PatronNotFoundException.class, () -> patronService.getPatronById(1L));
+        verify(patronRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testGetPatronById_MissingIdIsRememberedUntilAdded() {
+        Patron patron = new Patron(1L, "Patron1", "1234567890", "patron1@example.com");
+        when(patronRepository.findById(1L)).thenReturn(Optional.empty(), Optional.of(patron));
+        when(patronRepository.save(any(Patron.class))).thenReturn(patron);
+
+        assertThrows(PatronNotFoundException.class, () -> patronService.getPatronById(1L));
+        assertThrows(PatronNotFoundException.class, () -> patronService.getPatronById(1L));
+        verify(patronRepository, times(1)).findById(1L);
+        patronService.addPatron(new Patron("Patron1", "1234567890", "patron1@example.com"));
+
+        assertEquals("Patron1", patronService.getPatronById(1L).name());
+    }
+
+    @Test
+    void testDeletePatron_WithBooksOnLoan() {
+        OpenLoans loans = new OpenLoans();
+        loans.borrow(3L, 1L);
+        when(openLoans.getIfAvailable()).thenReturn(loans);
+
+        assertThrows(PatronHasLoansException.class, () -> patronService.deletePatron(1L));
+        verify(patronRepository, never()).delete(any(Patron.class));
+    }
+
+    @Test
+    void testDeletePatron_WithBooksOnLoanWithoutTheJournal() {
+        Patron patron = new Patron(1L, "Patron1", "1234567890", "patron1@example.com");
+        when(patronRepository.findById(1L)).thenReturn(Optional.of(patron));
+        when(activeLoanRepository.existsByPatronId(1L)).thenReturn(true);
+
+        assertThrows(PatronHasLoansException.class, () -> patronService.deletePatron(1L));
+        verify(patronRepository, never()).delete(any(Patron.class));
+        assertFalse(absentPatronIds.isAbsent(1L));
     }
 
     @Test
@@ -113,4 +238,37 @@ class PatronServiceImplTest {
 
         assertThrows(PatronNotFoundException.class, () -> patronService.deletePatron(1L));
     }
+
+    @Test
+    void testGetPatronLoans_OpenLoansSkipPatronLookup() {
+        BorrowingRecordDTOResponse loan = new BorrowingRecordDTOResponse(7L, 3L, 1L, LocalDateTime.now(), null);
+        when(borrowingRecordRepository.findOpenPatronLoans(1L, 8L, PageRequest.of(0, 10)))
+                .thenReturn(new SliceImpl<>(List.of(loan), PageRequest.of(0, 10), false));
+
+        Slice<BorrowingRecordDTOResponse> loans = patronService.getPatronLoans(1L, LoanStatus.OPEN, 8L, 10);
+
+        assertEquals(List.of(loan), loans.getContent());
+        verifyNoInteractions(loanHistory, patronRepository);
+    }
+
+    @Test
+    void testGetPatronLoans_EmptyPageOfExistingPatron() {
+        when(loanHistory.findPatronLoans(1L, false, Long.MAX_VALUE, 1))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 1), false));
+        when(patronRepository.existsById(1L)).thenReturn(true);
+
+        Slice<BorrowingRecordDTOResponse> loans = patronService.getPatronLoans(1L, LoanStatus.ALL, null, 0);
+
+        assertFalse(loans.hasContent());
+    }
+
+    @Test
+    void testGetPatronLoans_PatronNotFound() {
+        when(loanHistory.findPatronLoans(1L, true, Long.MAX_VALUE, 50))
+                .thenReturn(new SliceImpl<>(List.of()));
+        when(patronRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(PatronNotFoundException.class,
+                () -> patronService.getPatronLoans(1L, LoanStatus.RETURNED, null, 50));
+    }
 }
@@ -0,0 +1,150 @@
+package com.example.librarymanagementsystem.serviceImpl;
+
+import com.example.librarymanagementsystem.archive.LoanHistory;
+import com.example.librarymanagementsystem.cache.SnapshotCacheLoaders;
+import com.example.librarymanagementsystem.catalog.BookCatalog;
+import com.example.librarymanagementsystem.configuration.CachingConfig;
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.repository.PatronRepository;
+import com.example.librarymanagementsystem.search.BookSearchIndex;
+import com.example.librarymanagementsystem.service.BookService;
+import com.example.librarymanagementsystem.service.PatronService;
+import com.example.librarymanagementsystem.stats.BorrowingStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Sends many concurrent reads of an uncached book or patron through the real cache to check that they are served by
+ * a single database read.
+ */
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false"}, showSql = false)
+@Import({BookServiceImpl.class, PatronServiceImpl.class, LoanHistory.class, CachingConfig.class,
+        SnapshotCacheLoaders.class, BookCatalog.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SingleFlightCacheLoadingTest {
+
+    private static final int READERS = 16;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private PatronService patronService;
+
+    @SpyBean
+    private BookRepository bookRepository;
+
+    @SpyBean
+    private PatronRepository patronRepository;
+
+    @MockBean
+    private BookSearchIndex bookSearchIndex;
+
+    @MockBean
+    private BorrowingStatistics borrowingStatistics;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.getCache("books").clear();
+        cacheManager.getCache("patrons").clear();
+        bookRepository.deleteAll();
+        patronRepository.deleteAll();
+    }
+
+    @Test
+    void testConcurrentMissesOnABookReadItOnce() throws Exception {
+        long id = bookRepository.save(new Book(null, "Title", "Author", 2001, "123-1234567890")).getId();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Answer<?> repository = mockingDetails(bookRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return repository.answer(invocation);
+        }).when(bookRepository).findById(any());
+
+        List<Object> read = readConcurrently(() -> bookService.getBookById(id), loading, release);
+
+        verify(bookRepository, times(1)).findById(id);
+        assertTrue(read.stream().allMatch(book -> book == read.get(0)));
+    }
+
+    @Test
+    void testConcurrentMissesOnAPatronReadItOnce() throws Exception {
+        long id = patronRepository.save(new Patron("Patron", "1234567890", "patron@example.com")).getId();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Answer<?> repository = mockingDetails(patronRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return repository.answer(invocation);
+        }).when(patronRepository).findById(any());
+
+        List<Object> read = readConcurrently(() -> patronService.getPatronById(id), loading, release);
+
+        verify(patronRepository, times(1)).findById(id);
+        assertTrue(read.stream().allMatch(patron -> patron == read.get(0)));
+    }
+
+    /**
+     * Starts the readers, holds the first database read until the others have had time to miss the cache as well,
+     * and returns what each reader got.
+     */
+    private static List<Object> readConcurrently(Callable<Object> read, CountDownLatch loading,
+                                                 CountDownLatch release) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> readers = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    return read.call();
+                }));
+            }
+            start.countDown();
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            release.countDown();
+            List<Object> results = new ArrayList<>();
+            for (Future<Object> reader : readers) {
+                results.add(reader.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.librarymanagementsystem.serviceImpl;
+
+import com.example.librarymanagementsystem.dto.StatsWindow;
+import com.example.librarymanagementsystem.dto.TopAuthorDTOResponse;
+import com.example.librarymanagementsystem.dto.TopBookDTOResponse;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.search.BookSearchView;
+import com.example.librarymanagementsystem.stats.BorrowingStatistics;
+import com.example.librarymanagementsystem.stats.BorrowingStatisticsVerifier;
+import com.example.librarymanagementsystem.stats.HeavyHitter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StatisticsServiceImplTest {
+
+    @Mock
+    private BorrowingStatistics borrowingStatistics;
+
+    @Mock
+    private BorrowingStatisticsVerifier borrowingStatisticsVerifier;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @InjectMocks
+    private StatisticsServiceImpl statisticsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testGetTopBooksAddsTitlesInOneQuery() {
+        when(borrowingStatistics.topBooks(StatsWindow.WEEK, 2))
+                .thenReturn(List.of(new HeavyHitter<>(7L, 12L, 1L), new HeavyHitter<>(3L, 9L, 0L)));
+        BookSearchView book = mock(BookSearchView.class);
+        when(book.getId()).thenReturn(7L);
+        when(book.getTitle()).thenReturn("Emma");
+        when(book.getAuthor()).thenReturn("Austen");
+        when(bookRepository.findViewsByIds(List.of(7L, 3L))).thenReturn(List.of(book));
+
+        List<TopBookDTOResponse> top = statisticsService.getTopBooks(StatsWindow.WEEK, 2);
+
+        assertEquals(List.of(new TopBookDTOResponse(7L, "Emma", "Austen", 12L, 1L),
+                new TopBookDTOResponse(3L, null, null, 9L, 0L)), top);
+        verify(bookRepository, times(1)).findViewsByIds(any());
+    }
+
+    @Test
+    void testGetTopBooksOfAnEmptyWindowSkipsTheQuery() {
+        when(borrowingStatistics.topBooks(StatsWindow.DAY, 1)).thenReturn(List.of());
+
+        assertTrue(statisticsService.getTopBooks(StatsWindow.DAY, 0).isEmpty());
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void testGetTopAuthors() {
+        when(borrowingStatistics.topAuthors(StatsWindow.MONTH, 100))
+                .thenReturn(List.of(new HeavyHitter<>("Austen", 40L, 2L)));
+
+        assertEquals(List.of(new TopAuthorDTOResponse("Austen", 40L, 2L)),
+                statisticsService.getTopAuthors(StatsWindow.MONTH, 100));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.librarymanagementsystem.snapshot;
+
+import com.example.librarymanagementsystem.entity.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSnapshotTest {
+
+    @Test
+    void testSnapshotsOfBooksByTheSameAuthorShareTheAuthorString() {
+        BookSnapshot first = BookSnapshot.of(new Book(1L, "Title", new String("Same Author"), 2001, "123-1234567890"));
+        BookSnapshot second = BookSnapshot.of(new Book(2L, "Other", new String("Same Author"), 2002, "123-0987654321"));
+
+        assertSame(first.author(), second.author());
+        assertNotSame(first.author(), BookSnapshot.of(new Book(3L, "Title", "Another Author", 2003,
+                "123-1111111111")).author());
+    }
+
+    @Test
+    void testSnapshotDoesNotFollowLaterChangesToTheEntity() {
+        Book book = new Book(1L, "Title", "Author", 2001, "123-1234567890", false);
+        BookSnapshot snapshot = BookSnapshot.of(book);
+
+        book.setBorrowed(true);
+        book.setTitle("Changed");
+
+        assertEquals(new BookSnapshot(1L, "Title", "Author", 2001, "123-1234567890", false), snapshot);
+    }
+
+    @Test
+    void testPoolReturnsOneInstancePerDistinctString() {
+        StringPool pool = new StringPool();
+
+        String pooled = pool.intern(new String("Author"));
+
+        assertSame(pooled, pool.intern(new String("Author")));
+        assertNull(pool.intern(null));
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    void testPoolHandsOutOneInstancePerStringUnderConcurrentLoad() throws Exception {
+        StringPool pool = new StringPool();
+        int threads = 8;
+        int distinct = 1_000;
+        Map<String, String> firstSeen = new ConcurrentHashMap<>();
+        List<String> mismatches = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int offset = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 50_000; i++) {
+                        String value = "Author " + (i * 31 + offset) % distinct;
+                        String pooled = pool.intern(value);
+                        // Every thread must get the instance the first thread to pool the value got.
+                        if (firstSeen.putIfAbsent(value, pooled) != null && firstSeen.get(value) != pooled) {
+                            mismatches.add(value);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of(), mismatches);
+        assertEquals(distinct, firstSeen.size());
+        assertEquals(distinct, pool.size());
+    }
+}
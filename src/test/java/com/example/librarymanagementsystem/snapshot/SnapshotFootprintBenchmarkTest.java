@@ -0,0 +1,78 @@
+package com.example.librarymanagementsystem.snapshot;
+
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.entity.Patron;
+import org.hibernate.collection.spi.PersistentSet;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the heap used per cached entry by detached entities, as the caches used to hold them, and by the
+ * snapshots that replace them. Every entity gets its own copy of its strings, as it would when read from the
+ * database. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SnapshotFootprintBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotFootprintBenchmarkTest.class);
+    private static final int ENTRIES = 200_000;
+    private static final int AUTHORS = 2_000;
+
+    @Test
+    void compareBookEntriesWithBookSnapshots() {
+        long entityBytes = bytesPerEntry(SnapshotFootprintBenchmarkTest::book);
+        long snapshotBytes = bytesPerEntry(i -> BookSnapshot.of(book(i)));
+
+        logger.info("Cached book: {} bytes as an entity, {} bytes as a snapshot", entityBytes, snapshotBytes);
+        assertTrue(snapshotBytes < entityBytes);
+    }
+
+    @Test
+    void comparePatronEntriesWithPatronSnapshots() {
+        long entityBytes = bytesPerEntry(SnapshotFootprintBenchmarkTest::patron);
+        long snapshotBytes = bytesPerEntry(i -> PatronSnapshot.of(patron(i)));
+
+        logger.info("Cached patron: {} bytes as an entity, {} bytes as a snapshot", entityBytes, snapshotBytes);
+        assertTrue(snapshotBytes < entityBytes);
+    }
+
+    private static Book book(int i) {
+        return new Book((long) i + 1_000, new String("Title " + i), new String("Author " + i % AUTHORS),
+                1900 + i % 120, String.format("978-%010d", i), false);
+    }
+
+    /**
+     * A patron as Hibernate detaches it, with its uninitialized collection of borrowing records.
+     */
+    private static Patron patron(int i) {
+        Patron patron = new Patron((long) i + 1_000, new String("Patron " + i), String.format("%010d", i),
+                "patron" + i + "@example.com");
+        patron.setBorrowingRecords(new PersistentSet<>());
+        return patron;
+    }
+
+    private static long bytesPerEntry(IntFunction<Object> entry) {
+        Object[] entries = new Object[ENTRIES];
+        long heapBefore = usedHeap();
+        for (int i = 0; i < ENTRIES; i++) {
+            entries[i] = entry.apply(i);
+        }
+        long heapAfter = usedHeap();
+        assertEquals(ENTRIES, entries.length);
+        return (heapAfter - heapBefore) / ENTRIES;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.librarymanagementsystem.stats;
+
+import com.example.librarymanagementsystem.dto.StatsAccuracyDTOResponse;
+import com.example.librarymanagementsystem.dto.StatsWindow;
+import com.example.librarymanagementsystem.entity.Book;
+import com.example.librarymanagementsystem.entity.Patron;
+import com.example.librarymanagementsystem.repository.BookRepository;
+import com.example.librarymanagementsystem.repository.BorrowingRecordRepository;
+import com.example.librarymanagementsystem.repository.PatronRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Loads fresh statistics for every test from a real database, counts new borrows on the background thread, and checks the estimates
+ * against the exact recompute.
+ */
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=false"}, showSql = false)
+@Import({BorrowingStatistics.class, BorrowingStatisticsInitializer.class, BorrowingStatisticsVerifier.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BorrowingStatisticsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Autowired
+    private BorrowingStatistics statistics;
+
+    @Autowired
+    private BorrowingStatisticsInitializer initializer;
+
+    @Autowired
+    private BorrowingStatisticsVerifier verifier;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    private long patronId;
+    private long first;
+    private long second;
+    private long third;
+
+    /**
+     * Borrows the first book (by Austen) 5 times two days ago, the second (by Bronte) 3 times ten days ago, and the
+     * third (also by Bronte) once, 40 days ago.
+     */
+    @BeforeEach
+    void setUp() {
+        patronId = patronRepository.save(new Patron("Patron", "1234567890", "patron@example.com")).getId();
+        first = bookRepository.save(new Book("Emma", "Austen", 1815, "123-0000000001", false)).getId();
+        second = bookRepository.save(new Book("Jane Eyre", "Bronte", 1847, "123-0000000002", false)).getId();
+        third = bookRepository.save(new Book("Villette", "Bronte", 1853, "123-0000000003", false)).getId();
+        borrow(first, 5, NOW.minusDays(2));
+        borrow(second, 3, NOW.minusDays(10));
+        borrow(third, 1, NOW.minusDays(40));
+        initializer.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        borrowingRecordRepository.deleteAll();
+        bookRepository.deleteAll();
+        patronRepository.deleteAll();
+    }
+
+    @Test
+    void testLoadedBorrowsAreRankedPerWindow() {
+        assertEquals(List.of(new HeavyHitter<>(first, 5L, 0L)), statistics.topBooks(StatsWindow.WEEK, 10));
+        assertEquals(List.of(new HeavyHitter<>(first, 5L, 0L), new HeavyHitter<>(second, 3L, 0L)),
+                statistics.topBooks(StatsWindow.MONTH, 10));
+        assertEquals(List.of(new HeavyHitter<>("Austen", 5L, 0L), new HeavyHitter<>("Bronte", 3L, 0L)),
+                statistics.topAuthors(StatsWindow.MONTH, 10));
+        assertTrue(statistics.topBooks(StatsWindow.DAY, 10).isEmpty());
+    }
+
+    @Test
+    void testNewBorrowsAreCountedOnceWithTheirAuthor() throws Exception {
+        long loadedRecordId = borrowingRecordRepository.findMaxId();
+        statistics.recordBorrow(new BorrowEvent(first, loadedRecordId, NOW, null));
+        for (long recordId : borrow(third, 2, NOW)) {
+            statistics.recordBorrow(new BorrowEvent(third, recordId, NOW, null));
+        }
+        awaitTotal(StatsWindow.MONTH, 10);
+
+        assertEquals(new HeavyHitter<>("Bronte", 5L, 0L), statistics.estimateAuthor("Bronte", StatsWindow.MONTH));
+        assertEquals(2, statistics.estimateBook(third, StatsWindow.DAY).estimatedCount());
+        assertEquals(5, statistics.estimateBook(first, StatsWindow.WEEK).estimatedCount());
+    }
+
+    @Test
+    void testEstimatesMatchTheExactRecompute() {
+        List<StatsAccuracyDTOResponse> reports = verifier.verify();
+
+        assertEquals(2 * StatsWindow.values().length, reports.size());
+        for (StatsAccuracyDTOResponse report : reports) {
+            assertEquals(1.0, report.getRecall(), report.toString());
+            assertEquals(0.0, report.getMaxRelativeError(), report.toString());
+            assertTrue(report.isWithinBounds(), report.toString());
+        }
+        assertEquals(reports, verifier.getLastReports());
+    }
+
+    @Test
+    void testBooksAndAuthorsNotBorrowedForTwoWindowsAreForgotten() {
+        AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2024-05-01T12:00:00Z"));
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+        };
+        BookRepository books = mock(BookRepository.class);
+        BorrowingStatistics retained = new BorrowingStatistics(books, 256, 4, 100, 100, clock);
+        for (long bookId = 1; bookId <= 100; bookId++) {
+            retained.load(Stream.of(borrowOn(clock, bookId, "Author " + bookId)));
+        }
+        assertEquals(100, retained.rememberedBooks());
+        assertEquals(100, retained.rememberedAuthors());
+
+        // A month later the authors of the books are still known, and a book borrowed again keeps its author.
+        now.set(now.get().plus(Duration.ofDays(StatsWindow.MONTH.days())));
+        retained.load(Stream.of(borrowOn(clock, 1, null)));
+        assertEquals(101, retained.rememberedBooks(), "the book borrowed again is in both generations");
+        assertEquals(List.of(new HeavyHitter<>("Author 1", 1L, 0L)), retained.topAuthors(StatsWindow.DAY, 10));
+
+        // Another month later only the book borrowed in between is still remembered.
+        now.set(now.get().plus(Duration.ofDays(StatsWindow.MONTH.days())));
+        retained.load(Stream.of(borrowOn(clock, 101, "Author 101")));
+        assertEquals(2, retained.rememberedBooks());
+        assertEquals(2, retained.rememberedAuthors());
+        assertEquals(List.of(new HeavyHitter<>("Author 101", 1L, 0L)), retained.topAuthors(StatsWindow.DAY, 10));
+        verify(books, never()).findViewsByIds(any());
+    }
+
+    private static BorrowEvent borrowOn(Clock clock, long bookId, String author) {
+        return new BorrowEvent(bookId, bookId, LocalDateTime.now(clock), author);
+    }
+
+    private List<Long> borrow(long bookId, int times, LocalDateTime borrowDateTime) {
+        return borrowingRecordRepository.insertAll(patronId, Collections.nCopies(times, bookId), borrowDateTime,
+                borrowDateTime.plusDays(14));
+    }
+
+    private void awaitTotal(StatsWindow window, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (statistics.totalBorrows(window) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, statistics.totalBorrows(window));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.librarymanagementsystem.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowedHeavyHittersTest {
+
+    private static final long TODAY = 20_000;
+
+    @Test
+    void testTopKeysOfASkewedStreamAreFoundWithinTheirBounds() {
+        WindowedHeavyHitters hitters = new WindowedHeavyHitters(30, 1024, 4, 100);
+        Map<Long, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            // Zipf-like: key k is drawn with a probability roughly proportional to 1 / k.
+            long key = (long) Math.floor(Math.exp(random.nextDouble() * Math.log(50_000)));
+            long day = TODAY - random.nextInt(7);
+            hitters.add(key, day);
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        List<HeavyHitter<Long>> top = hitters.top(7, TODAY, 10);
+        List<Long> exactTop = exact.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                .limit(10)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        assertEquals(exactTop, top.stream().map(HeavyHitter::key).toList());
+        for (HeavyHitter<Long> hitter : top) {
+            long count = exact.get(hitter.key());
+            assertTrue(count <= hitter.estimatedCount());
+            assertTrue(count >= hitter.estimatedCount() - hitter.maxError());
+        }
+        assertEquals(200_000, hitters.total(7, TODAY));
+    }
+
+    @Test
+    void testWindowsOnlyCountTheirOwnDays() {
+        WindowedHeavyHitters hitters = new WindowedHeavyHitters(30, 64, 2, 10);
+        for (int i = 0; i < 5; i++) {
+            hitters.add(1L, TODAY - 20);
+        }
+        hitters.add(2L, TODAY);
+        hitters.add(2L, TODAY - 1);
+
+        assertEquals(List.of(new HeavyHitter<>(2L, 2L, 0L)), hitters.top(7, TODAY, 10));
+        assertEquals(List.of(1L, 2L), hitters.top(30, TODAY, 10).stream().map(HeavyHitter::key).toList());
+        assertEquals(5, hitters.estimate(1L, 30, TODAY).estimatedCount());
+        assertEquals(0, hitters.estimate(1L, 7, TODAY).estimatedCount());
+    }
+
+    @Test
+    void testOldDaysAreRecycledAndLateArrivalsDropped() {
+        WindowedHeavyHitters hitters = new WindowedHeavyHitters(30, 64, 2, 10);
+        hitters.add(1L, TODAY - 30);
+        hitters.add(2L, TODAY);
+        hitters.add(3L, TODAY - 30);
+
+        assertEquals(List.of(2L), hitters.top(30, TODAY, 10).stream().map(HeavyHitter::key).toList());
+        assertEquals(1, hitters.total(30, TODAY));
+    }
+
+    @Test
+    void testEvictedKeysInheritTheSmallestCountAsError() {
+        WindowedHeavyHitters hitters = new WindowedHeavyHitters(1, 1024, 4, 2);
+        hitters.add(1L, TODAY);
+        hitters.add(1L, TODAY);
+        hitters.add(1L, TODAY);
+        hitters.add(2L, TODAY);
+        hitters.add(3L, TODAY);
+
+        List<HeavyHitter<Long>> top = hitters.top(1, TODAY, 2);
+        top = top.stream().sorted(Comparator.comparing(HeavyHitter::key)).toList();
+
+        assertEquals(new HeavyHitter<>(1L, 3L, 0L), top.get(0));
+        // Key 3 took over the counter of key 2 with a count of 2 and an error of 1; the sketch caps its estimate at 1.
+        assertEquals(new HeavyHitter<>(3L, 1L, 0L), top.get(1));
+    }
+}